@@ -0,0 +1,95 @@
+/**
+ * Copyright 2011-2021 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.runtime.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.asakusafw.runtime.util.ByteArrayComparator;
+import com.asakusafw.runtime.util.ByteArrayComparators;
+
+/**
+ * Benchmarks for {@link ByteArrayComparators}.
+ * Each pair of byte arrays shares a random length of common prefix.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ByteArrayComparatorBenchmark {
+
+    static final int BATCH_SIZE = 256;
+
+    /**
+     * The length of each byte array.
+     */
+    @Param({ "8", "32", "256" })
+    public int length;
+
+    private ByteArrayComparator comparator;
+
+    private byte[][] lefts;
+
+    private byte[][] rights;
+
+    /**
+     * Prepares the benchmark data.
+     */
+    @Setup
+    public void setup() {
+        comparator = ByteArrayComparators.getInstance();
+        Samples samples = new Samples(6502, 0);
+        lefts = new byte[BATCH_SIZE][];
+        rights = new byte[BATCH_SIZE][];
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            lefts[i] = samples.nextBytes(new byte[0], length);
+            rights[i] = samples.nextBytes(lefts[i], length);
+        }
+    }
+
+    /**
+     * Benchmarks for {@link ByteArrayComparator#compare(byte[], int, int, byte[], int, int)}.
+     * @return the comparison results
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public int compare() {
+        ByteArrayComparator cmp = comparator;
+        byte[][] ls = lefts;
+        byte[][] rs = rights;
+        int result = 0;
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            byte[] l = ls[i];
+            byte[] r = rs[i];
+            result += cmp.compare(l, 0, l.length, r, 0, r.length);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,175 @@
+/**
+ * Copyright 2011-2021 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.runtime.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.asakusafw.runtime.io.util.DataBuffer;
+
+/**
+ * Benchmarks for primitive I/O of {@link DataBuffer}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DataBufferBenchmark {
+
+    static final int BATCH_SIZE = 1024;
+
+    private final DataBuffer buffer = new DataBuffer();
+
+    private int[] ints;
+
+    private long[] longs;
+
+    private byte[] chunk;
+
+    private byte[] intBytes;
+
+    private byte[] longBytes;
+
+    /**
+     * Prepares the benchmark data.
+     * @throws IOException if failed to prepare
+     */
+    @Setup
+    public void setup() throws IOException {
+        Samples samples = new Samples(6502, 0);
+        ints = new int[BATCH_SIZE];
+        longs = new long[BATCH_SIZE];
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            ints[i] = samples.nextInt().get();
+            longs[i] = samples.nextLong().get();
+        }
+        chunk = samples.nextBytes(new byte[0], 64);
+        buffer.reset(0, 0);
+        for (int value : ints) {
+            buffer.writeInt(value);
+        }
+        intBytes = copy(buffer);
+        buffer.reset(0, 0);
+        for (long value : longs) {
+            buffer.writeLong(value);
+        }
+        longBytes = copy(buffer);
+        buffer.ensureCapacity(BATCH_SIZE * chunk.length);
+    }
+
+    private static byte[] copy(DataBuffer buffer) {
+        byte[] results = new byte[buffer.getWritePosition()];
+        System.arraycopy(buffer.getData(), 0, results, 0, results.length);
+        return results;
+    }
+
+    /**
+     * Benchmarks for {@link DataBuffer#writeInt(int)}.
+     * @return the written size
+     * @throws IOException if failed
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public int writeInt() throws IOException {
+        DataBuffer b = buffer;
+        b.reset(0, 0);
+        for (int value : ints) {
+            b.writeInt(value);
+        }
+        return b.getWritePosition();
+    }
+
+    /**
+     * Benchmarks for {@link DataBuffer#readInt()}.
+     * @return the sum of values
+     * @throws IOException if failed
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public int readInt() throws IOException {
+        DataBuffer b = buffer;
+        b.reset(intBytes, 0, intBytes.length);
+        int result = 0;
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            result += b.readInt();
+        }
+        return result;
+    }
+
+    /**
+     * Benchmarks for {@link DataBuffer#writeLong(long)}.
+     * @return the written size
+     * @throws IOException if failed
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public int writeLong() throws IOException {
+        DataBuffer b = buffer;
+        b.reset(0, 0);
+        for (long value : longs) {
+            b.writeLong(value);
+        }
+        return b.getWritePosition();
+    }
+
+    /**
+     * Benchmarks for {@link DataBuffer#readLong()}.
+     * @return the sum of values
+     * @throws IOException if failed
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public long readLong() throws IOException {
+        DataBuffer b = buffer;
+        b.reset(longBytes, 0, longBytes.length);
+        long result = 0;
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            result += b.readLong();
+        }
+        return result;
+    }
+
+    /**
+     * Benchmarks for {@link DataBuffer#write(byte[], int, int)}.
+     * @return the written size
+     * @throws IOException if failed
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public int writeBytes() throws IOException {
+        DataBuffer b = buffer;
+        byte[] c = chunk;
+        b.reset(0, 0);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            b.write(c, 0, c.length);
+        }
+        return b.getWritePosition();
+    }
+}
@@ -0,0 +1,132 @@
+/**
+ * Copyright 2011-2021 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.runtime.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.asakusafw.runtime.value.DateUtil;
+
+/**
+ * Benchmarks for parsing and formatting dates in {@link DateUtil}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DateUtilBenchmark {
+
+    static final int BATCH_SIZE = 1024;
+
+    private String[] dates;
+
+    private String[] dateTimes;
+
+    private int[] days;
+
+    private long[] seconds;
+
+    private final StringBuilder buffer = new StringBuilder();
+
+    /**
+     * Prepares the benchmark data.
+     */
+    @Setup
+    public void setup() {
+        Samples samples = new Samples(6502, 0);
+        dates = new String[BATCH_SIZE];
+        dateTimes = new String[BATCH_SIZE];
+        days = new int[BATCH_SIZE];
+        seconds = new long[BATCH_SIZE];
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            dates[i] = samples.nextDateString('-');
+            dateTimes[i] = samples.nextDateTimeString('-', ' ', ':');
+            days[i] = DateUtil.parseDate(dates[i], '-');
+            seconds[i] = DateUtil.parseDateTime(dateTimes[i], '-', ' ', ':');
+        }
+    }
+
+    /**
+     * Benchmarks for {@link DateUtil#parseDate(CharSequence, char)}.
+     * @return the sum of results
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public int parseDate() {
+        int result = 0;
+        for (String value : dates) {
+            result += DateUtil.parseDate(value, '-');
+        }
+        return result;
+    }
+
+    /**
+     * Benchmarks for {@link DateUtil#parseDateTime(CharSequence, char, char, char)}.
+     * @return the sum of results
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public long parseDateTime() {
+        long result = 0;
+        for (String value : dateTimes) {
+            result += DateUtil.parseDateTime(value, '-', ' ', ':');
+        }
+        return result;
+    }
+
+    /**
+     * Benchmarks for {@link DateUtil#toDateString(int, char, StringBuilder)}.
+     * @return the total length
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public int toDateString() {
+        StringBuilder buf = buffer;
+        buf.setLength(0);
+        for (int value : days) {
+            DateUtil.toDateString(value, '-', buf);
+        }
+        return buf.length();
+    }
+
+    /**
+     * Benchmarks for {@link DateUtil#toDateTimeString(long, char, char, char, StringBuilder)}.
+     * @return the total length
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public int toDateTimeString() {
+        StringBuilder buf = buffer;
+        buf.setLength(0);
+        for (long value : seconds) {
+            DateUtil.toDateTimeString(value, '-', ' ', ':', buf);
+        }
+        return buf.length();
+    }
+}
@@ -0,0 +1,167 @@
+/**
+ * Copyright 2011-2021 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.runtime.benchmark;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import com.asakusafw.runtime.value.DateTimeOption;
+import com.asakusafw.runtime.value.DateUtil;
+import com.asakusafw.runtime.value.DecimalOption;
+import com.asakusafw.runtime.value.IntOption;
+import com.asakusafw.runtime.value.LongOption;
+import com.asakusafw.runtime.value.StringOption;
+
+/**
+ * Generates benchmark data which resembles typical business records.
+ * The generated values are deterministic for each seed.
+ */
+final class Samples {
+
+    private static final String ASCII = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_ "; //$NON-NLS-1$
+
+    private static final String WIDE = "\u3042\u3044\u3046\u3048\u304a\u6771\u4eac\u5927\u962a\u682a\u5f0f\u4f1a\u793e"; //$NON-NLS-1$
+
+    private static final long BASE_SECONDS = DateUtil.getDayFromDate(2010, 1, 1) * 86400L;
+
+    private static final long RANGE_SECONDS = 10L * 365 * 86400;
+
+    private final Random random;
+
+    private final double nullRatio;
+
+    Samples(long seed, double nullRatio) {
+        this.random = new Random(seed);
+        this.nullRatio = nullRatio;
+    }
+
+    private boolean isNull() {
+        return random.nextDouble() < nullRatio;
+    }
+
+    /**
+     * Returns a new {@link IntOption}, which is mostly small (e.g. quantities or codes).
+     * @return the created value
+     */
+    IntOption nextInt() {
+        IntOption result = new IntOption();
+        if (isNull() == false) {
+            int bits = random.nextInt(100) < 90 ? 10 : 31;
+            result.modify(random.nextInt(1 << bits) - (1 << (bits - 4)));
+        }
+        return result;
+    }
+
+    /**
+     * Returns a new {@link LongOption}, which is like surrogate keys.
+     * @return the created value
+     */
+    LongOption nextLong() {
+        LongOption result = new LongOption();
+        if (isNull() == false) {
+            result.modify(1_000_000_000L + (random.nextLong() & 0xffffffL));
+        }
+        return result;
+    }
+
+    /**
+     * Returns a new {@link DecimalOption}, which is like prices or amounts.
+     * @return the created value
+     */
+    DecimalOption nextDecimal() {
+        DecimalOption result = new DecimalOption();
+        if (isNull() == false) {
+            int scale = random.nextInt(100) < 80 ? 0 : 2;
+            long unscaled = (long) Math.exp(random.nextDouble() * 16) * (random.nextInt(100) < 5 ? -1 : 1);
+            result.modify(BigDecimal.valueOf(unscaled, scale));
+        }
+        return result;
+    }
+
+    /**
+     * Returns a new {@link StringOption}, which is like names or codes.
+     * @return the created value
+     */
+    StringOption nextString() {
+        StringOption result = new StringOption();
+        if (isNull() == false) {
+            int length = Math.min(256, (int) Math.exp(1 + random.nextDouble() * 3));
+            String chars = random.nextInt(100) < 20 ? WIDE : ASCII;
+            StringBuilder buf = new StringBuilder(length);
+            for (int i = 0; i < length; i++) {
+                buf.append(chars.charAt(random.nextInt(chars.length())));
+            }
+            result.modify(buf.toString());
+        }
+        return result;
+    }
+
+    /**
+     * Returns a new {@link DateTimeOption}, which is in recent years.
+     * @return the created value
+     */
+    DateTimeOption nextDateTime() {
+        DateTimeOption result = new DateTimeOption();
+        if (isNull() == false) {
+            result.modify(BASE_SECONDS + (long) (random.nextDouble() * RANGE_SECONDS));
+        }
+        return result;
+    }
+
+    /**
+     * Returns a new byte array whose contents share a prefix with the given one.
+     * @param prefix the prefix contents
+     * @param length the array length
+     * @return the created array
+     */
+    byte[] nextBytes(byte[] prefix, int length) {
+        byte[] result = new byte[length];
+        int shared = Math.min(prefix.length, random.nextInt(length + 1));
+        System.arraycopy(prefix, 0, result, 0, shared);
+        for (int i = shared; i < length; i++) {
+            result[i] = (byte) random.nextInt(256);
+        }
+        return result;
+    }
+
+    /**
+     * Returns a new date string.
+     * @param separator the date segment separator
+     * @return the created string
+     */
+    String nextDateString(char separator) {
+        StringBuilder buf = new StringBuilder();
+        DateUtil.toDateString(DateUtil.getDayFromSeconds(nextSeconds()), separator, buf);
+        return buf.toString();
+    }
+
+    /**
+     * Returns a new date-time string.
+     * @param dateSeparator the date segment separator
+     * @param dateTimeSeparator the separator between date and time
+     * @param timeSeparator the time segment separator
+     * @return the created string
+     */
+    String nextDateTimeString(char dateSeparator, char dateTimeSeparator, char timeSeparator) {
+        StringBuilder buf = new StringBuilder();
+        DateUtil.toDateTimeString(nextSeconds(), dateSeparator, dateTimeSeparator, timeSeparator, buf);
+        return buf.toString();
+    }
+
+    private long nextSeconds() {
+        return BASE_SECONDS + (long) (random.nextDouble() * RANGE_SECONDS);
+    }
+}
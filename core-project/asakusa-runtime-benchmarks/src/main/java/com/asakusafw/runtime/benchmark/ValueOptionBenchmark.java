@@ -0,0 +1,210 @@
+/**
+ * Copyright 2011-2021 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.runtime.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.asakusafw.runtime.io.util.DataBuffer;
+import com.asakusafw.runtime.value.DateTimeOption;
+import com.asakusafw.runtime.value.DecimalOption;
+import com.asakusafw.runtime.value.IntOption;
+import com.asakusafw.runtime.value.LongOption;
+import com.asakusafw.runtime.value.StringOption;
+import com.asakusafw.runtime.value.ValueOption;
+
+/**
+ * Benchmarks for serialization and raw comparison of {@link ValueOption}s.
+ * Each invocation processes a batch of values, and the reported scores are per value.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValueOptionBenchmark {
+
+    static final int BATCH_SIZE = 1024;
+
+    /**
+     * The target value type.
+     */
+    @Param({ "int", "long", "decimal", "string", "datetime" })
+    public String type;
+
+    /**
+     * The ratio of {@code null} values.
+     */
+    @Param({ "0.05" })
+    public double nullRatio;
+
+    private ValueOption<?>[] values;
+
+    private ValueOption<?> target;
+
+    private RawComparator comparator;
+
+    private final DataBuffer output = new DataBuffer();
+
+    private final DataBuffer input = new DataBuffer();
+
+    private byte[] bytes;
+
+    private int[] offsets;
+
+    /**
+     * Prepares the benchmark data.
+     * @throws IOException if failed to prepare
+     */
+    @Setup
+    public void setup() throws IOException {
+        Samples samples = new Samples(6502, nullRatio);
+        Supplier<ValueOption<?>> generator;
+        switch (type) {
+        case "int": //$NON-NLS-1$
+            generator = samples::nextInt;
+            target = new IntOption();
+            comparator = IntOption::compareBytes;
+            break;
+        case "long": //$NON-NLS-1$
+            generator = samples::nextLong;
+            target = new LongOption();
+            comparator = LongOption::compareBytes;
+            break;
+        case "decimal": //$NON-NLS-1$
+            generator = samples::nextDecimal;
+            target = new DecimalOption();
+            comparator = DecimalOption::compareBytes;
+            break;
+        case "string": //$NON-NLS-1$
+            generator = samples::nextString;
+            target = new StringOption();
+            comparator = StringOption::compareBytes;
+            break;
+        case "datetime": //$NON-NLS-1$
+            generator = samples::nextDateTime;
+            target = new DateTimeOption();
+            comparator = DateTimeOption::compareBytes;
+            break;
+        default:
+            throw new IllegalArgumentException(type);
+        }
+        values = new ValueOption<?>[BATCH_SIZE];
+        offsets = new int[BATCH_SIZE + 1];
+        DataBuffer buffer = new DataBuffer();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            values[i] = generator.get();
+            offsets[i] = buffer.getWritePosition();
+            values[i].write(buffer);
+        }
+        offsets[BATCH_SIZE] = buffer.getWritePosition();
+        bytes = new byte[buffer.getWritePosition()];
+        System.arraycopy(buffer.getData(), 0, bytes, 0, bytes.length);
+    }
+
+    /**
+     * Benchmarks for {@code write(DataOutput)}.
+     * @return the written size
+     * @throws IOException if failed
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public int write() throws IOException {
+        DataBuffer buffer = output;
+        buffer.reset(0, 0);
+        for (ValueOption<?> value : values) {
+            value.write(buffer);
+        }
+        return buffer.getWritePosition();
+    }
+
+    /**
+     * Benchmarks for {@code readFields(DataInput)}.
+     * @param blackhole the black hole
+     * @throws IOException if failed
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void readFields(Blackhole blackhole) throws IOException {
+        DataBuffer buffer = input;
+        buffer.reset(bytes, 0, bytes.length);
+        ValueOption<?> t = target;
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            t.readFields(buffer);
+            blackhole.consume(t);
+        }
+    }
+
+    /**
+     * Benchmarks for {@code restore(byte[], int, int)}.
+     * @param blackhole the black hole
+     * @return the restored size
+     * @throws IOException if failed
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public int restore(Blackhole blackhole) throws IOException {
+        byte[] b = bytes;
+        ValueOption<?> t = target;
+        int offset = 0;
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            offset += t.restore(b, offset, b.length);
+            blackhole.consume(t);
+        }
+        return offset;
+    }
+
+    /**
+     * Benchmarks for {@code compareBytes(byte[], int, int, byte[], int, int)} between adjacent values.
+     * @return the comparison results
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE - 1)
+    public int compareBytes() {
+        byte[] b = bytes;
+        int[] o = offsets;
+        RawComparator cmp = comparator;
+        int result = 0;
+        for (int i = 0, n = BATCH_SIZE - 1; i < n; i++) {
+            result += cmp.compare(
+                    b, o[i], o[i + 1] - o[i],
+                    b, o[i + 1], o[i + 2] - o[i + 1]);
+        }
+        return result;
+    }
+
+    @FunctionalInterface
+    private interface RawComparator {
+
+        int compare(byte[] b1, int s1, int l1, byte[] b2, int s2, int l2);
+    }
+}
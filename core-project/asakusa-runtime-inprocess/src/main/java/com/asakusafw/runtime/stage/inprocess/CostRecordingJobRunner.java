@@ -0,0 +1,122 @@
+/**
+ * Copyright 2011-2021 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.runtime.stage.inprocess;
+
+import java.io.IOException;
+import java.text.MessageFormat;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.mapreduce.Counter;
+import org.apache.hadoop.mapreduce.Counters;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.TaskCounter;
+
+import com.asakusafw.runtime.mapreduce.simple.SimpleJobRunner;
+import com.asakusafw.runtime.stage.JobRunner;
+import com.asakusafw.runtime.stage.inprocess.StageCostEstimator.Mode;
+
+/**
+ * A {@link JobRunner} which executes jobs in the mode decided by {@link InProcessStageConfigurator},
+ * and then records their runtime statistics into the {@link StageCostEstimator}.
+ * @since 0.10.5
+ */
+public class CostRecordingJobRunner implements JobRunner {
+
+    static final Log LOG = LogFactory.getLog(CostRecordingJobRunner.class);
+
+    @Override
+    public boolean run(Job job) throws IOException, InterruptedException, ClassNotFoundException {
+        Configuration conf = job.getConfiguration();
+        Mode mode = InProcessStageConfigurator.getSelectedMode(conf);
+        long start = System.currentTimeMillis();
+        boolean succeed;
+        if (mode == Mode.IN_PROCESS) {
+            succeed = new SimpleJobRunner().run(job);
+        } else {
+            job.submit();
+            LOG.info(MessageFormat.format(
+                    "starting job using {0}: {1} ({2})",
+                    this,
+                    job.getJobID(),
+                    job.getJobName()));
+            succeed = job.waitForCompletion(true);
+        }
+        long elapsed = System.currentTimeMillis() - start;
+        if (succeed) {
+            record(job, mode, elapsed);
+        }
+        return succeed;
+    }
+
+    private void record(Job job, Mode mode, long elapsed) throws InterruptedException {
+        Configuration conf = job.getConfiguration();
+        StageStatistics statistics = collect(job, mode, elapsed);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(MessageFormat.format(
+                    "recording stage statistics: job={0}, statistics={1}", //$NON-NLS-1$
+                    job.getJobName(),
+                    statistics));
+        }
+        try {
+            StageCostEstimator estimator = InProcessStageConfigurator.newEstimator(conf);
+            if (estimator != null) {
+                estimator.record(job, statistics);
+            }
+        } catch (IOException | RuntimeException e) {
+            LOG.warn(MessageFormat.format(
+                    "failed to record stage statistics: {0}",
+                    job.getJobName()), e);
+        }
+    }
+
+    private static StageStatistics collect(Job job, Mode mode, long elapsed) throws InterruptedException {
+        long inputSize = InProcessStageConfigurator.getEstimatedInputSize(job.getConfiguration());
+        if (mode == Mode.IN_PROCESS) {
+            // SimpleJobRunner does not provide any actual counters
+            return new StageStatistics(mode, elapsed, inputSize, -1L, -1L, -1L);
+        }
+        Counters counters;
+        try {
+            counters = job.getCounters();
+        } catch (IOException e) {
+            LOG.debug("failed to obtain job counters", e); //$NON-NLS-1$
+            counters = null;
+        }
+        if (counters == null) {
+            return new StageStatistics(mode, elapsed, inputSize, -1L, -1L, -1L);
+        }
+        TaskCounter output = job.getNumReduceTasks() == 0
+                ? TaskCounter.MAP_OUTPUT_RECORDS
+                : TaskCounter.REDUCE_OUTPUT_RECORDS;
+        return new StageStatistics(
+                mode, elapsed, inputSize,
+                getValue(counters, TaskCounter.MAP_INPUT_RECORDS),
+                getValue(counters, output),
+                job.getNumReduceTasks() == 0 ? 0L : getValue(counters, TaskCounter.MAP_OUTPUT_MATERIALIZED_BYTES));
+    }
+
+    private static long getValue(Counters counters, TaskCounter name) {
+        Counter counter = counters.findCounter(name);
+        return counter == null ? -1L : counter.getValue();
+    }
+
+    @Override
+    public String toString() {
+        return "Cost recording job runner"; //$NON-NLS-1$
+    }
+}
@@ -0,0 +1,262 @@
+/**
+ * Copyright 2011-2021 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.runtime.stage.inprocess;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.text.MessageFormat;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.UUID;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.conf.Configured;
+import org.apache.hadoop.fs.FileContext;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Options;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapreduce.Job;
+
+import com.asakusafw.runtime.stage.StageConstants;
+
+/**
+ * An implementation of {@link StageCostEstimator} which decides the execution mode from the past executions.
+ * This records the latest statistics of each execution mode into
+ * <code>&lt;{@link #KEY_PATH}&gt;/&lt;batch-ID&gt;/&lt;flow-ID&gt;/&lt;stage-ID&gt;.properties</code>,
+ * and then decides the execution mode of the next run as following:
+ * <ul>
+ * <li> if both modes were recorded, chooses the faster one </li>
+ * <li> if only in-process mode was recorded, chooses cluster mode only if it is slower than
+ *      {@link #KEY_EXPLORE_THRESHOLD} </li>
+ * <li> if only cluster mode was recorded, chooses cluster mode if its shuffle size exceeds
+ *      {@link #KEY_SHUFFLE_LIMIT} </li>
+ * <li> otherwise, keeps the default execution mode </li>
+ * </ul>
+ * The elapsed time of in-process executions is predicted proportionally to the current input size.
+ * On the other hand, that of cluster executions is used as is, because it is mainly dominated
+ * by the job scheduling overhead.
+ * @since 0.10.5
+ */
+public class HistoryStageCostEstimator extends Configured implements StageCostEstimator {
+
+    static final Log LOG = LogFactory.getLog(HistoryStageCostEstimator.class);
+
+    private static final String KEY_PREFIX = "com.asakusafw.inprocess.history."; //$NON-NLS-1$
+
+    /**
+     * Hadoop property key of the base path of the history files.
+     */
+    public static final String KEY_PATH = KEY_PREFIX + "path"; //$NON-NLS-1$
+
+    /**
+     * Hadoop property key of the max predicted elapsed time (in milliseconds) of in-process executions.
+     * If the predicted time exceeds this, the next execution tries cluster mode.
+     */
+    public static final String KEY_EXPLORE_THRESHOLD = KEY_PREFIX + "explore"; //$NON-NLS-1$
+
+    /**
+     * Hadoop property key of the max shuffle size (in bytes) for in-process executions.
+     * If the recorded shuffle size of cluster executions exceeds this, the stage keeps cluster mode.
+     * If this is negative, this restriction is disabled.
+     */
+    public static final String KEY_SHUFFLE_LIMIT = KEY_PREFIX + "shuffle"; //$NON-NLS-1$
+
+    static final long DEFAULT_EXPLORE_THRESHOLD = 60_000L;
+
+    static final long DEFAULT_SHUFFLE_LIMIT = -1L;
+
+    private static final String EXTENSION = ".properties"; //$NON-NLS-1$
+
+    private static final String KEY_ELAPSED = "elapsed"; //$NON-NLS-1$
+
+    private static final String KEY_INPUT_SIZE = "inputSize"; //$NON-NLS-1$
+
+    private static final String KEY_INPUT_RECORDS = "inputRecords"; //$NON-NLS-1$
+
+    private static final String KEY_OUTPUT_RECORDS = "outputRecords"; //$NON-NLS-1$
+
+    private static final String KEY_SHUFFLE_BYTES = "shuffleBytes"; //$NON-NLS-1$
+
+    @Override
+    public Mode estimate(Job job, long estimatedInputSize, Mode defaultMode) throws IOException {
+        Path path = getHistoryPath(job);
+        if (path == null) {
+            return defaultMode;
+        }
+        Properties history;
+        try {
+            history = load(path);
+        } catch (IOException e) {
+            LOG.warn(MessageFormat.format(
+                    "failed to load stage history: {0}",
+                    path), e);
+            return defaultMode;
+        }
+        Configuration conf = job.getConfiguration();
+        Mode result = decide(
+                find(history, Mode.IN_PROCESS),
+                find(history, Mode.CLUSTER),
+                estimatedInputSize,
+                defaultMode,
+                conf.getLong(KEY_EXPLORE_THRESHOLD, DEFAULT_EXPLORE_THRESHOLD),
+                conf.getLong(KEY_SHUFFLE_LIMIT, DEFAULT_SHUFFLE_LIMIT));
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(MessageFormat.format(
+                    "estimated execution mode from history: job={0}, size={1}, default={2}, result={3}", //$NON-NLS-1$
+                    job.getJobName(),
+                    estimatedInputSize,
+                    defaultMode,
+                    result));
+        }
+        return result;
+    }
+
+    static Mode decide(
+            StageStatistics local, StageStatistics cluster,
+            long inputSize, Mode defaultMode,
+            long exploreThreshold, long shuffleLimit) {
+        if (local != null && cluster != null) {
+            return predict(local, inputSize) <= cluster.getElapsedTime() ? Mode.IN_PROCESS : Mode.CLUSTER;
+        } else if (local != null) {
+            return predict(local, inputSize) <= exploreThreshold ? Mode.IN_PROCESS : Mode.CLUSTER;
+        } else if (cluster != null) {
+            if (defaultMode == Mode.IN_PROCESS && shuffleLimit >= 0L && cluster.getShuffleBytes() > shuffleLimit) {
+                return Mode.CLUSTER;
+            }
+        }
+        return defaultMode;
+    }
+
+    private static long predict(StageStatistics statistics, long inputSize) {
+        long elapsed = statistics.getElapsedTime();
+        long recordedSize = statistics.getInputSize();
+        if (inputSize < 0L || recordedSize <= 0L) {
+            return elapsed;
+        }
+        return (long) (elapsed * ((double) inputSize / recordedSize));
+    }
+
+    @Override
+    public void record(Job job, StageStatistics statistics) throws IOException {
+        Path path = getHistoryPath(job);
+        if (path == null) {
+            return;
+        }
+        Properties history = load(path);
+        String prefix = getPrefix(statistics.getMode());
+        history.setProperty(prefix + KEY_ELAPSED, String.valueOf(statistics.getElapsedTime()));
+        history.setProperty(prefix + KEY_INPUT_SIZE, String.valueOf(statistics.getInputSize()));
+        history.setProperty(prefix + KEY_INPUT_RECORDS, String.valueOf(statistics.getInputRecords()));
+        history.setProperty(prefix + KEY_OUTPUT_RECORDS, String.valueOf(statistics.getOutputRecords()));
+        history.setProperty(prefix + KEY_SHUFFLE_BYTES, String.valueOf(statistics.getShuffleBytes()));
+        store(path, history);
+    }
+
+    private Path getHistoryPath(Job job) {
+        Configuration conf = job.getConfiguration();
+        String base = conf.get(KEY_PATH);
+        String batchId = conf.get(StageConstants.PROP_BATCH_ID);
+        String flowId = conf.get(StageConstants.PROP_FLOW_ID);
+        String stageId = conf.get(StageConstants.PROP_STAGE_ID);
+        if (base == null || batchId == null || flowId == null || stageId == null) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(MessageFormat.format(
+                        "stage history is not available: " //$NON-NLS-1$
+                        + "job={0}, path={1}, batchId={2}, flowId={3}, stageId={4}", //$NON-NLS-1$
+                        job.getJobName(),
+                        base,
+                        batchId,
+                        flowId,
+                        stageId));
+            }
+            return null;
+        }
+        return new Path(new Path(new Path(base, batchId), flowId), stageId + EXTENSION);
+    }
+
+    private Properties load(Path path) throws IOException {
+        Properties results = new Properties();
+        FileSystem fs = path.getFileSystem(getConf());
+        if (fs.exists(path) == false) {
+            return results;
+        }
+        try (InputStream input = fs.open(path)) {
+            results.load(input);
+        }
+        return results;
+    }
+
+    private void store(Path path, Properties history) throws IOException {
+        FileSystem fs = path.getFileSystem(getConf());
+        Path temporary = new Path(path.getParent(), String.format(
+                ".%s-%s", //$NON-NLS-1$
+                path.getName(),
+                UUID.randomUUID()));
+        boolean succeed = false;
+        try {
+            try (OutputStream output = fs.create(temporary, true)) {
+                history.store(output, null);
+            }
+            // replaces the existing history atomically, so that concurrent readers never miss it
+            FileContext.getFileContext(path.toUri(), getConf()).rename(temporary, path, Options.Rename.OVERWRITE);
+            succeed = true;
+        } finally {
+            if (succeed == false) {
+                fs.delete(temporary, false);
+            }
+        }
+    }
+
+    private static StageStatistics find(Properties history, Mode mode) {
+        String prefix = getPrefix(mode);
+        long elapsed = getLong(history, prefix + KEY_ELAPSED);
+        if (elapsed < 0L) {
+            return null;
+        }
+        return new StageStatistics(
+                mode,
+                elapsed,
+                getLong(history, prefix + KEY_INPUT_SIZE),
+                getLong(history, prefix + KEY_INPUT_RECORDS),
+                getLong(history, prefix + KEY_OUTPUT_RECORDS),
+                getLong(history, prefix + KEY_SHUFFLE_BYTES));
+    }
+
+    private static String getPrefix(Mode mode) {
+        return mode.name().toLowerCase(Locale.ENGLISH) + '.';
+    }
+
+    private static long getLong(Properties properties, String key) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            return -1L;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            LOG.debug(MessageFormat.format("invalid stage history: {0}={1}", key, value), e); //$NON-NLS-1$
+            return -1L;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "History based stage cost estimator"; //$NON-NLS-1$
+    }
+}
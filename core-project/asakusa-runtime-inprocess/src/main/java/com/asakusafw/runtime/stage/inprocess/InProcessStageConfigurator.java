@@ -24,10 +24,13 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.util.ReflectionUtils;
 
 import com.asakusafw.runtime.mapreduce.simple.SimpleJobRunner;
+import com.asakusafw.runtime.stage.JobRunner;
 import com.asakusafw.runtime.stage.StageConfigurator;
 import com.asakusafw.runtime.stage.StageConstants;
+import com.asakusafw.runtime.stage.inprocess.StageCostEstimator.Mode;
 import com.asakusafw.runtime.stage.input.ExtremeSplitCombiner;
 import com.asakusafw.runtime.stage.input.StageInputDriver;
 import com.asakusafw.runtime.stage.input.StageInputFormat;
@@ -36,6 +39,7 @@ import com.asakusafw.runtime.stage.resource.StageResourceDriver;
 /**
  * Configures {@link SimpleJobRunner}.
  * @since 0.7.1
+ * @version 0.10.5
  */
 public class InProcessStageConfigurator extends StageConfigurator {
 
@@ -53,6 +57,17 @@ public class InProcessStageConfigurator extends StageConfigurator {
      */
     public static final String KEY_FORCE = KEY_PREFIX + "force"; //$NON-NLS-1$
 
+    /**
+     * Hadoop property key of the {@link StageCostEstimator} implementation class name.
+     * If this is set, the estimator can override the execution mode which was decided from the input data size.
+     * @since 0.10.5
+     */
+    public static final String KEY_ESTIMATOR = KEY_PREFIX + "estimator"; //$NON-NLS-1$
+
+    static final String KEY_SELECTED_MODE = KEY_ESTIMATOR + ".mode"; //$NON-NLS-1$
+
+    static final String KEY_ESTIMATED_SIZE = KEY_ESTIMATOR + ".size"; //$NON-NLS-1$
+
     /**
      * Activates trailing Hadoop property only if in-process job execution is enabled.
      */
@@ -68,7 +83,7 @@ public class InProcessStageConfigurator extends StageConfigurator {
                         "force enabled in-process execution: {0}", //$NON-NLS-1$
                         job.getJobName()));
             }
-            install(job);
+            install(job, SimpleJobRunner.class);
             return;
         }
         long limit = job.getConfiguration().getLong(KEY_LIMIT, -1L);
@@ -97,7 +112,29 @@ public class InProcessStageConfigurator extends StageConfigurator {
                     limit,
                     estimated));
         }
-        if (estimated < 0L || estimated > limit) {
+        Mode mode = estimated < 0L || estimated > limit ? Mode.CLUSTER : Mode.IN_PROCESS;
+        Class<? extends JobRunner> runner = SimpleJobRunner.class;
+        StageCostEstimator estimator = newEstimator(job.getConfiguration());
+        if (estimator != null) {
+            Mode preferred = estimator.estimate(job, estimated, mode);
+            if (preferred != mode && LOG.isInfoEnabled()) {
+                LOG.info(MessageFormat.format(
+                        "execution mode was changed by estimator: job={0}, mode={1}->{2}, estimator={3}",
+                        job.getJobName(),
+                        mode,
+                        preferred,
+                        estimator));
+            }
+            mode = preferred;
+            runner = CostRecordingJobRunner.class;
+            Configuration conf = job.getConfiguration();
+            conf.set(KEY_SELECTED_MODE, mode.name());
+            conf.setLong(KEY_ESTIMATED_SIZE, estimated);
+            if (mode == Mode.CLUSTER) {
+                conf.set(StageConstants.PROP_JOB_RUNNER, runner.getName());
+            }
+        }
+        if (mode == Mode.CLUSTER) {
             return;
         }
         if (LOG.isInfoEnabled()) {
@@ -107,7 +144,7 @@ public class InProcessStageConfigurator extends StageConfigurator {
                     limit,
                     estimated));
         }
-        install(job);
+        install(job, runner);
     }
 
     private boolean hasCustomJobRunner(Job job) {
@@ -121,7 +158,27 @@ public class InProcessStageConfigurator extends StageConfigurator {
         return total;
     }
 
-    private void install(Job job) {
+    static StageCostEstimator newEstimator(Configuration conf) {
+        Class<? extends StageCostEstimator> aClass = conf.getClass(KEY_ESTIMATOR, null, StageCostEstimator.class);
+        if (aClass == null) {
+            return null;
+        }
+        return ReflectionUtils.newInstance(aClass, conf);
+    }
+
+    static Mode getSelectedMode(Configuration conf) {
+        String value = conf.get(KEY_SELECTED_MODE);
+        if (value == null) {
+            return Mode.CLUSTER;
+        }
+        return Mode.valueOf(value);
+    }
+
+    static long getEstimatedInputSize(Configuration conf) {
+        return conf.getLong(KEY_ESTIMATED_SIZE, -1L);
+    }
+
+    private void install(Job job, Class<? extends JobRunner> runner) {
         Configuration conf = job.getConfiguration();
         int prefixLength = KEY_PREFIX_REPLACE.length();
         for (Map.Entry<String, String> entry : conf.getValByRegex(PATTERN_KEY_REPLACE.pattern()).entrySet()) {
@@ -140,7 +197,7 @@ public class InProcessStageConfigurator extends StageConfigurator {
             }
             conf.set(key, value);
         }
-        conf.set(StageConstants.PROP_JOB_RUNNER, SimpleJobRunner.class.getName());
+        conf.set(StageConstants.PROP_JOB_RUNNER, runner.getName());
         StageResourceDriver.setAccessMode(job, StageResourceDriver.AccessMode.DIRECT);
         StageInputFormat.setSplitCombinerClass(job, ExtremeSplitCombiner.class);
     }
@@ -0,0 +1,69 @@
+/**
+ * Copyright 2011-2021 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.runtime.stage.inprocess;
+
+import java.io.IOException;
+
+import org.apache.hadoop.mapreduce.Job;
+
+import com.asakusafw.runtime.mapreduce.simple.SimpleJobRunner;
+
+/**
+ * Decides the execution mode of each stage, and records the runtime statistics of the executed stages.
+ * Implementations must have a public constructor without any parameters, and may implement
+ * {@link org.apache.hadoop.conf.Configurable} to receive the current configuration.
+ * @see InProcessStageConfigurator#KEY_ESTIMATOR
+ * @since 0.10.5
+ */
+public interface StageCostEstimator {
+
+    /**
+     * Returns the preferred execution mode of the target stage.
+     * @param job the target job
+     * @param estimatedInputSize the estimated input data size in bytes, or {@code -1} if it is unknown
+     * @param defaultMode the execution mode which was decided from the estimated input data size
+     * @return the preferred execution mode
+     * @throws IOException if failed to estimate the cost by I/O error
+     * @throws InterruptedException if interrupted while estimating the cost
+     */
+    Mode estimate(Job job, long estimatedInputSize, Mode defaultMode) throws IOException, InterruptedException;
+
+    /**
+     * Records the runtime statistics of the successfully completed stage.
+     * @param job the target job
+     * @param statistics the runtime statistics
+     * @throws IOException if failed to record the statistics by I/O error
+     * @throws InterruptedException if interrupted while recording the statistics
+     */
+    void record(Job job, StageStatistics statistics) throws IOException, InterruptedException;
+
+    /**
+     * Represents an execution mode of stages.
+     * @since 0.10.5
+     */
+    enum Mode {
+
+        /**
+         * Executes stages in the current process using {@link SimpleJobRunner}.
+         */
+        IN_PROCESS,
+
+        /**
+         * Executes stages on the cluster.
+         */
+        CLUSTER,
+    }
+}
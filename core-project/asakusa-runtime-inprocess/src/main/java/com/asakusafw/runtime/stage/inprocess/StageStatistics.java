@@ -0,0 +1,125 @@
+/**
+ * Copyright 2011-2021 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.runtime.stage.inprocess;
+
+import java.text.MessageFormat;
+
+import com.asakusafw.runtime.stage.inprocess.StageCostEstimator.Mode;
+
+/**
+ * Runtime statistics of a stage execution.
+ * Each statistic value is {@code -1} if it is not available in the execution mode.
+ * @since 0.10.5
+ */
+public class StageStatistics {
+
+    private final Mode mode;
+
+    private final long elapsedTime;
+
+    private final long inputSize;
+
+    private final long inputRecords;
+
+    private final long outputRecords;
+
+    private final long shuffleBytes;
+
+    /**
+     * Creates a new instance.
+     * @param mode the execution mode
+     * @param elapsedTime the elapsed wall time in milliseconds
+     * @param inputSize the estimated input data size in bytes
+     * @param inputRecords the number of input records
+     * @param outputRecords the number of output records
+     * @param shuffleBytes the number of shuffle bytes
+     */
+    public StageStatistics(
+            Mode mode,
+            long elapsedTime,
+            long inputSize, long inputRecords, long outputRecords, long shuffleBytes) {
+        if (mode == null) {
+            throw new IllegalArgumentException("mode must not be null"); //$NON-NLS-1$
+        }
+        this.mode = mode;
+        this.elapsedTime = elapsedTime;
+        this.inputSize = inputSize;
+        this.inputRecords = inputRecords;
+        this.outputRecords = outputRecords;
+        this.shuffleBytes = shuffleBytes;
+    }
+
+    /**
+     * Returns the execution mode.
+     * @return the execution mode
+     */
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Returns the elapsed wall time.
+     * @return the elapsed time in milliseconds
+     */
+    public long getElapsedTime() {
+        return elapsedTime;
+    }
+
+    /**
+     * Returns the estimated input data size.
+     * @return the input size in bytes, or {@code -1} if it is not available
+     */
+    public long getInputSize() {
+        return inputSize;
+    }
+
+    /**
+     * Returns the number of input records.
+     * @return the number of input records, or {@code -1} if it is not available
+     */
+    public long getInputRecords() {
+        return inputRecords;
+    }
+
+    /**
+     * Returns the number of output records.
+     * @return the number of output records, or {@code -1} if it is not available
+     */
+    public long getOutputRecords() {
+        return outputRecords;
+    }
+
+    /**
+     * Returns the number of shuffle bytes.
+     * @return the number of shuffle bytes, or {@code -1} if it is not available
+     */
+    public long getShuffleBytes() {
+        return shuffleBytes;
+    }
+
+    @Override
+    public String toString() {
+        return MessageFormat.format(
+                "StageStatistics(mode={0}, elapsed={1}ms, inputSize={2}, inputRecords={3}, "
+                + "outputRecords={4}, shuffleBytes={5})",
+                mode,
+                String.valueOf(elapsedTime),
+                String.valueOf(inputSize),
+                String.valueOf(inputRecords),
+                String.valueOf(outputRecords),
+                String.valueOf(shuffleBytes));
+    }
+}
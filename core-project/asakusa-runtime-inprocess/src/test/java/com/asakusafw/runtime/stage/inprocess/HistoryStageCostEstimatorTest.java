@@ -0,0 +1,170 @@
+/**
+ * Copyright 2011-2021 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.runtime.stage.inprocess;
+
+import static com.asakusafw.runtime.stage.inprocess.HistoryStageCostEstimator.*;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.util.ReflectionUtils;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.asakusafw.runtime.stage.StageConstants;
+import com.asakusafw.runtime.stage.inprocess.StageCostEstimator.Mode;
+import com.asakusafw.runtime.util.hadoop.ConfigurationProvider;
+
+/**
+ * Test for {@link HistoryStageCostEstimator}.
+ */
+public class HistoryStageCostEstimatorTest {
+
+    /**
+     * temporary folder.
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * no history.
+     * @throws Exception if failed
+     */
+    @Test
+    public void estimate_no_history() throws Exception {
+        Job job = newJob();
+        HistoryStageCostEstimator estimator = newEstimator(job);
+        assertThat(estimator.estimate(job, 100, Mode.IN_PROCESS), is(Mode.IN_PROCESS));
+        assertThat(estimator.estimate(job, 100, Mode.CLUSTER), is(Mode.CLUSTER));
+    }
+
+    /**
+     * history is not available.
+     * @throws Exception if failed
+     */
+    @Test
+    public void estimate_no_path() throws Exception {
+        Job job = newJob();
+        job.getConfiguration().unset(KEY_PATH);
+        HistoryStageCostEstimator estimator = newEstimator(job);
+        estimator.record(job, new StageStatistics(Mode.IN_PROCESS, 1_000_000, 100, -1, -1, -1));
+        assertThat(estimator.estimate(job, 100, Mode.IN_PROCESS), is(Mode.IN_PROCESS));
+        assertThat(folder.getRoot().list().length, is(0));
+    }
+
+    /**
+     * picks the faster mode.
+     * @throws Exception if failed
+     */
+    @Test
+    public void estimate_faster() throws Exception {
+        Job job = newJob();
+        HistoryStageCostEstimator estimator = newEstimator(job);
+        estimator.record(job, new StageStatistics(Mode.IN_PROCESS, 10_000, 100, -1, -1, -1));
+        estimator.record(job, new StageStatistics(Mode.CLUSTER, 30_000, 100, 10, 10, 1000));
+        assertThat(estimator.estimate(job, 100, Mode.CLUSTER), is(Mode.IN_PROCESS));
+        assertThat(estimator.estimate(job, 400, Mode.IN_PROCESS), is(Mode.CLUSTER));
+    }
+
+    /**
+     * in-process execution is too slow.
+     * @throws Exception if failed
+     */
+    @Test
+    public void estimate_explore() throws Exception {
+        Job job = newJob();
+        job.getConfiguration().setLong(KEY_EXPLORE_THRESHOLD, 20_000);
+        HistoryStageCostEstimator estimator = newEstimator(job);
+        estimator.record(job, new StageStatistics(Mode.IN_PROCESS, 10_000, 100, -1, -1, -1));
+        assertThat(estimator.estimate(job, 100, Mode.IN_PROCESS), is(Mode.IN_PROCESS));
+        assertThat(estimator.estimate(job, 300, Mode.IN_PROCESS), is(Mode.CLUSTER));
+    }
+
+    /**
+     * shuffle size is too large.
+     * @throws Exception if failed
+     */
+    @Test
+    public void estimate_shuffle() throws Exception {
+        Job job = newJob();
+        job.getConfiguration().setLong(KEY_SHUFFLE_LIMIT, 1000);
+        HistoryStageCostEstimator estimator = newEstimator(job);
+        estimator.record(job, new StageStatistics(Mode.CLUSTER, 30_000, 100, 10, 10, 1001));
+        assertThat(estimator.estimate(job, 100, Mode.IN_PROCESS), is(Mode.CLUSTER));
+
+        estimator.record(job, new StageStatistics(Mode.CLUSTER, 30_000, 100, 10, 10, 1000));
+        assertThat(estimator.estimate(job, 100, Mode.IN_PROCESS), is(Mode.IN_PROCESS));
+    }
+
+    /**
+     * history is isolated for each stage.
+     * @throws Exception if failed
+     */
+    @Test
+    public void record_stages() throws Exception {
+        Job job = newJob();
+        HistoryStageCostEstimator estimator = newEstimator(job);
+        estimator.record(job, new StageStatistics(Mode.IN_PROCESS, 1_000_000, 100, -1, -1, -1));
+
+        Job other = newJob();
+        other.getConfiguration().set(StageConstants.PROP_STAGE_ID, "other");
+        assertThat(estimator.estimate(job, 100, Mode.IN_PROCESS), is(Mode.CLUSTER));
+        assertThat(estimator.estimate(other, 100, Mode.IN_PROCESS), is(Mode.IN_PROCESS));
+        assertThat(new File(folder.getRoot(), "b/f/s.properties").isFile(), is(true));
+    }
+
+    /**
+     * history is replaced with the updated one.
+     * @throws Exception if failed
+     */
+    @Test
+    public void record_overwrite() throws Exception {
+        Job job = newJob();
+        HistoryStageCostEstimator estimator = newEstimator(job);
+        estimator.record(job, new StageStatistics(Mode.IN_PROCESS, 1_000_000, 100, -1, -1, -1));
+        estimator.record(job, new StageStatistics(Mode.CLUSTER, 1_000, 100, -1, -1, -1));
+
+        assertThat(estimator.estimate(job, 100, Mode.IN_PROCESS), is(Mode.CLUSTER));
+        String[] files = new File(folder.getRoot(), "b/f").list((dir, name) -> name.startsWith(".") == false);
+        assertThat(files, is(arrayContaining("s.properties")));
+    }
+
+    private HistoryStageCostEstimator newEstimator(Job job) {
+        return ReflectionUtils.newInstance(HistoryStageCostEstimator.class, job.getConfiguration());
+    }
+
+    private Job newJob() {
+        try {
+            Job job = Job.getInstance(new ConfigurationProvider().newInstance());
+            job.setJobName("testing");
+            Configuration conf = job.getConfiguration();
+            conf.set(KEY_PATH, folder.getRoot().toURI().toString());
+            conf.set(StageConstants.PROP_BATCH_ID, "b");
+            conf.set(StageConstants.PROP_FLOW_ID, "f");
+            conf.set(StageConstants.PROP_STAGE_ID, "s");
+            return job;
+        } catch (IOException e) {
+            Assume.assumeNoException(e);
+            throw new AssertionError(e);
+        }
+    }
+}
@@ -29,6 +29,7 @@ import org.junit.Test;
 
 import com.asakusafw.runtime.stage.StageConfigurator;
 import com.asakusafw.runtime.stage.StageConstants;
+import com.asakusafw.runtime.stage.inprocess.StageCostEstimator.Mode;
 import com.asakusafw.runtime.stage.input.ExtremeSplitCombiner;
 import com.asakusafw.runtime.stage.input.IdentitySplitCombiner;
 import com.asakusafw.runtime.stage.input.StageInputFormat;
@@ -120,6 +121,46 @@ public class InProcessStageConfiguratorTest {
         assertThat(conf.get("com.example.testing"), is(not("YES!")));
     }
 
+    /**
+     * estimator prefers in-process execution.
+     * @throws Exception if failed
+     */
+    @Test
+    public void estimator_in_process() throws Exception {
+        Job job = newJob();
+        Configuration conf = job.getConfiguration();
+
+        conf.setLong(KEY_LIMIT, 100);
+        conf.set(KEY_ESTIMATOR, MockEstimator.class.getName());
+        conf.set(MockEstimator.KEY_MODE, Mode.IN_PROCESS.name());
+        new Mock(1000).configure(job);
+        assertThat(conf.get(StageConstants.PROP_JOB_RUNNER), is(CostRecordingJobRunner.class.getName()));
+        assertThat(getSelectedMode(conf), is(Mode.IN_PROCESS));
+        assertThat(getEstimatedInputSize(conf), is(1000L));
+        assertThat(StageResourceDriver.getAccessMode(job), is(StageResourceDriver.AccessMode.DIRECT));
+        assertThat(StageInputFormat.getSplitCombinerClass(job), is((Object) ExtremeSplitCombiner.class));
+    }
+
+    /**
+     * estimator prefers cluster execution.
+     * @throws Exception if failed
+     */
+    @Test
+    public void estimator_cluster() throws Exception {
+        Job job = newJob();
+        Configuration conf = job.getConfiguration();
+
+        conf.setLong(KEY_LIMIT, 100);
+        conf.set(KEY_ESTIMATOR, MockEstimator.class.getName());
+        conf.set(MockEstimator.KEY_MODE, Mode.CLUSTER.name());
+        StageInputFormat.setSplitCombinerClass(job, IdentitySplitCombiner.class);
+        new Mock(100).configure(job);
+        assertThat(conf.get(StageConstants.PROP_JOB_RUNNER), is(CostRecordingJobRunner.class.getName()));
+        assertThat(getSelectedMode(conf), is(Mode.CLUSTER));
+        assertThat(StageResourceDriver.getAccessMode(job), is(not(StageResourceDriver.AccessMode.DIRECT)));
+        assertThat(StageInputFormat.getSplitCombinerClass(job), is(not((Object) ExtremeSplitCombiner.class)));
+    }
+
     /**
      * SPI test.
      */
@@ -147,6 +188,24 @@ public class InProcessStageConfiguratorTest {
         }
     }
 
+    /**
+     * Mock {@link StageCostEstimator}.
+     */
+    public static final class MockEstimator implements StageCostEstimator {
+
+        static final String KEY_MODE = "com.example.estimator.mode";
+
+        @Override
+        public Mode estimate(Job job, long estimatedInputSize, Mode defaultMode) {
+            return Mode.valueOf(job.getConfiguration().get(KEY_MODE, defaultMode.name()));
+        }
+
+        @Override
+        public void record(Job job, StageStatistics statistics) {
+            return;
+        }
+    }
+
     private static final class Mock extends InProcessStageConfigurator {
 
         private final long size;
@@ -25,6 +25,7 @@ import java.util.Map;
  * To use batch arguments, please implement {@link #initialize(Context)} and obtain them from the context object.
  * @param <T> the target data model type
  * @since 0.7.3
+ * @version 0.10.5
  */
 public abstract class DataFilter<T> {
 
@@ -54,6 +55,19 @@ public abstract class DataFilter<T> {
         return true;
     }
 
+    /**
+     * Returns a declarative predicate which describes the data accepted by this filter.
+     * Data formats may use it to skip reading blocks which never contain any acceptable data
+     * (e.g. ORC stripes or Parquet row groups), but {@link #acceptsData(Object)} is still applied to each data.
+     * Therefore, the predicate must accept all data which {@link #acceptsData(Object)} accepts.
+     * This method will be invoked after {@link #initialize(Context)}.
+     * @return the predicate, or {@code null} if it is not defined
+     * @since 0.10.5
+     */
+    public PropertyPredicate getPredicate() {
+        return null;
+    }
+
     /**
      * Context object for {@link DataFilter}.
      */
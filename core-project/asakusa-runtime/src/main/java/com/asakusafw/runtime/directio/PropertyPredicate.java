@@ -0,0 +1,507 @@
+/**
+ * Copyright 2011-2021 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.runtime.directio;
+
+import java.math.BigDecimal;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import com.asakusafw.runtime.value.Date;
+import com.asakusafw.runtime.value.DateTime;
+
+/**
+ * A declarative predicate over data model properties, which can be provided by {@link DataFilter#getPredicate()}.
+ * <p>
+ * Each property is identified by its field name in the target file format (e.g. column name of ORC or Parquet files).
+ * Each value must be one of {@link Boolean}, {@link Byte}, {@link Short}, {@link Integer}, {@link Long},
+ * {@link Float}, {@link Double}, {@link BigDecimal}, {@link String}, {@link Date}, or {@link DateTime}.
+ * Like SQL, comparisons never accept {@code null} properties: please use {@link #isNull(String)} for them.
+ * </p>
+ * <p>
+ * Data formats may use this predicate only to skip blocks of the input which never contain any acceptable data,
+ * so that it must be consistent with {@link DataFilter#acceptsData(Object)}.
+ * </p>
+ * @since 0.10.5
+ */
+public abstract class PropertyPredicate {
+
+    PropertyPredicate() {
+        return;
+    }
+
+    /**
+     * Returns a predicate which accepts only if the property is equal to the value.
+     * @param property the property name
+     * @param value the value
+     * @return the created predicate
+     * @throws IllegalArgumentException if the value type is not supported
+     */
+    public static PropertyPredicate equal(String property, Object value) {
+        return new Comparison(property, Operator.EQUAL, value);
+    }
+
+    /**
+     * Returns a predicate which accepts only if the property is less than the value.
+     * @param property the property name
+     * @param value the value
+     * @return the created predicate
+     * @throws IllegalArgumentException if the value type is not supported
+     */
+    public static PropertyPredicate lessThan(String property, Object value) {
+        return new Comparison(property, Operator.LESS_THAN, value);
+    }
+
+    /**
+     * Returns a predicate which accepts only if the property is less than or equal to the value.
+     * @param property the property name
+     * @param value the value
+     * @return the created predicate
+     * @throws IllegalArgumentException if the value type is not supported
+     */
+    public static PropertyPredicate lessThanOrEqual(String property, Object value) {
+        return new Comparison(property, Operator.LESS_THAN_OR_EQUAL, value);
+    }
+
+    /**
+     * Returns a predicate which accepts only if the property is greater than the value.
+     * @param property the property name
+     * @param value the value
+     * @return the created predicate
+     * @throws IllegalArgumentException if the value type is not supported
+     */
+    public static PropertyPredicate greaterThan(String property, Object value) {
+        return new Comparison(property, Operator.GREATER_THAN, value);
+    }
+
+    /**
+     * Returns a predicate which accepts only if the property is greater than or equal to the value.
+     * @param property the property name
+     * @param value the value
+     * @return the created predicate
+     * @throws IllegalArgumentException if the value type is not supported
+     */
+    public static PropertyPredicate greaterThanOrEqual(String property, Object value) {
+        return new Comparison(property, Operator.GREATER_THAN_OR_EQUAL, value);
+    }
+
+    /**
+     * Returns a predicate which accepts only if the property is between the two values (inclusive).
+     * @param property the property name
+     * @param lower the lower bound value (inclusive)
+     * @param upper the upper bound value (inclusive)
+     * @return the created predicate
+     * @throws IllegalArgumentException if the value type is not supported
+     */
+    public static PropertyPredicate between(String property, Object lower, Object upper) {
+        return new Between(property, lower, upper);
+    }
+
+    /**
+     * Returns a predicate which accepts only if the property is equal to one of the values.
+     * @param property the property name
+     * @param values the candidate values
+     * @return the created predicate
+     * @throws IllegalArgumentException if the value type is not supported
+     */
+    public static PropertyPredicate in(String property, Object... values) {
+        Objects.requireNonNull(values);
+        return new In(property, Arrays.asList(values));
+    }
+
+    /**
+     * Returns a predicate which accepts only if the property is {@code null}.
+     * @param property the property name
+     * @return the created predicate
+     */
+    public static PropertyPredicate isNull(String property) {
+        return new IsNull(property);
+    }
+
+    /**
+     * Returns a predicate which accepts only if all the elements accept.
+     * @param elements the element predicates
+     * @return the created predicate
+     */
+    public static PropertyPredicate and(PropertyPredicate... elements) {
+        Objects.requireNonNull(elements);
+        return new Connective(true, Arrays.asList(elements));
+    }
+
+    /**
+     * Returns a predicate which accepts only if any the elements accept.
+     * @param elements the element predicates
+     * @return the created predicate
+     */
+    public static PropertyPredicate or(PropertyPredicate... elements) {
+        Objects.requireNonNull(elements);
+        return new Connective(false, Arrays.asList(elements));
+    }
+
+    /**
+     * Accepts the visitor.
+     * @param <R> the result type
+     * @param <C> the context type
+     * @param visitor the visitor
+     * @param context the visitor context
+     * @return the visitor result
+     */
+    public abstract <R, C> R accept(Visitor<R, C> visitor, C context);
+
+    static Object checkValue(Object value) {
+        Objects.requireNonNull(value);
+        if (value instanceof Boolean
+                || value instanceof Byte
+                || value instanceof Short
+                || value instanceof Integer
+                || value instanceof Long
+                || value instanceof Float
+                || value instanceof Double
+                || value instanceof BigDecimal
+                || value instanceof String
+                || value instanceof Date
+                || value instanceof DateTime) {
+            return value;
+        }
+        throw new IllegalArgumentException(MessageFormat.format(
+                "unsupported predicate value: {0} ({1})",
+                value,
+                value.getClass().getName()));
+    }
+
+    /**
+     * Comparison operators.
+     * @since 0.10.5
+     */
+    public enum Operator {
+
+        /**
+         * {@code property == value}.
+         */
+        EQUAL("=="), //$NON-NLS-1$
+
+        /**
+         * {@code property < value}.
+         */
+        LESS_THAN("<"), //$NON-NLS-1$
+
+        /**
+         * {@code property <= value}.
+         */
+        LESS_THAN_OR_EQUAL("<="), //$NON-NLS-1$
+
+        /**
+         * {@code property > value}.
+         */
+        GREATER_THAN(">"), //$NON-NLS-1$
+
+        /**
+         * {@code property >= value}.
+         */
+        GREATER_THAN_OR_EQUAL(">="), //$NON-NLS-1$
+        ;
+
+        private final String symbol;
+
+        Operator(String symbol) {
+            this.symbol = symbol;
+        }
+
+        /**
+         * Returns the operator symbol.
+         * @return the operator symbol
+         */
+        public String getSymbol() {
+            return symbol;
+        }
+    }
+
+    /**
+     * A visitor for {@link PropertyPredicate}.
+     * @param <R> the result type
+     * @param <C> the context type
+     * @since 0.10.5
+     */
+    public interface Visitor<R, C> {
+
+        /**
+         * Visits a {@link Comparison}.
+         * @param predicate the target predicate
+         * @param context the current context
+         * @return the result
+         */
+        R visitComparison(Comparison predicate, C context);
+
+        /**
+         * Visits a {@link Between}.
+         * @param predicate the target predicate
+         * @param context the current context
+         * @return the result
+         */
+        R visitBetween(Between predicate, C context);
+
+        /**
+         * Visits an {@link In}.
+         * @param predicate the target predicate
+         * @param context the current context
+         * @return the result
+         */
+        R visitIn(In predicate, C context);
+
+        /**
+         * Visits an {@link IsNull}.
+         * @param predicate the target predicate
+         * @param context the current context
+         * @return the result
+         */
+        R visitIsNull(IsNull predicate, C context);
+
+        /**
+         * Visits a {@link Connective}.
+         * @param predicate the target predicate
+         * @param context the current context
+         * @return the result
+         */
+        R visitConnective(Connective predicate, C context);
+    }
+
+    /**
+     * An abstract super class of predicates for a property.
+     * @since 0.10.5
+     */
+    public abstract static class Leaf extends PropertyPredicate {
+
+        private final String property;
+
+        Leaf(String property) {
+            this.property = Objects.requireNonNull(property);
+        }
+
+        /**
+         * Returns the target property name.
+         * @return the property name
+         */
+        public String getProperty() {
+            return property;
+        }
+    }
+
+    /**
+     * A predicate which compares a property with a value.
+     * @since 0.10.5
+     */
+    public static final class Comparison extends Leaf {
+
+        private final Operator operator;
+
+        private final Object value;
+
+        Comparison(String property, Operator operator, Object value) {
+            super(property);
+            this.operator = Objects.requireNonNull(operator);
+            this.value = checkValue(value);
+        }
+
+        /**
+         * Returns the comparison operator.
+         * @return the operator
+         */
+        public Operator getOperator() {
+            return operator;
+        }
+
+        /**
+         * Returns the value.
+         * @return the value
+         */
+        public Object getValue() {
+            return value;
+        }
+
+        @Override
+        public <R, C> R accept(Visitor<R, C> visitor, C context) {
+            return visitor.visitComparison(this, context);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s %s %s", getProperty(), operator.getSymbol(), value); //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * A predicate which accepts a property in the range (inclusive).
+     * @since 0.10.5
+     */
+    public static final class Between extends Leaf {
+
+        private final Object lower;
+
+        private final Object upper;
+
+        Between(String property, Object lower, Object upper) {
+            super(property);
+            this.lower = checkValue(lower);
+            this.upper = checkValue(upper);
+        }
+
+        /**
+         * Returns the lower bound value (inclusive).
+         * @return the lower bound
+         */
+        public Object getLower() {
+            return lower;
+        }
+
+        /**
+         * Returns the upper bound value (inclusive).
+         * @return the upper bound
+         */
+        public Object getUpper() {
+            return upper;
+        }
+
+        @Override
+        public <R, C> R accept(Visitor<R, C> visitor, C context) {
+            return visitor.visitBetween(this, context);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s in [%s, %s]", getProperty(), lower, upper); //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * A predicate which accepts a property equal to one of the candidate values.
+     * @since 0.10.5
+     */
+    public static final class In extends Leaf {
+
+        private final List<Object> values;
+
+        In(String property, List<?> values) {
+            super(property);
+            if (values.isEmpty()) {
+                throw new IllegalArgumentException("values must not be empty"); //$NON-NLS-1$
+            }
+            List<Object> results = new ArrayList<>();
+            for (Object value : values) {
+                results.add(checkValue(value));
+            }
+            this.values = Collections.unmodifiableList(results);
+        }
+
+        /**
+         * Returns the candidate values.
+         * @return the candidate values
+         */
+        public List<Object> getValues() {
+            return values;
+        }
+
+        @Override
+        public <R, C> R accept(Visitor<R, C> visitor, C context) {
+            return visitor.visitIn(this, context);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s in %s", getProperty(), values); //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * A predicate which accepts a {@code null} property.
+     * @since 0.10.5
+     */
+    public static final class IsNull extends Leaf {
+
+        IsNull(String property) {
+            super(property);
+        }
+
+        @Override
+        public <R, C> R accept(Visitor<R, C> visitor, C context) {
+            return visitor.visitIsNull(this, context);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s is null", getProperty()); //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * A conjunction or disjunction of predicates.
+     * @since 0.10.5
+     */
+    public static final class Connective extends PropertyPredicate {
+
+        private final boolean conjunction;
+
+        private final List<PropertyPredicate> elements;
+
+        Connective(boolean conjunction, List<? extends PropertyPredicate> elements) {
+            if (elements.isEmpty()) {
+                throw new IllegalArgumentException("elements must not be empty"); //$NON-NLS-1$
+            }
+            for (PropertyPredicate element : elements) {
+                Objects.requireNonNull(element);
+            }
+            this.conjunction = conjunction;
+            this.elements = Collections.unmodifiableList(new ArrayList<>(elements));
+        }
+
+        /**
+         * Returns whether this is a conjunction ({@code AND}) or a disjunction ({@code OR}).
+         * @return {@code true} for conjunction, {@code false} for disjunction
+         */
+        public boolean isConjunction() {
+            return conjunction;
+        }
+
+        /**
+         * Returns the element predicates.
+         * @return the elements
+         */
+        public List<PropertyPredicate> getElements() {
+            return elements;
+        }
+
+        @Override
+        public <R, C> R accept(Visitor<R, C> visitor, C context) {
+            return visitor.visitConnective(this, context);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder buf = new StringBuilder();
+            buf.append('(');
+            for (int i = 0, n = elements.size(); i < n; i++) {
+                if (i > 0) {
+                    buf.append(conjunction ? " && " : " || "); //$NON-NLS-1$ //$NON-NLS-2$
+                }
+                buf.append(elements.get(i));
+            }
+            buf.append(')');
+            return buf.toString();
+        }
+    }
+}
@@ -21,6 +21,7 @@ import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -47,7 +48,7 @@ import com.asakusafw.runtime.io.ModelOutput;
 /**
  * An implementation of {@link DirectDataSource} using {@link FileSystem}.
  * @since 0.2.5
- * @version 0.7.0
+ * @version 0.10.5
  */
 public class HadoopDataSourceCore implements DirectDataSource {
 
@@ -105,8 +106,26 @@ public class HadoopDataSourceCore implements DirectDataSource {
         Path root = p.getFileSystemPath();
         Path base = append(root, basePath);
         Path temporary = p.getTemporaryFileSystemPath();
-        List<FileStatus> stats = HadoopDataSourceUtil.search(fs, base, pattern);
-        stats = filesOnly(stats, temporary);
+        InputListingCache cache = p.getListingCache();
+        InputListingCache.Entry listing = cache == null ? null : cache.find(fs, p.getId(), base, pattern);
+        List<FileStatus> stats;
+        if (listing == null) {
+            listing = new InputListingCache.Entry();
+            stats = HadoopDataSourceUtil.search(
+                    fs, base, pattern, HadoopDataSourceUtil.getSearchThreads(fs), listing::addDirectory);
+            stats = filesOnly(stats, temporary);
+            listing.files.addAll(stats);
+        } else {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(MessageFormat.format(
+                        "Reusing input listing cache (id={0}, path={1}, resource={2})", //$NON-NLS-1$
+                        profile.getId(),
+                        basePath,
+                        resourcePattern));
+            }
+            stats = new ArrayList<>(listing.files);
+        }
+        stats = hideUnpublished(stats);
         if (LOG.isDebugEnabled()) {
             LOG.debug(MessageFormat.format(
                     "Process finding input (id={0}, path={1}, resource={2}, files={3})", //$NON-NLS-1$
@@ -144,10 +163,13 @@ public class HadoopDataSourceCore implements DirectDataSource {
             FragmentComputer optimizer = new FragmentComputer(
                     p.getMinimumFragmentSize(sformat), p.getPreferredFragmentSize(sformat),
                     p.isCombineBlocks(), p.isSplitBlocks());
-            results = computeInputFragments(optimizer, stats);
+            results = computeInputFragments(optimizer, stats, listing);
         } else {
             FragmentComputer optimizer = new FragmentComputer();
-            results = computeInputFragments(optimizer, stats);
+            results = computeInputFragments(optimizer, stats, listing);
+        }
+        if (cache != null && listing.modified) {
+            cache.put(p.getId(), base, pattern, listing);
         }
 
         if (LOG.isDebugEnabled()) {
@@ -189,6 +211,32 @@ public class HadoopDataSourceCore implements DirectDataSource {
         return false;
     }
 
+    private List<FileStatus> hideUnpublished(List<FileStatus> stats) throws IOException {
+        if (profile.isOutputManifest() == false || stats.isEmpty()) {
+            return stats;
+        }
+        HadoopDataSourceProfile p = profile;
+        Set<Path> unpublished = OutputManifest.findUnpublished(
+                p.getFileSystem(), p.getTemporaryFileSystemPath(), p.getFileSystemPath());
+        if (unpublished.isEmpty()) {
+            return stats;
+        }
+        List<FileStatus> results = new ArrayList<>();
+        for (FileStatus stat : stats) {
+            if (unpublished.contains(stat.getPath())) {
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug(MessageFormat.format(
+                            "Skip unpublished file (id={0}, path={1})", //$NON-NLS-1$
+                            profile.getId(),
+                            stat.getPath()));
+                }
+            } else {
+                results.add(stat);
+            }
+        }
+        return results;
+    }
+
     private List<FileStatus> filesOnly(List<FileStatus> stats, Path temporary) {
         List<FileStatus> results = new ArrayList<>();
         for (FileStatus stat : stats) {
@@ -201,12 +249,13 @@ public class HadoopDataSourceCore implements DirectDataSource {
 
     private List<DirectInputFragment> computeInputFragments(
             FragmentComputer fragmentComputer,
-            List<FileStatus> stats) throws IOException {
+            List<FileStatus> stats,
+            InputListingCache.Entry listing) throws IOException {
         List<DirectInputFragment> results = new ArrayList<>();
         for (FileStatus stat : stats) {
             String path = stat.getPath().toString();
             long fileSize = stat.getLen();
-            List<BlockInfo> blocks = BlockMap.computeBlocks(profile.getFileSystem(), stat);
+            List<BlockInfo> blocks = listing.getBlocks(profile.getFileSystem(), stat);
             if (LOG.isTraceEnabled()) {
                 for (BlockInfo block : blocks) {
                     LOG.trace(MessageFormat.format(
@@ -255,7 +304,8 @@ public class HadoopDataSourceCore implements DirectDataSource {
                 new Path(fragment.getPath()),
                 fragment.getOffset(),
                 fragment.getSize(),
-                counter);
+                counter,
+                filter);
         if (LOG.isDebugEnabled()) {
             LOG.debug(MessageFormat.format(
                     "Finish opening input (id={0}, path={1}, offset={2}, size={3})", //$NON-NLS-1$
@@ -288,10 +338,18 @@ public class HadoopDataSourceCore implements DirectDataSource {
                     local == false));
         }
         FileSystem fs = local ? profile.getLocalFileSystem() : profile.getFileSystem();
-        Path attempt = local ? getLocalAttemptOutput(context) : getAttemptOutput(context);
         DataFormat<T> format = definition.getDataFormat();
         Class<? extends T> dataType = definition.getDataClass();
-        Path file = append(append(attempt, basePath), resourcePath);
+        Path file;
+        if (profile.isOutputManifest()) {
+            Path root = profile.getFileSystemPath();
+            file = append(append(root, basePath), resourcePath);
+            OutputManifest.register(
+                    getManifestOutput(context.getTransactionContext()), context.getAttemptId(), root, file);
+        } else {
+            Path attempt = local ? getLocalAttemptOutput(context) : getAttemptOutput(context);
+            file = append(append(attempt, basePath), resourcePath);
+        }
         HadoopFileFormat<T> fileFormat = convertFormat(format);
         ModelOutput<T> output = fileFormat.createOutput(dataType, fs, file, counter);
         if (LOG.isDebugEnabled()) {
@@ -306,7 +364,8 @@ public class HadoopDataSourceCore implements DirectDataSource {
     }
 
     boolean isLocalAttemptOutput() {
-        return profile.isOutputStreaming() == false
+        return profile.isOutputManifest() == false
+                && profile.isOutputStreaming() == false
                 && HadoopDataSourceUtil.isLocalAttemptOutputDefined(profile.getLocalFileSystem());
     }
 
@@ -347,6 +406,7 @@ public class HadoopDataSourceCore implements DirectDataSource {
         Path temporary = p.getTemporaryFileSystemPath();
         List<FileStatus> stats = HadoopDataSourceUtil.search(fs, base, pattern);
         stats = normalize(stats, root, temporary);
+        stats = hideUnpublished(stats);
 
         List<ResourceInfo> results = new ArrayList<>();
         for (FileStatus stat : stats) {
@@ -391,6 +451,7 @@ public class HadoopDataSourceCore implements DirectDataSource {
         List<FileStatus> stats = HadoopDataSourceUtil.search(fs, base, pattern);
         Path temporary = p.getTemporaryFileSystemPath();
         stats = normalize(stats, root, temporary);
+        stats = hideUnpublished(stats);
         if (recursive) {
             stats = HadoopDataSourceUtil.onlyMinimalCovered(stats);
         }
@@ -455,6 +516,10 @@ public class HadoopDataSourceCore implements DirectDataSource {
 
     @Override
     public void setupAttemptOutput(OutputAttemptContext context) throws IOException, InterruptedException {
+        if (profile.isOutputManifest()) {
+            // attempts directly write their contents into the final area
+            return;
+        }
         if (profile.isOutputStreaming() == false && isLocalAttemptOutput() == false) {
             LOG.warn(MessageFormat.format(
                     "Streaming output is disabled but the local temporary directory ({1}) is not defined (id={0})",
@@ -486,6 +551,18 @@ public class HadoopDataSourceCore implements DirectDataSource {
 
     @Override
     public void commitAttemptOutput(OutputAttemptContext context) throws IOException, InterruptedException {
+        if (profile.isOutputManifest()) {
+            Path manifest = getManifestOutput(context.getTransactionContext());
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(MessageFormat.format(
+                        "Commit attempt manifest (id={0}, path={1}, attempt={2})", //$NON-NLS-1$
+                        profile.getId(),
+                        manifest,
+                        context.getAttemptId()));
+            }
+            OutputManifest.commitAttempt(profile.getFileSystem(), manifest, context.getAttemptId());
+            return;
+        }
         Path target;
         if (profile.isOutputStaging()) {
             target = getStagingOutput(context.getTransactionContext());
@@ -518,6 +595,14 @@ public class HadoopDataSourceCore implements DirectDataSource {
 
     @Override
     public void cleanupAttemptOutput(OutputAttemptContext context) throws IOException, InterruptedException {
+        if (profile.isOutputManifest()) {
+            // contents of failed attempts are discarded in cleanupTransactionOutput()
+            OutputManifest.abortAttempt(
+                    profile.getFileSystem(),
+                    getManifestOutput(context.getTransactionContext()),
+                    context.getAttemptId());
+            return;
+        }
         if (isLocalAttemptOutput()) {
             Path attempt = getLocalAttemptOutput(context);
             if (LOG.isDebugEnabled()) {
@@ -543,7 +628,7 @@ public class HadoopDataSourceCore implements DirectDataSource {
 
     @Override
     public void setupTransactionOutput(OutputTransactionContext context) throws IOException, InterruptedException {
-        if (profile.isOutputStaging()) {
+        if (profile.isOutputStaging() && profile.isOutputManifest() == false) {
             FileSystem fs = profile.getFileSystem();
             Path staging = getStagingOutput(context);
             if (LOG.isDebugEnabled()) {
@@ -558,7 +643,17 @@ public class HadoopDataSourceCore implements DirectDataSource {
 
     @Override
     public void commitTransactionOutput(OutputTransactionContext context) throws IOException, InterruptedException {
-        if (profile.isOutputStaging()) {
+        if (profile.isOutputManifest()) {
+            Path manifest = getManifestOutput(context);
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(MessageFormat.format(
+                        "Publish output manifest (id={0}, path={1})", //$NON-NLS-1$
+                        profile.getId(),
+                        manifest));
+            }
+            int count = OutputManifest.publish(profile.getFileSystem(), manifest);
+            context.getCounter().add(count);
+        } else if (profile.isOutputStaging()) {
             FileSystem fs = profile.getFileSystem();
             Path staging = getStagingOutput(context);
             Path target = profile.getFileSystemPath();
@@ -576,6 +671,17 @@ public class HadoopDataSourceCore implements DirectDataSource {
     public void cleanupTransactionOutput(OutputTransactionContext context) throws IOException, InterruptedException {
         FileSystem fs = profile.getFileSystem();
         Path path = getTemporaryOutput(context);
+        if (profile.isOutputManifest()) {
+            Path manifest = getManifestOutput(context);
+            int count = OutputManifest.discard(fs, manifest, profile.getFileSystemPath());
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(MessageFormat.format(
+                        "Delete unpublished files (id={0}, path={1}, files={2})", //$NON-NLS-1$
+                        profile.getId(),
+                        manifest,
+                        count));
+            }
+        }
         if (LOG.isDebugEnabled()) {
             LOG.debug(MessageFormat.format(
                     "Delete temporary area (id={0}, path={1})", //$NON-NLS-1$
@@ -622,6 +728,11 @@ public class HadoopDataSourceCore implements DirectDataSource {
         return append(tempPath, suffix);
     }
 
+    Path getManifestOutput(OutputTransactionContext context) {
+        assert context != null;
+        return OutputManifest.getManifestArea(getTemporaryOutput(context));
+    }
+
     Path getAttemptOutput(OutputAttemptContext context) {
         assert context != null;
         Path tempPath = getTemporaryOutput(context.getTransactionContext());
@@ -34,7 +34,7 @@ import com.asakusafw.runtime.directio.FragmentableDataFormat;
 /**
  * A structured profile for {@link HadoopDataSource}.
  * @since 0.2.5
- * @version 0.9.0
+ * @version 0.10.5
  */
 public class HadoopDataSourceProfile {
 
@@ -65,6 +65,12 @@ public class HadoopDataSourceProfile {
      */
     public static final String KEY_OUTPUT_STREAMING = "output.streaming"; //$NON-NLS-1$
 
+    /**
+     * The property key name for {@link #isOutputManifest()}.
+     * @since 0.10.5
+     */
+    public static final String KEY_OUTPUT_MANIFEST = "output.manifest"; //$NON-NLS-1$
+
     /**
      * The property key name for {@link #getMinimumFragmentSize(FragmentableDataFormat)}.
      */
@@ -103,6 +109,13 @@ public class HadoopDataSourceProfile {
 
     private static final boolean DEFAULT_OUTPUT_STREAMING = true;
 
+    private static final boolean DEFAULT_OUTPUT_MANIFEST = false;
+
+    private static final String[] KEYS_SPECULATIVE = {
+            "mapreduce.map.speculative", //$NON-NLS-1$
+            "mapreduce.reduce.speculative", //$NON-NLS-1$
+    };
+
     private static final long DEFAULT_MIN_FRAGMENT = 16 * 1024 * 1024;
 
     private static final long DEFAULT_PREF_FRAGMENT = 64 * 1024 * 1024;
@@ -127,6 +140,8 @@ public class HadoopDataSourceProfile {
 
     private boolean outputStreaming = DEFAULT_OUTPUT_STREAMING;
 
+    private boolean outputManifest = DEFAULT_OUTPUT_MANIFEST;
+
     private long minimumFragmentSize = DEFAULT_MIN_FRAGMENT;
 
     private long preferredFragmentSize = DEFAULT_PREF_FRAGMENT;
@@ -155,6 +170,8 @@ public class HadoopDataSourceProfile {
 
     private final boolean legacyFragmentMin;
 
+    private final InputListingCache listingCache;
+
     /**
      * Creates a new instance.
      * @param conf the current configuration
@@ -178,6 +195,7 @@ public class HadoopDataSourceProfile {
         this.fileSystem = fileSystemPath.getFileSystem(conf);
         this.localFileSystem = FileSystem.getLocal(conf);
         this.legacyFragmentMin = conf.getBoolean(KEY_LEGACY_FRAGMENT_MIN, false);
+        this.listingCache = InputListingCache.get(conf);
     }
 
     /**
@@ -377,6 +395,30 @@ public class HadoopDataSourceProfile {
         this.outputStreaming = required;
     }
 
+    /**
+     * Returns whether the manifest based output commit protocol is enabled.
+     * If it is enabled, each task attempt writes its contents directly into the final area, and then
+     * the transaction commit only publishes a manifest of the committed contents instead of moving them.
+     * In this protocol, {@link #isOutputStaging() output staging} and
+     * {@link #isOutputStreaming() local attempt output} are not available.
+     * Note that, this protocol cannot restore the existing files which were overwritten by aborted transactions,
+     * and it is not available with speculative execution because the concurrent attempts write into the same files.
+     * @return {@code true} if it is enabled, otherwise {@code false}
+     * @since 0.10.5
+     */
+    public boolean isOutputManifest() {
+        return outputManifest;
+    }
+
+    /**
+     * Sets whether the manifest based output commit protocol is enabled.
+     * @param enable {@code true} to enable, otherwise {@code false}
+     * @since 0.10.5
+     */
+    public void setOutputManifest(boolean enable) {
+        this.outputManifest = enable;
+    }
+
     /**
      * Returns keep-alive interval.
      * @return keep-alive interval in ms, or {@code 0} if keep-alive is disabled
@@ -413,6 +455,14 @@ public class HadoopDataSourceProfile {
         this.rollforwardThreads = threads;
     }
 
+    /**
+     * Returns the input listing cache for the current execution.
+     * @return the input listing cache, or {@code null} if it is disabled
+     */
+    InputListingCache getListingCache() {
+        return listingCache;
+    }
+
     @Override
     public String toString() {
         StringBuilder builder = new StringBuilder();
@@ -428,6 +478,8 @@ public class HadoopDataSourceProfile {
         builder.append(outputStaging);
         builder.append(", outputStreaming="); //$NON-NLS-1$
         builder.append(outputStreaming);
+        builder.append(", outputManifest="); //$NON-NLS-1$
+        builder.append(outputManifest);
         builder.append(", minimumFragmentSize="); //$NON-NLS-1$
         builder.append(minimumFragmentSize);
         builder.append(", preferredFragmentSize="); //$NON-NLS-1$
@@ -497,6 +549,17 @@ public class HadoopDataSourceProfile {
         result.setPreferredFragmentSize(prefFragment);
         result.setOutputStaging(takeBoolean(profile, attributes, KEY_OUTPUT_STAGING, DEFAULT_OUTPUT_STAGING));
         result.setOutputStreaming(takeBoolean(profile, attributes, KEY_OUTPUT_STREAMING, DEFAULT_OUTPUT_STREAMING));
+        result.setOutputManifest(takeBoolean(profile, attributes, KEY_OUTPUT_MANIFEST, DEFAULT_OUTPUT_MANIFEST));
+        if (result.isOutputManifest()) {
+            for (String key : KEYS_SPECULATIVE) {
+                if (conf.getBoolean(key, false)) {
+                    throw new IOException(MessageFormat.format(
+                            "\"{0}\" is not available with speculative execution ({1}=true)",
+                            fqn(profile, KEY_OUTPUT_MANIFEST),
+                            key));
+                }
+            }
+        }
         result.setSplitBlocks(takeBoolean(profile, attributes, KEY_SPLIT_BLOCKS, DEFAULT_SPLIT_BLOCKS));
         result.setCombineBlocks(takeBoolean(profile, attributes, KEY_COMBINE_BLOCKS, DEFAULT_COMBINE_BLOCKS));
         result.setKeepAliveInterval(
@@ -17,6 +17,7 @@ package com.asakusafw.runtime.directio.hadoop;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.URI;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
@@ -44,6 +45,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -80,7 +82,7 @@ import com.asakusafw.runtime.stage.output.BridgeOutputFormat;
 /**
  * Utilities for Direct data access facilities on Hadoop.
  * @since 0.2.5
- * @version 0.10.0
+ * @version 0.10.5
  */
 public final class HadoopDataSourceUtil {
 
@@ -98,6 +100,16 @@ public final class HadoopDataSourceUtil {
         }
     };
 
+    private static final ThreadFactory SEARCH_THREAD_FACTORY = new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r);
+            t.setDaemon(true);
+            t.setName(String.format("DirectIO-SEARCH-%d", THREAD_COUNTER.incrementAndGet())); //$NON-NLS-1$
+            return t;
+        }
+    };
+
     /**
      * The key prefix of data sources.
      */
@@ -122,6 +134,32 @@ public final class HadoopDataSourceUtil {
 
     private static final int PARALLEL_MOVE_MIN = 3;
 
+    /**
+     * The configuration key of the max number of threads for listing directories in {@link #search}.
+     * @since 0.10.5
+     */
+    public static final String KEY_SEARCH_THREADS = "com.asakusafw.input.search.threads"; //$NON-NLS-1$
+
+    /**
+     * The default value of {@link #KEY_SEARCH_THREADS}.
+     * @since 0.10.5
+     */
+    public static final int DEFAULT_SEARCH_THREADS = 4;
+
+    private static final int PARALLEL_SEARCH_MIN = 2;
+
+    /**
+     * The configuration key of whether or not the input listing cache is enabled.
+     * @since 0.10.5
+     */
+    public static final String KEY_LISTING_CACHE = "com.asakusafw.input.listing.cache"; //$NON-NLS-1$
+
+    /**
+     * The default value of {@link #KEY_LISTING_CACHE}.
+     * @since 0.10.5
+     */
+    public static final boolean DEFAULT_LISTING_CACHE = false;
+
     /**
      * The file name prefix of transaction began mark.
      */
@@ -145,6 +183,12 @@ public final class HadoopDataSourceUtil {
      */
     public static final String TRANSACTION_INFO_DIR = "transactions"; //$NON-NLS-1$
 
+    /**
+     * The input listing cache directory name.
+     * @since 0.10.5
+     */
+    public static final String LISTING_CACHE_DIR = "listings"; //$NON-NLS-1$
+
     /**
      * Charset for commit mark file comments.
      */
@@ -503,19 +547,88 @@ public final class HadoopDataSourceUtil {
         return new Path(getSystemDir(conf), TRANSACTION_INFO_DIR);
     }
 
+    /**
+     * Returns the input listing cache directory for the target execution.
+     * @param conf the current configuration
+     * @param executionId target execution ID
+     * @return the cache directory path
+     * @throws IOException if failed to resolve the path
+     * @throws IllegalArgumentException if some parameters were {@code null}
+     * @since 0.10.5
+     */
+    public static Path getListingCacheDir(Configuration conf, String executionId) throws IOException {
+        if (conf == null) {
+            throw new IllegalArgumentException("conf must not be null"); //$NON-NLS-1$
+        }
+        if (executionId == null) {
+            throw new IllegalArgumentException("executionId must not be null"); //$NON-NLS-1$
+        }
+        return new Path(new Path(getSystemDir(conf), LISTING_CACHE_DIR), executionId);
+    }
+
     /**
      * Searches file/directories by pattern.
+     * Directories in each level are listed concurrently, up to {@link #KEY_SEARCH_THREADS} threads.
+     * The matches are returned only after the whole search was finished, because every caller
+     * (e.g. computing input fragments) requires all of them before it can proceed.
      * @param fs target file system
      * @param base base path
      * @param pattern search pattern
      * @return found files, or an empty list if not found
      * @throws IOException if failed to search by I/O error
      * @throws IllegalArgumentException if some parameters were {@code null}
+     * @see #search(FileSystem, Path, FilePattern, int)
      */
     public static List<FileStatus> search(FileSystem fs, Path base, FilePattern pattern) throws IOException {
         if (fs == null) {
             throw new IllegalArgumentException("fs must not be null"); //$NON-NLS-1$
         }
+        return search(fs, base, pattern, getSearchThreads(fs));
+    }
+
+    static int getSearchThreads(FileSystem fs) {
+        Configuration conf = fs.getConf();
+        if (conf == null) {
+            return DEFAULT_SEARCH_THREADS;
+        }
+        return conf.getInt(KEY_SEARCH_THREADS, DEFAULT_SEARCH_THREADS);
+    }
+
+    /**
+     * Searches file/directories by pattern.
+     * @param fs target file system
+     * @param base base path
+     * @param pattern search pattern
+     * @param threads the max number of threads for listing directories in each level
+     * @return found files, or an empty list if not found
+     * @throws IOException if failed to search by I/O error
+     * @throws IllegalArgumentException if some parameters were {@code null}
+     * @since 0.10.5
+     */
+    public static List<FileStatus> search(
+            FileSystem fs, Path base, FilePattern pattern, int threads) throws IOException {
+        return search(fs, base, pattern, threads, null);
+    }
+
+    /**
+     * Searches file/directories by pattern.
+     * @param fs target file system
+     * @param base base path
+     * @param pattern search pattern
+     * @param threads the max number of threads for listing directories in each level
+     * @param listed the consumer which accepts each directory listed in this search, or {@code null} if
+     *     it is not required. If this is specified, each glob step only contains a single segment so that
+     *     every directory which the glob passes through is also accepted by the consumer
+     * @return found files, or an empty list if not found
+     * @throws IOException if failed to search by I/O error
+     * @throws IllegalArgumentException if some parameters were {@code null}
+     */
+    static List<FileStatus> search(
+            FileSystem fs, Path base, FilePattern pattern, int threads,
+            Consumer<? super FileStatus> listed) throws IOException {
+        if (fs == null) {
+            throw new IllegalArgumentException("fs must not be null"); //$NON-NLS-1$
+        }
         if (base == null) {
             throw new IllegalArgumentException("base must not be null"); //$NON-NLS-1$
         }
@@ -524,9 +637,10 @@ public final class HadoopDataSourceUtil {
         }
         if (LOG.isDebugEnabled()) {
             LOG.debug(MessageFormat.format(
-                    "Start searching for files (path={0}, resourcePattern={1})", //$NON-NLS-1$
+                    "Start searching for files (path={0}, resourcePattern={1}, threads={2})", //$NON-NLS-1$
                     base,
-                    pattern));
+                    pattern,
+                    threads));
         }
         List<FileStatus> current = new ArrayList<>(1);
         try {
@@ -537,15 +651,23 @@ public final class HadoopDataSourceUtil {
         }
         int steps = 0;
         LinkedList<Segment> segments = new LinkedList<>(pattern.getSegments());
-        while (segments.isEmpty() == false) {
-            if (segments.getFirst().isTraverse()) {
-                segments.removeFirst();
-                current = recursiveStep(fs, current);
-            } else {
-                List<Path> step = consumeStep(segments);
-                current = globStep(fs, current, step);
+        try (SearchEngine engine = new SearchEngine(threads)) {
+            while (segments.isEmpty() == false) {
+                if (segments.getFirst().isTraverse()) {
+                    segments.removeFirst();
+                    current = recursiveStep(fs, current, engine, listed);
+                } else {
+                    List<Path> step = consumeStep(segments, listed == null);
+                    current = globStep(fs, current, step, engine, listed);
+                }
+                steps++;
             }
-            steps++;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw (IOException) new InterruptedIOException(MessageFormat.format(
+                    "interrupted while searching for files (path={0}, resourcePattern={1})",
+                    base,
+                    pattern)).initCause(e);
         }
         if (LOG.isDebugEnabled()) {
             LOG.debug(MessageFormat.format(
@@ -558,7 +680,7 @@ public final class HadoopDataSourceUtil {
         return current;
     }
 
-    private static List<Path> consumeStep(LinkedList<Segment> segments) {
+    private static List<Path> consumeStep(LinkedList<Segment> segments, boolean combine) {
         assert segments != null;
         assert segments.isEmpty() == false;
         assert segments.getFirst().isTraverse() == false;
@@ -568,7 +690,10 @@ public final class HadoopDataSourceUtil {
         for (String segment : resolve(current)) {
             results.add(new Path(segment));
         }
-        while (isGlobRequired(current) && segments.isEmpty() == false && segments.getFirst().isTraverse() == false) {
+        while (combine
+                && isGlobRequired(current)
+                && segments.isEmpty() == false
+                && segments.getFirst().isTraverse() == false) {
             current = segments.removeFirst();
             Set<String> suffixCandidates = resolve(current);
             if (suffixCandidates.size() == 1) {
@@ -662,33 +787,49 @@ public final class HadoopDataSourceUtil {
         return results;
     }
 
-    private static List<FileStatus> recursiveStep(FileSystem fs, List<FileStatus> current) throws IOException {
+    private static List<FileStatus> recursiveStep(
+            FileSystem fs,
+            List<FileStatus> current,
+            SearchEngine engine,
+            Consumer<? super FileStatus> listed) throws IOException, InterruptedException {
         assert fs != null;
         assert current != null;
+        assert engine != null;
         Set<Path> paths = new HashSet<>();
         List<FileStatus> results = new ArrayList<>();
-        LinkedList<FileStatus> work = new LinkedList<>(current);
+        List<FileStatus> work = current;
+        // breadth-first: lists all directories in the same level at once
         while (work.isEmpty() == false) {
-            FileStatus next = work.removeFirst();
-            Path path = next.getPath();
-            if (paths.contains(path) == false) {
-                paths.add(path);
-                results.add(next);
-                if (next.isDirectory()) {
-                    FileStatus[] children;
-                    try {
-                        children = fs.listStatus(path);
-                    } catch (FileNotFoundException e) {
-                        children = null;
-                        if (LOG.isDebugEnabled()) {
-                            LOG.debug(MessageFormat.format("Target file is not found: {0}", path), e); //$NON-NLS-1$
+            List<Path> directories = new ArrayList<>();
+            for (FileStatus next : work) {
+                Path path = next.getPath();
+                if (paths.contains(path) == false) {
+                    paths.add(path);
+                    results.add(next);
+                    if (next.isDirectory()) {
+                        if (listed != null) {
+                            listed.accept(next);
                         }
+                        directories.add(path);
                     }
-                    if (children != null) {
-                        Collections.addAll(work, children);
+                }
+            }
+            List<FileStatus> children = new ArrayList<>();
+            for (FileStatus[] stats : engine.apply(directories, path -> {
+                try {
+                    return fs.listStatus(path);
+                } catch (FileNotFoundException e) {
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug(MessageFormat.format("Target file is not found: {0}", path), e); //$NON-NLS-1$
                     }
+                    return null;
+                }
+            })) {
+                if (stats != null) {
+                    Collections.addAll(children, stats);
                 }
             }
+            work = children;
         }
         return results;
     }
@@ -696,26 +837,34 @@ public final class HadoopDataSourceUtil {
     private static List<FileStatus> globStep(
             FileSystem fs,
             List<FileStatus> current,
-            List<Path> expressions) throws IOException {
+            List<Path> expressions,
+            SearchEngine engine,
+            Consumer<? super FileStatus> listed) throws IOException, InterruptedException {
         assert fs != null;
         assert current != null;
         assert expressions != null;
-        Set<Path> paths = new HashSet<>();
-        List<FileStatus> results = new ArrayList<>();
+        assert engine != null;
+        List<Path> targets = new ArrayList<>();
         for (FileStatus status : current) {
             if (status.isDirectory() == false) {
                 continue;
             }
+            if (listed != null) {
+                listed.accept(status);
+            }
             for (Path expression : expressions) {
-                Path path = new Path(status.getPath(), expression);
-                FileStatus[] expanded = fs.globStatus(path);
-                if (expanded != null) {
-                    for (FileStatus s : expanded) {
-                        Path p = s.getPath();
-                        if (paths.contains(p) == false) {
-                            paths.add(p);
-                            results.add(s);
-                        }
+                targets.add(new Path(status.getPath(), expression));
+            }
+        }
+        Set<Path> paths = new HashSet<>();
+        List<FileStatus> results = new ArrayList<>();
+        for (FileStatus[] expanded : engine.apply(targets, fs::globStatus)) {
+            if (expanded != null) {
+                for (FileStatus s : expanded) {
+                    Path p = s.getPath();
+                    if (paths.contains(p) == false) {
+                        paths.add(p);
+                        results.add(s);
                     }
                 }
             }
@@ -723,6 +872,53 @@ public final class HadoopDataSourceUtil {
         return results;
     }
 
+    @FunctionalInterface
+    private interface PathAction {
+
+        FileStatus[] perform(Path path) throws IOException;
+    }
+
+    /**
+     * Performs file system operations for search, in parallel if it is enabled.
+     * The thread pool is prepared only when a level contains enough number of targets.
+     * The results of each level are collected in the order of targets, so that the search result is stable
+     * regardless of the number of threads.
+     */
+    private static final class SearchEngine implements AutoCloseable {
+
+        private final int threads;
+
+        private ExecutorService executor;
+
+        SearchEngine(int threads) {
+            this.threads = threads;
+        }
+
+        List<FileStatus[]> apply(List<Path> targets, PathAction action) throws IOException, InterruptedException {
+            if (threads <= 1 || targets.size() < PARALLEL_SEARCH_MIN) {
+                List<FileStatus[]> results = new ArrayList<>(targets.size());
+                for (Path target : targets) {
+                    results.add(action.perform(target));
+                }
+                return results;
+            }
+            if (executor == null) {
+                executor = Executors.newFixedThreadPool(threads, SEARCH_THREAD_FACTORY);
+            }
+            return parallel(executor, targets.stream()
+                    .map(target -> (Callable<FileStatus[]>) () -> action.perform(target))
+                    .collect(Collectors.toList()));
+        }
+
+        @Override
+        public void close() {
+            if (executor != null) {
+                executor.shutdownNow();
+                executor = null;
+            }
+        }
+    }
+
     /**
      * Returns only minimal covered files.
      * If the parameter contains both directory and its children, this result includes only the directory.
@@ -1058,15 +1254,16 @@ public final class HadoopDataSourceUtil {
                 .collect(Collectors.toList()));
     }
 
-    private static void parallel(
+    private static <T> List<T> parallel(
             ExecutorService executor,
-            Collection<? extends Callable<?>> tasks) throws IOException, InterruptedException {
-        List<Future<?>> futures = tasks.stream()
-                .map((Callable<?> task) -> executor.submit(task))
+            Collection<? extends Callable<? extends T>> tasks) throws IOException, InterruptedException {
+        List<Future<? extends T>> futures = tasks.stream()
+                .map((Callable<? extends T> task) -> executor.submit(task))
                 .collect(Collectors.toList());
-        for (Future<?> future : futures) {
+        List<T> results = new ArrayList<>(futures.size());
+        for (Future<? extends T> future : futures) {
             try {
-                future.get();
+                results.add(future.get());
             } catch (CancellationException | InterruptedException e) {
                 cancel(futures);
                 throw e;
@@ -1081,6 +1278,7 @@ public final class HadoopDataSourceUtil {
                 }
             }
         }
+        return results;
     }
 
     private static void cancel(List<? extends Future<?>> futures) {
@@ -0,0 +1,342 @@
+/**
+ * Copyright 2011-2021 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.runtime.directio.hadoop;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+import com.asakusafw.runtime.directio.FilePattern;
+import com.asakusafw.runtime.stage.StageConstants;
+
+/**
+ * An execution scoped cache of Direct I/O input listings.
+ * Each entry is keyed by (data source ID, base path, search pattern), and is persisted under
+ * {@link HadoopDataSourceUtil#getListingCacheDir(Configuration, String) the Direct I/O system directory}.
+ * An entry is available only if the modification time of every directory listed in the original search
+ * is not changed.
+ * @since 0.10.5
+ */
+final class InputListingCache {
+
+    static final Log LOG = LogFactory.getLog(InputListingCache.class);
+
+    private static final int MAGIC = 0x41534c43; // ASLC
+
+    private static final int VERSION = 1;
+
+    private static final String FILE_SUFFIX = ".listing"; //$NON-NLS-1$
+
+    private final FileSystem fileSystem;
+
+    private final Path directory;
+
+    /**
+     * Creates a new instance.
+     * @param fileSystem the file system of the cache directory
+     * @param directory the cache directory
+     */
+    InputListingCache(FileSystem fileSystem, Path directory) {
+        this.fileSystem = fileSystem;
+        this.directory = directory;
+    }
+
+    /**
+     * Returns a cache for the current execution.
+     * @param conf the current configuration
+     * @return the cache, or {@code null} if it is not enabled in the current execution
+     * @throws IOException if failed to resolve the cache directory
+     */
+    static InputListingCache get(Configuration conf) throws IOException {
+        if (conf.getBoolean(
+                HadoopDataSourceUtil.KEY_LISTING_CACHE,
+                HadoopDataSourceUtil.DEFAULT_LISTING_CACHE) == false) {
+            return null;
+        }
+        String executionId = conf.get(StageConstants.PROP_EXECUTION_ID);
+        if (executionId == null) {
+            return null;
+        }
+        Path path = HadoopDataSourceUtil.getListingCacheDir(conf, executionId);
+        return new InputListingCache(path.getFileSystem(conf), path);
+    }
+
+    /**
+     * Returns a valid cache entry.
+     * @param fs the file system of the target data source
+     * @param id the data source ID
+     * @param base the base path
+     * @param pattern the search pattern
+     * @return the cache entry, or {@code null} if it is not cached or has been invalidated
+     */
+    Entry find(FileSystem fs, String id, Path base, FilePattern pattern) {
+        Path file = getFile(id, base, pattern);
+        Entry entry;
+        try (DataInputStream input = fileSystem.open(file)) {
+            entry = Entry.read(input);
+        } catch (FileNotFoundException e) {
+            return null;
+        } catch (IOException e) {
+            LOG.warn(MessageFormat.format(
+                    "failed to read Direct I/O input listing cache: {0}",
+                    file), e);
+            return null;
+        }
+        if (entry == null) {
+            return null;
+        }
+        try {
+            for (Map.Entry<Path, Long> dir : entry.directories.entrySet()) {
+                FileStatus stat = fs.getFileStatus(dir.getKey());
+                if (stat.getModificationTime() != dir.getValue()) {
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug(MessageFormat.format(
+                                "Direct I/O input listing cache is invalidated (cache={0}, modified={1})", //$NON-NLS-1$
+                                file,
+                                dir.getKey()));
+                    }
+                    return null;
+                }
+            }
+        } catch (FileNotFoundException e) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(MessageFormat.format(
+                        "Direct I/O input listing cache is invalidated (cache={0})", //$NON-NLS-1$
+                        file), e);
+            }
+            return null;
+        } catch (IOException e) {
+            LOG.warn(MessageFormat.format(
+                    "failed to validate Direct I/O input listing cache: {0}",
+                    file), e);
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Puts a cache entry.
+     * This does nothing if the entry cannot be validated later.
+     * @param id the data source ID
+     * @param base the base path
+     * @param pattern the search pattern
+     * @param entry the cache entry
+     */
+    void put(String id, Path base, FilePattern pattern, Entry entry) {
+        if (entry.isCacheable() == false) {
+            return;
+        }
+        Path file = getFile(id, base, pattern);
+        Path temporary = new Path(directory, String.format(".%s.tmp", UUID.randomUUID())); //$NON-NLS-1$
+        try {
+            try (DataOutputStream output = fileSystem.create(temporary, true)) {
+                entry.write(output);
+            }
+            fileSystem.delete(file, false);
+            if (fileSystem.rename(temporary, file) == false) {
+                throw new IOException(MessageFormat.format(
+                        "failed to move file (from={0}, to={1})",
+                        temporary,
+                        file));
+            }
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(MessageFormat.format(
+                        "Saved Direct I/O input listing cache " //$NON-NLS-1$
+                        + "(id={0}, path={1}, resourcePattern={2}, cache={3})", //$NON-NLS-1$
+                        id,
+                        base,
+                        pattern,
+                        file));
+            }
+        } catch (IOException e) {
+            LOG.warn(MessageFormat.format(
+                    "failed to save Direct I/O input listing cache: {0}",
+                    file), e);
+            try {
+                fileSystem.delete(temporary, false);
+            } catch (IOException suppress) {
+                e.addSuppressed(suppress);
+            }
+        }
+    }
+
+    private Path getFile(String id, Path base, FilePattern pattern) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1"); //$NON-NLS-1$
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        StringBuilder identity = new StringBuilder();
+        identity.append(id).append('\n');
+        identity.append(base).append('\n');
+        identity.append(pattern.getPatternString()).append('\n');
+        StringBuilder result = new StringBuilder();
+        for (byte b : digest.digest(identity.toString().getBytes(StandardCharsets.UTF_8))) {
+            result.append(Character.forDigit((b >> 4) & 0xf, 16));
+            result.append(Character.forDigit(b & 0xf, 16));
+        }
+        result.append(FILE_SUFFIX);
+        return new Path(directory, result.toString());
+    }
+
+    /**
+     * An entry of {@link InputListingCache}.
+     */
+    static final class Entry {
+
+        final Map<Path, Long> directories;
+
+        final List<FileStatus> files;
+
+        final Map<Path, List<BlockInfo>> blocks;
+
+        boolean modified;
+
+        /**
+         * Creates a new empty instance.
+         */
+        Entry() {
+            this(new HashMap<>(), new ArrayList<>(), new HashMap<>());
+        }
+
+        private Entry(Map<Path, Long> directories, List<FileStatus> files, Map<Path, List<BlockInfo>> blocks) {
+            this.directories = directories;
+            this.files = files;
+            this.blocks = blocks;
+        }
+
+        /**
+         * Adds a directory which was listed in the original search.
+         * @param stat the directory status
+         */
+        void addDirectory(FileStatus stat) {
+            directories.put(stat.getPath(), stat.getModificationTime());
+            modified = true;
+        }
+
+        /**
+         * Returns the block information of the target file, or computes and caches it.
+         * @param fs the file system of the target file
+         * @param stat the target file status
+         * @return the block information
+         * @throws IOException if failed to compute the block information
+         */
+        List<BlockInfo> getBlocks(FileSystem fs, FileStatus stat) throws IOException {
+            List<BlockInfo> cached = blocks.get(stat.getPath());
+            if (cached != null) {
+                return cached;
+            }
+            List<BlockInfo> computed = BlockMap.computeBlocks(fs, stat);
+            blocks.put(stat.getPath(), computed);
+            modified = true;
+            return computed;
+        }
+
+        boolean isCacheable() {
+            if (directories.isEmpty()) {
+                return false;
+            }
+            for (long timestamp : directories.values()) {
+                // some file systems (e.g. object stores) do not provide directory modification times
+                if (timestamp <= 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void write(DataOutputStream output) throws IOException {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeInt(directories.size());
+            for (Map.Entry<Path, Long> entry : directories.entrySet()) {
+                output.writeUTF(entry.getKey().toString());
+                output.writeLong(entry.getValue());
+            }
+            output.writeInt(files.size());
+            for (FileStatus file : files) {
+                file.write(output);
+                List<BlockInfo> list = blocks.get(file.getPath());
+                if (list == null) {
+                    output.writeInt(-1);
+                } else {
+                    output.writeInt(list.size());
+                    for (BlockInfo block : list) {
+                        output.writeLong(block.start);
+                        output.writeLong(block.end);
+                        output.writeInt(block.hosts.length);
+                        for (String host : block.hosts) {
+                            output.writeUTF(host);
+                        }
+                    }
+                }
+            }
+        }
+
+        static Entry read(DataInputStream input) throws IOException {
+            if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+                return null;
+            }
+            Map<Path, Long> directories = new HashMap<>();
+            for (int i = 0, n = input.readInt(); i < n; i++) {
+                Path path = new Path(input.readUTF());
+                directories.put(path, input.readLong());
+            }
+            int fileCount = input.readInt();
+            List<FileStatus> files = new ArrayList<>(fileCount);
+            Map<Path, List<BlockInfo>> blocks = new HashMap<>();
+            for (int i = 0; i < fileCount; i++) {
+                FileStatus file = new FileStatus();
+                file.readFields(input);
+                files.add(file);
+                int blockCount = input.readInt();
+                if (blockCount >= 0) {
+                    List<BlockInfo> list = new ArrayList<>(blockCount);
+                    for (int j = 0; j < blockCount; j++) {
+                        long start = input.readLong();
+                        long end = input.readLong();
+                        String[] hosts = new String[input.readInt()];
+                        for (int k = 0; k < hosts.length; k++) {
+                            hosts[k] = input.readUTF();
+                        }
+                        list.add(new BlockInfo(start, end, hosts));
+                    }
+                    blocks.put(file.getPath(), Collections.unmodifiableList(list));
+                }
+            }
+            return new Entry(directories, files, blocks);
+        }
+    }
+}
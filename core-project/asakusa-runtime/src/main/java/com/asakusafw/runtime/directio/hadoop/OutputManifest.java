@@ -0,0 +1,402 @@
+/**
+ * Copyright 2011-2021 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.runtime.directio.hadoop;
+
+import java.io.BufferedReader;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+/**
+ * Utilities about the manifest based output commit protocol.
+ * Each transaction area has the following structure:
+ * <ul>
+ * <li> {@code manifest/attempts/<attempt-ID>} - the list of output files of an aborted attempt </li>
+ * <li> {@code manifest/committed/<attempt-ID>} - the list of output files of a committed attempt </li>
+ * <li> {@code manifest/published} - the list of published attempt IDs in the transaction </li>
+ * </ul>
+ * Each attempt keeps its output files in memory, and writes only a single list when the attempt is committed
+ * or aborted, so that the attempt must be committed in the same JVM which has created its output files.
+ * Output files which are listed in any attempts but are not published yet must be invisible from readers.
+ * Note that, output files of running attempts are not listed yet, and they are still visible from readers.
+ * @since 0.10.5
+ * @see HadoopDataSourceProfile#isOutputManifest()
+ */
+final class OutputManifest {
+
+    static final Log LOG = LogFactory.getLog(OutputManifest.class);
+
+    private static final String MANIFEST_AREA = "manifest"; //$NON-NLS-1$
+
+    private static final String ATTEMPT_AREA = "attempts"; //$NON-NLS-1$
+
+    private static final String COMMITTED_AREA = "committed"; //$NON-NLS-1$
+
+    private static final String PUBLISHED_FILE = "published"; //$NON-NLS-1$
+
+    private static final String PUBLISHING_FILE = "publishing"; //$NON-NLS-1$
+
+    private static final Charset ENCODING = StandardCharsets.UTF_8;
+
+    private static final ConcurrentMap<Path, Set<String>> RUNNING = new ConcurrentHashMap<>();
+
+    private static final ConcurrentMap<Path, Index> INDICES = new ConcurrentHashMap<>();
+
+    private OutputManifest() {
+        return;
+    }
+
+    /**
+     * Returns the manifest area of the transaction.
+     * @param transactionArea the transaction area
+     * @return the manifest area
+     */
+    static Path getManifestArea(Path transactionArea) {
+        return new Path(transactionArea, MANIFEST_AREA);
+    }
+
+    /**
+     * Registers an output file of the attempt.
+     * The registered files are recorded into the manifest when the attempt is committed or aborted.
+     * @param area the manifest area
+     * @param attemptId the attempt ID
+     * @param root the root path of the data source
+     * @param file the output file
+     * @throws IOException if the file is not in the data source
+     */
+    static void register(Path area, String attemptId, Path root, Path file) throws IOException {
+        String relative = relativize(root, file);
+        if (LOG.isTraceEnabled()) {
+            LOG.trace(MessageFormat.format(
+                    "Register output file (file={0}, attempt={1})", //$NON-NLS-1$
+                    file,
+                    attemptId));
+        }
+        RUNNING.computeIfAbsent(getAttemptEntry(area, attemptId), k -> Collections.synchronizedSet(new TreeSet<>()))
+                .add(relative);
+    }
+
+    /**
+     * Records the output files of the attempt, and then marks the attempt as committed.
+     * @param fs the target file system
+     * @param area the manifest area
+     * @param attemptId the attempt ID
+     * @throws IOException if failed to mark the attempt
+     */
+    static void commitAttempt(FileSystem fs, Path area, String attemptId) throws IOException {
+        Path entry = getAttemptEntry(area, attemptId);
+        Set<String> files = RUNNING.remove(entry);
+        if (files == null) {
+            return;
+        }
+        write(fs, entry, files);
+        Path committed = new Path(area, COMMITTED_AREA);
+        fs.mkdirs(committed);
+        if (fs.rename(entry, new Path(committed, attemptId)) == false) {
+            throw new IOException(MessageFormat.format(
+                    "Failed to commit output manifest: {0}",
+                    entry));
+        }
+    }
+
+    /**
+     * Records the output files of the attempt if it has not been committed.
+     * The recorded files will be discarded in {@link #discard(FileSystem, Path, Path)}.
+     * @param fs the target file system
+     * @param area the manifest area
+     * @param attemptId the attempt ID
+     * @throws IOException if failed to record the files
+     */
+    static void abortAttempt(FileSystem fs, Path area, String attemptId) throws IOException {
+        Path entry = getAttemptEntry(area, attemptId);
+        Set<String> files = RUNNING.remove(entry);
+        if (files == null) {
+            return;
+        }
+        write(fs, entry, files);
+    }
+
+    /**
+     * Publishes the output files of the committed attempts.
+     * This operation is idempotent.
+     * @param fs the target file system
+     * @param area the manifest area
+     * @return the number of published files
+     * @throws IOException if failed to publish the files
+     */
+    static int publish(FileSystem fs, Path area) throws IOException {
+        Path published = new Path(area, PUBLISHED_FILE);
+        if (fs.exists(published)) {
+            // no more attempts can be committed after the transaction was published
+            return collectPublished(fs, area).size();
+        }
+        Set<String> attempts = new TreeSet<>();
+        Set<String> files = new HashSet<>();
+        for (FileStatus stat : list(fs, new Path(area, COMMITTED_AREA))) {
+            attempts.add(stat.getPath().getName());
+            files.addAll(read(fs, stat.getPath()));
+        }
+        Path publishing = new Path(area, PUBLISHING_FILE);
+        write(fs, publishing, attempts);
+        if (fs.rename(publishing, published) == false) {
+            throw new IOException(MessageFormat.format(
+                    "Failed to publish output manifest: {0}",
+                    published));
+        }
+        return files.size();
+    }
+
+    /**
+     * Deletes the registered output files which are not published in the transaction.
+     * @param fs the target file system
+     * @param area the manifest area
+     * @param root the root path of the data source
+     * @return the number of deleted files
+     * @throws IOException if failed to delete the files
+     */
+    static int discard(FileSystem fs, Path area, Path root) throws IOException {
+        Set<String> unpublished = new HashSet<>();
+        for (FileStatus stat : list(fs, new Path(area, ATTEMPT_AREA))) {
+            unpublished.addAll(read(fs, stat.getPath()));
+        }
+        for (FileStatus stat : list(fs, new Path(area, COMMITTED_AREA))) {
+            unpublished.addAll(read(fs, stat.getPath()));
+        }
+        unpublished.removeAll(collectPublished(fs, area));
+        int count = 0;
+        for (String path : unpublished) {
+            Path file = new Path(root, path);
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(MessageFormat.format(
+                        "Delete unpublished output file: {0}", //$NON-NLS-1$
+                        file));
+            }
+            if (fs.delete(file, false)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the registered output files which are not published yet, over all transactions.
+     * The contents of manifest files are cached in this JVM while they are not modified.
+     * @param fs the target file system
+     * @param temporaryRoot the temporary root path of the data source
+     * @param root the root path of the data source
+     * @return the unpublished files
+     * @throws IOException if failed to find the files
+     */
+    static Set<Path> findUnpublished(FileSystem fs, Path temporaryRoot, Path root) throws IOException {
+        FileStatus[] transactions = list(fs, temporaryRoot);
+        if (transactions.length == 0) {
+            // no transactions are in flight
+            return Collections.emptySet();
+        }
+        List<FileStatus> manifests = new ArrayList<>();
+        for (FileStatus transaction : transactions) {
+            if (transaction.isDirectory() == false) {
+                continue;
+            }
+            Path area = getManifestArea(transaction.getPath());
+            for (FileStatus stat : list(fs, area)) {
+                String name = stat.getPath().getName();
+                if (name.equals(ATTEMPT_AREA) || name.equals(COMMITTED_AREA)) {
+                    Collections.addAll(manifests, list(fs, stat.getPath()));
+                } else if (name.equals(PUBLISHED_FILE)) {
+                    manifests.add(stat);
+                }
+            }
+        }
+        if (manifests.isEmpty()) {
+            return Collections.emptySet();
+        }
+        Index index = INDICES.computeIfAbsent(fs.makeQualified(temporaryRoot), k -> new Index());
+        return index.findUnpublished(fs, root, manifests);
+    }
+
+    private static Set<String> collectPublished(FileSystem fs, Path area) throws IOException {
+        Set<String> results = new HashSet<>();
+        Path committed = new Path(area, COMMITTED_AREA);
+        for (String attemptId : read(fs, new Path(area, PUBLISHED_FILE))) {
+            results.addAll(read(fs, new Path(committed, attemptId)));
+        }
+        return results;
+    }
+
+    private static Path getAttemptEntry(Path area, String attemptId) {
+        return new Path(new Path(area, ATTEMPT_AREA), attemptId);
+    }
+
+    private static void write(FileSystem fs, Path path, Collection<String> lines) throws IOException {
+        try (Writer writer = new OutputStreamWriter(fs.create(path, true), ENCODING)) {
+            for (String line : lines) {
+                writer.write(line);
+                writer.write('\n');
+            }
+        }
+    }
+
+    private static Set<String> read(FileSystem fs, Path path) throws IOException {
+        Set<String> results = new HashSet<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(fs.open(path), ENCODING))) {
+            while (true) {
+                String line = reader.readLine();
+                if (line == null) {
+                    break;
+                }
+                if (line.isEmpty() == false) {
+                    results.add(line);
+                }
+            }
+        } catch (FileNotFoundException e) {
+            LOG.trace(MessageFormat.format("Output manifest is not found: {0}", path), e); //$NON-NLS-1$
+        }
+        return results;
+    }
+
+    private static FileStatus[] list(FileSystem fs, Path path) throws IOException {
+        try {
+            FileStatus[] results = fs.listStatus(path);
+            return results == null ? new FileStatus[0] : results;
+        } catch (FileNotFoundException e) {
+            LOG.trace(MessageFormat.format("Output manifest entries are not found: {0}", path), e); //$NON-NLS-1$
+            return new FileStatus[0];
+        }
+    }
+
+    private static String relativize(Path base, Path file) throws IOException {
+        URI baseUri = base.toUri();
+        URI fileUri = file.toUri();
+        URI relative = baseUri.relativize(fileUri);
+        if (relative == fileUri || relative.getPath().isEmpty()) {
+            throw new IOException(MessageFormat.format(
+                    "Output file must be in the base path: base={0}, file={1}",
+                    base,
+                    file));
+        }
+        return relative.getPath();
+    }
+
+    /**
+     * A cache of manifest contents in a temporary root.
+     */
+    private static final class Index {
+
+        private Map<Path, Snapshot> snapshots = new HashMap<>();
+
+        private Path lastRoot;
+
+        private Set<Path> lastResult;
+
+        Index() {
+            return;
+        }
+
+        synchronized Set<Path> findUnpublished(
+                FileSystem fs, Path root, List<FileStatus> manifests) throws IOException {
+            boolean modified = Objects.equals(root, lastRoot) == false
+                    || snapshots.size() != manifests.size();
+            Map<Path, Snapshot> next = new HashMap<>();
+            for (FileStatus stat : manifests) {
+                Snapshot snapshot = snapshots.get(stat.getPath());
+                if (snapshot == null || snapshot.matches(stat) == false) {
+                    snapshot = new Snapshot(stat, read(fs, stat.getPath()));
+                    modified = true;
+                }
+                next.put(stat.getPath(), snapshot);
+            }
+            snapshots = next;
+            if (modified == false) {
+                return lastResult;
+            }
+            Map<Path, Set<String>> listed = new HashMap<>();
+            Map<Path, Set<String>> published = new HashMap<>();
+            for (Snapshot snapshot : next.values()) {
+                Path parent = snapshot.path.getParent();
+                if (snapshot.path.getName().equals(PUBLISHED_FILE)) {
+                    Set<String> files = published.computeIfAbsent(parent, k -> new HashSet<>());
+                    for (String attemptId : snapshot.lines) {
+                        Snapshot committed = next.get(new Path(new Path(parent, COMMITTED_AREA), attemptId));
+                        if (committed != null) {
+                            files.addAll(committed.lines);
+                        }
+                    }
+                } else {
+                    listed.computeIfAbsent(parent.getParent(), k -> new HashSet<>()).addAll(snapshot.lines);
+                }
+            }
+            Set<Path> results = new HashSet<>();
+            for (Map.Entry<Path, Set<String>> entry : listed.entrySet()) {
+                Set<String> excludes = published.getOrDefault(entry.getKey(), Collections.emptySet());
+                for (String path : entry.getValue()) {
+                    if (excludes.contains(path) == false) {
+                        results.add(new Path(root, path));
+                    }
+                }
+            }
+            lastRoot = root;
+            lastResult = Collections.unmodifiableSet(results);
+            return lastResult;
+        }
+    }
+
+    private static final class Snapshot {
+
+        final Path path;
+
+        final long modificationTime;
+
+        final long length;
+
+        final Set<String> lines;
+
+        Snapshot(FileStatus stat, Set<String> lines) {
+            this.path = stat.getPath();
+            this.modificationTime = stat.getModificationTime();
+            this.length = stat.getLen();
+            this.lines = lines;
+        }
+
+        boolean matches(FileStatus stat) {
+            return modificationTime == stat.getModificationTime() && length == stat.getLen();
+        }
+    }
+}
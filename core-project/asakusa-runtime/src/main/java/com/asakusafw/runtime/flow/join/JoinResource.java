@@ -15,19 +15,27 @@
  */
 package com.asakusafw.runtime.flow.join;
 
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.MessageFormat;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.io.Writable;
 import org.apache.hadoop.mapreduce.JobContext;
 
 import com.asakusafw.runtime.flow.FlowResource;
 import com.asakusafw.runtime.io.ModelInput;
+import com.asakusafw.runtime.stage.StageConstants;
 import com.asakusafw.runtime.stage.resource.StageResourceDriver;
 import com.asakusafw.runtime.stage.temporary.TemporaryStorage;
 
@@ -40,6 +48,30 @@ public abstract class JoinResource<L extends Writable, R> implements FlowResourc
 
     static final Log LOG = LogFactory.getLog(JoinResource.class);
 
+    /**
+     * The configuration key of the local directory for storing memory-mapped lookup tables.
+     * If this is set, each lookup table is built into a file in the directory only once,
+     * and the other tasks on the same node map the file instead of building the table on the Java heap.
+     * The table files are placed into a sub-directory for each execution ID,
+     * and it is removed in the cleanup phase of the jobflow.
+     * @since 0.10.5
+     */
+    public static final String KEY_TABLE_DIRECTORY = "com.asakusafw.runtime.join.table.directory"; //$NON-NLS-1$
+
+    /**
+     * The configuration key of the expiration time in milliseconds of memory-mapped lookup tables.
+     * The tables of the other executions are removed if they have not been used for the period,
+     * because the cleanup phase cannot remove the tables on the other nodes.
+     * @since 0.10.5
+     */
+    public static final String KEY_TABLE_EXPIRATION = "com.asakusafw.runtime.join.table.expiration"; //$NON-NLS-1$
+
+    static final long DEFAULT_TABLE_EXPIRATION = TimeUnit.DAYS.toMillis(1);
+
+    private static final String TABLE_FILE_PREFIX = "asakusa-join-"; //$NON-NLS-1$
+
+    private static final String TABLE_FILE_SUFFIX = ".table"; //$NON-NLS-1$
+
     private final LookUpKey lookupKeyBuffer = new LookUpKey();
 
     private LookUpTable<L> table;
@@ -65,7 +97,16 @@ public abstract class JoinResource<L extends Writable, R> implements FlowResourc
                         paths));
             }
             try {
-                table = createTable(driver, paths);
+                String directory = driver.getConfiguration().get(KEY_TABLE_DIRECTORY);
+                if (directory == null || directory.trim().isEmpty()) {
+                    table = createTable(driver, paths);
+                } else {
+                    Configuration conf = driver.getConfiguration();
+                    File base = new File(directory.trim());
+                    File current = getTableDirectory(base, conf.get(StageConstants.PROP_EXECUTION_ID));
+                    evictTables(base, current, conf.getLong(KEY_TABLE_EXPIRATION, DEFAULT_TABLE_EXPIRATION));
+                    table = createMappedTable(driver, paths, current);
+                }
             } catch (IOException e) {
                 throw new IOException(MessageFormat.format(
                         "Failed to build a join table from \"{0}\"",
@@ -78,12 +119,162 @@ public abstract class JoinResource<L extends Writable, R> implements FlowResourc
             }
         }
     }
+
     private LookUpTable<L> createTable(
             StageResourceDriver driver,
             List<Path> paths) throws IOException {
         assert driver != null;
         assert paths != null;
         LookUpTable.Builder<L> builder = createLookUpTable();
+        return buildTable(builder, driver, paths);
+    }
+
+    private LookUpTable<L> createMappedTable(
+            StageResourceDriver driver,
+            List<Path> paths,
+            File directory) throws IOException {
+        assert driver != null;
+        assert paths != null;
+        assert directory != null;
+        File file = new File(directory, getTableFileName(driver.getConfiguration(), paths));
+        if (file.isFile()) {
+            try {
+                LookUpTable<L> result = MappedLookUpTable.open(file, this::createValueObject);
+                touch(file);
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug(MessageFormat.format(
+                            "Reusing join table \"{0}\" from \"{1}\"", //$NON-NLS-1$
+                            getCacheName(),
+                            file));
+                }
+                return result;
+            } catch (IOException e) {
+                LOG.warn(MessageFormat.format(
+                        "Failed to reuse join table \"{0}\" from \"{1}\", rebuilding it",
+                        getCacheName(),
+                        file), e);
+            }
+        }
+        MappedLookUpTable.Builder<L> builder = new MappedLookUpTable.Builder<>(file, this::createValueObject);
+        return buildTable(builder, driver, paths);
+    }
+
+    private static File getTableDirectory(File base, String executionId) {
+        if (executionId == null || executionId.isEmpty()) {
+            return base;
+        }
+        return new File(base, executionId);
+    }
+
+    private static void evictTables(File base, File current, long expiration) {
+        if (expiration < 0) {
+            return;
+        }
+        touch(current);
+        File[] files = base.listFiles();
+        if (files == null) {
+            return;
+        }
+        long limit = System.currentTimeMillis() - expiration;
+        for (File file : files) {
+            if (file.equals(current) || file.lastModified() >= limit) {
+                continue;
+            }
+            if (file.isDirectory() || isTableFile(file)) {
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug(MessageFormat.format(
+                            "Removing expired join table: {0}", //$NON-NLS-1$
+                            file));
+                }
+                delete(file);
+            }
+        }
+    }
+
+    private static boolean isTableFile(File file) {
+        String name = file.getName();
+        return file.isFile() && name.startsWith(TABLE_FILE_PREFIX) && name.endsWith(TABLE_FILE_SUFFIX);
+    }
+
+    private static void touch(File file) {
+        if (file.exists() && file.setLastModified(System.currentTimeMillis()) == false) {
+            LOG.debug(MessageFormat.format(
+                    "Failed to update the last modified time: {0}", //$NON-NLS-1$
+                    file));
+        }
+    }
+
+    /**
+     * Removes the memory-mapped lookup tables of the target execution on this node.
+     * @param conf the current configuration
+     * @param executionId the target execution ID
+     * @since 0.10.5
+     */
+    public static void deleteTables(Configuration conf, String executionId) {
+        if (conf == null) {
+            throw new IllegalArgumentException("conf must not be null"); //$NON-NLS-1$
+        }
+        if (executionId == null) {
+            throw new IllegalArgumentException("executionId must not be null"); //$NON-NLS-1$
+        }
+        String directory = conf.get(KEY_TABLE_DIRECTORY);
+        if (directory == null || directory.trim().isEmpty() || executionId.isEmpty()) {
+            return;
+        }
+        File target = getTableDirectory(new File(directory.trim()), executionId);
+        if (target.exists()) {
+            LOG.info(MessageFormat.format(
+                    "Deleting join tables: {0}",
+                    target));
+            delete(target);
+        }
+    }
+
+    private static void delete(File file) {
+        if (file.isDirectory()) {
+            File[] children = file.listFiles();
+            if (children != null) {
+                for (File child : children) {
+                    delete(child);
+                }
+            }
+        }
+        if (file.delete() == false && file.exists()) {
+            LOG.warn(MessageFormat.format(
+                    "Failed to delete a join table file: {0}",
+                    file));
+        }
+    }
+
+    private String getTableFileName(Configuration conf, List<Path> paths) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1"); //$NON-NLS-1$
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        StringBuilder identity = new StringBuilder();
+        identity.append(getClass().getName()).append('\n');
+        identity.append(getCacheName()).append('\n');
+        for (Path path : paths) {
+            FileStatus stat = path.getFileSystem(conf).getFileStatus(path);
+            identity.append(stat.getPath()).append('\n');
+            identity.append(stat.getLen()).append('\n');
+            identity.append(stat.getModificationTime()).append('\n');
+        }
+        StringBuilder result = new StringBuilder(TABLE_FILE_PREFIX);
+        for (byte b : digest.digest(identity.toString().getBytes(StandardCharsets.UTF_8))) {
+            result.append(Character.forDigit((b >> 4) & 0xf, 16));
+            result.append(Character.forDigit(b & 0xf, 16));
+        }
+        result.append(TABLE_FILE_SUFFIX);
+        return result.toString();
+    }
+
+    private LookUpTable<L> buildTable(
+            LookUpTable.Builder<L> builder,
+            StageResourceDriver driver,
+            List<Path> paths) throws IOException {
         L value = createValueObject();
         for (Path path : paths) {
             if (LOG.isDebugEnabled()) {
@@ -84,6 +84,14 @@ public class LookUpKey {
         return result;
     }
 
+    /**
+     * Returns the buffer which holds the serialized key.
+     * @return the key buffer
+     */
+    DataBuffer getBuffer() {
+        return buffer;
+    }
+
     /**
      * Returns a direct view of this key.
      * @return a direct view
@@ -0,0 +1,435 @@
+/**
+ * Copyright 2011-2021 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.runtime.flow.join;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.io.Writable;
+
+import com.asakusafw.runtime.io.util.DataBuffer;
+
+/**
+ * An implementation of {@link LookUpTable} which is backed by a memory-mapped file.
+ * The table file consists of a hash index over the serialized keys and the serialized key-value pairs,
+ * and the individual values are deserialized only when they are looked up.
+ * Once the table file was built, other processes can share it by using {@link #open(File, Supplier)}.
+ * Note that, instances of this class are not thread-safe.
+ * @param <T> the element type
+ * @since 0.10.5
+ */
+public class MappedLookUpTable<T extends Writable> implements LookUpTable<T> {
+
+    static final Log LOG = LogFactory.getLog(MappedLookUpTable.class);
+
+    private static final long MAGIC = 0x41534b4c55543031L; // "ASKLUT01"
+
+    private static final int HEADER_SIZE = 24;
+
+    private static final int MAX_BUCKET_COUNT = 1 << 30;
+
+    private final MappedRegion region;
+
+    private final Supplier<? extends T> factory;
+
+    private final int bucketMask;
+
+    private final long bucketsOffset;
+
+    private final long hashesOffset;
+
+    private final long offsetsOffset;
+
+    private final DataBuffer valueBuffer = new DataBuffer(0);
+
+    private byte[] valueBytes = new byte[256];
+
+    private MappedLookUpTable(
+            MappedRegion region, Supplier<? extends T> factory,
+            int bucketCount, int entryCount) {
+        this.region = region;
+        this.factory = factory;
+        this.bucketMask = bucketCount - 1;
+        this.bucketsOffset = HEADER_SIZE;
+        this.hashesOffset = bucketsOffset + (bucketCount + 1) * 4L;
+        this.offsetsOffset = hashesOffset + entryCount * 4L;
+    }
+
+    /**
+     * Opens a table file which was built by {@link Builder}.
+     * @param <T> the element type
+     * @param file the table file
+     * @param factory the element object factory
+     * @return the opened table
+     * @throws IOException if failed to open the table file
+     */
+    public static <T extends Writable> MappedLookUpTable<T> open(
+            File file, Supplier<? extends T> factory) throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException("file must not be null"); //$NON-NLS-1$
+        }
+        if (factory == null) {
+            throw new IllegalArgumentException("factory must not be null"); //$NON-NLS-1$
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) {
+                    throw new IOException(MessageFormat.format(
+                            "invalid lookup table file (too short): {0}",
+                            file));
+                }
+            }
+            header.flip();
+            if (header.getLong() != MAGIC) {
+                throw new IOException(MessageFormat.format(
+                        "invalid lookup table file (unknown format): {0}",
+                        file));
+            }
+            int bucketCount = header.getInt();
+            int entryCount = header.getInt();
+            int maxRecordSize = header.getInt();
+            if (bucketCount <= 0 || Integer.bitCount(bucketCount) != 1 || entryCount < 0 || maxRecordSize < 0) {
+                throw new IOException(MessageFormat.format(
+                        "invalid lookup table file (broken header): {0}",
+                        file));
+            }
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(MessageFormat.format(
+                        "mapping lookup table: {0} (entries={1}, buckets={2}, size={3}bytes)", //$NON-NLS-1$
+                        file,
+                        entryCount,
+                        bucketCount,
+                        size));
+            }
+            MappedRegion region = new MappedRegion(channel, size, Math.max(maxRecordSize, Long.BYTES));
+            return new MappedLookUpTable<>(region, factory, bucketCount, entryCount);
+        }
+    }
+
+    @Override
+    public List<T> get(LookUpKey key) throws IOException {
+        if (key == null) {
+            throw new IllegalArgumentException("key must not be null"); //$NON-NLS-1$
+        }
+        DataBuffer buffer = key.getBuffer();
+        byte[] bytes = buffer.getData();
+        int from = buffer.getReadPosition();
+        int to = buffer.getReadLimit();
+        int hash = LookUpKey.hashCodeInBytes(bytes, from, to);
+        long bucket = bucketsOffset + (spread(hash) & bucketMask) * 4L;
+        int begin = region.getInt(bucket);
+        int end = region.getInt(bucket + 4);
+        List<T> results = null;
+        for (int i = begin; i < end; i++) {
+            if (region.getInt(hashesOffset + i * 4L) != hash) {
+                continue;
+            }
+            long record = region.getLong(offsetsOffset + i * 8L);
+            if (region.equals(record + 4, region.getInt(record), bytes, from, to)) {
+                if (results == null) {
+                    results = new ArrayList<>(1);
+                }
+                results.add(readValue(record + 4 + (to - from)));
+            }
+        }
+        if (results == null) {
+            return Collections.emptyList();
+        }
+        return results;
+    }
+
+    private T readValue(long offset) throws IOException {
+        int length = region.getInt(offset);
+        if (valueBytes.length < length) {
+            valueBytes = new byte[Math.max(length, (int) (valueBytes.length * 1.5))];
+        }
+        region.get(offset + 4, valueBytes, length);
+        valueBuffer.reset(valueBytes, 0, length);
+        T value = factory.get();
+        value.readFields(valueBuffer);
+        return value;
+    }
+
+    static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * A builder for {@link MappedLookUpTable}.
+     * The table file is built into a temporary file, and then it is moved to the destination atomically.
+     * @param <T> the element type
+     * @since 0.10.5
+     */
+    public static class Builder<T extends Writable> implements LookUpTable.Builder<T> {
+
+        private static final int[] EMPTY_INTS = new int[0];
+
+        private static final long[] EMPTY_LONGS = new long[0];
+
+        private final File file;
+
+        private final Supplier<? extends T> factory;
+
+        private final File dataFile;
+
+        private final DataOutputStream data;
+
+        private final DataBuffer valueBuffer = new DataBuffer();
+
+        private int[] hashes = EMPTY_INTS;
+
+        private long[] offsets = EMPTY_LONGS;
+
+        private int count;
+
+        private long dataSize;
+
+        private int maxRecordSize;
+
+        /**
+         * Creates a new instance.
+         * @param file the destination table file
+         * @param factory the element object factory
+         * @throws IOException if failed to prepare the temporary file
+         */
+        public Builder(File file, Supplier<? extends T> factory) throws IOException {
+            if (file == null) {
+                throw new IllegalArgumentException("file must not be null"); //$NON-NLS-1$
+            }
+            if (factory == null) {
+                throw new IllegalArgumentException("factory must not be null"); //$NON-NLS-1$
+            }
+            this.file = file.getAbsoluteFile();
+            this.factory = factory;
+            File parent = this.file.getParentFile();
+            if (parent.mkdirs() == false && parent.isDirectory() == false) {
+                throw new IOException(MessageFormat.format(
+                        "failed to create directory for lookup table: {0}",
+                        parent));
+            }
+            this.dataFile = File.createTempFile(this.file.getName(), ".data", parent); //$NON-NLS-1$
+            this.data = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(dataFile)));
+        }
+
+        @Override
+        public void add(LookUpKey key, T value) throws IOException {
+            if (key == null) {
+                throw new IllegalArgumentException("key must not be null"); //$NON-NLS-1$
+            }
+            if (value == null) {
+                throw new IllegalArgumentException("value must not be null"); //$NON-NLS-1$
+            }
+            if (count == Integer.MAX_VALUE - 1) {
+                throw new IOException(MessageFormat.format(
+                        "too many entries for lookup table: {0}",
+                        file));
+            }
+            DataBuffer keyBuffer = key.getBuffer();
+            int keyLength = keyBuffer.getReadRemaining();
+            valueBuffer.reset(0, 0);
+            value.write(valueBuffer);
+            int valueLength = valueBuffer.getReadRemaining();
+            if (count >= hashes.length) {
+                int size = Math.max(256, (int) Math.min(Integer.MAX_VALUE - 1, hashes.length * 2L));
+                hashes = Arrays.copyOf(hashes, size);
+                offsets = Arrays.copyOf(offsets, size);
+            }
+            hashes[count] = LookUpKey.hashCodeInBytes(
+                    keyBuffer.getData(), keyBuffer.getReadPosition(), keyBuffer.getReadLimit());
+            offsets[count] = dataSize;
+            count++;
+            data.writeInt(keyLength);
+            data.write(keyBuffer.getData(), keyBuffer.getReadPosition(), keyLength);
+            data.writeInt(valueLength);
+            data.write(valueBuffer.getData(), valueBuffer.getReadPosition(), valueLength);
+            int recordSize = keyLength + valueLength + 8;
+            dataSize += recordSize;
+            maxRecordSize = Math.max(maxRecordSize, recordSize);
+        }
+
+        @Override
+        public MappedLookUpTable<T> build() throws IOException {
+            data.close();
+            try {
+                File temporary = File.createTempFile(file.getName(), ".tmp", file.getParentFile()); //$NON-NLS-1$
+                try {
+                    write(temporary);
+                    move(temporary);
+                } finally {
+                    if (temporary.exists() && temporary.delete() == false) {
+                        LOG.warn(MessageFormat.format(
+                                "failed to delete a temporary file: {0}",
+                                temporary));
+                    }
+                }
+            } finally {
+                if (dataFile.delete() == false && dataFile.exists()) {
+                    LOG.warn(MessageFormat.format(
+                            "failed to delete a temporary file: {0}",
+                            dataFile));
+                }
+                hashes = EMPTY_INTS;
+                offsets = EMPTY_LONGS;
+            }
+            return open(file, factory);
+        }
+
+        private void write(File temporary) throws IOException {
+            int bucketCount = Math.max(1, Integer.highestOneBit(Math.max(1, count - 1)) << 1);
+            if (bucketCount <= 0 || bucketCount > MAX_BUCKET_COUNT) {
+                bucketCount = MAX_BUCKET_COUNT;
+            }
+            int mask = bucketCount - 1;
+
+            // counting sort: keeps the insertion order in each bucket
+            int[] buckets = new int[bucketCount + 1];
+            for (int i = 0; i < count; i++) {
+                buckets[(spread(hashes[i]) & mask) + 1]++;
+            }
+            for (int i = 0; i < bucketCount; i++) {
+                buckets[i + 1] += buckets[i];
+            }
+            int[] order = new int[count];
+            int[] cursors = Arrays.copyOf(buckets, bucketCount);
+            for (int i = 0; i < count; i++) {
+                order[cursors[spread(hashes[i]) & mask]++] = i;
+            }
+
+            long dataOffset = HEADER_SIZE + (bucketCount + 1) * 4L + count * 12L;
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(MessageFormat.format(
+                        "building lookup table: {0} (entries={1}, buckets={2}, size={3}bytes)", //$NON-NLS-1$
+                        file,
+                        count,
+                        bucketCount,
+                        dataOffset + dataSize));
+            }
+            try (DataOutputStream output = new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(temporary)))) {
+                output.writeLong(MAGIC);
+                output.writeInt(bucketCount);
+                output.writeInt(count);
+                output.writeInt(maxRecordSize);
+                output.writeInt(0);
+                for (int bucket : buckets) {
+                    output.writeInt(bucket);
+                }
+                for (int index : order) {
+                    output.writeInt(hashes[index]);
+                }
+                for (int index : order) {
+                    output.writeLong(dataOffset + offsets[index]);
+                }
+                Files.copy(dataFile.toPath(), output);
+            }
+        }
+
+        private void move(File temporary) throws IOException {
+            try {
+                Files.move(temporary.toPath(), file.toPath(),
+                        StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                LOG.debug("atomic move is not supported", e); //$NON-NLS-1$
+                Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+
+    /**
+     * A read-only region of memory-mapped file.
+     * The file is mapped into the individual segments, and each segment overlaps the next one
+     * so that every record which starts in a segment is entirely contained in the segment.
+     */
+    private static final class MappedRegion {
+
+        private static final int SEGMENT_BITS = 30;
+
+        private static final long SEGMENT_MASK = (1L << SEGMENT_BITS) - 1;
+
+        private final ByteBuffer[] segments;
+
+        MappedRegion(FileChannel channel, long size, int overlap) throws IOException {
+            long segmentSize = 1L << SEGMENT_BITS;
+            if (segmentSize + overlap > Integer.MAX_VALUE) {
+                throw new IOException(MessageFormat.format(
+                        "too large record in lookup table: {0}bytes",
+                        overlap));
+            }
+            int count = (int) ((size + segmentSize - 1) >>> SEGMENT_BITS);
+            this.segments = new ByteBuffer[count];
+            for (int i = 0; i < count; i++) {
+                long offset = i * segmentSize;
+                long length = Math.min(size - offset, segmentSize + overlap);
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+            }
+        }
+
+        private ByteBuffer segment(long position) {
+            return segments[(int) (position >>> SEGMENT_BITS)];
+        }
+
+        private static int index(long position) {
+            return (int) (position & SEGMENT_MASK);
+        }
+
+        int getInt(long position) {
+            return segment(position).getInt(index(position));
+        }
+
+        long getLong(long position) {
+            return segment(position).getLong(index(position));
+        }
+
+        void get(long position, byte[] destination, int length) {
+            ByteBuffer segment = segment(position);
+            segment.position(index(position));
+            segment.get(destination, 0, length);
+        }
+
+        boolean equals(long position, int length, byte[] bytes, int from, int to) {
+            if (length != to - from) {
+                return false;
+            }
+            ByteBuffer segment = segment(position);
+            int offset = index(position);
+            for (int i = 0; i < length; i++) {
+                if (segment.get(offset + i) != bytes[from + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
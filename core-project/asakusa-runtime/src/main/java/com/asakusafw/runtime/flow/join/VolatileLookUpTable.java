@@ -16,22 +16,47 @@
 package com.asakusafw.runtime.flow.join;
 
 import java.io.IOException;
-import java.util.ArrayList;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.RandomAccess;
+
+import com.asakusafw.runtime.io.util.DataBuffer;
 
 /**
  * An implementation of {@link LookUpTable} that holds objects on the memory.
+ * The serialized keys are packed into a single byte array, and they are indexed by an open-addressing hash table.
  * @param <T> the element type
+ * @version 0.10.5
  */
 public class VolatileLookUpTable<T> implements LookUpTable<T> {
 
-    private final Map<LookUpKey.View, List<T>> entity;
+    private static final int[] EMPTY_INTS = new int[0];
+
+    private static final int INITIAL_SLOTS = 16;
+
+    private final byte[] keyArena;
+
+    private final int[] keyOffsets;
+
+    private final int[] keyHashes;
+
+    private final int[] slots;
+
+    private final int[] valueOffsets;
+
+    private final Object[] values;
 
-    VolatileLookUpTable(Map<LookUpKey.View, List<T>> entity) {
-        this.entity = entity;
+    VolatileLookUpTable(
+            byte[] keyArena, int[] keyOffsets, int[] keyHashes, int[] slots,
+            int[] valueOffsets, Object[] values) {
+        this.keyArena = keyArena;
+        this.keyOffsets = keyOffsets;
+        this.keyHashes = keyHashes;
+        this.slots = slots;
+        this.valueOffsets = valueOffsets;
+        this.values = values;
     }
 
     @Override
@@ -39,11 +64,88 @@ public class VolatileLookUpTable<T> implements LookUpTable<T> {
         if (key == null) {
             throw new IllegalArgumentException("key must not be null"); //$NON-NLS-1$
         }
-        List<T> list = entity.get(key.getDirectView());
-        if (list == null) {
+        DataBuffer buffer = key.getBuffer();
+        int index = find(
+                keyArena, keyOffsets, keyHashes, slots,
+                buffer.getData(), buffer.getReadPosition(), buffer.getReadLimit());
+        if (index < 0) {
             return Collections.emptyList();
         }
-        return list;
+        return new Range<>(values, valueOffsets[index], valueOffsets[index + 1]);
+    }
+
+    /**
+     * Returns the index of the key.
+     * @param keyArena the packed keys
+     * @param keyOffsets the start offset of each key in the arena, and its end is the next element
+     * @param keyHashes the hash code of each key
+     * @param slots the hash slots (key index + 1, or {@code 0} if it is empty)
+     * @param bytes the target key bytes
+     * @param from the start offset of the target key (inclusive)
+     * @param to the end offset of the target key (exclusive)
+     * @return the index of key, or {@code ~slot} if it is not found
+     */
+    static int find(
+            byte[] keyArena, int[] keyOffsets, int[] keyHashes, int[] slots,
+            byte[] bytes, int from, int to) {
+        int hash = hash(bytes, from, to);
+        int mask = slots.length - 1;
+        for (int slot = hash & mask;; slot = (slot + 1) & mask) {
+            int entry = slots[slot];
+            if (entry == 0) {
+                return ~slot;
+            }
+            int index = entry - 1;
+            if (keyHashes[index] == hash
+                    && LookUpKey.equalsInBytes(
+                            keyArena, keyOffsets[index], keyOffsets[index + 1],
+                            bytes, from, to)) {
+                return index;
+            }
+        }
+    }
+
+    /**
+     * Returns the hash code of the bytes (MurmurHash3 x86 32-bit).
+     * @param bytes the bytes
+     * @param from the start offset (inclusive)
+     * @param to the end offset (exclusive)
+     * @return the hash code
+     */
+    static int hash(byte[] bytes, int from, int to) {
+        int h = 0;
+        int i = from;
+        for (int n = to - 3; i < n; i += 4) {
+            int k = (bytes[i] & 0xff)
+                    | (bytes[i + 1] & 0xff) << 8
+                    | (bytes[i + 2] & 0xff) << 16
+                    | bytes[i + 3] << 24;
+            h ^= mixK(k);
+            h = Integer.rotateLeft(h, 13) * 5 + 0xe6546b64;
+        }
+        int rest = to - i;
+        if (rest > 0) {
+            int k = 0;
+            if (rest >= 3) {
+                k ^= (bytes[i + 2] & 0xff) << 16;
+            }
+            if (rest >= 2) {
+                k ^= (bytes[i + 1] & 0xff) << 8;
+            }
+            k ^= bytes[i] & 0xff;
+            h ^= mixK(k);
+        }
+        h ^= to - from;
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private static int mixK(int k) {
+        return Integer.rotateLeft(k * 0xcc9e2d51, 15) * 0x1b873593;
     }
 
     /**
@@ -52,24 +154,139 @@ public class VolatileLookUpTable<T> implements LookUpTable<T> {
      */
     public static class Builder<T> implements LookUpTable.Builder<T> {
 
-        private final Map<LookUpKey.View, List<T>> entity = new HashMap<>();
+        private byte[] keyArena = new byte[256];
+
+        private int[] keyOffsets = new int[INITIAL_SLOTS / 2 + 1];
+
+        private int[] keyHashes = new int[INITIAL_SLOTS / 2];
+
+        private int[] slots = new int[INITIAL_SLOTS];
+
+        private int keyCount;
+
+        private int[] valueCounts = new int[INITIAL_SLOTS / 2];
+
+        private int[] valueKeys = EMPTY_INTS;
+
+        private Object[] values = new Object[0];
+
+        private int valueCount;
 
         @Override
         public void add(LookUpKey key, T value) throws IOException {
             if (key == null) {
                 throw new IllegalArgumentException("key must not be null"); //$NON-NLS-1$
             }
-            List<T> list = entity.get(key.getDirectView());
-            if (list == null) {
-                list = new ArrayList<>(1);
-                entity.put(key.getFrozenView(), list);
+            DataBuffer buffer = key.getBuffer();
+            byte[] bytes = buffer.getData();
+            int from = buffer.getReadPosition();
+            int to = buffer.getReadLimit();
+            int index = find(keyArena, keyOffsets, keyHashes, slots, bytes, from, to);
+            if (index < 0) {
+                index = addKey(~index, bytes, from, to);
+            }
+            if (valueCount >= values.length) {
+                int size = Math.max(16, values.length + (values.length >> 1));
+                values = Arrays.copyOf(values, size);
+                valueKeys = Arrays.copyOf(valueKeys, size);
+            }
+            values[valueCount] = value;
+            valueKeys[valueCount] = index;
+            valueCount++;
+            valueCounts[index]++;
+        }
+
+        private int addKey(int slot, byte[] bytes, int from, int to) {
+            int index = keyCount;
+            if (index + 1 >= keyHashes.length) {
+                int size = keyHashes.length * 2;
+                keyOffsets = Arrays.copyOf(keyOffsets, size + 1);
+                keyHashes = Arrays.copyOf(keyHashes, size);
+                valueCounts = Arrays.copyOf(valueCounts, size);
+            }
+            int offset = keyOffsets[index];
+            int length = to - from;
+            if (offset + length > keyArena.length) {
+                keyArena = Arrays.copyOf(keyArena, Math.max(offset + length, keyArena.length * 2));
+            }
+            System.arraycopy(bytes, from, keyArena, offset, length);
+            keyOffsets[index + 1] = offset + length;
+            keyHashes[index] = hash(bytes, from, to);
+            slots[slot] = index + 1;
+            keyCount++;
+            if (keyCount * 2 > slots.length) {
+                rehash(slots.length * 2);
             }
-            list.add(value);
+            return index;
+        }
+
+        private void rehash(int size) {
+            int[] newSlots = new int[size];
+            int mask = size - 1;
+            for (int index = 0; index < keyCount; index++) {
+                int slot = keyHashes[index] & mask;
+                while (newSlots[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                newSlots[slot] = index + 1;
+            }
+            slots = newSlots;
         }
 
         @Override
         public LookUpTable<T> build() throws IOException {
-            return new VolatileLookUpTable<>(entity);
+            int[] valueOffsets = new int[keyCount + 1];
+            for (int i = 0; i < keyCount; i++) {
+                valueOffsets[i + 1] = valueOffsets[i] + valueCounts[i];
+            }
+            int[] cursors = Arrays.copyOf(valueOffsets, keyCount);
+            Object[] sorted = new Object[valueCount];
+            for (int i = 0; i < valueCount; i++) {
+                sorted[cursors[valueKeys[i]]++] = values[i];
+            }
+            return new VolatileLookUpTable<>(
+                    Arrays.copyOf(keyArena, keyOffsets[keyCount]),
+                    Arrays.copyOf(keyOffsets, keyCount + 1),
+                    Arrays.copyOf(keyHashes, keyCount),
+                    slots.clone(),
+                    valueOffsets,
+                    sorted);
+        }
+    }
+
+    private static final class Range<T> extends AbstractList<T> implements RandomAccess {
+
+        private final Object[] elements;
+
+        private final int offset;
+
+        private final int size;
+
+        Range(Object[] elements, int from, int to) {
+            this.elements = elements;
+            this.offset = from;
+            this.size = to - from;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public T get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException(String.valueOf(index));
+            }
+            return (T) elements[offset + index];
+        }
+
+        @Override
+        public T set(int index, T element) {
+            T old = get(index);
+            elements[offset + index] = element;
+            return old;
+        }
+
+        @Override
+        public int size() {
+            return size;
         }
     }
 }
@@ -0,0 +1,40 @@
+/**
+ * Copyright 2011-2021 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.runtime.io.util;
+
+import org.apache.hadoop.io.RawComparator;
+
+/**
+ * An extension of {@link RawComparator} which can provide normalized key prefixes.
+ * Sorters can order the serialized keys only by their prefixes, and then they only compare the original keys
+ * if the prefixes are equivalent.
+ * @since 0.10.5
+ */
+public interface NormalizedKeyComparator {
+
+    /**
+     * Returns the normalized prefix of the serialized key.
+     * For any serialized keys {@code a} and {@code b}, if
+     * {@code Integer.compareUnsigned(getNormalizedPrefix(a), getNormalizedPrefix(b)) < 0},
+     * then {@code a} must be less than {@code b} in the ordering of the corresponding {@link RawComparator}.
+     * This method must be thread-safe.
+     * @param bytes the bytes array which contains the serialized key
+     * @param offset the offset of the serialized key in the bytes array
+     * @param length the length of the serialized key in bytes
+     * @return the normalized prefix, which is compared as an unsigned integer
+     */
+    int getNormalizedPrefix(byte[] bytes, int offset, int length);
+}
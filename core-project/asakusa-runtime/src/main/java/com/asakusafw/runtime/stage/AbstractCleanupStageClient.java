@@ -29,13 +29,16 @@ import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 
 import com.asakusafw.runtime.core.context.RuntimeContext;
+import com.asakusafw.runtime.directio.hadoop.HadoopDataSourceUtil;
+import com.asakusafw.runtime.flow.join.JoinResource;
+import com.asakusafw.runtime.stage.launcher.LauncherDaemon;
 import com.asakusafw.runtime.util.VariableTable;
 import com.asakusafw.runtime.util.VariableTable.RedefineStrategy;
 
 /**
  * Stage client for cleanup phase.
  * @since 0.2.6
- * @version 0.4.0
+ * @version 0.10.5
  */
 public abstract class AbstractCleanupStageClient extends BaseStageClient {
 
@@ -79,6 +82,9 @@ public abstract class AbstractCleanupStageClient extends BaseStageClient {
                         "Skip deleting cleanup target because current execution is in simulation mode: {0}",
                         info));
             } else {
+                // the listing cache must be removed even if the cleanup target is missing
+                deleteListingCache(conf);
+                JoinResource.deleteTables(conf, getExecutionId());
                 FileStatus stat = fileSystem.getFileStatus(path);
                 if (stat == null) {
                     throw new FileNotFoundException(path.toString());
@@ -107,7 +113,27 @@ public abstract class AbstractCleanupStageClient extends BaseStageClient {
                     info), e);
             return 1;
         } finally {
-            FileSystem.closeAll();
+            // the launcher daemon shares the file system cache with the other applications
+            if (conf.getBoolean(LauncherDaemon.KEY_DAEMON_USED, false) == false) {
+                FileSystem.closeAll();
+            }
+        }
+    }
+
+    private void deleteListingCache(Configuration conf) {
+        try {
+            Path path = HadoopDataSourceUtil.getListingCacheDir(conf, getExecutionId());
+            FileSystem fileSystem = path.getFileSystem(conf);
+            if (fileSystem.exists(path)) {
+                LOG.info(MessageFormat.format(
+                        "Deleting Direct I/O input listing cache: {0}",
+                        path));
+                fileSystem.delete(path, true);
+            }
+        } catch (IOException e) {
+            LOG.warn(MessageFormat.format(
+                    "Failed to delete Direct I/O input listing cache: executionId={0}",
+                    getExecutionId()), e);
         }
     }
 
@@ -54,7 +54,7 @@ import com.asakusafw.runtime.util.VariableTable.RedefineStrategy;
 /**
  * An abstract implementation of Hadoop MapReduce stage client class.
  * @since 0.1.0
- * @version 0.7.1
+ * @version 0.10.5
  */
 public abstract class AbstractStageClient extends BaseStageClient {
 
@@ -226,6 +226,7 @@ public abstract class AbstractStageClient extends BaseStageClient {
         Configuration conf = getConf();
         conf.set(StageConstants.PROP_BATCH_ID, getBatchId());
         conf.set(StageConstants.PROP_FLOW_ID, getFlowId());
+        conf.set(StageConstants.PROP_STAGE_ID, getStageId());
         LOG.info(MessageFormat.format(
                 "Initializing Job: batchId={0}, flowId={1}, executionId={2}, stageId={3}",
                 getBatchId(),
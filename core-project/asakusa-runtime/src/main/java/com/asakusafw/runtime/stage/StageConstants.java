@@ -22,7 +22,7 @@ import com.asakusafw.runtime.util.VariableTable;
 /**
  * Constants for each stage.
  * @since 0.2.5
- * @version 0.7.1
+ * @version 0.10.5
  */
 public final class StageConstants {
 
@@ -46,6 +46,12 @@ public final class StageConstants {
      */
     public static final String PROP_FLOW_ID = "com.asakusafw.flowId"; //$NON-NLS-1$
 
+    /**
+     * The property key name of the stage ID.
+     * @since 0.10.5
+     */
+    public static final String PROP_STAGE_ID = "com.asakusafw.stageId"; //$NON-NLS-1$
+
     /**
      * The property key name of the tracking ID.
      * @since 0.5.0
@@ -29,6 +29,7 @@ import org.apache.hadoop.io.WritableComparator;
 import org.apache.hadoop.io.WritableUtils;
 
 import com.asakusafw.runtime.io.util.DataBuffer;
+import com.asakusafw.runtime.io.util.NormalizedKeyComparator;
 
 /**
  * A sortable data slot.
@@ -181,7 +182,9 @@ public class SortableSlot implements WritableComparable<SortableSlot> {
     /**
      * A comparator for {@link SortableSlot}.
      */
-    public static class Comparator extends WritableComparator implements Externalizable {
+    public static class Comparator extends WritableComparator implements NormalizedKeyComparator, Externalizable {
+
+        private static final int SLOT_PREFIX_MAX = 0xff;
 
         /**
          * Creates a new instance.
@@ -223,6 +226,31 @@ public class SortableSlot implements WritableComparable<SortableSlot> {
             }
         }
 
+        /**
+         * Returns the normalized key prefix, which consists of the slot number (8-bits) and
+         * the leading bytes of the content (24-bits).
+         * @since 0.10.5
+         */
+        @Override
+        public int getNormalizedPrefix(byte[] bytes, int offset, int length) {
+            try {
+                int cursor = offset;
+                int slot = WritableComparator.readVInt(bytes, cursor);
+                cursor += WritableUtils.decodeVIntSize(bytes[cursor]);
+                int contentLength = WritableComparator.readVInt(bytes, cursor);
+                cursor += WritableUtils.decodeVIntSize(bytes[cursor]);
+                // saturate the slot number - monotonic, but may be equivalent for the different slots
+                int result = Math.max(0, Math.min(SLOT_PREFIX_MAX, slot)) << 24;
+                for (int i = 0, n = Math.min(3, contentLength); i < n; i++) {
+                    result |= (bytes[cursor + i] & 0xff) << (16 - i * 8);
+                }
+                return result;
+            } catch (IOException e) {
+                // bad manner
+                throw new RuntimeException(e);
+            }
+        }
+
         @Override
         public void writeExternal(ObjectOutput out) throws IOException {
             return;
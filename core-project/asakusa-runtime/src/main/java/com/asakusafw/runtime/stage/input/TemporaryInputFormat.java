@@ -46,12 +46,13 @@ import com.asakusafw.runtime.directio.hadoop.BlockMap;
 import com.asakusafw.runtime.stage.StageInput;
 import com.asakusafw.runtime.stage.temporary.TemporaryFile;
 import com.asakusafw.runtime.stage.temporary.TemporaryFileInput;
+import com.asakusafw.runtime.stage.temporary.TemporaryStorage;
 
 /**
  * A temporary input format.
  * @param <T> data type
  * @since 0.2.5
- * @version 0.7.0
+ * @version 0.10.5
  */
 public final class TemporaryInputFormat<T> extends InputFormat<NullWritable, T> {
 
@@ -264,7 +265,8 @@ public final class TemporaryInputFormat<T> extends InputFormat<NullWritable, T>
                     assert s.getStart() % TemporaryFile.BLOCK_SIZE == 0;
                     stream.seek(s.getStart());
                 }
-                this.input = (TemporaryFileInput<T>) new TemporaryFileInput<>(stream, blocks);
+                this.input = (TemporaryFileInput<T>) new TemporaryFileInput<>(
+                        stream, blocks, TemporaryStorage.getThreads(context.getConfiguration()));
                 Class<?> aClass = context.getConfiguration().getClassByName(input.getDataTypeName());
                 this.value = (T) ReflectionUtils.newInstance(aClass, context.getConfiguration());
                 succeed = true;
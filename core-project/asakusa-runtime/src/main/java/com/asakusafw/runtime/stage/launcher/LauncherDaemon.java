@@ -0,0 +1,421 @@
+/**
+ * Copyright 2011-2021 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.runtime.stage.launcher;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.text.MessageFormat;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+
+import com.asakusafw.runtime.util.hadoop.ConfigurationProvider;
+
+/**
+ * A long-lived {@link ApplicationLauncher} daemon.
+ * <p>
+ * This keeps the Hadoop client classes, the base {@link Configuration}, and the {@link FileSystem} caches warm,
+ * and executes each application in its own disposable application class loader
+ * (see {@link ApplicationLauncher#disposeClassLoader(ClassLoader)}).
+ * Clients can submit applications via {@link LauncherDaemonClient} using the endpoint file, which contains
+ * the local port number and an access token, and is only readable from the daemon owner.
+ * Note that the standard output and error of the applications are written to the daemon's ones.
+ * </p>
+ * <p>
+ * The daemon runs up to {@link #KEY_MAX_CONCURRENCY} applications at once, and the rest requests wait for them.
+ * Each request must be authenticated within a short time, or the daemon drops the connection
+ * without occupying any application slots.
+ * If the client is interrupted or disconnected, the daemon interrupts the running application.
+ * Applications inherit the environment variables of the daemon process rather than the clients' ones,
+ * so that the endpoint file also contains the relevant environment variables of the daemon
+ * (see {@link LauncherDaemonClient#getMismatchedEnvironmentVariables(Map)}).
+ * </p>
+ * <pre><code>
+ * java ... com.asakusafw.runtime.stage.launcher.LauncherDaemon /path/to/endpoint
+ * </code></pre>
+ * @since 0.10.5
+ */
+public final class LauncherDaemon implements Closeable {
+
+    static final Log LOG = LogFactory.getLog(LauncherDaemon.class);
+
+    /**
+     * The system property key of the max number of applications which are running concurrently.
+     */
+    public static final String KEY_MAX_CONCURRENCY = "com.asakusafw.launcher.daemon.concurrency"; //$NON-NLS-1$
+
+    /**
+     * The default value of {@link #KEY_MAX_CONCURRENCY}.
+     */
+    public static final int DEFAULT_MAX_CONCURRENCY = 8;
+
+    /**
+     * The configuration key of whether the application is running on the launcher daemon.
+     * This will be only set by this class.
+     * Applications on the daemon must not close the shared resources, like {@link FileSystem#closeAll()}.
+     */
+    public static final String KEY_DAEMON_USED = "com.asakusafw.launcher.daemon.used"; //$NON-NLS-1$
+
+    private static final int REQUEST_TIMEOUT = 10_000;
+
+    private static final int MAX_ARGUMENT_COUNT = 100_000;
+
+    private static final int MAX_ARGUMENT_LENGTH = 64 * 1024 * 1024;
+
+    private static final int MAX_TOKEN_LENGTH = 1024;
+
+    private final Configuration configuration;
+
+    private final ServerSocket server;
+
+    private final String token;
+
+    private final ExecutorService executor;
+
+    private final ExecutorService watchers;
+
+    private final ExecutorService receivers;
+
+    private volatile boolean closed;
+
+    /**
+     * Creates a new instance.
+     * @param configuration the base Hadoop configuration, which is copied for each application
+     * @throws IOException if failed to open a local server socket
+     */
+    public LauncherDaemon(Configuration configuration) throws IOException {
+        this(configuration, DEFAULT_MAX_CONCURRENCY);
+    }
+
+    /**
+     * Creates a new instance.
+     * @param configuration the base Hadoop configuration, which is copied for each application
+     * @param maxConcurrency the max number of applications which are running concurrently,
+     *     the rest requests wait until the running applications are completed
+     * @throws IOException if failed to open a local server socket
+     */
+    public LauncherDaemon(Configuration configuration, int maxConcurrency) throws IOException {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException(MessageFormat.format(
+                    "max concurrency must be positive: {0}", //$NON-NLS-1$
+                    maxConcurrency));
+        }
+        this.configuration = configuration;
+        this.server = new ServerSocket(0, 0, InetAddress.getLoopbackAddress());
+        this.token = new BigInteger(130, new SecureRandom()).toString(Character.MAX_RADIX);
+        this.executor = Executors.newFixedThreadPool(maxConcurrency, newThreadFactory("LauncherDaemon")); //$NON-NLS-1$
+        this.watchers = Executors.newFixedThreadPool(
+                maxConcurrency, newThreadFactory("LauncherDaemon-watcher")); //$NON-NLS-1$
+        this.receivers = Executors.newCachedThreadPool(newThreadFactory("LauncherDaemon-receiver")); //$NON-NLS-1$
+    }
+
+    private static ThreadFactory newThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, String.format("%s-%d", prefix, counter.incrementAndGet())); //$NON-NLS-1$
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    /**
+     * The program entry.
+     * @param args the endpoint file path
+     * @throws IOException if failed to start the daemon
+     */
+    public static void main(String... args) throws IOException {
+        if (args.length != 1) {
+            throw new IllegalArgumentException(MessageFormat.format(
+                    "Usage: java ... {0} /path/to/endpoint",
+                    LauncherDaemon.class.getName()));
+        }
+        File endpoint = new File(args[0]);
+        Configuration conf = new ConfigurationProvider().newInstance();
+        warmUp(conf);
+        int maxConcurrency = Integer.getInteger(KEY_MAX_CONCURRENCY, DEFAULT_MAX_CONCURRENCY);
+        try (LauncherDaemon daemon = new LauncherDaemon(conf, maxConcurrency)) {
+            daemon.publish(endpoint);
+            try {
+                daemon.run();
+            } finally {
+                if (endpoint.delete() == false && endpoint.exists()) {
+                    LOG.warn(MessageFormat.format(
+                            "Failed to delete the launcher daemon endpoint: {0}",
+                            endpoint));
+                }
+            }
+        }
+    }
+
+    private static void warmUp(Configuration conf) {
+        try {
+            FileSystem.get(conf);
+        } catch (IOException e) {
+            LOG.warn("Failed to initialize the default file system", e);
+        }
+    }
+
+    /**
+     * Returns the local port number.
+     * @return the port number
+     */
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+    /**
+     * Returns a client for this daemon.
+     * @return the client
+     */
+    public LauncherDaemonClient newClient() {
+        return new LauncherDaemonClient(getPort(), token, System.getenv());
+    }
+
+    /**
+     * Publishes the endpoint of this daemon into the file.
+     * The file will be readable only from the current user.
+     * @param endpoint the target file
+     * @throws IOException if failed to publish the endpoint
+     */
+    public void publish(File endpoint) throws IOException {
+        File parent = endpoint.getAbsoluteFile().getParentFile();
+        if (parent.mkdirs() == false && parent.isDirectory() == false) {
+            throw new IOException(MessageFormat.format(
+                    "Failed to create a directory: {0}",
+                    parent));
+        }
+        File temporary = File.createTempFile(endpoint.getName(), ".tmp", parent); //$NON-NLS-1$
+        try {
+            setOwnerOnly(temporary);
+            Properties properties = new Properties();
+            properties.setProperty(LauncherDaemonClient.KEY_PORT, String.valueOf(getPort()));
+            properties.setProperty(LauncherDaemonClient.KEY_TOKEN, token);
+            LauncherDaemonClient.getRelevantEnvironmentVariables(System.getenv()).forEach((k, v) -> {
+                properties.setProperty(LauncherDaemonClient.KEY_ENVIRONMENT_PREFIX + k, v);
+            });
+            try (OutputStream output = new FileOutputStream(temporary)) {
+                properties.store(output, null);
+            }
+            Files.move(temporary.toPath(), endpoint.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            if (temporary.exists() && temporary.delete() == false) {
+                LOG.warn(MessageFormat.format(
+                        "Failed to delete a temporary file: {0}",
+                        temporary));
+            }
+        }
+        LOG.info(MessageFormat.format(
+                "Launcher daemon is listening on {0} (endpoint={1})",
+                getPort(),
+                endpoint));
+    }
+
+    private static void setOwnerOnly(File file) throws IOException {
+        PosixFileAttributeView view = Files.getFileAttributeView(file.toPath(), PosixFileAttributeView.class);
+        if (view != null) {
+            view.setPermissions(EnumSet.of(PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE));
+        } else {
+            LOG.warn(MessageFormat.format(
+                    "Failed to restrict permissions of the endpoint file: {0}",
+                    file));
+        }
+    }
+
+    /**
+     * Accepts requests until {@link #close()} is called or a shutdown request is received.
+     * @throws IOException if failed to accept requests
+     */
+    public void run() throws IOException {
+        while (closed == false) {
+            Socket socket;
+            try {
+                socket = server.accept();
+            } catch (SocketException e) {
+                if (closed) {
+                    break;
+                }
+                throw e;
+            }
+            // receives requests out of the application slots, so that idle connections never occupy them
+            receivers.execute(() -> receive(socket));
+        }
+        receivers.shutdown();
+        executor.shutdown();
+        try {
+            while (executor.awaitTermination(1, TimeUnit.SECONDS) == false) {
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Waiting for running applications are completed"); //$NON-NLS-1$
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            watchers.shutdownNow();
+        }
+    }
+
+    private void receive(Socket socket) {
+        boolean handed = false;
+        try {
+            socket.setSoTimeout(REQUEST_TIMEOUT);
+            DataInputStream input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            if (input.readInt() != LauncherDaemonClient.MAGIC) {
+                LOG.warn(MessageFormat.format(
+                        "Rejected invalid launcher daemon request: {0}",
+                        socket.getRemoteSocketAddress()));
+                return;
+            }
+            String requestToken = LauncherDaemonClient.readString(input, MAX_TOKEN_LENGTH);
+            if (MessageDigest.isEqual(
+                    token.getBytes(StandardCharsets.UTF_8),
+                    requestToken.getBytes(StandardCharsets.UTF_8)) == false) {
+                LOG.warn(MessageFormat.format(
+                        "Rejected unauthorized launcher daemon request: {0}",
+                        socket.getRemoteSocketAddress()));
+                return;
+            }
+            int op = input.readInt();
+            switch (op) {
+            case LauncherDaemonClient.OP_EXECUTE: {
+                List<String> args = LauncherDaemonClient.readStrings(input, MAX_ARGUMENT_COUNT, MAX_ARGUMENT_LENGTH);
+                // the application may run for a long time
+                socket.setSoTimeout(0);
+                executor.execute(() -> handle(socket, input, output, args));
+                handed = true;
+                break;
+            }
+            case LauncherDaemonClient.OP_SHUTDOWN:
+                LOG.info("Launcher daemon is shutting down");
+                close();
+                output.writeInt(0);
+                output.flush();
+                break;
+            default:
+                LOG.warn(MessageFormat.format(
+                        "Rejected unknown launcher daemon operation: {0}",
+                        op));
+                break;
+            }
+        } catch (IOException e) {
+            LOG.warn("Exception occurred while receiving launcher daemon request", e);
+        } catch (RejectedExecutionException e) {
+            LOG.warn("Launcher daemon is already shutting down", e);
+        } finally {
+            if (handed == false) {
+                closeQuietly(socket);
+            }
+        }
+    }
+
+    private void handle(Socket socket, DataInputStream input, DataOutputStream output, List<String> args) {
+        try (Socket s = socket) {
+            int status = execute(s, input, args);
+            output.writeInt(status);
+            output.flush();
+        } catch (IOException e) {
+            LOG.warn("Exception occurred while handling launcher daemon request", e);
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            LOG.debug("Exception occurred while closing launcher daemon connection", e); //$NON-NLS-1$
+        }
+    }
+
+    private int execute(Socket socket, DataInputStream input, List<String> args) {
+        Thread thread = Thread.currentThread();
+        AtomicBoolean running = new AtomicBoolean(true);
+        // the client sends a cancel request or just closes the connection while the application is running
+        watchers.execute(() -> {
+            try {
+                int op = input.readInt();
+                if (op != LauncherDaemonClient.OP_CANCEL) {
+                    LOG.warn(MessageFormat.format(
+                            "Rejected unknown launcher daemon operation: {0}",
+                            op));
+                }
+            } catch (IOException e) {
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug(MessageFormat.format(
+                            "Launcher daemon connection was closed: {0}", //$NON-NLS-1$
+                            socket.getRemoteSocketAddress()), e);
+                }
+            }
+            synchronized (running) {
+                if (running.get()) {
+                    LOG.info(MessageFormat.format(
+                            "Cancelling application: {0}",
+                            args));
+                    thread.interrupt();
+                }
+            }
+        });
+        try {
+            Configuration conf = new Configuration(configuration);
+            conf.setBoolean(KEY_DAEMON_USED, true);
+            return ApplicationLauncher.exec(conf, args.toArray(new String[0]));
+        } finally {
+            synchronized (running) {
+                running.set(false);
+            }
+            // clears the cancel request, because this thread will be reused for other applications
+            Thread.interrupted();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        server.close();
+    }
+}
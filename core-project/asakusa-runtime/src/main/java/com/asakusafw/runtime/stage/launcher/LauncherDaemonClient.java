@@ -0,0 +1,291 @@
+/**
+ * Copyright 2011-2021 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.runtime.stage.launcher;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * A client of {@link LauncherDaemon}.
+ * This class does not depend on any Hadoop classes, so that it can be used from outside of the Hadoop environment.
+ * @since 0.10.5
+ */
+public final class LauncherDaemonClient {
+
+    static final int MAGIC = 0x41534c44;
+
+    static final int OP_EXECUTE = 1;
+
+    static final int OP_SHUTDOWN = 2;
+
+    static final int OP_CANCEL = 3;
+
+    static final String KEY_PORT = "port"; //$NON-NLS-1$
+
+    static final String KEY_TOKEN = "token"; //$NON-NLS-1$
+
+    static final String KEY_ENVIRONMENT_PREFIX = "env."; //$NON-NLS-1$
+
+    private static final String[] ENVIRONMENT_PREFIXES = {
+            "ASAKUSA_", //$NON-NLS-1$
+            "HADOOP_", //$NON-NLS-1$
+            "YARN_", //$NON-NLS-1$
+            "MAPRED_", //$NON-NLS-1$
+            "HDFS_", //$NON-NLS-1$
+            "JAVA_", //$NON-NLS-1$
+    };
+
+    private static final String ENV_CLASSPATH = "CLASSPATH"; //$NON-NLS-1$
+
+    // the daemon endpoint itself never affects the applications
+    private static final String ENV_LAUNCHER_DAEMON = "ASAKUSA_LAUNCHER_DAEMON"; //$NON-NLS-1$
+
+    private static final int CONNECT_TIMEOUT = 10_000;
+
+    private static final int POLLING_INTERVAL = 1_000;
+
+    private final int port;
+
+    private final String token;
+
+    private final Map<String, String> environment;
+
+    LauncherDaemonClient(int port, String token, Map<String, String> environment) {
+        this.port = port;
+        this.token = token;
+        this.environment = getRelevantEnvironmentVariables(environment);
+    }
+
+    /**
+     * Loads a client from the endpoint file which was published by {@link LauncherDaemon}.
+     * @param endpoint the endpoint file
+     * @return the loaded client
+     * @throws IOException if the endpoint file is not valid
+     */
+    public static LauncherDaemonClient load(File endpoint) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = new FileInputStream(endpoint)) {
+            properties.load(in);
+        }
+        String port = properties.getProperty(KEY_PORT);
+        String token = properties.getProperty(KEY_TOKEN);
+        if (port == null || token == null) {
+            throw new IOException(MessageFormat.format(
+                    "invalid launcher daemon endpoint: {0}",
+                    endpoint));
+        }
+        Map<String, String> environment = new TreeMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            if (key.startsWith(KEY_ENVIRONMENT_PREFIX)) {
+                environment.put(key.substring(KEY_ENVIRONMENT_PREFIX.length()), properties.getProperty(key));
+            }
+        }
+        try {
+            return new LauncherDaemonClient(Integer.parseInt(port), token, environment);
+        } catch (NumberFormatException e) {
+            throw new IOException(MessageFormat.format(
+                    "invalid launcher daemon endpoint: {0}",
+                    endpoint), e);
+        }
+    }
+
+    /**
+     * Returns the names of environment variables which are different between the daemon and the given ones.
+     * Applications on the daemon inherit the environment variables of the daemon process,
+     * so that callers should launch a new JVM instead of using the daemon if this returns any names.
+     * Only the variables which may affect the applications (e.g. {@code ASAKUSA_*} or {@code HADOOP_*}) are compared.
+     * @param expected the environment variables which the applications should inherit
+     * @return the names of the mismatched variables, or an empty set if the daemon is compatible
+     */
+    public Set<String> getMismatchedEnvironmentVariables(Map<String, String> expected) {
+        Map<String, String> relevant = getRelevantEnvironmentVariables(expected);
+        Set<String> names = new HashSet<>();
+        names.addAll(relevant.keySet());
+        names.addAll(environment.keySet());
+        Set<String> results = new TreeSet<>();
+        for (String name : names) {
+            if (Objects.equals(relevant.get(name), environment.get(name)) == false) {
+                results.add(name);
+            }
+        }
+        return results;
+    }
+
+    static Map<String, String> getRelevantEnvironmentVariables(Map<String, String> environment) {
+        Map<String, String> results = new TreeMap<>();
+        for (Map.Entry<String, String> entry : environment.entrySet()) {
+            if (isRelevantEnvironmentVariable(entry.getKey())) {
+                results.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return Collections.unmodifiableMap(results);
+    }
+
+    private static boolean isRelevantEnvironmentVariable(String name) {
+        if (name.equals(ENV_LAUNCHER_DAEMON)) {
+            return false;
+        }
+        if (name.equals(ENV_CLASSPATH)) {
+            return true;
+        }
+        for (String prefix : ENVIRONMENT_PREFIXES) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Executes an application on the daemon.
+     * If the current thread is interrupted while waiting for the application, this requests the daemon to cancel
+     * the application, and then raises {@link InterruptedIOException}.
+     * @param arguments the {@link ApplicationLauncher} arguments
+     * @return the exit status of the application
+     * @throws InterruptedIOException if interrupted while waiting for the application
+     * @throws IOException if failed to communicate with the daemon
+     */
+    public int execute(List<String> arguments) throws IOException {
+        try (Socket socket = connect()) {
+            DataOutputStream output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            writeHeader(output, OP_EXECUTE);
+            output.writeInt(arguments.size());
+            for (String argument : arguments) {
+                writeString(output, argument);
+            }
+            output.flush();
+            return readStatus(socket, output);
+        }
+    }
+
+    /**
+     * Requests the daemon to shutdown.
+     * The daemon finishes after all running applications are completed.
+     * @throws IOException if failed to communicate with the daemon
+     */
+    public void shutdown() throws IOException {
+        try (Socket socket = connect()) {
+            DataOutputStream output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            writeHeader(output, OP_SHUTDOWN);
+            output.flush();
+            readStatus(socket, null);
+        }
+    }
+
+    private Socket connect() throws IOException {
+        Socket socket = new Socket();
+        boolean succeed = false;
+        try {
+            socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), CONNECT_TIMEOUT);
+            succeed = true;
+            return socket;
+        } finally {
+            if (succeed == false) {
+                socket.close();
+            }
+        }
+    }
+
+    private void writeHeader(DataOutputStream output, int op) throws IOException {
+        output.writeInt(MAGIC);
+        writeString(output, token);
+        output.writeInt(op);
+    }
+
+    private static int readStatus(Socket socket, DataOutputStream cancel) throws IOException {
+        // polls the status to handle interruption of the current thread
+        socket.setSoTimeout(POLLING_INTERVAL);
+        InputStream input = socket.getInputStream();
+        byte[] buffer = new byte[Integer.BYTES];
+        int offset = 0;
+        while (offset < buffer.length) {
+            if (Thread.interrupted()) {
+                if (cancel != null) {
+                    cancel.writeInt(OP_CANCEL);
+                    cancel.flush();
+                }
+                throw new InterruptedIOException("interrupted while waiting for launcher daemon");
+            }
+            int read;
+            try {
+                read = input.read(buffer, offset, buffer.length - offset);
+            } catch (SocketTimeoutException e) {
+                continue;
+            }
+            if (read < 0) {
+                throw new EOFException("launcher daemon closed the connection");
+            }
+            offset += read;
+        }
+        return ByteBuffer.wrap(buffer).getInt();
+    }
+
+    static void writeString(DataOutputStream output, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    static String readString(DataInputStream input, int limit) throws IOException {
+        int length = input.readInt();
+        if (length < 0 || length > limit) {
+            throw new IOException(MessageFormat.format(
+                    "invalid string length: {0}",
+                    length));
+        }
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static List<String> readStrings(DataInputStream input, int countLimit, int lengthLimit) throws IOException {
+        int count = input.readInt();
+        if (count < 0 || count > countLimit) {
+            throw new IOException(MessageFormat.format(
+                    "invalid number of arguments: {0}",
+                    count));
+        }
+        List<String> results = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            results.add(readString(input, lengthLimit));
+        }
+        return results;
+    }
+}
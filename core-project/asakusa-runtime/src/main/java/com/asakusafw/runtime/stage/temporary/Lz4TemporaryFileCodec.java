@@ -0,0 +1,113 @@
+/**
+ * Copyright 2011-2021 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.runtime.stage.temporary;
+
+import java.io.IOException;
+import java.text.MessageFormat;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+
+/**
+ * {@link TemporaryFileCodec} using LZ4.
+ * Each compressed page starts with its uncompressed length (4-bytes, big-endian).
+ * @since 0.10.5
+ */
+final class Lz4TemporaryFileCodec implements TemporaryFileCodec {
+
+    static final int ID = 2;
+
+    static final String NAME = "lz4"; //$NON-NLS-1$
+
+    private final int level;
+
+    private final LZ4Compressor compressor;
+
+    private final LZ4FastDecompressor decompressor;
+
+    /**
+     * Creates a new instance.
+     * @param level the compression level, or {@code <= 0} to use the fast compressor
+     */
+    Lz4TemporaryFileCodec(int level) {
+        LZ4Factory factory = LZ4Factory.fastestInstance();
+        this.level = Math.max(level, 0);
+        this.compressor = level <= 0 ? factory.fastCompressor() : factory.highCompressor(level);
+        this.decompressor = factory.fastDecompressor();
+    }
+
+    @Override
+    public int getId() {
+        return ID;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public int getMaxCompressedLength(int length) {
+        return TemporaryFile.RAW_LENGTH_SIZE + compressor.maxCompressedLength(length);
+    }
+
+    @Override
+    public int compress(byte[] input, int offset, int length, byte[] output) throws IOException {
+        TemporaryFile.putRawLength(output, length);
+        try {
+            int size = compressor.compress(
+                    input, offset, length,
+                    output, TemporaryFile.RAW_LENGTH_SIZE, output.length - TemporaryFile.RAW_LENGTH_SIZE);
+            return TemporaryFile.RAW_LENGTH_SIZE + size;
+        } catch (LZ4Exception e) {
+            throw new IOException(MessageFormat.format(
+                    "failed to compress temporary file page: {0}",
+                    this), e);
+        }
+    }
+
+    @Override
+    public int getUncompressedLength(byte[] input, int offset, int length) throws IOException {
+        return TemporaryFile.getRawLength(input, offset, length);
+    }
+
+    @Override
+    public void decompress(byte[] input, int offset, int length, byte[] output) throws IOException {
+        int rawLength = TemporaryFile.getRawLength(input, offset, length);
+        try {
+            int read = decompressor.decompress(input, offset + TemporaryFile.RAW_LENGTH_SIZE, output, 0, rawLength);
+            if (read != length - TemporaryFile.RAW_LENGTH_SIZE) {
+                throw new IOException(MessageFormat.format(
+                        "broken temporary file page: {0}",
+                        this));
+            }
+        } catch (LZ4Exception e) {
+            throw new IOException(MessageFormat.format(
+                    "failed to decompress temporary file page: {0}",
+                    this), e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return MessageFormat.format(
+                "{0}(level={1})", //$NON-NLS-1$
+                NAME,
+                level);
+    }
+}
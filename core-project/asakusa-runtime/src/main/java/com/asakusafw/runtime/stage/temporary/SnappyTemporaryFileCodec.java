@@ -0,0 +1,72 @@
+/**
+ * Copyright 2011-2021 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.runtime.stage.temporary;
+
+import java.io.IOException;
+
+import org.xerial.snappy.Snappy;
+
+/**
+ * {@link TemporaryFileCodec} using Snappy.
+ * @since 0.10.5
+ */
+final class SnappyTemporaryFileCodec implements TemporaryFileCodec {
+
+    static final int ID = 1;
+
+    static final String NAME = "snappy"; //$NON-NLS-1$
+
+    static final SnappyTemporaryFileCodec INSTANCE = new SnappyTemporaryFileCodec();
+
+    private SnappyTemporaryFileCodec() {
+        return;
+    }
+
+    @Override
+    public int getId() {
+        return ID;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public int getMaxCompressedLength(int length) {
+        return Snappy.maxCompressedLength(length);
+    }
+
+    @Override
+    public int compress(byte[] input, int offset, int length, byte[] output) throws IOException {
+        return Snappy.compress(input, offset, length, output, 0);
+    }
+
+    @Override
+    public int getUncompressedLength(byte[] input, int offset, int length) throws IOException {
+        return Snappy.uncompressedLength(input, offset, length);
+    }
+
+    @Override
+    public void decompress(byte[] input, int offset, int length, byte[] output) throws IOException {
+        Snappy.uncompress(input, offset, length, output, 0);
+    }
+
+    @Override
+    public String toString() {
+        return NAME;
+    }
+}
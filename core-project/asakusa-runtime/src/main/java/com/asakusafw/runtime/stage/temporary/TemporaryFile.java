@@ -22,12 +22,14 @@ import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.text.MessageFormat;
 import java.util.Arrays;
+import java.util.Locale;
 
 import org.apache.hadoop.io.IOUtils;
 
 /**
  * Utilities for temporary files.
  * @since 0.7.0
+ * @version 0.10.5
  */
 public final class TemporaryFile {
 
@@ -67,6 +69,17 @@ public final class TemporaryFile {
 
     private static final int MAJOR_VERSION = 1;
 
+    /**
+     * The block format version which has the codec ID in its header.
+     * Blocks compressed with Snappy still use {@link #MAJOR_VERSION} to keep compatibility.
+     */
+    private static final int CODEC_VERSION = 2;
+
+    /**
+     * The size of uncompressed length field in the compressed pages.
+     */
+    static final int RAW_LENGTH_SIZE = 4;
+
     private static final ThreadLocal<byte[]> HEADER_BUFFER = ThreadLocal.withInitial(() -> new byte[PAGE_HEADER_SIZE]);
 
     private static final ThreadLocal<byte[]> INSTANT_BUFFER = new ThreadLocal<>();
@@ -81,6 +94,53 @@ public final class TemporaryFile {
         return buffer;
     }
 
+    /**
+     * Returns the default codec.
+     * @return the default codec
+     * @since 0.10.5
+     */
+    public static TemporaryFileCodec getDefaultCodec() {
+        return SnappyTemporaryFileCodec.INSTANCE;
+    }
+
+    /**
+     * Returns a codec.
+     * @param name the codec name ({@code "snappy"}, {@code "lz4"}, or {@code "zstd"})
+     * @param level the compression level, or {@code 0} to use the default level
+     * @return the codec
+     * @throws IllegalArgumentException if the codec is not supported
+     * @since 0.10.5
+     */
+    public static TemporaryFileCodec getCodec(String name, int level) {
+        switch (name.trim().toLowerCase(Locale.ENGLISH)) {
+        case SnappyTemporaryFileCodec.NAME:
+            return SnappyTemporaryFileCodec.INSTANCE;
+        case Lz4TemporaryFileCodec.NAME:
+            return new Lz4TemporaryFileCodec(level);
+        case ZstdTemporaryFileCodec.NAME:
+            return new ZstdTemporaryFileCodec(level);
+        default:
+            throw new IllegalArgumentException(MessageFormat.format(
+                    "unsupported temporary file codec: {0}",
+                    name));
+        }
+    }
+
+    private static TemporaryFileCodec getCodec(int id) throws IOException {
+        switch (id) {
+        case SnappyTemporaryFileCodec.ID:
+            return SnappyTemporaryFileCodec.INSTANCE;
+        case Lz4TemporaryFileCodec.ID:
+            return new Lz4TemporaryFileCodec(0);
+        case ZstdTemporaryFileCodec.ID:
+            return new ZstdTemporaryFileCodec(0);
+        default:
+            throw new IOException(MessageFormat.format(
+                    "Unsupported temporary file format (unknown codec): {0}",
+                    id));
+        }
+    }
+
     /**
      * Writes a block header.
      * @param output the target output
@@ -88,9 +148,39 @@ public final class TemporaryFile {
      * @throws IOException if failed to write
      */
     public static int writeBlockHeader(OutputStream output) throws IOException {
+        return writeBlockHeader(output, getDefaultCodec());
+    }
+
+    /**
+     * Writes a block header.
+     * @param output the target output
+     * @param codec the page codec in the block
+     * @return the bytes written
+     * @throws IOException if failed to write
+     * @since 0.10.5
+     */
+    public static int writeBlockHeader(OutputStream output, TemporaryFileCodec codec) throws IOException {
         output.write(BLOCK_HEADER);
-        output.write(MAJOR_VERSION);
-        return BLOCK_HEADER.length + 1;
+        if (codec.getId() == SnappyTemporaryFileCodec.ID) {
+            output.write(MAJOR_VERSION);
+        } else {
+            output.write(CODEC_VERSION);
+            output.write(codec.getId());
+        }
+        return getBlockHeaderSize(codec);
+    }
+
+    /**
+     * Returns the block header size.
+     * @param codec the page codec in the block
+     * @return the block header size in bytes
+     * @since 0.10.5
+     */
+    public static int getBlockHeaderSize(TemporaryFileCodec codec) {
+        if (codec.getId() == SnappyTemporaryFileCodec.ID) {
+            return BLOCK_HEADER.length + 1;
+        }
+        return BLOCK_HEADER.length + 2;
     }
 
     /**
@@ -100,12 +190,27 @@ public final class TemporaryFile {
      * @throws IOException if failed to read
      */
     public static int readBlockHeader(InputStream input) throws IOException {
+        TemporaryFileCodec codec = readBlockCodec(input);
+        if (codec == null) {
+            return PAGE_HEADER_EOF;
+        }
+        return getBlockHeaderSize(codec);
+    }
+
+    /**
+     * Reads and verifies the block header, and returns the page codec in the block.
+     * @param input the target input
+     * @return the page codec, or {@code null} if the input reached end of file
+     * @throws IOException if failed to read
+     * @since 0.10.5
+     */
+    public static TemporaryFileCodec readBlockCodec(InputStream input) throws IOException {
         byte[] header = new byte[BLOCK_HEADER.length];
         int offset = 0;
         while (offset < header.length) {
             int read = input.read(header, offset, header.length - offset);
             if (read < 0) {
-                return PAGE_HEADER_EOF;
+                return null;
             }
             offset += read;
         }
@@ -114,15 +219,42 @@ public final class TemporaryFile {
         }
         int version = input.read();
         if (version < 0) {
-            return PAGE_HEADER_EOF;
+            return null;
         }
-        if (version != MAJOR_VERSION) {
-            throw new IOException(MessageFormat.format(
-                    "Unsupported temporary file format (inconsistent version): file={0}, API={1}",
-                    version,
-                    MAJOR_VERSION));
+        if (version == MAJOR_VERSION) {
+            return SnappyTemporaryFileCodec.INSTANCE;
+        } else if (version == CODEC_VERSION) {
+            int id = input.read();
+            if (id < 0) {
+                return null;
+            }
+            return getCodec(id);
         }
-        return BLOCK_HEADER.length + 1;
+        throw new IOException(MessageFormat.format(
+                "Unsupported temporary file format (inconsistent version): file={0}, API={1}",
+                version,
+                CODEC_VERSION));
+    }
+
+    static void putRawLength(byte[] output, int length) {
+        output[0] = (byte) ((length >> 24) & 0xff);
+        output[1] = (byte) ((length >> 16) & 0xff);
+        output[2] = (byte) ((length >>  8) & 0xff);
+        output[3] = (byte) ((length >>  0) & 0xff);
+    }
+
+    static int getRawLength(byte[] input, int offset, int length) throws IOException {
+        if (length < RAW_LENGTH_SIZE) {
+            throw new IOException("Unsupported temporary file format (broken page)");
+        }
+        int value = 0;
+        for (int i = 0; i < RAW_LENGTH_SIZE; i++) {
+            value = value << 8 | (input[offset + i] & 0xff);
+        }
+        if (value < 0) {
+            throw new IOException("Unsupported temporary file format (broken page)");
+        }
+        return value;
     }
 
     /**
@@ -0,0 +1,77 @@
+/**
+ * Copyright 2011-2021 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.runtime.stage.temporary;
+
+import java.io.IOException;
+
+/**
+ * Compresses and decompresses content pages of temporary files.
+ * Each implementation must be thread-safe.
+ * @since 0.10.5
+ * @see TemporaryFile#getCodec(String, int)
+ */
+public interface TemporaryFileCodec {
+
+    /**
+     * Returns the codec ID, which is recorded in each block header.
+     * @return the codec ID ({@code 1..255})
+     */
+    int getId();
+
+    /**
+     * Returns the codec name.
+     * @return the codec name
+     */
+    String getName();
+
+    /**
+     * Returns the max compressed size of the contents.
+     * @param length the contents length in bytes
+     * @return the max compressed size in bytes
+     */
+    int getMaxCompressedLength(int length);
+
+    /**
+     * Compresses the contents.
+     * @param input the source buffer
+     * @param offset the contents offset in the source buffer
+     * @param length the contents length in bytes
+     * @param output the destination buffer, which has at least {@link #getMaxCompressedLength(int)} bytes
+     * @return the compressed size in bytes
+     * @throws IOException if failed to compress the contents
+     */
+    int compress(byte[] input, int offset, int length, byte[] output) throws IOException;
+
+    /**
+     * Returns the uncompressed size of the compressed contents.
+     * @param input the source buffer
+     * @param offset the compressed contents offset in the source buffer
+     * @param length the compressed contents length in bytes
+     * @return the uncompressed size in bytes
+     * @throws IOException if the compressed contents are broken
+     */
+    int getUncompressedLength(byte[] input, int offset, int length) throws IOException;
+
+    /**
+     * Decompresses the compressed contents.
+     * @param input the source buffer
+     * @param offset the compressed contents offset in the source buffer
+     * @param length the compressed contents length in bytes
+     * @param output the destination buffer, which has at least {@link #getUncompressedLength(byte[], int, int)} bytes
+     * @throws IOException if failed to decompress the contents
+     */
+    void decompress(byte[] input, int offset, int length, byte[] output) throws IOException;
+}
@@ -29,6 +29,7 @@ import com.asakusafw.runtime.stage.temporary.TemporaryFileInputHelper.Result;
  * Input raw data.
  * @param <T> the data model type
  * @since 0.7.0
+ * @version 0.10.5
  */
 public class TemporaryFileInput<T extends Writable> implements ModelInput<T> {
 
@@ -50,7 +51,19 @@ public class TemporaryFileInput<T extends Writable> implements ModelInput<T> {
      * @param blocks the number of blocks to read, or {@code 0} to read all pages in the stream
      */
     public TemporaryFileInput(InputStream input, int blocks) {
-        this.helper = new TemporaryFileInputHelper(input, blocks);
+        this(input, blocks, 1);
+    }
+
+    /**
+     * Creates a new instance.
+     * The page codec is detected from each block header.
+     * @param input the input stream (must be on the head of a block)
+     * @param blocks the number of blocks to read, or {@code 0} to read all pages in the stream
+     * @param threads the number of threads to decompress pages
+     * @since 0.10.5
+     */
+    public TemporaryFileInput(InputStream input, int blocks, int threads) {
+        this.helper = new TemporaryFileInputHelper(input, blocks, threads);
         helper.initialize();
     }
 
@@ -18,8 +18,10 @@ package com.asakusafw.runtime.stage.temporary;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.text.MessageFormat;
 import java.util.LinkedList;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -30,10 +32,13 @@ import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.io.IOUtils;
-import org.xerial.snappy.Snappy;
 
 import com.asakusafw.runtime.io.util.DataBuffer;
 
+/**
+ * Reads and decompresses pages from the temporary file.
+ * Each page is read in order, and then they are decompressed in parallel using the worker threads.
+ */
 final class TemporaryFileInputHelper implements Closeable {
 
     static final Log LOG = LogFactory.getLog(TemporaryFileInputHelper.class);
@@ -52,11 +57,17 @@ final class TemporaryFileInputHelper implements Closeable {
 
     private final InputStream input;
 
-    private final ExecutorService executor = Executors.newFixedThreadPool(1, DAEMON_THREAD_FACTORY);
+    private final int threads;
+
+    private final ExecutorService executor;
 
     private final LinkedList<DataBuffer> available = new LinkedList<>();
 
-    private Future<Result> running;
+    // running tasks in submitted order
+    private final LinkedList<Future<Result>> running = new LinkedList<>();
+
+    // the reading state after the last submitted task has read its page
+    private CompletableFuture<State> lastState;
 
     private int positionInBlock;
 
@@ -67,13 +78,27 @@ final class TemporaryFileInputHelper implements Closeable {
     private boolean sawEof;
 
     TemporaryFileInputHelper(InputStream input, int blocks) {
+        this(input, blocks, 1);
+    }
+
+    TemporaryFileInputHelper(InputStream input, int blocks, int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException(MessageFormat.format(
+                    "the number of threads must be > 0: {0}",
+                    threads));
+        }
         this.input = input;
+        this.threads = threads;
+        this.executor = Executors.newFixedThreadPool(threads, DAEMON_THREAD_FACTORY);
         this.blockRest = Math.max(blocks - 1, -1);
+        this.lastState = CompletableFuture.completedFuture(new State(0, 0, blockRest, null, false));
     }
 
     public void initialize() {
-        releaseBuffer(new DataBuffer());
-        releaseBuffer(new DataBuffer());
+        // a buffer for each running task, and another one for the current page
+        for (int i = 0; i <= threads; i++) {
+            releaseBuffer(new DataBuffer());
+        }
     }
 
     public synchronized void releaseBuffer(DataBuffer buffer) {
@@ -87,13 +112,12 @@ final class TemporaryFileInputHelper implements Closeable {
         }
         // if no any tasks were running, first we submit a new task for reading the next contents
         submitIfAvailable();
-        if (running == null) {
+        if (running.isEmpty()) {
             throw new IllegalStateException();
         }
-        assert running != null;
         Result result;
         try {
-            result = running.get();
+            result = running.removeFirst().get();
         } catch (ExecutionException e) {
             Throwable cause = e.getCause();
             if (cause instanceof IOException) {
@@ -106,27 +130,32 @@ final class TemporaryFileInputHelper implements Closeable {
                 throw (Error) cause;
             }
             throw new IllegalStateException(cause);
-        } finally {
-            running = null;
         }
         this.sawEof = result.sawEof;
         this.positionInBlock = result.positionInBlock;
         this.currentBlock = result.currentBlock;
         this.blockRest = result.blockRest;
 
-        // submit a task for reading the successive page (only if available)
+        // submit tasks for reading the successive pages (only if available)
         submitIfAvailable();
         return result;
     }
 
     private void submitIfAvailable() {
-        if (sawEof || running != null || available.isEmpty()) {
-            return;
+        while (sawEof == false && running.size() < threads && available.isEmpty() == false) {
+            if (lastState.isDone()
+                    && lastState.isCompletedExceptionally() == false
+                    && lastState.join().sawEof) {
+                // no more pages
+                return;
+            }
+            // acquires an available buffer for reading next page, and submit the task
+            DataBuffer buffer = available.removeFirst();
+            CompletableFuture<State> next = new CompletableFuture<>();
+            Task task = new Task(input, buffer, lastState, next);
+            running.addLast(executor.submit(task));
+            lastState = next;
         }
-        // acquires an available buffer for reading next page, and submit the task
-        DataBuffer buffer = available.removeFirst();
-        Task task = new Task(input, buffer, positionInBlock, currentBlock, blockRest);
-        running = executor.submit(task);
     }
 
     @Override
@@ -163,43 +192,93 @@ final class TemporaryFileInputHelper implements Closeable {
         }
     }
 
+    private static final class State {
+
+        final int positionInBlock;
+
+        final int currentBlock;
+
+        final int blockRest;
+
+        final TemporaryFileCodec codec;
+
+        final boolean sawEof;
+
+        State(int positionInBlock, int currentBlock, int blockRest, TemporaryFileCodec codec, boolean sawEof) {
+            this.positionInBlock = positionInBlock;
+            this.currentBlock = currentBlock;
+            this.blockRest = blockRest;
+            this.codec = codec;
+            this.sawEof = sawEof;
+        }
+    }
+
     static final class Task implements Callable<Result> {
 
         private final InputStream input;
 
         private final DataBuffer buffer;
 
+        private final CompletableFuture<State> previous;
+
+        private final CompletableFuture<State> next;
+
         private int positionInBlock;
 
         private int currentBlock;
 
         private int blockRest;
 
+        private TemporaryFileCodec codec;
+
         private String dataTypeName;
 
-        Task(InputStream input, DataBuffer buffer, int positionInBlock, int currentBlock, int blockRest) {
+        private int pageLength;
+
+        Task(InputStream input, DataBuffer buffer, CompletableFuture<State> previous, CompletableFuture<State> next) {
             this.input = input;
             this.buffer = buffer;
-            this.positionInBlock = positionInBlock;
-            this.currentBlock = currentBlock;
-            this.blockRest = blockRest;
+            this.previous = previous;
+            this.next = next;
             buffer.reset(0, 0);
         }
 
         @Override
-        public Result call() throws IOException {
-            boolean read = readPage();
+        public Result call() throws IOException, InterruptedException {
+            // reads the page just after the previous task has read its page
+            boolean read;
+            try {
+                State state = previous.get();
+                this.positionInBlock = state.positionInBlock;
+                this.currentBlock = state.currentBlock;
+                this.blockRest = state.blockRest;
+                this.codec = state.codec;
+                read = state.sawEof == false && readPage();
+                next.complete(new State(positionInBlock, currentBlock, blockRest, codec, read == false));
+            } catch (ExecutionException e) {
+                next.completeExceptionally(e.getCause());
+                throw new IOException("Exception occurred while reading the previous page", e.getCause());
+            } catch (Throwable t) {
+                next.completeExceptionally(t);
+                throw t;
+            }
+
+            // decompresses the page in parallel with the other tasks
+            if (read) {
+                fillBuffer(TemporaryFile.getInstantBuffer(pageLength), pageLength);
+            }
             return new Result(buffer, positionInBlock, currentBlock, blockRest, dataTypeName, read == false);
         }
 
         private boolean readPage() throws IOException {
             if (positionInBlock == 0) {
                 StringBuilder buf = new StringBuilder();
-                int headSize = TemporaryFile.readBlockHeader(input);
-                if (headSize < 0) {
+                TemporaryFileCodec blockCodec = TemporaryFile.readBlockCodec(input);
+                if (blockCodec == null) {
                     return false;
                 }
-                positionInBlock += headSize;
+                this.codec = blockCodec;
+                positionInBlock += TemporaryFile.getBlockHeaderSize(blockCodec);
                 int size = TemporaryFile.readString(input, buf);
                 if (size < 0) {
                     return false;
@@ -224,25 +303,25 @@ final class TemporaryFileInputHelper implements Closeable {
                 }
                 return readPage();
             }
-            byte[] b = readFully(value);
-            fillBuffer(b, value);
+            readFully(value);
             return true;
         }
 
-        private byte[] readFully(int length) throws IOException {
+        private void readFully(int length) throws IOException {
             byte[] b = TemporaryFile.getInstantBuffer(length);
             IOUtils.readFully(input, b, 0, length);
             positionInBlock += length;
-            return b;
+            pageLength = length;
         }
 
         private void fillBuffer(byte[] bytes, int length) throws IOException {
-            int rawLength = Snappy.uncompressedLength(bytes, 0, length);
+            assert codec != null;
+            int rawLength = codec.getUncompressedLength(bytes, 0, length);
             byte[] data = buffer.getData();
             if (data.length < rawLength) {
                 data = new byte[(int) (rawLength * 1.2)];
             }
-            Snappy.uncompress(bytes, 0, length, data, 0);
+            codec.decompress(bytes, 0, length, data);
             buffer.reset(data, 0, rawLength);
         }
     }
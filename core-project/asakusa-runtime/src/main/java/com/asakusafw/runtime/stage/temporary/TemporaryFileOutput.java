@@ -28,6 +28,7 @@ import com.asakusafw.runtime.io.util.DataBuffer;
  * Output raw data.
  * @param <T> the data model type
  * @since 0.7.0
+ * @version 0.10.5
  */
 public class TemporaryFileOutput<T extends Writable> implements ModelOutput<T> {
 
@@ -49,7 +50,27 @@ public class TemporaryFileOutput<T extends Writable> implements ModelOutput<T> {
             String dateTypeName,
             int initialBufferSize,
             int pageBreakThreashold) {
-        this.helper = new TemporaryFileOutputHelper(output, dateTypeName);
+        this(output, dateTypeName, initialBufferSize, pageBreakThreashold, TemporaryFile.getDefaultCodec(), 1);
+    }
+
+    /**
+     * Creates a new instance.
+     * @param output target output stream
+     * @param dateTypeName the data type name
+     * @param initialBufferSize the initial page buffer size (in bytes)
+     * @param pageBreakThreashold the page size hint (in bytes)
+     * @param codec the page codec
+     * @param threads the number of threads to compress pages
+     * @since 0.10.5
+     */
+    public TemporaryFileOutput(
+            OutputStream output,
+            String dateTypeName,
+            int initialBufferSize,
+            int pageBreakThreashold,
+            TemporaryFileCodec codec,
+            int threads) {
+        this.helper = new TemporaryFileOutputHelper(output, dateTypeName, codec, threads);
         this.helper.initialize(initialBufferSize);
         this.pageBreakThreashold = pageBreakThreashold;
     }
@@ -31,10 +31,13 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
-import org.xerial.snappy.Snappy;
 
 import com.asakusafw.runtime.io.util.DataBuffer;
 
+/**
+ * Compresses and writes pages into the temporary file.
+ * Each page is compressed in parallel using the worker threads, and then they are written in order.
+ */
 class TemporaryFileOutputHelper implements Closeable {
 
     static final Log LOG = LogFactory.getLog(TemporaryFileOutputHelper.class);
@@ -53,28 +56,47 @@ class TemporaryFileOutputHelper implements Closeable {
 
     private final OutputStream output;
 
-    private final ExecutorService executor = Executors.newFixedThreadPool(1, DAEMON_THREAD_FACTORY);
+    private final TemporaryFileCodec codec;
+
+    private final int threads;
+
+    private final ExecutorService executor;
 
     private final LinkedList<DataBuffer> available = new LinkedList<>();
 
-    private Future<Result> running;
+    // running tasks in submitted order
+    private final LinkedList<Future<Result>> running = new LinkedList<>();
 
     private final String dataTypeName;
 
     private int positionInBlock;
 
     TemporaryFileOutputHelper(OutputStream output, String dataTypeName) {
+        this(output, dataTypeName, TemporaryFile.getDefaultCodec(), 1);
+    }
+
+    TemporaryFileOutputHelper(OutputStream output, String dataTypeName, TemporaryFileCodec codec, int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException(MessageFormat.format(
+                    "the number of threads must be > 0: {0}",
+                    threads));
+        }
         this.output = output;
         this.dataTypeName = dataTypeName;
+        this.codec = codec;
+        this.threads = threads;
+        this.executor = Executors.newFixedThreadPool(threads, DAEMON_THREAD_FACTORY);
     }
 
     public synchronized void initialize(int initialBufferSize) {
-        available.addFirst(new DataBuffer(initialBufferSize));
-        available.addFirst(new DataBuffer(initialBufferSize));
+        // a buffer for each running task, and another one for the current page
+        for (int i = 0; i <= threads; i++) {
+            available.addFirst(new DataBuffer(initialBufferSize));
+        }
     }
 
     public synchronized DataBuffer acquireBuffer() throws IOException, InterruptedException {
-        // if no available buffers, first we try to flush the active buffer
+        // if no available buffers, first we try to flush the oldest buffer
         if (available.isEmpty()) {
             flushBuffer();
             if (available.isEmpty()) {
@@ -87,21 +109,23 @@ class TemporaryFileOutputHelper implements Closeable {
     }
 
     public synchronized void putNextPage(DataBuffer buffer) throws IOException, InterruptedException {
-        // wait for the current active task
-        flushBuffer();
+        // wait for the oldest task if all workers are busy
+        while (running.size() >= threads) {
+            flushBuffer();
+        }
 
-        // submit task for writing contents in the buffer
-        assert running == null;
-        this.running = executor.submit(new Task(output, buffer, dataTypeName, positionInBlock));
+        // submit task for writing contents in the buffer, just after the previous task was finished
+        Future<Result> previous = running.peekLast();
+        running.addLast(executor.submit(new Task(output, buffer, dataTypeName, codec, previous, positionInBlock)));
     }
 
     private void flushBuffer() throws IOException, InterruptedException {
-        if (running == null) {
+        if (running.isEmpty()) {
             return;
         }
         Result result;
         try {
-            result = running.get();
+            result = running.removeFirst().get();
         } catch (ExecutionException e) {
             Throwable cause = e.getCause();
             if (cause instanceof IOException) {
@@ -114,8 +138,6 @@ class TemporaryFileOutputHelper implements Closeable {
                 throw (Error) cause;
             }
             throw new IllegalStateException(cause);
-        } finally {
-            running = null;
         }
         this.positionInBlock = result.positionInBlock;
 
@@ -127,7 +149,9 @@ class TemporaryFileOutputHelper implements Closeable {
     public synchronized void close() throws IOException {
         try {
             try {
-                flushBuffer();
+                while (running.isEmpty() == false) {
+                    flushBuffer();
+                }
             } catch (InterruptedException e) {
                 throw (IOException) new InterruptedIOException().initCause(e);
             }
@@ -159,36 +183,62 @@ class TemporaryFileOutputHelper implements Closeable {
 
         private final String dataTypeName;
 
+        private final TemporaryFileCodec codec;
+
+        private final Future<Result> previous;
+
         private int positionInBlock;
 
-        Task(OutputStream output, DataBuffer buffer, String dataTypeName, int positionInBlock) {
+        Task(
+                OutputStream output, DataBuffer buffer, String dataTypeName,
+                TemporaryFileCodec codec, Future<Result> previous, int positionInBlock) {
             this.output = output;
             this.buffer = buffer;
             this.dataTypeName = dataTypeName;
+            this.codec = codec;
+            this.previous = previous;
             this.positionInBlock = positionInBlock;
         }
 
         @Override
         public Result call() throws Exception {
-            flush();
+            // compresses the page in parallel with the other tasks
+            int length = buffer.getWritePosition();
+            byte[] buf = null;
+            int compressed = 0;
+            if (length > 0) {
+                buf = TemporaryFile.getInstantBuffer(codec.getMaxCompressedLength(length));
+                compressed = codec.compress(buffer.getData(), 0, length, buf);
+            }
+
+            // writes the page after the previous task was finished
+            if (previous != null) {
+                try {
+                    positionInBlock = previous.get().positionInBlock;
+                } catch (ExecutionException e) {
+                    throw new IOException("Exception occurred while writing the previous page", e.getCause());
+                }
+            }
+            flush(buf, compressed);
             return new Result(buffer, positionInBlock);
         }
 
-        private void flush() throws IOException {
+        private void flush(byte[] contents, int length) throws IOException {
             if (positionInBlock == 0) {
-                positionInBlock += TemporaryFile.writeBlockHeader(output);
-                positionInBlock += TemporaryFile.writeString(output, dataTypeName);
+                writeBlockHeader();
             }
-            int length = buffer.getWritePosition();
-            if (length <= 0) {
+            if (contents == null) {
                 return;
             }
-            byte[] buf = TemporaryFile.getInstantBuffer(Snappy.maxCompressedLength(length));
-            int compressed = Snappy.compress(buffer.getData(), 0, length, buf, 0);
-            writeContentPage(buf, compressed);
+            writeContentPage(contents, length);
             buffer.reset(0, 0);
         }
 
+        private void writeBlockHeader() throws IOException {
+            positionInBlock += TemporaryFile.writeBlockHeader(output, codec);
+            positionInBlock += TemporaryFile.writeString(output, dataTypeName);
+        }
+
         private void writeContentPage(byte[] contents, int length) throws IOException {
             if (TemporaryFile.canWritePage(positionInBlock, length) == false) {
                 if (TemporaryFile.canWritePage(0, length) == false) {
@@ -199,8 +249,7 @@ class TemporaryFileOutputHelper implements Closeable {
                 }
                 writeEndOfPage();
                 positionInBlock = 0;
-                positionInBlock += TemporaryFile.writeBlockHeader(output);
-                positionInBlock += TemporaryFile.writeString(output, dataTypeName);
+                writeBlockHeader();
             }
             TemporaryFile.writeContentPageMark(output, length);
             output.write(contents, 0, length);
@@ -45,7 +45,7 @@ import com.asakusafw.runtime.io.sequencefile.SequenceFileUtil;
 /**
  * Access to the temporary storage.
  * @since 0.2.5
- * @version 0.7.1
+ * @version 0.10.5
  */
 public final class TemporaryStorage {
 
@@ -55,6 +55,38 @@ public final class TemporaryStorage {
 
     private static final int OUTPUT_PAGE_SIZE = 256 * 1024;
 
+    /**
+     * The configuration key of the page codec name for temporary files.
+     * This must be one of {@code "snappy"}, {@code "lz4"}, or {@code "zstd"}.
+     * @since 0.10.5
+     */
+    public static final String KEY_CODEC = "com.asakusafw.temporary.codec"; //$NON-NLS-1$
+
+    /**
+     * The configuration key of the page compression level for temporary files.
+     * {@code 0} means the default level of the codec.
+     * @since 0.10.5
+     */
+    public static final String KEY_CODEC_LEVEL = "com.asakusafw.temporary.codec.level"; //$NON-NLS-1$
+
+    /**
+     * The configuration key of the number of threads to compress or decompress pages of each temporary file.
+     * @since 0.10.5
+     */
+    public static final String KEY_THREADS = "com.asakusafw.temporary.threads"; //$NON-NLS-1$
+
+    /**
+     * The default value of {@link #KEY_CODEC}.
+     * @since 0.10.5
+     */
+    public static final String DEFAULT_CODEC = "snappy"; //$NON-NLS-1$
+
+    /**
+     * The default value of {@link #KEY_THREADS}.
+     * @since 0.10.5
+     */
+    public static final int DEFAULT_THREADS = 1;
+
     /**
      * Resolves the raw path pattern into the concrete path list.
      * @param conf current configuration
@@ -141,7 +173,7 @@ public final class TemporaryStorage {
                     fs.makeQualified(path)));
         }
         if (Writable.class.isAssignableFrom(dataType)) {
-            return (ModelInput<V>) new TemporaryFileInput<>(fs.open(path), 0);
+            return (ModelInput<V>) new TemporaryFileInput<>(fs.open(path), 0, getThreads(conf));
         }
         SequenceFile.Reader reader = new SequenceFile.Reader(conf, SequenceFile.Reader.file(fs.makeQualified(path)));
         return (ModelInput<V>) new SequenceFileModelInput<>(reader);
@@ -177,7 +209,7 @@ public final class TemporaryStorage {
             throw new IllegalArgumentException("input must not be null"); //$NON-NLS-1$
         }
         if (Writable.class.isAssignableFrom(dataType)) {
-            return (ModelInput<V>) new TemporaryFileInput<>(input, 0);
+            return (ModelInput<V>) new TemporaryFileInput<>(input, 0, getThreads(conf));
         }
         SequenceFile.Reader reader = SequenceFileUtil.openReader(input, status, conf);
         return (ModelInput<V>) new SequenceFileModelInput<>(reader, input);
@@ -217,7 +249,8 @@ public final class TemporaryStorage {
             return (ModelOutput<V>) new TemporaryFileOutput<>(
                     fs.create(path, true),
                     dataType.getName(),
-                    OUTPUT_INIT_BUFFER_SIZE, OUTPUT_PAGE_SIZE);
+                    OUTPUT_INIT_BUFFER_SIZE, OUTPUT_PAGE_SIZE,
+                    getCodec(conf), getThreads(conf));
         }
         SequenceFile.Writer out = SequenceFile.createWriter(
                 conf,
@@ -263,7 +296,8 @@ public final class TemporaryStorage {
             return (ModelOutput<V>) new TemporaryFileOutput<>(
                     fs.create(path, true),
                     dataType.getName(),
-                    OUTPUT_INIT_BUFFER_SIZE, OUTPUT_PAGE_SIZE);
+                    OUTPUT_INIT_BUFFER_SIZE, OUTPUT_PAGE_SIZE,
+                    getCodec(conf), getThreads(conf));
         }
         SequenceFile.Writer out = newWriter(conf, fs, dataType, path, compressionCodec);
         return new SequenceFileModelOutput<>(out);
@@ -330,13 +364,48 @@ public final class TemporaryStorage {
             return (ModelOutput<V>) new TemporaryFileOutput<>(
                     output,
                     dataType.getName(),
-                    OUTPUT_INIT_BUFFER_SIZE, OUTPUT_PAGE_SIZE);
+                    OUTPUT_INIT_BUFFER_SIZE, OUTPUT_PAGE_SIZE,
+                    getCodec(conf), getThreads(conf));
         }
         SequenceFile.Writer out = SequenceFileUtil.openWriter(
                 output, conf, NullWritable.class, dataType, compressionCodec);
         return new SequenceFileModelOutput<>(out);
     }
 
+    /**
+     * Returns the page codec for temporary files.
+     * @param conf the current configuration
+     * @return the page codec
+     * @throws IllegalArgumentException if the configured codec is not supported
+     * @see #KEY_CODEC
+     * @see #KEY_CODEC_LEVEL
+     * @since 0.10.5
+     */
+    public static TemporaryFileCodec getCodec(Configuration conf) {
+        String name = conf.get(KEY_CODEC, DEFAULT_CODEC);
+        int level = conf.getInt(KEY_CODEC_LEVEL, 0);
+        return TemporaryFile.getCodec(name, level);
+    }
+
+    /**
+     * Returns the number of threads to compress or decompress pages of each temporary file.
+     * @param conf the current configuration
+     * @return the number of threads
+     * @see #KEY_THREADS
+     * @since 0.10.5
+     */
+    public static int getThreads(Configuration conf) {
+        int threads = conf.getInt(KEY_THREADS, DEFAULT_THREADS);
+        if (threads <= 0) {
+            LOG.warn(MessageFormat.format(
+                    "invalid temporary file threads: {0}={1}",
+                    KEY_THREADS,
+                    threads));
+            return DEFAULT_THREADS;
+        }
+        return threads;
+    }
+
     private TemporaryStorage() {
         return;
     }
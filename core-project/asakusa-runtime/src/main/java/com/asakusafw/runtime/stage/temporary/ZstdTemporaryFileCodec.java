@@ -0,0 +1,108 @@
+/**
+ * Copyright 2011-2021 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.runtime.stage.temporary;
+
+import java.io.IOException;
+import java.text.MessageFormat;
+
+import com.github.luben.zstd.Zstd;
+
+/**
+ * {@link TemporaryFileCodec} using Zstandard.
+ * Each compressed page starts with its uncompressed length (4-bytes, big-endian).
+ * @since 0.10.5
+ */
+final class ZstdTemporaryFileCodec implements TemporaryFileCodec {
+
+    static final int ID = 3;
+
+    static final String NAME = "zstd"; //$NON-NLS-1$
+
+    static final int DEFAULT_LEVEL = 3;
+
+    private final int level;
+
+    /**
+     * Creates a new instance.
+     * @param level the compression level, or {@code 0} to use the default level
+     */
+    ZstdTemporaryFileCodec(int level) {
+        this.level = level == 0 ? DEFAULT_LEVEL : level;
+    }
+
+    @Override
+    public int getId() {
+        return ID;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public int getMaxCompressedLength(int length) {
+        return TemporaryFile.RAW_LENGTH_SIZE + (int) Zstd.compressBound(length);
+    }
+
+    @Override
+    public int compress(byte[] input, int offset, int length, byte[] output) throws IOException {
+        TemporaryFile.putRawLength(output, length);
+        long size = Zstd.compressByteArray(
+                output, TemporaryFile.RAW_LENGTH_SIZE, output.length - TemporaryFile.RAW_LENGTH_SIZE,
+                input, offset, length,
+                level);
+        if (Zstd.isError(size)) {
+            throw new IOException(MessageFormat.format(
+                    "failed to compress temporary file page: {0} ({1})",
+                    this,
+                    Zstd.getErrorName(size)));
+        }
+        return TemporaryFile.RAW_LENGTH_SIZE + (int) size;
+    }
+
+    @Override
+    public int getUncompressedLength(byte[] input, int offset, int length) throws IOException {
+        return TemporaryFile.getRawLength(input, offset, length);
+    }
+
+    @Override
+    public void decompress(byte[] input, int offset, int length, byte[] output) throws IOException {
+        int rawLength = TemporaryFile.getRawLength(input, offset, length);
+        long size = Zstd.decompressByteArray(
+                output, 0, rawLength,
+                input, offset + TemporaryFile.RAW_LENGTH_SIZE, length - TemporaryFile.RAW_LENGTH_SIZE);
+        if (Zstd.isError(size)) {
+            throw new IOException(MessageFormat.format(
+                    "failed to decompress temporary file page: {0} ({1})",
+                    this,
+                    Zstd.getErrorName(size)));
+        }
+        if (size != rawLength) {
+            throw new IOException(MessageFormat.format(
+                    "broken temporary file page: {0}",
+                    this));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return MessageFormat.format(
+                "{0}(level={1})", //$NON-NLS-1$
+                NAME,
+                level);
+    }
+}
@@ -15,9 +15,13 @@
  */
 package com.asakusafw.runtime.util.cache;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.EOFException;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.text.MessageFormat;
+import java.util.Arrays;
 import java.util.zip.CRC32;
 import java.util.zip.Checksum;
 
@@ -26,6 +30,8 @@ import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileChecksum;
+import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 
@@ -36,7 +42,15 @@ import com.asakusafw.runtime.util.lock.RetryStrategy;
 
 /**
  * Manages cache files on Hadoop file system.
+ * <p>
+ * Each cache entry records the metadata of its source file (length, modification time, and
+ * {@link FileSystem#getFileChecksum(Path) file system checksum}).
+ * If the metadata of the source file is not changed, the cache entry is validated without reading the file contents,
+ * and without acquiring the cache lock.
+ * Otherwise, this validates the cache entry by using the CRC32 of the whole file contents.
+ * </p>
  * @since 0.7.0
+ * @version 0.10.5
  */
 public class HadoopFileCacheRepository implements FileCacheRepository {
 
@@ -46,6 +60,12 @@ public class HadoopFileCacheRepository implements FileCacheRepository {
 
     static final boolean DEFAULT_CHECK_BEFORE_DELETE = true;
 
+    static final String KEY_CHECK_METADATA = "com.asakusafw.cache.hadoop.checkMetadata"; //$NON-NLS-1$
+
+    static final boolean DEFAULT_CHECK_METADATA = true;
+
+    private static final int METADATA_MAGIC = 0x41434d31; // "ACM1"
+
     private final Configuration configuration;
 
     private final Path repository;
@@ -56,6 +76,8 @@ public class HadoopFileCacheRepository implements FileCacheRepository {
 
     private final boolean checkBeforeDelete;
 
+    private final boolean checkMetadata;
+
     private final ThreadLocal<byte[]> byteBuffers = ThreadLocal.withInitial(() -> new byte[1024]);
 
     /**
@@ -80,6 +102,7 @@ public class HadoopFileCacheRepository implements FileCacheRepository {
         this.lockProvider = lockProvider;
         this.retryStrategy = retryStrategy;
         this.checkBeforeDelete = configuration.getBoolean(KEY_CHECK_BEFORE_DELETE, DEFAULT_CHECK_BEFORE_DELETE);
+        this.checkMetadata = configuration.getBoolean(KEY_CHECK_METADATA, DEFAULT_CHECK_METADATA);
     }
 
     @Override
@@ -95,10 +118,21 @@ public class HadoopFileCacheRepository implements FileCacheRepository {
         if (fs.exists(sourcePath) == false) {
             throw new FileNotFoundException(sourcePath.toString());
         }
-        long sourceChecksum = computeChecksum(fs, sourcePath);
+        Metadata sourceMetadata = checkMetadata ? computeMetadata(fs, sourcePath) : null;
         Path cachePath = computeCachePath(sourcePath);
         Path cacheChecksumPath = computeCacheChecksumPath(cachePath);
 
+        // fast path: validates cache only from the file metadata without any locks
+        if (sourceMetadata != null && isCached(cachePath, cacheChecksumPath, sourceMetadata)) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(MessageFormat.format(
+                        "cache hit (metadata): {0} -> {1}", //$NON-NLS-1$
+                        sourcePath,
+                        cachePath));
+            }
+            return cachePath;
+        }
+
         IOException firstException = null;
         RetryObject retry = retryStrategy.newInstance(MessageFormat.format(
                 "preparing cache ({0} -> {1})",
@@ -106,10 +140,20 @@ public class HadoopFileCacheRepository implements FileCacheRepository {
                 cachePath));
         do {
             try (LockObject<? super Path> lock = lockProvider.tryLock(cachePath)) {
-                // TODO reduce lock scope?
                 if (lock == null) {
                     continue;
                 }
+                if (sourceMetadata != null && isCached(cachePath, cacheChecksumPath, sourceMetadata)) {
+                    // other process has just updated the cache
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug(MessageFormat.format(
+                                "cache hit (metadata): {0} -> {1}", //$NON-NLS-1$
+                                sourcePath,
+                                cachePath));
+                    }
+                    return cachePath;
+                }
+                long sourceChecksum = computeChecksum(fs, sourcePath);
                 if (isCached(cachePath, cacheChecksumPath, sourceChecksum)) {
                     if (LOG.isDebugEnabled()) {
                         LOG.debug(MessageFormat.format(
@@ -117,7 +161,10 @@ public class HadoopFileCacheRepository implements FileCacheRepository {
                                 sourcePath,
                                 cachePath));
                     }
-                    // just returns cached file
+                    if (sourceMetadata != null) {
+                        // contents are not changed, but the metadata is
+                        updateCacheChecksum(sourceChecksum, sourceMetadata, cacheChecksumPath);
+                    }
                 } else {
                     if (LOG.isDebugEnabled()) {
                         LOG.debug(MessageFormat.format(
@@ -125,7 +172,7 @@ public class HadoopFileCacheRepository implements FileCacheRepository {
                                 sourcePath,
                                 cachePath));
                     }
-                    updateCache(sourcePath, sourceChecksum, cachePath, cacheChecksumPath);
+                    updateCache(sourcePath, sourceChecksum, sourceMetadata, cachePath, cacheChecksumPath);
                 }
                 return cachePath;
             } catch (IOException e) {
@@ -147,6 +194,30 @@ public class HadoopFileCacheRepository implements FileCacheRepository {
         throw firstException;
     }
 
+    private static Metadata computeMetadata(FileSystem fs, Path file) throws IOException {
+        FileStatus stat = fs.getFileStatus(file);
+        if (stat.getModificationTime() <= 0) {
+            // modification time is not available
+            return null;
+        }
+        FileChecksum checksum;
+        try {
+            checksum = fs.getFileChecksum(file);
+        } catch (IOException | UnsupportedOperationException e) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(MessageFormat.format(
+                        "file checksum is not available: {0}", //$NON-NLS-1$
+                        file), e);
+            }
+            checksum = null;
+        }
+        return new Metadata(
+                stat.getLen(),
+                stat.getModificationTime(),
+                checksum == null ? null : checksum.getAlgorithmName(),
+                checksum == null ? null : checksum.getBytes());
+    }
+
     private long computeChecksum(FileSystem fs, Path file) throws IOException {
         if (LOG.isDebugEnabled()) {
             LOG.debug(MessageFormat.format(
@@ -188,6 +259,26 @@ public class HadoopFileCacheRepository implements FileCacheRepository {
     }
 
     private boolean isCached(Path cacheFilePath, Path cacheChecksumPath, long checksum) throws IOException {
+        CacheInfo info = readCacheInfo(cacheFilePath, cacheChecksumPath);
+        return info != null && info.checksum == checksum;
+    }
+
+    private boolean isCached(Path cacheFilePath, Path cacheChecksumPath, Metadata metadata) {
+        try {
+            CacheInfo info = readCacheInfo(cacheFilePath, cacheChecksumPath);
+            return info != null && metadata.equals(info.metadata);
+        } catch (IOException e) {
+            // the cache may be just updating
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(MessageFormat.format(
+                        "failed to read remote cache checksum: {0}", //$NON-NLS-1$
+                        cacheChecksumPath), e);
+            }
+            return false;
+        }
+    }
+
+    private CacheInfo readCacheInfo(Path cacheFilePath, Path cacheChecksumPath) throws IOException {
         if (LOG.isDebugEnabled()) {
             LOG.debug(MessageFormat.format(
                     "checking remote cache: {0}", //$NON-NLS-1$
@@ -200,22 +291,24 @@ public class HadoopFileCacheRepository implements FileCacheRepository {
                         "remote cache is not found: {0}", //$NON-NLS-1$
                         cacheFilePath));
             }
-            return false;
+            return null;
         } else {
             if (LOG.isDebugEnabled()) {
                 LOG.debug(MessageFormat.format(
                         "reading remote cache checksum: {0}", //$NON-NLS-1$
                         cacheFilePath));
             }
-            long other;
             try (FSDataInputStream input = fs.open(cacheChecksumPath)) {
-                other = input.readLong();
+                long checksum = input.readLong();
+                Metadata metadata = Metadata.read(input);
+                return new CacheInfo(checksum, metadata);
             }
-            return checksum == other;
         }
     }
 
-    private void updateCache(Path file, long checksum, Path cachePath, Path cacheChecksumPath) throws IOException {
+    private void updateCache(
+            Path file, long checksum, Metadata metadata,
+            Path cachePath, Path cacheChecksumPath) throws IOException {
         if (LOG.isInfoEnabled()) {
             LOG.info(MessageFormat.format(
                     "updating library cache: {0} -> {1}",
@@ -230,10 +323,27 @@ public class HadoopFileCacheRepository implements FileCacheRepository {
         delete(cacheFs, cacheChecksumPath);
         delete(cacheFs, cachePath);
 
-        // sync source file to cache file
-        try (FSDataOutputStream checksumOutput = cacheFs.create(cacheChecksumPath, false)) {
-            checksumOutput.writeLong(checksum);
-            syncFile(sourceFs, file, cacheFs, cachePath);
+        // sync source file to cache file, and then publish its checksum file
+        syncFile(sourceFs, file, cacheFs, cachePath);
+        updateCacheChecksum(checksum, metadata, cacheChecksumPath);
+    }
+
+    private void updateCacheChecksum(long checksum, Metadata metadata, Path cacheChecksumPath) throws IOException {
+        FileSystem cacheFs = cacheChecksumPath.getFileSystem(configuration);
+        Path temporary = new Path(cacheChecksumPath.getParent(), cacheChecksumPath.getName() + ".tmp"); //$NON-NLS-1$
+        try (FSDataOutputStream output = cacheFs.create(temporary, true)) {
+            output.writeLong(checksum);
+            if (metadata != null) {
+                metadata.write(output);
+            }
+        }
+        // lock-free readers never see incomplete checksum files
+        delete(cacheFs, cacheChecksumPath);
+        if (cacheFs.rename(temporary, cacheChecksumPath) == false) {
+            throw new IOException(MessageFormat.format(
+                    "Failed to publish cache checksum: {0} -> {1}",
+                    temporary,
+                    cacheChecksumPath));
         }
     }
 
@@ -259,4 +369,107 @@ public class HadoopFileCacheRepository implements FileCacheRepository {
             }
         }
     }
+
+    private static final class CacheInfo {
+
+        final long checksum;
+
+        final Metadata metadata;
+
+        CacheInfo(long checksum, Metadata metadata) {
+            this.checksum = checksum;
+            this.metadata = metadata;
+        }
+    }
+
+    private static final class Metadata {
+
+        private final long length;
+
+        private final long modificationTime;
+
+        private final String checksumAlgorithm;
+
+        private final byte[] checksumBytes;
+
+        Metadata(long length, long modificationTime, String checksumAlgorithm, byte[] checksumBytes) {
+            this.length = length;
+            this.modificationTime = modificationTime;
+            this.checksumAlgorithm = checksumAlgorithm;
+            this.checksumBytes = checksumBytes;
+        }
+
+        static Metadata read(DataInput input) throws IOException {
+            try {
+                if (input.readInt() != METADATA_MAGIC) {
+                    return null;
+                }
+            } catch (EOFException e) {
+                // written by older versions
+                return null;
+            }
+            long length = input.readLong();
+            long modificationTime = input.readLong();
+            if (input.readBoolean() == false) {
+                return new Metadata(length, modificationTime, null, null);
+            }
+            String algorithm = input.readUTF();
+            byte[] bytes = new byte[input.readInt()];
+            input.readFully(bytes);
+            return new Metadata(length, modificationTime, algorithm, bytes);
+        }
+
+        void write(DataOutput output) throws IOException {
+            output.writeInt(METADATA_MAGIC);
+            output.writeLong(length);
+            output.writeLong(modificationTime);
+            if (checksumAlgorithm == null) {
+                output.writeBoolean(false);
+            } else {
+                output.writeBoolean(true);
+                output.writeUTF(checksumAlgorithm);
+                output.writeInt(checksumBytes.length);
+                output.write(checksumBytes);
+            }
+        }
+
+        @Override
+        public int hashCode() {
+            final int prime = 31;
+            int result = 1;
+            result = prime * result + Long.hashCode(length);
+            result = prime * result + Long.hashCode(modificationTime);
+            result = prime * result + (checksumAlgorithm == null ? 0 : checksumAlgorithm.hashCode());
+            result = prime * result + Arrays.hashCode(checksumBytes);
+            return result;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null) {
+                return false;
+            }
+            if (getClass() != obj.getClass()) {
+                return false;
+            }
+            Metadata other = (Metadata) obj;
+            if (length != other.length) {
+                return false;
+            }
+            if (modificationTime != other.modificationTime) {
+                return false;
+            }
+            if (checksumAlgorithm == null) {
+                if (other.checksumAlgorithm != null) {
+                    return false;
+                }
+            } else if (checksumAlgorithm.equals(other.checksumAlgorithm) == false) {
+                return false;
+            }
+            return Arrays.equals(checksumBytes, other.checksumBytes);
+        }
+    }
 }
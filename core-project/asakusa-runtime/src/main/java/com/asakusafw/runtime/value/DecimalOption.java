@@ -29,8 +29,10 @@ import com.asakusafw.runtime.io.util.WritableRawComparable;
 
 /**
  * Represents a decimal value which can be {@code null}.
+ * If the unscaled value fits in {@code long}, this holds it in a compact form,
+ * and creates a {@link BigDecimal} only when {@link #get()} is called.
  * @since 0.1.0
- * @version 0.7.0
+ * @version 0.10.5
  */
 public final class DecimalOption extends ValueOption<DecimalOption> {
 
@@ -44,8 +46,26 @@ public final class DecimalOption extends ValueOption<DecimalOption> {
 
     private static final ThreadLocal<DecimalBuffer> BUFFER_SUB = ThreadLocal.withInitial(DecimalBuffer::new);
 
+    private static final int MAX_COMPACT_PRECISION = 18;
+
+    private static final long[] POWERS_OF_TEN = new long[MAX_COMPACT_PRECISION + 1];
+    static {
+        POWERS_OF_TEN[0] = 1L;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10L;
+        }
+    }
+
+    // may be null only if the compact form is available
     private BigDecimal entity = BigDecimal.ZERO;
 
+    // whether or not compactValue and compactScale represent the current value
+    private boolean compact;
+
+    private long compactValue;
+
+    private int compactScale;
+
     /**
      * Creates a new instance which represents {@code null} value.
      */
@@ -75,7 +95,13 @@ public final class DecimalOption extends ValueOption<DecimalOption> {
         if (nullValue) {
             throw new NullPointerException();
         }
-        return entity;
+        BigDecimal result = entity;
+        if (result == null) {
+            assert compact;
+            result = BigDecimal.valueOf(compactValue, compactScale);
+            entity = result;
+        }
+        return result;
     }
 
     /**
@@ -99,7 +125,7 @@ public final class DecimalOption extends ValueOption<DecimalOption> {
         if (nullValue) {
             throw new NullPointerException();
         }
-        this.entity = entity.add(delta);
+        setEntity(get().add(delta));
     }
 
     /**
@@ -114,7 +140,75 @@ public final class DecimalOption extends ValueOption<DecimalOption> {
         if (other.nullValue) {
             return;
         }
-        this.entity = entity.add(other.entity);
+        if (toCompact() && other.toCompact() && addCompact(other.compactValue, other.compactScale)) {
+            return;
+        }
+        setEntity(get().add(other.get()));
+    }
+
+    private boolean addCompact(long otherValue, int otherScale) {
+        long a = compactValue;
+        long b = otherValue;
+        int scale = compactScale;
+        if (scale < otherScale) {
+            if (canScaleUp(a, otherScale - scale) == false) {
+                return false;
+            }
+            a *= POWERS_OF_TEN[otherScale - scale];
+            scale = otherScale;
+        } else if (scale > otherScale) {
+            if (canScaleUp(b, scale - otherScale) == false) {
+                return false;
+            }
+            b *= POWERS_OF_TEN[scale - otherScale];
+        }
+        long result = a + b;
+        if (((a ^ result) & (b ^ result)) < 0 || result == Long.MIN_VALUE) {
+            // overflow
+            return false;
+        }
+        setCompact(result, scale);
+        return true;
+    }
+
+    private static boolean canScaleUp(long value, int digits) {
+        if (digits >= POWERS_OF_TEN.length) {
+            return value == 0L;
+        }
+        long limit = Long.MAX_VALUE / POWERS_OF_TEN[digits];
+        return -limit <= value && value <= limit;
+    }
+
+    /**
+     * Prepares the compact form of the current value.
+     * @return {@code true} if the compact form is available, otherwise {@code false}
+     */
+    private boolean toCompact() {
+        if (compact) {
+            return true;
+        }
+        BigDecimal value = entity;
+        if (value.precision() > MAX_COMPACT_PRECISION) {
+            return false;
+        }
+        this.compactValue = value.unscaledValue().longValue();
+        this.compactScale = value.scale();
+        this.compact = true;
+        return true;
+    }
+
+    private void setCompact(long value, int scale) {
+        this.nullValue = false;
+        this.compact = true;
+        this.compactValue = value;
+        this.compactScale = scale;
+        this.entity = null;
+    }
+
+    private void setEntity(BigDecimal value) {
+        this.nullValue = false;
+        this.compact = false;
+        this.entity = value;
     }
 
     /**
@@ -128,8 +222,7 @@ public final class DecimalOption extends ValueOption<DecimalOption> {
         if (newValue == null) {
             this.nullValue = true;
         } else {
-            this.nullValue = false;
-            this.entity = newValue;
+            setEntity(newValue);
         }
         return this;
     }
@@ -141,8 +234,14 @@ public final class DecimalOption extends ValueOption<DecimalOption> {
             return;
         } else if (optionOrNull == null || optionOrNull.nullValue) {
             this.nullValue = true;
+        } else if (optionOrNull.compact) {
+            this.nullValue = false;
+            this.compact = true;
+            this.compactValue = optionOrNull.compactValue;
+            this.compactScale = optionOrNull.compactScale;
+            this.entity = optionOrNull.entity;
         } else {
-            modify(optionOrNull.entity);
+            setEntity(optionOrNull.entity);
         }
     }
 
@@ -153,7 +252,7 @@ public final class DecimalOption extends ValueOption<DecimalOption> {
             return 1;
         }
         int result = 1;
-        result = prime * result + entity.hashCode();
+        result = prime * result + get().hashCode();
         return result;
     }
 
@@ -172,10 +271,13 @@ public final class DecimalOption extends ValueOption<DecimalOption> {
         if (nullValue != other.nullValue) {
             return false;
         }
-        if (nullValue == false && entity.equals(other.entity) == false) {
-            return false;
+        if (nullValue) {
+            return true;
         }
-        return true;
+        if (compact && other.compact) {
+            return compactValue == other.compactValue && compactScale == other.compactScale;
+        }
+        return get().equals(other.get());
     }
 
     /**
@@ -187,7 +289,7 @@ public final class DecimalOption extends ValueOption<DecimalOption> {
         if (isNull()) {
             return other == null;
         }
-        return entity.equals(other);
+        return get().equals(other);
     }
 
     @Override
@@ -199,7 +301,20 @@ public final class DecimalOption extends ValueOption<DecimalOption> {
             }
             return nullValue ? -1 : +1;
         }
-        return entity.compareTo(other.entity);
+        if (compact && other.compact) {
+            long a = compactValue;
+            long b = other.compactValue;
+            int scale1 = compactScale;
+            int scale2 = other.compactScale;
+            if (scale1 == scale2) {
+                return Long.compare(a, b);
+            } else if (scale1 < scale2 && canScaleUp(a, scale2 - scale1)) {
+                return Long.compare(a * POWERS_OF_TEN[scale2 - scale1], b);
+            } else if (scale1 > scale2 && canScaleUp(b, scale1 - scale2)) {
+                return Long.compare(a, b * POWERS_OF_TEN[scale1 - scale2]);
+            }
+        }
+        return get().compareTo(other.get());
     }
 
     @Override
@@ -215,6 +330,20 @@ public final class DecimalOption extends ValueOption<DecimalOption> {
     public void write(DataOutput out) throws IOException {
         if (nullValue) {
             out.writeByte(HEAD_NULL);
+        } else if (toCompact()) {
+            long value = compactValue;
+            long unsigned = Math.abs(value);
+            int head = MASK_PRESENT;
+            if (value >= 0) {
+                head |= MASK_PLUS;
+            }
+            out.writeByte(head);
+            WritableUtils.writeVInt(out, compactScale);
+            int length = (Long.SIZE - Long.numberOfLeadingZeros(unsigned) + Byte.SIZE - 1) / Byte.SIZE;
+            WritableUtils.writeVInt(out, length);
+            for (int i = length - 1; i >= 0; i--) {
+                out.writeByte((int) (unsigned >>> (i * Byte.SIZE)));
+            }
         } else {
             DecimalBuffer buffer = BUFFER_MAIN.get();
             buffer.set(entity);
@@ -252,6 +381,14 @@ public final class DecimalOption extends ValueOption<DecimalOption> {
         boolean plus = (head & MASK_PLUS) != 0;
         int scale = WritableUtils.readVInt(in);
         int length = WritableUtils.readVInt(in);
+        if (length < Long.BYTES) {
+            long unsigned = 0;
+            for (int i = 0; i < length; i++) {
+                unsigned = (unsigned << Byte.SIZE) | (in.readByte() & 0xff);
+            }
+            setCompact(plus ? unsigned : -unsigned, scale);
+            return;
+        }
 
         DecimalBuffer buffer = BUFFER_MAIN.get();
         byte[] target = buffer.setMeta(plus, scale, length);
@@ -272,10 +409,18 @@ public final class DecimalOption extends ValueOption<DecimalOption> {
             cursor += WritableUtils.decodeVIntSize(bytes[cursor]);
             int length = WritableComparator.readVInt(bytes, cursor);
             cursor += WritableUtils.decodeVIntSize(bytes[cursor]);
-            DecimalBuffer buffer = BUFFER_MAIN.get();
-            buffer.set(plus, scale, bytes, cursor, length);
+            if (length < Long.BYTES) {
+                long unsigned = 0;
+                for (int i = 0; i < length; i++) {
+                    unsigned = (unsigned << Byte.SIZE) | (bytes[cursor + i] & 0xff);
+                }
+                setCompact(plus ? unsigned : -unsigned, scale);
+            } else {
+                DecimalBuffer buffer = BUFFER_MAIN.get();
+                buffer.set(plus, scale, bytes, cursor, length);
+                modify(buffer.toBigDecimal());
+            }
             cursor += length;
-            modify(buffer.toBigDecimal());
         }
         return cursor - offset;
     }
@@ -551,6 +696,15 @@ public final class DecimalOption extends ValueOption<DecimalOption> {
             if (o1.scale == o2.scale) {
                 return compareAbsolute(o1.unsigned, o2.unsigned);
             }
+            long c1 = o1.toUnsignedCompact();
+            long c2 = o2.toUnsignedCompact();
+            if (c1 >= 0 && c2 >= 0) {
+                if (o1.scale < o2.scale && canScaleUp(c1, o2.scale - o1.scale)) {
+                    return Long.compare(c1 * POWERS_OF_TEN[o2.scale - o1.scale], c2);
+                } else if (o1.scale > o2.scale && canScaleUp(c2, o1.scale - o2.scale)) {
+                    return Long.compare(c1, c2 * POWERS_OF_TEN[o1.scale - o2.scale]);
+                }
+            }
             return o1.toUnsignedBigDecimal().compareTo(o2.toUnsignedBigDecimal());
         }
 
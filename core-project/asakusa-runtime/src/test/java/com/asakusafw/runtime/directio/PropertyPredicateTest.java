@@ -0,0 +1,143 @@
+/**
+ * Copyright 2011-2021 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.runtime.directio;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+
+import org.junit.Test;
+
+import com.asakusafw.runtime.directio.PropertyPredicate.Between;
+import com.asakusafw.runtime.directio.PropertyPredicate.Comparison;
+import com.asakusafw.runtime.directio.PropertyPredicate.Connective;
+import com.asakusafw.runtime.directio.PropertyPredicate.In;
+import com.asakusafw.runtime.directio.PropertyPredicate.IsNull;
+import com.asakusafw.runtime.directio.PropertyPredicate.Operator;
+import com.asakusafw.runtime.value.Date;
+
+/**
+ * Test for {@link PropertyPredicate}.
+ */
+public class PropertyPredicateTest {
+
+    /**
+     * comparison.
+     */
+    @Test
+    public void comparison() {
+        Comparison p = (Comparison) PropertyPredicate.lessThan("a", 100);
+        assertThat(p.getProperty(), is("a"));
+        assertThat(p.getOperator(), is(Operator.LESS_THAN));
+        assertThat(p.getValue(), is((Object) 100));
+        assertThat(p.accept(new Kind(), null), is("comparison"));
+    }
+
+    /**
+     * between.
+     */
+    @Test
+    public void between() {
+        Between p = (Between) PropertyPredicate.between("a", new Date(2020, 1, 1), new Date(2020, 12, 31));
+        assertThat(p.getProperty(), is("a"));
+        assertThat(p.getLower(), is((Object) new Date(2020, 1, 1)));
+        assertThat(p.getUpper(), is((Object) new Date(2020, 12, 31)));
+        assertThat(p.accept(new Kind(), null), is("between"));
+    }
+
+    /**
+     * in.
+     */
+    @Test
+    public void in() {
+        In p = (In) PropertyPredicate.in("a", "x", "y");
+        assertThat(p.getProperty(), is("a"));
+        assertThat(p.getValues(), contains("x", "y"));
+        assertThat(p.accept(new Kind(), null), is("in"));
+    }
+
+    /**
+     * is null.
+     */
+    @Test
+    public void is_null() {
+        IsNull p = (IsNull) PropertyPredicate.isNull("a");
+        assertThat(p.getProperty(), is("a"));
+        assertThat(p.accept(new Kind(), null), is("null"));
+    }
+
+    /**
+     * connectives.
+     */
+    @Test
+    public void connective() {
+        PropertyPredicate a = PropertyPredicate.equal("a", true);
+        PropertyPredicate b = PropertyPredicate.greaterThanOrEqual("b", new BigDecimal("1.5"));
+        Connective and = (Connective) PropertyPredicate.and(a, b);
+        assertThat(and.isConjunction(), is(true));
+        assertThat(and.getElements(), contains(a, b));
+        assertThat(and.accept(new Kind(), null), is("connective"));
+
+        Connective or = (Connective) PropertyPredicate.or(a, b);
+        assertThat(or.isConjunction(), is(false));
+        assertThat(or.getElements(), contains(a, b));
+    }
+
+    /**
+     * unsupported value types.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void unsupported_value() {
+        PropertyPredicate.equal("a", new Object());
+    }
+
+    /**
+     * empty candidates.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void in_empty() {
+        PropertyPredicate.in("a");
+    }
+
+    private static final class Kind implements PropertyPredicate.Visitor<String, Void> {
+
+        @Override
+        public String visitComparison(Comparison predicate, Void context) {
+            return "comparison";
+        }
+
+        @Override
+        public String visitBetween(Between predicate, Void context) {
+            return "between";
+        }
+
+        @Override
+        public String visitIn(In predicate, Void context) {
+            return "in";
+        }
+
+        @Override
+        public String visitIsNull(IsNull predicate, Void context) {
+            return "null";
+        }
+
+        @Override
+        public String visitConnective(Connective predicate, Void context) {
+            return "connective";
+        }
+    }
+}
@@ -58,6 +58,7 @@ import com.asakusafw.runtime.directio.util.CountInputStream;
 import com.asakusafw.runtime.directio.util.CountOutputStream;
 import com.asakusafw.runtime.io.ModelInput;
 import com.asakusafw.runtime.io.ModelOutput;
+import com.asakusafw.runtime.stage.StageConstants;
 import com.asakusafw.runtime.windows.WindowsSupport;
 
 /**
@@ -231,6 +232,87 @@ public class HadoopDataSourceCoreTest {
         assertThat(results, hasItem("Hello3"));
     }
 
+    /**
+     * input with listing cache.
+     * @throws Exception if failed
+     */
+    @Test
+    public void input_listing_cache() throws Exception {
+        File system = new File(temp.getRoot(), "system").getCanonicalFile();
+        conf.setBoolean(HadoopDataSourceUtil.KEY_LISTING_CACHE, true);
+        conf.set(HadoopDataSourceUtil.KEY_SYSTEM_DIR, system.toURI().toString());
+        conf.set(StageConstants.PROP_EXECUTION_ID, "exec");
+        profile = new HadoopDataSourceProfile(
+                conf,
+                "testing",
+                "testing",
+                new Path(mapping.toURI()),
+                new Path(temporary.toURI()));
+        profile.setMinimumFragmentSize(-1);
+
+        File input = new File(mapping, "input");
+        put(new File(input, "file1.txt"), "Hello1");
+        put(new File(input, "file2.txt"), "Hello2");
+        HadoopDataSourceCore core = new HadoopDataSourceCore(profile);
+        List<DirectInputFragment> first = core.findInputFragments(definition, "input", FilePattern.compile("*"));
+        assertThat(first.size(), is(2));
+
+        File cacheDir = new File(system, HadoopDataSourceUtil.LISTING_CACHE_DIR + "/exec");
+        File[] cached = cacheDir.listFiles((dir, name) -> name.endsWith(".listing"));
+        assertThat(cached, is(notNullValue()));
+        assertThat(cached.length, is(1));
+
+        List<DirectInputFragment> second = core.findInputFragments(definition, "input", FilePattern.compile("*"));
+        assertThat(second.size(), is(2));
+        assertThat(consume(core, second), containsInAnyOrder("Hello1", "Hello2"));
+
+        long timestamp = input.lastModified();
+        put(new File(input, "file3.txt"), "Hello3");
+        assertThat(input.setLastModified(timestamp + 10_000), is(true));
+
+        List<DirectInputFragment> third = core.findInputFragments(definition, "input", FilePattern.compile("*"));
+        assertThat(third.size(), is(3));
+        assertThat(consume(core, third), containsInAnyOrder("Hello1", "Hello2", "Hello3"));
+    }
+
+    /**
+     * input with listing cache, and the nested directory was modified.
+     * @throws Exception if failed
+     */
+    @Test
+    public void input_listing_cache_nested() throws Exception {
+        File system = new File(temp.getRoot(), "system").getCanonicalFile();
+        conf.setBoolean(HadoopDataSourceUtil.KEY_LISTING_CACHE, true);
+        conf.set(HadoopDataSourceUtil.KEY_SYSTEM_DIR, system.toURI().toString());
+        conf.set(StageConstants.PROP_EXECUTION_ID, "exec");
+        profile = new HadoopDataSourceProfile(
+                conf,
+                "testing",
+                "testing",
+                new Path(mapping.toURI()),
+                new Path(temporary.toURI()));
+        profile.setMinimumFragmentSize(-1);
+
+        File data = new File(mapping, "input/x/data");
+        put(new File(data, "file1.txt"), "Hello1");
+        HadoopDataSourceCore core = new HadoopDataSourceCore(profile);
+        FilePattern pattern = FilePattern.compile("*/data/*.txt");
+        List<DirectInputFragment> first = core.findInputFragments(definition, "input", pattern);
+        assertThat(first.size(), is(1));
+
+        // adds a file without changing the directory modification time: the stale cache entry is still used
+        long timestamp = data.lastModified();
+        put(new File(data, "file2.txt"), "Hello2");
+        assertThat(data.setLastModified(timestamp), is(true));
+        List<DirectInputFragment> second = core.findInputFragments(definition, "input", pattern);
+        assertThat(consume(core, second), containsInAnyOrder("Hello1"));
+
+        // only the nested directory was modified
+        assertThat(data.setLastModified(timestamp + 10_000), is(true));
+        List<DirectInputFragment> third = core.findInputFragments(definition, "input", pattern);
+        assertThat(consume(core, third), containsInAnyOrder("Hello1", "Hello2"));
+    }
+
     /**
      * simple output.
      * @throws Exception if failed
@@ -436,6 +518,120 @@ public class HadoopDataSourceCoreTest {
         assertThat(new File(mapping, "output/file.txt").exists(), is(false));
     }
 
+    /**
+     * output with manifest.
+     * @throws Exception if failed
+     */
+    @Test
+    public void output_manifest() throws Exception {
+        profile.setOutputManifest(true);
+        profile.setMinimumFragmentSize(-1);
+        HadoopDataSourceCore core = new HadoopDataSourceCore(profile);
+        setup(core);
+        try (ModelOutput<StringBuilder> output = core.openOutput(
+                context,
+                definition,
+                "output",
+                "file.txt",
+                counter)) {
+            output.write(new StringBuilder("Hello, world!"));
+        }
+        assertThat(counter.get(), is(greaterThan(0L)));
+
+        File target = new File(mapping, "output/file.txt");
+        assertThat(target.exists(), is(true));
+
+        commitAttempt(core);
+        assertThat(core.findInputFragments(definition, "output", FilePattern.compile("**")), hasSize(0));
+
+        core.commitTransactionOutput(context.getTransactionContext());
+        assertThat(core.findInputFragments(definition, "output", FilePattern.compile("**")), hasSize(1));
+
+        core.cleanupTransactionOutput(context.getTransactionContext());
+        assertThat(get(target), is(Arrays.asList("Hello, world!")));
+        assertThat(core.findInputFragments(definition, "output", FilePattern.compile("**")), hasSize(1));
+    }
+
+    /**
+     * output with manifest, including a failed attempt.
+     * @throws Exception if failed
+     */
+    @Test
+    public void output_manifest_failed_attempt() throws Exception {
+        profile.setOutputManifest(true);
+        HadoopDataSourceCore core = new HadoopDataSourceCore(profile);
+        setup(core);
+        OutputAttemptContext failed = new OutputAttemptContext("tx", "failed", profile.getId(), new Counter());
+        core.setupAttemptOutput(failed);
+        try (ModelOutput<StringBuilder> output = core.openOutput(failed, definition, "output", "a.txt", counter)) {
+            output.write(new StringBuilder("failed"));
+        }
+        try (ModelOutput<StringBuilder> output = core.openOutput(failed, definition, "output", "b.txt", counter)) {
+            output.write(new StringBuilder("failed"));
+        }
+        core.cleanupAttemptOutput(failed);
+        try (ModelOutput<StringBuilder> output = core.openOutput(context, definition, "output", "a.txt", counter)) {
+            output.write(new StringBuilder("Hello, world!"));
+        }
+        commit(core);
+
+        assertThat(get(new File(mapping, "output/a.txt")), is(Arrays.asList("Hello, world!")));
+        assertThat(new File(mapping, "output/b.txt").exists(), is(false));
+    }
+
+    /**
+     * output with manifest, each attempt only writes a single manifest file.
+     * @throws Exception if failed
+     */
+    @Test
+    public void output_manifest_single_entry() throws Exception {
+        profile.setOutputManifest(true);
+        profile.setMinimumFragmentSize(-1);
+        HadoopDataSourceCore core = new HadoopDataSourceCore(profile);
+        setup(core);
+        for (int i = 0; i < 10; i++) {
+            try (ModelOutput<StringBuilder> output = core.openOutput(
+                    context, definition, "output", String.format("%d.txt", i), counter)) {
+                output.write(new StringBuilder("Hello, world!"));
+            }
+        }
+        commitAttempt(core);
+
+        File manifest = new File(core.getManifestOutput(context.getTransactionContext()).toUri());
+        File[] entries = new File(manifest, "committed").listFiles(f -> f.getName().startsWith(".") == false);
+        assertThat(entries, is(notNullValue()));
+        assertThat(entries.length, is(1));
+        assertThat(get(entries[0]), hasSize(10));
+        assertThat(core.findInputFragments(definition, "output", FilePattern.compile("**")), hasSize(0));
+
+        commitTransaction(core);
+        assertThat(core.findInputFragments(definition, "output", FilePattern.compile("**")), hasSize(10));
+    }
+
+    /**
+     * rollback output with manifest.
+     * @throws Exception if failed
+     */
+    @Test
+    public void output_manifest_rollback() throws Exception {
+        profile.setOutputManifest(true);
+        HadoopDataSourceCore core = new HadoopDataSourceCore(profile);
+        setup(core);
+        try (ModelOutput<StringBuilder> output = core.openOutput(
+                context,
+                definition,
+                "output",
+                "file.txt",
+                counter)) {
+            output.write(new StringBuilder("Hello, world!"));
+        }
+        commitAttempt(core);
+        assertThat(new File(mapping, "output/file.txt").exists(), is(true));
+
+        core.cleanupTransactionOutput(context.getTransactionContext());
+        assertThat(new File(mapping, "output/file.txt").exists(), is(false));
+    }
+
     /**
      * simple delete.
      * @throws Exception if failed
@@ -80,6 +80,7 @@ public class HadoopDataSourceProfileTest {
 
         assertThat(result.isOutputStaging(), is(true));
         assertThat(result.isOutputStreaming(), is(true));
+        assertThat(result.isOutputManifest(), is(false));
         assertThat(result.isCombineBlocks(), is(true));
         assertThat(result.isSplitBlocks(), is(true));
         assertThat(result.getKeepAliveInterval(), is(0L));
@@ -139,6 +140,7 @@ public class HadoopDataSourceProfileTest {
         attributes.put(KEY_PREF_FRAGMENT, "1234");
         attributes.put(KEY_OUTPUT_STAGING, "false");
         attributes.put(KEY_OUTPUT_STREAMING, "false");
+        attributes.put(KEY_OUTPUT_MANIFEST, "true");
         attributes.put(KEY_SPLIT_BLOCKS, "false");
         attributes.put(KEY_COMBINE_BLOCKS, "false");
         attributes.put(KEY_KEEPALIVE_INTERVAL, "12345");
@@ -149,6 +151,8 @@ public class HadoopDataSourceProfileTest {
                 "context",
                 attributes);
         Configuration conf = new Configuration();
+        conf.setBoolean("mapreduce.map.speculative", false);
+        conf.setBoolean("mapreduce.reduce.speculative", false);
         HadoopDataSourceProfile result = HadoopDataSourceProfile.convert(profile, conf);
 
         assertThat(result.getId(), is("testing"));
@@ -171,12 +175,33 @@ public class HadoopDataSourceProfileTest {
 
         assertThat(result.isOutputStaging(), is(false));
         assertThat(result.isOutputStreaming(), is(false));
+        assertThat(result.isOutputManifest(), is(true));
         assertThat(result.isCombineBlocks(), is(false));
         assertThat(result.isSplitBlocks(), is(false));
         assertThat(result.getKeepAliveInterval(), is(12345L));
         assertThat(result.getRollforwardThreads(), is(23));
     }
 
+    /**
+     * output manifest with speculative execution.
+     * @throws Exception if failed
+     */
+    @Test(expected = IOException.class)
+    public void convert_manifest_speculative() throws Exception {
+        Map<String, String> attributes = new HashMap<>();
+        attributes.put(KEY_PATH, folder.newFolder("path").toURI().toString());
+        attributes.put(KEY_OUTPUT_MANIFEST, "true");
+        DirectDataSourceProfile profile = new DirectDataSourceProfile(
+                "testing",
+                HadoopDataSource.class,
+                "context",
+                attributes);
+        Configuration conf = new Configuration();
+        conf.setBoolean("mapreduce.map.speculative", false);
+        conf.setBoolean("mapreduce.reduce.speculative", true);
+        HadoopDataSourceProfile.convert(profile, conf);
+    }
+
     /**
      * fs is inconsistent between prod and temp.
      * @throws Exception if failed
@@ -370,6 +370,50 @@ public class HadoopDataSourceUtilTest {
         assertThat(normalize(results), is(path("a/a.csv", "b/b.csv", "c/c.csv")));
     }
 
+    /**
+     * search with multiple threads.
+     * @throws Exception if failed
+     */
+    @Test
+    public void search_parallel() throws Exception {
+        List<String> expected = new ArrayList<>();
+        for (int year = 2001; year <= 2004; year++) {
+            for (int month = 1; month <= 12; month++) {
+                String path = String.format("data/%04d/%02d/a.csv", year, month);
+                touch(path);
+                if (year != 2002) {
+                    expected.add(path);
+                }
+            }
+        }
+        FileSystem fs = getTempFileSystem();
+        FilePattern pattern = FilePattern.compile("data/{2001|2003|2004}/*/**/*.csv");
+        List<FileStatus> serial = HadoopDataSourceUtil.search(fs, getBase(), pattern, 1);
+        List<FileStatus> parallel = HadoopDataSourceUtil.search(fs, getBase(), pattern, 4);
+        assertThat(normalize(parallel), is(path(expected.toArray(new String[expected.size()]))));
+
+        List<Path> serialPaths = new ArrayList<>();
+        serial.forEach(s -> serialPaths.add(s.getPath()));
+        List<Path> parallelPaths = new ArrayList<>();
+        parallel.forEach(s -> parallelPaths.add(s.getPath()));
+        assertThat(parallelPaths, is(serialPaths));
+    }
+
+    /**
+     * search by traverse with multiple threads.
+     * @throws Exception if failed
+     */
+    @Test
+    public void search_parallel_traverse() throws Exception {
+        touch("a/a.csv");
+        touch("a/b/b.csv");
+        touch("b/c/d/c.csv");
+        touch("c/c.csv");
+        FileSystem fs = getTempFileSystem();
+        List<FileStatus> results = HadoopDataSourceUtil.search(fs, getBase(), FilePattern.compile("**/*.csv"), 4);
+        assertThat(normalize(results), is(path("a/a.csv", "a/b/b.csv", "b/c/d/c.csv", "c/c.csv")));
+    }
+
     /**
      * single file does not cover anything.
      * @throws Exception if failed
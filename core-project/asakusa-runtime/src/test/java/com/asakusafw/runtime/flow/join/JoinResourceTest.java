@@ -0,0 +1,250 @@
+/**
+ * Copyright 2011-2021 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.runtime.flow.join;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapreduce.Job;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.asakusafw.runtime.io.ModelOutput;
+import com.asakusafw.runtime.stage.StageConstants;
+import com.asakusafw.runtime.stage.resource.StageResourceDriver;
+import com.asakusafw.runtime.stage.temporary.TemporaryStorage;
+import com.asakusafw.runtime.util.hadoop.ConfigurationProvider;
+import com.asakusafw.runtime.value.IntOption;
+import com.asakusafw.runtime.windows.WindowsSupport;
+
+/**
+ * Test for {@link JoinResource}.
+ */
+public class JoinResourceTest {
+
+    /**
+     * Windows platform support.
+     */
+    @ClassRule
+    public static final WindowsSupport WINDOWS_SUPPORT = new WindowsSupport();
+
+    /**
+     * temporary folder.
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private static final String CACHE_NAME = "testing";
+
+    private static final String EXECUTION_ID = "exec";
+
+    /**
+     * simple case.
+     * @throws Exception if failed
+     */
+    @Test
+    public void simple() throws Exception {
+        Path input = input(1, 2, 2);
+        Job job = job(input, null);
+
+        Mock resource = new Mock();
+        resource.setup(job);
+        assertThat(values(resource.find(new IntOption(1))), contains(1));
+        assertThat(values(resource.find(new IntOption(2))), contains(2, 2));
+        assertThat(values(resource.find(new IntOption(3))), hasSize(0));
+        assertThat(resource.built, is(3));
+    }
+
+    /**
+     * w/ memory-mapped tables.
+     * @throws Exception if failed
+     */
+    @Test
+    public void mapped() throws Exception {
+        Path input = input(1, 2, 2);
+        File directory = folder.newFolder();
+        Job job = job(input, directory);
+
+        Mock resource = new Mock();
+        resource.setup(job);
+        assertThat(values(resource.find(new IntOption(1))), contains(1));
+        assertThat(values(resource.find(new IntOption(2))), contains(2, 2));
+        assertThat(values(resource.find(new IntOption(3))), hasSize(0));
+        assertThat(resource.built, is(3));
+        assertThat(tables(new File(directory, EXECUTION_ID)), hasSize(1));
+    }
+
+    /**
+     * memory-mapped tables are reused in the other tasks.
+     * @throws Exception if failed
+     */
+    @Test
+    public void mapped_reuse() throws Exception {
+        Path input = input(1, 2, 2);
+        File directory = folder.newFolder();
+
+        Mock first = new Mock();
+        first.setup(job(input, directory));
+        assertThat(first.built, is(3));
+
+        Mock second = new Mock();
+        second.setup(job(input, directory));
+        assertThat(values(second.find(new IntOption(1))), contains(1));
+        assertThat(values(second.find(new IntOption(2))), contains(2, 2));
+        assertThat(second.built, is(0));
+        assertThat(tables(new File(directory, EXECUTION_ID)), hasSize(1));
+    }
+
+    /**
+     * memory-mapped tables are rebuilt if their inputs were changed.
+     * @throws Exception if failed
+     */
+    @Test
+    public void mapped_invalidate() throws Exception {
+        Path input = input(1, 2, 2);
+        File directory = folder.newFolder();
+
+        Mock first = new Mock();
+        first.setup(job(input, directory));
+        assertThat(first.built, is(3));
+
+        write(input, 1, 1, 3, 3);
+        Mock second = new Mock();
+        second.setup(job(input, directory));
+        assertThat(values(second.find(new IntOption(1))), contains(1, 1));
+        assertThat(values(second.find(new IntOption(2))), hasSize(0));
+        assertThat(values(second.find(new IntOption(3))), contains(3, 3));
+        assertThat(second.built, is(4));
+    }
+
+    /**
+     * memory-mapped tables of the other executions are removed after they were expired.
+     * @throws Exception if failed
+     */
+    @Test
+    public void mapped_expire() throws Exception {
+        Path input = input(1, 2, 2);
+        File directory = folder.newFolder();
+        File expired = new File(directory, "expired");
+        File active = new File(directory, "active");
+        assertThat(expired.mkdirs(), is(true));
+        assertThat(active.mkdirs(), is(true));
+        assertThat(expired.setLastModified(System.currentTimeMillis() - JoinResource.DEFAULT_TABLE_EXPIRATION * 2),
+                is(true));
+
+        Mock resource = new Mock();
+        resource.setup(job(input, directory));
+        assertThat(values(resource.find(new IntOption(1))), contains(1));
+
+        assertThat(expired.exists(), is(false));
+        assertThat(active.exists(), is(true));
+        assertThat(tables(new File(directory, EXECUTION_ID)), hasSize(1));
+    }
+
+    /**
+     * removes memory-mapped tables of the execution.
+     * @throws Exception if failed
+     */
+    @Test
+    public void delete() throws Exception {
+        Path input = input(1, 2, 2);
+        File directory = folder.newFolder();
+        Job job = job(input, directory);
+
+        Mock resource = new Mock();
+        resource.setup(job);
+        assertThat(new File(directory, EXECUTION_ID).exists(), is(true));
+
+        JoinResource.deleteTables(job.getConfiguration(), EXECUTION_ID);
+        assertThat(new File(directory, EXECUTION_ID).exists(), is(false));
+    }
+
+    private Path input(int... values) throws IOException {
+        return write(new Path(folder.newFile().toURI()), values);
+    }
+
+    private static Path write(Path path, int... values) throws IOException {
+        Configuration conf = new ConfigurationProvider().newInstance();
+        try (ModelOutput<IntOption> output = TemporaryStorage.openOutput(conf, IntOption.class, path)) {
+            for (int value : values) {
+                output.write(new IntOption(value));
+            }
+        }
+        return path;
+    }
+
+    private static Job job(Path input, File directory) throws IOException {
+        Job job = Job.getInstance(new ConfigurationProvider().newInstance());
+        Configuration conf = job.getConfiguration();
+        conf.set(StageConstants.PROP_EXECUTION_ID, EXECUTION_ID);
+        if (directory != null) {
+            conf.set(JoinResource.KEY_TABLE_DIRECTORY, directory.getAbsolutePath());
+        }
+        StageResourceDriver.setAccessMode(job, StageResourceDriver.AccessMode.DIRECT);
+        StageResourceDriver.add(job, input.toString(), CACHE_NAME);
+        return job;
+    }
+
+    private static List<Integer> values(List<IntOption> values) {
+        return values.stream().map(IntOption::get).collect(Collectors.toList());
+    }
+
+    private static List<File> tables(File directory) {
+        File[] files = directory.listFiles();
+        assertThat(files, is(notNullValue()));
+        return Arrays.stream(files)
+                .filter(it -> it.getName().endsWith(".table"))
+                .collect(Collectors.toList());
+    }
+
+    private static final class Mock extends JoinResource<IntOption, IntOption> {
+
+        int built;
+
+        @Override
+        protected String getCacheName() {
+            return CACHE_NAME;
+        }
+
+        @Override
+        protected IntOption createValueObject() {
+            return new IntOption();
+        }
+
+        @Override
+        protected LookUpKey buildLeftKey(IntOption value, LookUpKey buffer) throws IOException {
+            built++;
+            buffer.add(value);
+            return buffer;
+        }
+
+        @Override
+        protected LookUpKey buildRightKey(IntOption value, LookUpKey buffer) throws IOException {
+            buffer.add(value);
+            return buffer;
+        }
+    }
+}
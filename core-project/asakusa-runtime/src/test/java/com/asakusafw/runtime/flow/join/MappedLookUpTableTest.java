@@ -0,0 +1,188 @@
+/**
+ * Copyright 2011-2021 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.runtime.flow.join;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.asakusafw.runtime.value.IntOption;
+
+/**
+ * Test for {@link MappedLookUpTable}.
+ */
+public class MappedLookUpTableTest {
+
+    /**
+     * temporary folder.
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * empty table.
+     * @throws Exception if failed
+     */
+    @Test
+    public void empty() throws Exception {
+        MappedLookUpTable.Builder<IntOption> builder = builder();
+
+        LookUpTable<IntOption> table = builder.build();
+        assertThat(sort(table.get(key(100))), is(values()));
+    }
+
+    /**
+     * simple case.
+     * @throws Exception if failed
+     */
+    @Test
+    public void simple() throws Exception {
+        MappedLookUpTable.Builder<IntOption> builder = builder();
+        builder.add(key(100), new IntOption(100));
+
+        LookUpTable<IntOption> table = builder.build();
+        assertThat(sort(table.get(key(100))), is(values(100)));
+        assertThat(sort(table.get(key(101))), is(values()));
+    }
+
+    /**
+     * conflict keys.
+     * @throws Exception if failed
+     */
+    @Test
+    public void duplicate() throws Exception {
+        MappedLookUpTable.Builder<IntOption> builder = builder();
+        builder.add(key(100), new IntOption(100));
+        builder.add(key(100), new IntOption(101));
+        builder.add(key(100), new IntOption(102));
+
+        LookUpTable<IntOption> table = builder.build();
+        assertThat(table.get(key(100)), is(values(100, 101, 102)));
+        assertThat(sort(table.get(key(101))), is(values()));
+    }
+
+    /**
+     * reuses the same key object.
+     * @throws Exception if failed
+     */
+    @Test
+    public void reuseKeys() throws Exception {
+        MappedLookUpTable.Builder<IntOption> builder = builder();
+        LookUpKey key = key();
+
+        key.add(new IntOption(100));
+        builder.add(key, new IntOption(100));
+        key.reset();
+
+        key.add(new IntOption(101));
+        builder.add(key, new IntOption(101));
+        key.reset();
+
+        key.add(new IntOption(102));
+        builder.add(key, new IntOption(102));
+        key.reset();
+
+        LookUpTable<IntOption> table = builder.build();
+        assertThat(sort(table.get(key(100))), is(values(100)));
+        assertThat(sort(table.get(key(101))), is(values(101)));
+        assertThat(sort(table.get(key(102))), is(values(102)));
+    }
+
+    /**
+     * many entries.
+     * @throws Exception if failed
+     */
+    @Test
+    public void large() throws Exception {
+        MappedLookUpTable.Builder<IntOption> builder = builder();
+        for (int i = 0; i < 100000; i++) {
+            builder.add(key(i % 10000, 1), new IntOption(i));
+        }
+        LookUpTable<IntOption> table = builder.build();
+        for (int i = 0; i < 10000; i++) {
+            List<IntOption> found = table.get(key(i, 1));
+            assertThat(found, hasSize(10));
+            for (int j = 0; j < 10; j++) {
+                assertThat(found.get(j), is(new IntOption(i + j * 10000)));
+            }
+        }
+        assertThat(table.get(key(0)), is(values()));
+        assertThat(table.get(key(10000, 1)), is(values()));
+    }
+
+    /**
+     * opens the pre-built table file.
+     * @throws Exception if failed
+     */
+    @Test
+    public void reopen() throws Exception {
+        File file = new File(folder.getRoot(), "testing.table");
+        MappedLookUpTable.Builder<IntOption> builder = new MappedLookUpTable.Builder<>(file, IntOption::new);
+        builder.add(key(100), new IntOption(100));
+        builder.add(key(200), new IntOption(200));
+        builder.build();
+
+        LookUpTable<IntOption> table = MappedLookUpTable.open(file, IntOption::new);
+        assertThat(sort(table.get(key(100))), is(values(100)));
+        assertThat(sort(table.get(key(200))), is(values(200)));
+        assertThat(sort(table.get(key(300))), is(values()));
+    }
+
+    /**
+     * opens a broken table file.
+     * @throws Exception if failed
+     */
+    @Test(expected = IOException.class)
+    public void reopen_broken() throws Exception {
+        File file = folder.newFile("testing.table");
+        MappedLookUpTable.open(file, IntOption::new);
+    }
+
+    private MappedLookUpTable.Builder<IntOption> builder() throws IOException {
+        return new MappedLookUpTable.Builder<>(new File(folder.newFolder(), "testing.table"), IntOption::new);
+    }
+
+    private LookUpKey key(int... values) throws IOException {
+        LookUpKey result = new LookUpKey();
+        for (int value : values) {
+            result.add(new IntOption(value));
+        }
+        return result;
+    }
+
+    private List<IntOption> sort(List<IntOption> list) {
+        List<IntOption> results = new ArrayList<>(list);
+        Collections.sort(results);
+        return results;
+    }
+
+    private List<IntOption> values(int...values) {
+        List<IntOption> options = new ArrayList<>();
+        for (int value : values) {
+            options.add(new IntOption(value));
+        }
+        return sort(options);
+    }
+}
@@ -101,6 +101,29 @@ public class VolatileLookUpTableTest {
         assertThat(sort(table.get(key(102))), is(values(102)));
     }
 
+    /**
+     * many entries.
+     * @throws Exception if failed
+     */
+    @Test
+    public void large() throws Exception {
+        VolatileLookUpTable.Builder<IntOption> builder = new VolatileLookUpTable.Builder<>();
+        for (int i = 0; i < 100000; i++) {
+            builder.add(key(i % 10000, 1), new IntOption(i));
+        }
+        LookUpTable<IntOption> table = builder.build();
+        for (int i = 0; i < 10000; i++) {
+            List<IntOption> found = table.get(key(i, 1));
+            assertThat(found, hasSize(10));
+            for (int j = 0; j < 10; j++) {
+                assertThat(found.get(j), is(new IntOption(i + j * 10000)));
+            }
+        }
+        assertThat(table.get(key(0)), is(values()));
+        assertThat(table.get(key(10000, 1)), is(values()));
+        assertThat(table.get(key()), is(values()));
+    }
+
     private LookUpKey key(int... values) throws IOException {
         LookUpKey result = new LookUpKey();
         for (int value : values) {
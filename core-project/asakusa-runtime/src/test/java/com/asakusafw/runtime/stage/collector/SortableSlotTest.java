@@ -219,6 +219,41 @@ public class SortableSlotTest {
         assertThat(copy, is(slots));
     }
 
+    /**
+     * test for {@link SortableSlot.Comparator#getNormalizedPrefix(byte[], int, int)}.
+     * @throws Exception if failed
+     */
+    @Test
+    public void comparator_prefix() throws Exception {
+        List<byte[]> slots = new ArrayList<>();
+        for (int slot : new int[] { 0, 1, 254, 255, 256, 1000 }) {
+            for (int length = 0; length <= 4; length++) {
+                for (int value : new int[] { 0x00, 0x01, 0x7f, 0x80, 0xff }) {
+                    SortableSlot s = new SortableSlot();
+                    s.begin(slot);
+                    for (int i = 0; i < length; i++) {
+                        s.addByte(i == length - 1 ? value : 0x80);
+                    }
+                    slots.add(write(s));
+                }
+            }
+        }
+        SortableSlot.Comparator comparator = new SortableSlot.Comparator();
+        for (byte[] a : slots) {
+            for (byte[] b : slots) {
+                int prefixDiff = Integer.compareUnsigned(
+                        comparator.getNormalizedPrefix(a, 0, a.length),
+                        comparator.getNormalizedPrefix(b, 0, b.length));
+                int diff = comparator.compare(a, 0, a.length, b, 0, b.length);
+                if (prefixDiff < 0) {
+                    assertThat(diff, lessThan(0));
+                } else if (prefixDiff > 0) {
+                    assertThat(diff, greaterThan(0));
+                }
+            }
+        }
+    }
+
     /**
      * test for {@link SortableSlot.Partitioner}.
      * @throws Exception if failed
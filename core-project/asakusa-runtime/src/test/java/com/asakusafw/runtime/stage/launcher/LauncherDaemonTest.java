@@ -0,0 +1,391 @@
+/**
+ * Copyright 2011-2021 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.runtime.stage.launcher;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.conf.Configured;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.util.Tool;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.asakusafw.runtime.stage.AbstractCleanupStageClient;
+import com.asakusafw.runtime.stage.StageConstants;
+import com.asakusafw.runtime.util.hadoop.ConfigurationProvider;
+
+/**
+ * Test for {@link LauncherDaemon}.
+ */
+public class LauncherDaemonTest extends LauncherTestRoot {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    private LauncherDaemon daemon;
+
+    private Future<?> running;
+
+    /**
+     * setup.
+     * @throws Exception if failed
+     */
+    @Before
+    public void setUp() throws Exception {
+        Configuration conf = new ConfigurationProvider().newInstance();
+        conf.set("BASE", "OK");
+        daemon = new LauncherDaemon(conf);
+        running = executor.submit(() -> {
+            daemon.run();
+            return null;
+        });
+    }
+
+    /**
+     * cleanup.
+     * @throws Exception if failed
+     */
+    @After
+    public void tearDown() throws Exception {
+        Bootstrap.register(null);
+        daemon.close();
+        running.get(10, TimeUnit.SECONDS);
+        executor.shutdownNow();
+    }
+
+    /**
+     * simple case.
+     * @throws Exception if failed
+     */
+    @Test
+    public void simple() throws Exception {
+        AtomicReference<String> value = new AtomicReference<>();
+        Bootstrap.register(new Callback() {
+            @Override
+            public int run(String[] args) throws Exception {
+                value.set(getConf().get("BASE") + getConf().get("TESTING"));
+                return 0;
+            }
+        });
+        int status = daemon.newClient().execute(Arrays.asList(
+                Bootstrap.class.getName(),
+                "-D",
+                "TESTING=OK"));
+        assertThat(status, is(0));
+        assertThat(value.get(), is("OKOK"));
+    }
+
+    /**
+     * application returns bad status.
+     * @throws Exception if failed
+     */
+    @Test
+    public void failure() throws Exception {
+        Bootstrap.register(new Callback() {
+            @Override
+            public int run(String[] args) throws Exception {
+                return 1;
+            }
+        });
+        int status = daemon.newClient().execute(Collections.singletonList(Bootstrap.class.getName()));
+        assertThat(status, is(1));
+    }
+
+    /**
+     * invalid launcher arguments.
+     * @throws Exception if failed
+     */
+    @Test
+    public void invalid() throws Exception {
+        int status = daemon.newClient().execute(Collections.emptyList());
+        assertThat(status, is(ApplicationLauncher.LAUNCH_ERROR));
+    }
+
+    /**
+     * interrupts the client while the application is running.
+     * @throws Exception if failed
+     */
+    @Test
+    public void cancel() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch cancelled = new CountDownLatch(1);
+        Bootstrap.register(new Callback() {
+            @Override
+            public int run(String[] args) throws Exception {
+                started.countDown();
+                try {
+                    Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+                } catch (InterruptedException e) {
+                    cancelled.countDown();
+                    throw e;
+                }
+                return 0;
+            }
+        });
+        LauncherDaemonClient client = daemon.newClient();
+        Future<?> future = executor.submit(() -> client.execute(Collections.singletonList(Bootstrap.class.getName())));
+        assertThat(started.await(10, TimeUnit.SECONDS), is(true));
+        future.cancel(true);
+        assertThat(cancelled.await(10, TimeUnit.SECONDS), is(true));
+    }
+
+    /**
+     * limits the number of running applications.
+     * @throws Exception if failed
+     */
+    @Test
+    public void concurrency() throws Exception {
+        daemon.close();
+        running.get(10, TimeUnit.SECONDS);
+        daemon = new LauncherDaemon(new ConfigurationProvider().newInstance(), 2);
+        running = executor.submit(() -> {
+            daemon.run();
+            return null;
+        });
+        AtomicInteger current = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        Bootstrap.register(new Callback() {
+            @Override
+            public int run(String[] args) throws Exception {
+                peak.accumulateAndGet(current.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(100);
+                } finally {
+                    current.decrementAndGet();
+                }
+                return 0;
+            }
+        });
+        LauncherDaemonClient client = daemon.newClient();
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            futures.add(executor.submit(() -> client.execute(Collections.singletonList(Bootstrap.class.getName()))));
+        }
+        for (Future<Integer> future : futures) {
+            assertThat(future.get(30, TimeUnit.SECONDS), is(0));
+        }
+        assertThat(peak.get(), is(lessThanOrEqualTo(2)));
+    }
+
+    /**
+     * idle connections never occupy the application slots.
+     * @throws Exception if failed
+     */
+    @Test
+    public void idle_connections() throws Exception {
+        daemon.close();
+        running.get(10, TimeUnit.SECONDS);
+        daemon = new LauncherDaemon(new ConfigurationProvider().newInstance(), 1);
+        running = executor.submit(() -> {
+            daemon.run();
+            return null;
+        });
+        List<Socket> idles = new ArrayList<>();
+        try {
+            for (int i = 0; i < 4; i++) {
+                idles.add(new Socket(InetAddress.getLoopbackAddress(), daemon.getPort()));
+            }
+            Bootstrap.register(new Callback() {
+                @Override
+                public int run(String[] args) throws Exception {
+                    return 0;
+                }
+            });
+            LauncherDaemonClient client = daemon.newClient();
+            Future<Integer> future = executor.submit(() -> client.execute(
+                    Collections.singletonList(Bootstrap.class.getName())));
+            assertThat(future.get(5, TimeUnit.SECONDS), is(0));
+        } finally {
+            for (Socket socket : idles) {
+                socket.close();
+            }
+        }
+    }
+
+    /**
+     * cleanup stage never closes the file systems of the other applications.
+     * @throws Exception if failed
+     */
+    @Test
+    public void cleanup_concurrent() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch cleaned = new CountDownLatch(1);
+        Bootstrap.register(new Callback() {
+            @Override
+            public int run(String[] args) throws Exception {
+                FileSystem fs = FileSystem.get(getConf());
+                started.countDown();
+                if (cleaned.await(10, TimeUnit.SECONDS) == false) {
+                    return 2;
+                }
+                return FileSystem.get(getConf()) == fs ? 0 : 1;
+            }
+        });
+        LauncherDaemonClient client = daemon.newClient();
+        Future<Integer> other = executor.submit(() -> client.execute(
+                Collections.singletonList(Bootstrap.class.getName())));
+        assertThat(started.await(10, TimeUnit.SECONDS), is(true));
+
+        File target = folder.newFolder();
+        int status = client.execute(Arrays.asList(
+                MockCleanupStageClient.class.getName(),
+                "-D", String.format("%s=%s", MockCleanupStageClient.KEY_PATH, target.toURI()),
+                "-D", String.format("%s=%s", StageConstants.PROP_USER, "testing"),
+                "-D", String.format("%s=%s", StageConstants.PROP_EXECUTION_ID, "testing")));
+        cleaned.countDown();
+        assertThat(status, is(0));
+        assertThat(target.exists(), is(false));
+        assertThat(other.get(10, TimeUnit.SECONDS), is(0));
+    }
+
+    /**
+     * compares environment variables with the daemon.
+     * @throws Exception if failed
+     */
+    @Test
+    public void environment() throws Exception {
+        File file = new File(folder.getRoot(), "endpoint");
+        daemon.publish(file);
+        LauncherDaemonClient client = LauncherDaemonClient.load(file);
+
+        Map<String, String> env = new HashMap<>(System.getenv());
+        assertThat(client.getMismatchedEnvironmentVariables(env), is(empty()));
+
+        env.put("ASAKUSA_LAUNCHER_DAEMON", file.getPath());
+        env.put("UNRELATED_TESTING", "OK");
+        assertThat(client.getMismatchedEnvironmentVariables(env), is(empty()));
+
+        env.put("ASAKUSA_TESTING", "OK");
+        assertThat(client.getMismatchedEnvironmentVariables(env), contains("ASAKUSA_TESTING"));
+    }
+
+    /**
+     * via endpoint file.
+     * @throws Exception if failed
+     */
+    @Test
+    public void endpoint() throws Exception {
+        File file = new File(folder.getRoot(), "endpoint");
+        daemon.publish(file);
+        int status = LauncherDaemonClient.load(file).execute(Collections.singletonList(MockTool.class.getName()));
+        assertThat(status, is(0));
+    }
+
+    /**
+     * request w/ wrong token.
+     * @throws Exception if failed
+     */
+    @Test
+    public void unauthorized() throws Exception {
+        try {
+            new LauncherDaemonClient(daemon.getPort(), "INVALID", Collections.emptyMap())
+                    .execute(Collections.singletonList(MockTool.class.getName()));
+            fail();
+        } catch (IOException e) {
+            // ok.
+        }
+    }
+
+    /**
+     * shutdown request.
+     * @throws Exception if failed
+     */
+    @Test
+    public void shutdown() throws Exception {
+        LauncherDaemonClient client = daemon.newClient();
+        client.shutdown();
+        running.get(10, TimeUnit.SECONDS);
+        try {
+            client.execute(Collections.singletonList(MockTool.class.getName()));
+            fail();
+        } catch (ConnectException e) {
+            // ok.
+        }
+    }
+
+    private abstract static class Callback extends Configured implements Tool {
+        public Callback() {
+            return;
+        }
+    }
+
+    /**
+     * Cleanup stage for {@link LauncherDaemonTest}.
+     */
+    public static final class MockCleanupStageClient extends AbstractCleanupStageClient {
+
+        static final String KEY_PATH = "testing.cleanup.path";
+
+        @Override
+        protected String getCleanupPath() {
+            return getConf().get(KEY_PATH);
+        }
+
+        @Override
+        protected String getBatchId() {
+            return "b";
+        }
+
+        @Override
+        protected String getFlowId() {
+            return "f";
+        }
+
+        @Override
+        protected String getStageId() {
+            return "s";
+        }
+    }
+
+    /**
+     * Bootstrap application for {@link LauncherDaemonTest}.
+     */
+    public static final class Bootstrap extends Configured implements Tool {
+
+        private static Tool callback;
+
+        static void register(Tool tool) {
+            callback = tool;
+        }
+
+        @Override
+        public int run(String[] args) throws Exception {
+            callback.setConf(getConf());
+            return callback.run(args);
+        }
+    }
+}
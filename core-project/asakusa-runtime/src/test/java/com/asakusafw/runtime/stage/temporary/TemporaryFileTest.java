@@ -129,6 +129,119 @@ public class TemporaryFileTest {
         doIo_w_TemporaryStorage(110000000);
     }
 
+    /**
+     * w/ LZ4 codec.
+     * @throws Exception if failed
+     */
+    @Test
+    public void codec_lz4() throws Exception {
+        Configuration conf = new Configuration();
+        conf.set(TemporaryStorage.KEY_CODEC, "lz4");
+        doIo_ordered(conf, 3000000);
+    }
+
+    /**
+     * w/ LZ4 high compression codec.
+     * @throws Exception if failed
+     */
+    @Test
+    public void codec_lz4_level() throws Exception {
+        Configuration conf = new Configuration();
+        conf.set(TemporaryStorage.KEY_CODEC, "lz4");
+        conf.setInt(TemporaryStorage.KEY_CODEC_LEVEL, 9);
+        doIo_ordered(conf, 100000);
+    }
+
+    /**
+     * w/ Zstandard codec.
+     * @throws Exception if failed
+     */
+    @Test
+    public void codec_zstd() throws Exception {
+        Configuration conf = new Configuration();
+        conf.set(TemporaryStorage.KEY_CODEC, "zstd");
+        doIo_ordered(conf, 3000000);
+    }
+
+    /**
+     * w/ unknown codec.
+     * @throws Exception if failed
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void codec_unknown() throws Exception {
+        Configuration conf = new Configuration();
+        conf.set(TemporaryStorage.KEY_CODEC, "__UNKNOWN__");
+        doIo_ordered(conf, 1);
+    }
+
+    /**
+     * w/ multiple threads.
+     * @throws Exception if failed
+     */
+    @Test
+    public void threads() throws Exception {
+        Configuration conf = new Configuration();
+        conf.setInt(TemporaryStorage.KEY_THREADS, 4);
+        doIo_ordered(conf, 3000000);
+    }
+
+    /**
+     * w/ multiple threads and empty file.
+     * @throws Exception if failed
+     */
+    @Test
+    public void threads_empty() throws Exception {
+        Configuration conf = new Configuration();
+        conf.setInt(TemporaryStorage.KEY_THREADS, 4);
+        doIo_ordered(conf, 0);
+    }
+
+    /**
+     * w/ multiple threads and other codec.
+     * @throws Exception if failed
+     */
+    @Test
+    public void threads_zstd() throws Exception {
+        Configuration conf = new Configuration();
+        conf.set(TemporaryStorage.KEY_CODEC, "zstd");
+        conf.setInt(TemporaryStorage.KEY_THREADS, 3);
+        doIo_ordered(conf, 3000000);
+    }
+
+    /**
+     * Reads files written with the other number of threads.
+     * @throws Exception if failed
+     */
+    @Test
+    public void threads_asymmetric() throws Exception {
+        File file = folder.newFile();
+        int count = 1000000;
+        try (ModelOutput<Text> out = new TemporaryFileOutput<>(
+                new BufferedOutputStream(new FileOutputStream(file)),
+                Text.class.getName(),
+                1024,
+                64 * 1024,
+                TemporaryFile.getCodec("lz4", 0),
+                4)) {
+            Text value = new Text();
+            for (int i = 0; i < count; i++) {
+                value.set(String.valueOf(i));
+                out.write(value);
+            }
+        }
+        try (TemporaryFileInput<Text> in = new TemporaryFileInput<>(
+                new BufferedInputStream(new FileInputStream(file)),
+                0)) {
+            Text result = new Text();
+            assertThat(in.getDataTypeName(), is(Text.class.getName()));
+            for (int i = 0; i < count; i++) {
+                assertTrue(in.readTo(result));
+                assertThat(result.toString(), is(String.valueOf(i)));
+            }
+            assertThat(in.readTo(result), is(false));
+        }
+    }
+
     /**
      * Writes {@link NullWritable}s.
      * @throws Exception if failed
@@ -205,6 +318,25 @@ public class TemporaryFileTest {
                 file.length()));
     }
 
+    private void doIo_ordered(Configuration conf, int count) throws IOException {
+        File file = folder.newFile();
+        try (ModelOutput<Text> out = TemporaryStorage.openOutput(conf, Text.class, new Path(file.toURI()))) {
+            Text value = new Text();
+            for (int i = 0; i < count; i++) {
+                value.set(String.format("Hello, world! - %d", i));
+                out.write(value);
+            }
+        }
+        try (ModelInput<Text> in = TemporaryStorage.openInput(conf, Text.class, new Path(file.toURI()))) {
+            Text result = new Text();
+            for (int i = 0; i < count; i++) {
+                assertTrue(in.readTo(result));
+                assertThat(result.toString(), is(String.format("Hello, world! - %d", i)));
+            }
+            assertThat(in.readTo(result), is(false));
+        }
+    }
+
     private void doIo_w_TemporaryStorage(int count) throws IOException {
         File file = folder.newFile();
         Text value = new Text("Hello, world!");
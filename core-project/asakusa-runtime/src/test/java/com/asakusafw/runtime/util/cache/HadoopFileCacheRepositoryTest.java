@@ -20,7 +20,10 @@ import static org.junit.Assert.*;
 
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
@@ -130,6 +133,63 @@ public class HadoopFileCacheRepositoryTest extends FileCacheRepositoryTestRoot {
         assertThat(file(retry).lastModified(), is(timestamp));
     }
 
+    /**
+     * update cache with the same file length.
+     * @throws Exception if failed
+     */
+    @Test
+    public void update_same_length() throws Exception {
+        File cacheRepo = folder.newFolder();
+        Configuration configuration = new ConfigurationProvider().newInstance();
+        LockProvider<Path> locks = new LocalFileLockProvider<>(folder.newFolder());
+        RetryStrategy retrier = new ConstantRetryStrategy();
+        HadoopFileCacheRepository cache = new HadoopFileCacheRepository(configuration, path(cacheRepo), locks, retrier);
+
+        File source = put(folder.newFile(), "Hello, world!");
+        Path first = cache.resolve(path(source));
+        long timestamp = source.lastModified();
+
+        put(source, "Hello, WORLD!");
+        Assume.assumeTrue(source.setLastModified(timestamp + 10_000));
+        Path retry = cache.resolve(path(source));
+
+        assertThat(retry, is(first));
+        assertThat(get(file(retry)), is("Hello, WORLD!"));
+    }
+
+    /**
+     * use cached even if only the source metadata was changed.
+     * @throws Exception if failed
+     */
+    @Test
+    public void cached_touch() throws Exception {
+        File cacheRepo = folder.newFolder();
+        Configuration configuration = new ConfigurationProvider().newInstance();
+        LockProvider<Path> locks = new LocalFileLockProvider<>(folder.newFolder());
+        RetryStrategy retrier = new ConstantRetryStrategy();
+        HadoopFileCacheRepository cache = new HadoopFileCacheRepository(configuration, path(cacheRepo), locks, retrier);
+
+        File source = put(folder.newFile(), "Hello, world!");
+        Path first = cache.resolve(path(source));
+        Assume.assumeTrue(file(first).setLastModified(10_000));
+        Object fileKey = fileKey(file(first));
+        Assume.assumeNotNull(fileKey);
+
+        Assume.assumeTrue(source.setLastModified(source.lastModified() + 10_000));
+        Path retry = cache.resolve(path(source));
+        assertThat(retry, is(first));
+        assertThat(get(file(retry)), is("Hello, world!"));
+
+        // the cached file was never re-created
+        assertThat(file(retry).lastModified(), is(10_000L));
+        assertThat(fileKey(file(retry)), is(fileKey));
+
+        // validated only from the metadata
+        assertThat(cache.resolve(path(source)), is(first));
+        assertThat(file(retry).lastModified(), is(10_000L));
+        assertThat(fileKey(file(retry)), is(fileKey));
+    }
+
     /**
      * Conflict cache creation.
      * @throws Exception if failed
@@ -182,4 +242,8 @@ public class HadoopFileCacheRepositoryTest extends FileCacheRepositoryTestRoot {
             future.get();
         }
     }
+
+    private static Object fileKey(File file) throws IOException {
+        return Files.readAttributes(file.toPath(), BasicFileAttributes.class).fileKey();
+    }
 }
@@ -193,6 +193,85 @@ public class DecimalOptionTest extends ValueOptionTestRoot {
         assertThat(compare(b, c), is(0));
     }
 
+    /**
+     * test for add.
+     */
+    @Test
+    public void add() {
+        DecimalOption option = new DecimalOption(decimal("3.14"));
+        option.add(new DecimalOption(decimal("1.414")));
+        assertThat(option.get(), is(decimal("4.554")));
+        option.add(new DecimalOption(decimal("-10")));
+        assertThat(option.get(), is(decimal("-5.446")));
+        option.add(new DecimalOption());
+        assertThat(option.get(), is(decimal("-5.446")));
+        option.add(decimal("0.00001"));
+        assertThat(option.get(), is(decimal("-5.44599")));
+        option.add(new DecimalOption(decimal("5.44599")));
+        assertThat(option.get(), is(decimal("0.00000")));
+    }
+
+    /**
+     * test for add w/ overflow of the compact form.
+     */
+    @Test
+    public void add_overflow() {
+        DecimalOption option = new DecimalOption(decimal(Long.MAX_VALUE / 2));
+        option.add(new DecimalOption(decimal(Long.MAX_VALUE / 2)));
+        option.add(new DecimalOption(decimal(Long.MAX_VALUE / 2)));
+        assertThat(option.get(), is(decimal(Long.MAX_VALUE / 2).multiply(decimal(3))));
+        option.add(new DecimalOption(decimal(Long.MIN_VALUE / 2).multiply(decimal(3))));
+        assertThat(option.get(), is(decimal(-3)));
+
+        DecimalOption scaled = new DecimalOption(decimal("1000000000000000"));
+        scaled.add(new DecimalOption(decimal("0.0001")));
+        assertThat(scaled.get(), is(decimal("1000000000000000.0001")));
+        DecimalOption restored = restore(scaled);
+        assertThat(restored.get(), is(scaled.get()));
+    }
+
+    /**
+     * test for compare w/ compact forms.
+     */
+    @Test
+    public void compareTo_compact() {
+        DecimalOption a = restore(new DecimalOption(decimal("1.5")));
+        DecimalOption b = restore(new DecimalOption(decimal("1.50")));
+        DecimalOption c = restore(new DecimalOption(decimal("-2")));
+        DecimalOption d = restore(new DecimalOption(decimal("0.000000000000000001")));
+        DecimalOption e = restore(new DecimalOption(decimal("100000000000")));
+
+        assertThat(a.compareTo(b), is(0));
+        assertThat(a.equals(b), is(false));
+        assertThat(a.compareTo(c), greaterThan(0));
+        assertThat(c.compareTo(a), lessThan(0));
+        assertThat(d.compareTo(e), lessThan(0));
+        assertThat(e.compareTo(d), greaterThan(0));
+        assertThat(c.compareTo(d), lessThan(0));
+        assertThat(compare(d, e), lessThan(0));
+    }
+
+    /**
+     * test for equality between compact forms and others.
+     */
+    @Test
+    public void equals_compact() {
+        DecimalOption a = new DecimalOption(decimal("3.14"));
+        DecimalOption b = restore(a);
+        assertThat(b, is(a));
+        assertThat(a, is(b));
+        assertThat(b.hashCode(), is(a.hashCode()));
+        assertThat(b.has(decimal("3.14")), is(true));
+        assertThat(b.toString(), is("3.14"));
+
+        DecimalOption c = new DecimalOption();
+        c.copyFrom(b);
+        assertThat(c, is(a));
+        c.add(b);
+        assertThat(c.get(), is(decimal("6.28")));
+        assertThat(b.get(), is(decimal("3.14")));
+    }
+
     /**
      * test for Writable.
      */
@@ -24,14 +24,20 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.text.MessageFormat;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Supplier;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -43,6 +49,8 @@ import org.xerial.snappy.SnappyOutputStream;
 
 import com.asakusafw.runtime.io.util.DataBuffer;
 import com.asakusafw.runtime.io.util.DataBufferOutputStream;
+import com.asakusafw.runtime.io.util.NormalizedKeyComparator;
+import com.asakusafw.utils.io.Sink;
 import com.asakusafw.utils.io.Source;
 import com.asakusafw.utils.io.Sources;
 
@@ -62,12 +70,29 @@ public class KeyValueSorter<K, V> implements Closeable {
 
     private static final int MAX_RECORD_PER_PAGE = 1000000;
 
-    private final KeyValuePageBuffer<K, V> pageBuffer;
+    private static final int MIN_RECORD_PER_SORT_RUN = 16 * 1024;
+
+
+    private KeyValuePageBuffer<K, V> pageBuffer;
+
+    private KeyValuePageBuffer<K, V> sparePageBuffer;
+
+    private final ExecutorService flusher;
+
+    private Future<?> pendingFlush;
+
+    private final RawComparator<?>[] sortComparators;
+
+    private final ExecutorService sorter;
 
     private final BlockBuffer blockBuffer;
 
     private final BlockStore blockStore;
 
+    private final Combiner pageCombiner;
+
+    private final Combiner spillCombiner;
+
     private final Class<K> keyClass;
 
     private final Class<V> valueClass;
@@ -89,14 +114,81 @@ public class KeyValueSorter<K, V> implements Closeable {
             Class<K> keyClass, Class<V> valueClass,
             RawComparator<?> comparator,
             Options options) {
+        this(serialization, keyClass, valueClass, comparator, null, options);
+    }
+
+    /**
+     * Creates a new instance.
+     * The individual comparators provided from the given factory may be used concurrently,
+     * for sorting each page buffer in parallel (see {@link Options#withSortParallelism(int)}).
+     * @param serialization the serialization factory
+     * @param keyClass the key class
+     * @param valueClass the value class
+     * @param comparators the shuffle sort comparator factory, which must provide a fresh instance for each call
+     * @param options the sorter options
+     * @since 0.10.5
+     */
+    public KeyValueSorter(
+            SerializationFactory serialization,
+            Class<K> keyClass, Class<V> valueClass,
+            Supplier<? extends RawComparator<?>> comparators,
+            Options options) {
+        this(serialization, keyClass, valueClass, comparators.get(), comparators, options);
+    }
+
+    private KeyValueSorter(
+            SerializationFactory serialization,
+            Class<K> keyClass, Class<V> valueClass,
+            RawComparator<?> comparator,
+            Supplier<? extends RawComparator<?>> comparators,
+            Options options) {
         this.keyClass = keyClass;
         this.valueClass = valueClass;
+        NormalizedKeyComparator normalizer = comparator instanceof NormalizedKeyComparator
+                ? (NormalizedKeyComparator) comparator
+                : null;
         this.pageBuffer = new KeyValuePageBuffer<>(
                 options.getPageSize() / 4, options.getPageSize(),
-                serialization, keyClass, valueClass, comparator);
+                serialization, keyClass, valueClass, normalizer);
+        if (options.isAsyncFlush()) {
+            this.sparePageBuffer = new KeyValuePageBuffer<>(
+                    options.getPageSize() / 4, options.getPageSize(),
+                    serialization, keyClass, valueClass, normalizer);
+            this.flusher = Executors.newFixedThreadPool(1,
+                    newDaemonThreadFactory("asakusa-sort-flusher")); //$NON-NLS-1$
+        } else {
+            this.sparePageBuffer = null;
+            this.flusher = null;
+        }
         this.blockBuffer = new BlockBuffer(0, options.getBlockSize());
-        this.blockStore = new BlockStore(options.getTemporaryDirectory(), options.isCompressBlock());
         this.comparator = new KeyValueSliceComparator(comparator);
+        this.blockStore = new BlockStore(
+                options.getTemporaryDirectory(), options.isCompressBlock(), options.getMergeFanIn(),
+                this.comparator,
+                // block files are compacted in background only if we can create another comparator
+                options.isAsyncFlush() && comparators != null
+                        ? new KeyValueSliceComparator(comparators.get())
+                        : null);
+        int sortParallelism = comparators == null ? 1 : Math.max(1, options.getSortParallelism());
+        this.sortComparators = new RawComparator<?>[sortParallelism];
+        this.sortComparators[0] = comparator;
+        for (int i = 1; i < sortParallelism; i++) {
+            this.sortComparators[i] = comparators.get();
+        }
+        // the first sorted run is always processed in the calling thread
+        this.sorter = sortParallelism <= 1
+                ? null
+                : Executors.newFixedThreadPool(sortParallelism - 1,
+                        newDaemonThreadFactory("asakusa-sort-worker")); //$NON-NLS-1$
+        Supplier<? extends Combiner> combiners = options.getCombiner();
+        if (combiners == null) {
+            this.pageCombiner = null;
+            this.spillCombiner = null;
+        } else {
+            // spill-out may occur while combining a page, so that we use individual combiners for them
+            this.pageCombiner = combiners.get();
+            this.spillCombiner = combiners.get();
+        }
     }
 
     /**
@@ -115,11 +207,31 @@ public class KeyValueSorter<K, V> implements Closeable {
         return valueClass;
     }
 
+    /**
+     * Returns the comparator for the sorted key-value slices.
+     * @return the comparator
+     */
+    Comparator<KeyValueSlice> getComparator() {
+        return comparator;
+    }
+
     /**
      * Resets this sorter.
      */
     void reset() {
+        if (pendingFlush != null) {
+            try {
+                awaitFlush();
+            } catch (IOException e) {
+                LOG.debug("error occurred while flushing page buffer", e); //$NON-NLS-1$
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
         pageBuffer.reset();
+        if (sparePageBuffer != null) {
+            sparePageBuffer.reset();
+        }
         blockBuffer.reset();
         blockStore.reset();
     }
@@ -150,6 +262,7 @@ public class KeyValueSorter<K, V> implements Closeable {
 
     /**
      * Returns the total size in bytes.
+     * This may be inaccurate while the page buffer is being flushed in background.
      * @return the total size in bytes
      */
     public long getSizeInBytes() {
@@ -163,6 +276,7 @@ public class KeyValueSorter<K, V> implements Closeable {
      * @throws InterruptedException if interrupted while preparing
      */
     public Source<KeyValueSlice> sort() throws IOException, InterruptedException {
+        awaitFlush();
         if (LOG.isDebugEnabled()) {
             LOG.debug(MessageFormat.format(
                     "merging records: page-buffer={0}bytes, block-buffer={1}bytes, block-files={2}bytes", //$NON-NLS-1$
@@ -171,42 +285,126 @@ public class KeyValueSorter<K, V> implements Closeable {
                     blockStore.getSizeInBytes()));
         }
         List<Source<KeyValueSlice>> sources = new ArrayList<>();
-        sources.addAll(pageBuffer.createSources());
+        sources.addAll(pageBuffer.createSources(sortComparators, sorter));
         sources.addAll(blockBuffer.createSources());
-        sources.addAll(blockStore.createSources());
+        sources.addAll(blockStore.createSources(blockBuffer.getRemainingBytes()));
         return Sources.merge(sources, comparator);
     }
 
     private void flushPageBuffer() throws IOException, InterruptedException {
-        KeyValuePageBuffer<?, ?> page = pageBuffer;
-        int count = page.getCount();
-        if (count == 0) {
+        KeyValuePageBuffer<K, V> page = pageBuffer;
+        if (page.getCount() == 0) {
+            return;
+        }
+        if (flusher == null) {
+            flushPage(page);
+        } else {
+            // waits for the previous page, and then flushes the current page while filling the spare one
+            awaitFlush();
+            pageBuffer = sparePageBuffer;
+            sparePageBuffer = page;
+            pendingFlush = flusher.submit(() -> {
+                flushPage(page);
+                return null;
+            });
+        }
+    }
+
+    private void awaitFlush() throws IOException, InterruptedException {
+        Future<?> pending = pendingFlush;
+        if (pending == null) {
             return;
         }
+        try {
+            pending.get();
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause());
+        } finally {
+            if (pending.isDone()) {
+                pendingFlush = null;
+            }
+        }
+    }
+
+    static IOException rethrow(Throwable cause) throws InterruptedException {
+        if (cause instanceof IOException) {
+            return (IOException) cause;
+        } else if (cause instanceof InterruptedException) {
+            throw (InterruptedException) cause;
+        } else if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        } else if (cause instanceof Error) {
+            throw (Error) cause;
+        } else {
+            return new IOException(cause);
+        }
+    }
+
+    static ThreadFactory newDaemonThreadFactory(String name) {
+        return r -> {
+            Thread t = new Thread(r);
+            t.setName(name);
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    private void flushPage(KeyValuePageBuffer<?, ?> page) throws IOException, InterruptedException {
+        int count = page.getCount();
+        assert count > 0;
+        long t0 = -1;
         if (LOG.isDebugEnabled()) {
             LOG.debug(MessageFormat.format(
                     "flushing page buffer: {0}records, {1}bytes", //$NON-NLS-1$
-                    page.getCount(),
+                    count,
                     page.getSizeInBytes()));
+            t0 = System.currentTimeMillis();
         }
-        KeyValueRange[] ranges = page.sort();
+        int[] runs = page.sort(sortComparators, sorter);
+        long[] index = page.getIndex();
         byte[] bytes = page.getData();
         BlockBuffer block = blockBuffer;
         block.ensureWrite(page.getSizeInBytes());
-        for (int i = 0; i < count; i++) {
-            KeyValueRange range = ranges[i];
-            if (block.put(bytes, range.offset, range.keyLength, range.valueLength) == false) {
-                spillOut();
-                block.put(bytes, range.offset, range.keyLength, range.valueLength);
+        int start = 0;
+        for (int limit : runs) {
+            if (pageCombiner == null) {
+                for (int i = start; i < limit; i++) {
+                    int offset = PageIndexSorter.getOffset(index, i);
+                    int keyLength = PageIndexSorter.getKeyLength(index, i);
+                    int valueLength = PageIndexSorter.getValueLength(index, i);
+                    putSlice(block, bytes, offset, keyLength, valueLength);
+                }
+            } else {
+                try (Source<KeyValueSlice> run = new PageBufferSource(bytes, index, start, limit)) {
+                    pageCombiner.combine(run, new BlockBufferSink(block));
+                }
             }
+            block.pageBreak();
+            start = limit;
         }
         page.reset();
-        block.pageBreak();
+        if (LOG.isDebugEnabled()) {
+            long t1 = System.currentTimeMillis();
+            LOG.debug(MessageFormat.format(
+                    "flushed page buffer: {0}records, {1}runs (elapsed={2}ms)", //$NON-NLS-1$
+                    count,
+                    runs.length,
+                    t1 - t0));
+        }
+    }
+
+    private void putSlice(
+            BlockBuffer block,
+            byte[] bytes, int offset, int keyLength, int valueLength) throws IOException, InterruptedException {
+        if (block.put(bytes, offset, keyLength, valueLength) == false) {
+            spillOut();
+            block.put(bytes, offset, keyLength, valueLength);
+        }
     }
 
     private void spillOut() throws IOException, InterruptedException {
         try (Source<KeyValueSlice> merged = Sources.merge(blockBuffer.createSources(), comparator)) {
-            blockStore.put(merged, blockBuffer.getSizeInBytes());
+            blockStore.put(merged, blockBuffer.getSizeInBytes(), spillCombiner);
         }
         blockBuffer.reset();
     }
@@ -214,6 +412,32 @@ public class KeyValueSorter<K, V> implements Closeable {
     @Override
     public void close() throws IOException {
         reset();
+        if (flusher != null) {
+            flusher.shutdownNow();
+        }
+        if (sorter != null) {
+            sorter.shutdownNow();
+        }
+        blockStore.close();
+    }
+
+    /**
+     * Combines sorted key-value pairs before they are spilled out.
+     * @since 0.10.5
+     */
+    @FunctionalInterface
+    public interface Combiner {
+
+        /**
+         * Combines the sorted key-value pairs.
+         * The output pairs must keep the order of their keys.
+         * Each slice passed to the output is only valid until the next {@link Sink#put(Object)} is invoked.
+         * @param input the sorted input pairs
+         * @param output the combined output pairs
+         * @throws IOException if failed to combine pairs
+         * @throws InterruptedException if interrupted while combining pairs
+         */
+        void combine(Source<KeyValueSlice> input, Sink<KeyValueSlice> output) throws IOException, InterruptedException;
     }
 
     /**
@@ -238,6 +462,10 @@ public class KeyValueSorter<K, V> implements Closeable {
 
         private static final int DEFAULT_PAGE_PER_BLOCK = 5;
 
+        private static final int DEFAULT_MERGE_FAN_IN = 64;
+
+        private static final int MIN_MERGE_FAN_IN = 2;
+
         private int pageSize = DEFAULT_PAGE_SIZE;
 
         private int blockSize = DEFAULT_BLOCK_SIZE;
@@ -246,6 +474,16 @@ public class KeyValueSorter<K, V> implements Closeable {
 
         private boolean compressBlock;
 
+        private boolean asyncFlush;
+
+        private int sortParallelism = 1;
+
+        private int totalBufferSize = -1;
+
+        private int mergeFanIn = DEFAULT_MERGE_FAN_IN;
+
+        private Supplier<? extends Combiner> combiner;
+
         /**
          * Returns in-memory sort buffer size.
          * @return the in-memory sort buffer size
@@ -278,20 +516,66 @@ public class KeyValueSorter<K, V> implements Closeable {
             return compressBlock;
         }
 
+        /**
+         * Returns whether full page buffers are sorted and flushed in background or not.
+         * @return {@code true} if flush page buffers in background, otherwise {@code false}
+         * @since 0.10.5
+         */
+        public boolean isAsyncFlush() {
+            return asyncFlush;
+        }
+
+        /**
+         * Returns the max number of threads for sorting each page buffer.
+         * @return the max number of sort threads
+         * @since 0.10.5
+         */
+        public int getSortParallelism() {
+            return sortParallelism;
+        }
+
+        /**
+         * Returns the max number of block files to be merged at once.
+         * @return the max merge fan-in
+         * @since 0.10.5
+         */
+        public int getMergeFanIn() {
+            return mergeFanIn;
+        }
+
+        /**
+         * Returns the combiner factory.
+         * @return the combiner factory, or {@code null} if it is not set
+         * @since 0.10.5
+         */
+        public Supplier<? extends Combiner> getCombiner() {
+            return combiner;
+        }
+
         /**
          * Sets the total buffer size.
          * @param bufferSize the total buffer size
          * @return this
          */
         public Options withBufferSize(int bufferSize) {
-            //       buffer = page-buffer + page-margin + block-buffer
+            applyBufferSize(bufferSize);
+            this.totalBufferSize = bufferSize;
+            return this;
+        }
+
+        private void applyBufferSize(int bufferSize) {
+            //       buffer = (page-buffer + page-margin) * pages + block-buffer
             //  page-margin = page-buffer * PAGE_OVERFLOW_MARGIN
             // block-buffer = page-buffer * DEFAULT_PAGE_PER_BLOCK
-            // ->    buffer = page-buffer * (1 + PAGE_OVERFLOW_MARGIN + DEFAULT_PAGE_PER_BLOCK)
-            int rawPage = (int) (bufferSize / (1 + PAGE_OVERFLOW_MARGIN + DEFAULT_PAGE_PER_BLOCK));
+            //        pages = 2 if async flush is enabled (includes the spare page buffer), or 1
+            // ->    buffer = page-buffer * ((1 + PAGE_OVERFLOW_MARGIN) * pages + DEFAULT_PAGE_PER_BLOCK)
+            int pages = asyncFlush ? 2 : 1;
+            int rawPage = (int) (bufferSize / ((1 + PAGE_OVERFLOW_MARGIN) * pages + DEFAULT_PAGE_PER_BLOCK));
             int page = in(rawPage, MIN_PAGE_SIZE, MAX_PAGE_SIZE);
-            int block = in(bufferSize - (int) (page * (1 + PAGE_OVERFLOW_MARGIN)), MIN_BLOCK_SIZE, MAX_BLOCK_SIZE);
-            return withBufferSize(page, block);
+            int block = in(
+                    bufferSize - (int) (page * (1 + PAGE_OVERFLOW_MARGIN) * pages),
+                    MIN_BLOCK_SIZE, MAX_BLOCK_SIZE);
+            withBufferSize(page, block);
         }
 
         /**
@@ -305,6 +589,7 @@ public class KeyValueSorter<K, V> implements Closeable {
             int block = in(blockBufferSize, MIN_BLOCK_SIZE, MAX_BLOCK_SIZE);
             this.blockSize = block;
             this.pageSize = page;
+            this.totalBufferSize = -1;
             return this;
         }
 
@@ -328,6 +613,61 @@ public class KeyValueSorter<K, V> implements Closeable {
             return this;
         }
 
+        /**
+         * Sets whether full page buffers are sorted and flushed in background or not.
+         * If this is enabled, the sorter uses an extra page buffer while flushing the previous one,
+         * and the extra page buffer is included in the {@link #withBufferSize(int) total buffer size}.
+         * @param enable {@code true} to enable background flushing
+         * @return this
+         * @since 0.10.5
+         */
+        public Options withAsyncFlush(boolean enable) {
+            this.asyncFlush = enable;
+            if (totalBufferSize >= 0) {
+                withBufferSize(totalBufferSize);
+            }
+            return this;
+        }
+
+        /**
+         * Sets the max number of threads for sorting each page buffer.
+         * Large pages are divided into several sorted runs, and they are sorted in parallel.
+         * This is only available if the sorter is created with a comparator factory.
+         * @param parallelism the max number of sort threads
+         * @return this
+         * @since 0.10.5
+         */
+        public Options withSortParallelism(int parallelism) {
+            this.sortParallelism = Math.max(1, parallelism);
+            return this;
+        }
+
+        /**
+         * Sets the max number of block files to be merged at once.
+         * If the number of spill-out block files reaches this, they are merged into a larger block file.
+         * @param fanIn the max merge fan-in
+         * @return this
+         * @since 0.10.5
+         */
+        public Options withMergeFanIn(int fanIn) {
+            this.mergeFanIn = Math.max(MIN_MERGE_FAN_IN, fanIn);
+            return this;
+        }
+
+        /**
+         * Sets the combiner factory.
+         * If this is set, the sorter combines individual sorted runs when flushing each page buffer,
+         * and combines merged block buffers when spilling them out.
+         * The factory must provide a fresh instance for each call.
+         * @param factory the combiner factory, or {@code null} to disable combining
+         * @return this
+         * @since 0.10.5
+         */
+        public Options withCombiner(Supplier<? extends Combiner> factory) {
+            this.combiner = factory;
+            return this;
+        }
+
         private int in(int value, int min, int max) {
             assert min <= max;
             return Math.max(min, Math.min(max, value));
@@ -336,24 +676,27 @@ public class KeyValueSorter<K, V> implements Closeable {
 
     private static final class KeyValuePageBuffer<K, V> {
 
+        private static final int INDEX_ENTRY_BYTES = PageIndexSorter.ENTRY_SIZE * Long.BYTES;
+
         private final DataBuffer buffer;
 
         private final int bufferLimit;
 
-        private KeyValueRange[] ranges = new KeyValueRange[256];
+        private long[] index = new long[256 * PageIndexSorter.ENTRY_SIZE];
 
-        private int rangesIndex;
+        private int count;
 
         private final Serializer<K> keySerializer;
 
         private final Serializer<V> valueSerializer;
 
-        private final RawComparator<?> comparator;
+        private final NormalizedKeyComparator normalizer;
 
         KeyValuePageBuffer(
                 int initialBufferSize, int bufferLimit,
                 SerializationFactory serialization,
-                Class<K> keyClass, Class<V> valueClass, RawComparator<?> comparator) {
+                Class<K> keyClass, Class<V> valueClass,
+                NormalizedKeyComparator normalizer) {
             this.buffer = new DataBuffer(initialBufferSize, BUFFER_EXPANSION_FACTOR);
             this.bufferLimit = bufferLimit;
             this.keySerializer = serialization.getSerializer(keyClass);
@@ -364,45 +707,85 @@ public class KeyValueSorter<K, V> implements Closeable {
             } catch (IOException e) {
                 throw new IllegalStateException(e);
             }
-            this.comparator = comparator;
+            this.normalizer = normalizer;
         }
 
         byte[] getData() {
             return buffer.getData();
         }
 
-        KeyValueRange[] sort() {
-            Arrays.sort(ranges, 0, rangesIndex, new InPageBufferComparator(buffer.getData(), comparator));
-            return ranges;
+        long[] getIndex() {
+            return index;
+        }
+
+        /**
+         * Sorts the index as one or more sorted runs.
+         * @param comparators the available comparators, each run is sorted with the corresponding one
+         * @param executor the executor for sorting the second and subsequent runs, or {@code null} if it is absent
+         * @return the limit index of the individual sorted runs
+         * @throws IOException if failed to sort the runs
+         * @throws InterruptedException if interrupted while sorting the runs
+         */
+        int[] sort(
+                RawComparator<?>[] comparators,
+                ExecutorService executor) throws IOException, InterruptedException {
+            long[] idx = index;
+            byte[] bytes = buffer.getData();
+            int n = count;
+            int runs = Math.min(comparators.length, n / MIN_RECORD_PER_SORT_RUN);
+            if (runs <= 1 || executor == null) {
+                PageIndexSorter.sort(idx, 0, n, bytes, comparators[0]);
+                return new int[] { n };
+            }
+            int[] limits = new int[runs];
+            for (int i = 0; i < runs; i++) {
+                limits[i] = (int) ((long) n * (i + 1) / runs);
+            }
+            List<Future<?>> futures = new ArrayList<>(runs - 1);
+            try {
+                for (int i = 1; i < runs; i++) {
+                    int from = limits[i - 1];
+                    int to = limits[i];
+                    RawComparator<?> c = comparators[i];
+                    futures.add(executor.submit(() -> PageIndexSorter.sort(idx, from, to, bytes, c)));
+                }
+                PageIndexSorter.sort(idx, 0, limits[0], bytes, comparators[0]);
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } catch (ExecutionException e) {
+                throw rethrow(e.getCause());
+            } finally {
+                for (Future<?> future : futures) {
+                    future.cancel(true);
+                }
+            }
+            return limits;
         }
 
         int getCount() {
-            return rangesIndex;
+            return count;
         }
 
         int getSizeInBytes() {
-            return buffer.getWritePosition() + getCount() * 8;
+            return buffer.getWritePosition() + getCount() * INDEX_ENTRY_BYTES;
         }
 
         void reset() {
             buffer.reset(0, 0);
-            rangesIndex = 0;
+            count = 0;
         }
 
         void put(K key, V value) throws IOException {
-            KeyValueRange[] rs = ranges;
-            int index = rangesIndex;
-            if (rs.length < index + 1) {
-                int newSize = (int) (index * BUFFER_EXPANSION_FACTOR) + 1;
-                KeyValueRange[] newRanges = new KeyValueRange[newSize];
-                System.arraycopy(rs, 0, newRanges, 0, index);
-                rs = newRanges;
-                ranges = rs;
-            }
-            KeyValueRange range = rs[index];
-            if (range == null) {
-                range = new KeyValueRange();
-                rs[index] = range;
+            long[] idx = index;
+            int entry = count;
+            int position = entry * PageIndexSorter.ENTRY_SIZE;
+            if (idx.length < position + PageIndexSorter.ENTRY_SIZE) {
+                int newSize = ((int) (entry * BUFFER_EXPANSION_FACTOR) + 1) * PageIndexSorter.ENTRY_SIZE;
+                long[] newIndex = new long[newSize];
+                System.arraycopy(idx, 0, newIndex, 0, position);
+                idx = newIndex;
+                index = idx;
             }
             DataBuffer b = buffer;
             int offset = b.getWritePosition();
@@ -410,21 +793,31 @@ public class KeyValueSorter<K, V> implements Closeable {
             int keyEnd = b.getWritePosition();
             valueSerializer.serialize(value);
             int valueEnd = b.getWritePosition();
-            range.offset = offset;
-            range.keyLength = keyEnd - offset;
-            range.valueLength = valueEnd - keyEnd;
-            rangesIndex++;
+            int keyLength = keyEnd - offset;
+            int prefix = normalizer == null ? 0 : normalizer.getNormalizedPrefix(b.getData(), offset, keyLength);
+            idx[position] = PageIndexSorter.toHead(prefix, valueEnd - keyEnd);
+            idx[position + 1] = PageIndexSorter.toTail(offset, keyLength);
+            count++;
         }
 
         boolean isFlushRequired() {
             return getSizeInBytes() >= bufferLimit || getCount() >= MAX_RECORD_PER_PAGE;
         }
 
-        List<Source<KeyValueSlice>> createSources() {
+        List<Source<KeyValueSlice>> createSources(
+                RawComparator<?>[] comparators,
+                ExecutorService executor) throws IOException, InterruptedException {
             if (getCount() == 0) {
                 return Collections.emptyList();
             } else {
-                return Collections.singletonList(new PageBufferSource(this));
+                int[] runs = sort(comparators, executor);
+                List<Source<KeyValueSlice>> sources = new ArrayList<>();
+                int start = 0;
+                for (int limit : runs) {
+                    sources.add(new PageBufferSource(getData(), index, start, limit));
+                    start = limit;
+                }
+                return sources;
             }
         }
     }
@@ -469,6 +862,10 @@ public class KeyValueSorter<K, V> implements Closeable {
             return buffer.getWritePosition();
         }
 
+        int getRemainingBytes() {
+            return bufferLimit - getSizeInBytes();
+        }
+
         boolean put(byte[] bytes, int offset, int keyLength, int valueLength) throws IOException {
             DataBuffer b = buffer;
             int bufferSize = b.getWritePosition();
@@ -521,7 +918,9 @@ public class KeyValueSorter<K, V> implements Closeable {
 
     private static final class BlockStore {
 
-        private static final int INPUT_BUFFER_SIZE = 32 * 1024;
+        private static final int MIN_INPUT_BUFFER_SIZE = 32 * 1024;
+
+        private static final int MAX_INPUT_BUFFER_SIZE = 4 * 1024 * 1024;
 
         private static final int OUTPUT_BUFFER_SIZE = 256 * 1024;
 
@@ -531,41 +930,58 @@ public class KeyValueSorter<K, V> implements Closeable {
 
         private final boolean compress;
 
+        private final int mergeFanIn;
+
+        private final Comparator<KeyValueSlice> comparator;
+
+        private final Comparator<KeyValueSlice> compactionComparator;
+
+        private final ExecutorService compactor;
+
+        private Future<?> pendingCompaction;
+
+        private List<File> compacting = Collections.emptyList();
+
         private long totalSize;
 
-        BlockStore(File temporaryDirectory, boolean compress) {
+        /**
+         * Creates a new instance.
+         * @param temporaryDirectory the temporary directory (nullable)
+         * @param compress {@code true} to compress block files
+         * @param mergeFanIn the max number of block files to be merged at once
+         * @param comparator the block comparator
+         * @param compactionComparator the block comparator only for background compaction,
+         *     or {@code null} to compact block files in the current thread
+         */
+        BlockStore(
+                File temporaryDirectory, boolean compress, int mergeFanIn,
+                Comparator<KeyValueSlice> comparator,
+                Comparator<KeyValueSlice> compactionComparator) {
+            assert mergeFanIn >= 2;
             this.temporaryDirectory = temporaryDirectory;
             this.compress = compress;
+            this.mergeFanIn = mergeFanIn;
+            this.comparator = comparator;
+            this.compactionComparator = compactionComparator;
+            this.compactor = compactionComparator == null
+                    ? null
+                    : Executors.newFixedThreadPool(1, newDaemonThreadFactory("asakusa-sort-compactor")); //$NON-NLS-1$
         }
 
         long getSizeInBytes() {
             return totalSize;
         }
 
-        void put(Source<KeyValueSlice> source, long size) throws IOException, InterruptedException {
+        void put(
+                Source<KeyValueSlice> source, long size,
+                Combiner combiner) throws IOException, InterruptedException {
             long t0 = -1;
             if (LOG.isDebugEnabled()) {
                 t0 = System.currentTimeMillis();
             }
-            File file = createTemporaryFile();
-            boolean success = false;
-            try {
-                try (DataOutputStream output = createBlockFileOutput(file)) {
-                    while (source.next()) {
-                        KeyValueSlice slice = source.get();
-                        output.writeInt(slice.getKeyLength());
-                        output.writeInt(slice.getValueLength());
-                        output.write(slice.getBytes(), slice.getSliceOffset(), slice.getSliceLength());
-                    }
-                    // EOF
-                    output.writeInt(-1);
-                }
+            File file = write(source, combiner);
+            synchronized (this) {
                 files.add(file);
-                success = true;
-            } finally {
-                if (success == false) {
-                    deleteTemporaryFile(file);
-                }
             }
             if (LOG.isDebugEnabled()) {
                 long t1 = System.currentTimeMillis();
@@ -578,6 +994,114 @@ public class KeyValueSorter<K, V> implements Closeable {
                         t1 - t0));
             }
             totalSize += size;
+            compactIfNeeded();
+        }
+
+        private void compactIfNeeded() throws IOException, InterruptedException {
+            if (pendingCompaction != null) {
+                if (pendingCompaction.isDone() == false) {
+                    // we will retry after the running compaction was finished
+                    return;
+                }
+                awaitCompaction();
+            }
+            List<File> targets;
+            synchronized (this) {
+                if (files.size() < mergeFanIn) {
+                    return;
+                }
+                List<File> head = files.subList(0, mergeFanIn);
+                targets = new ArrayList<>(head);
+                head.clear();
+                compacting = targets;
+            }
+            if (compactor == null) {
+                compact(targets, comparator);
+            } else {
+                pendingCompaction = compactor.submit(() -> {
+                    compact(targets, compactionComparator);
+                    return null;
+                });
+            }
+        }
+
+        private void compact(
+                List<File> targets, Comparator<KeyValueSlice> cmp) throws IOException, InterruptedException {
+            long t0 = -1;
+            if (LOG.isDebugEnabled()) {
+                t0 = System.currentTimeMillis();
+            }
+            File merged = null;
+            try {
+                merged = merge(targets, cmp);
+            } finally {
+                synchronized (this) {
+                    if (merged == null) {
+                        // keep the original block files
+                        files.addAll(targets);
+                    } else {
+                        files.add(merged);
+                    }
+                    compacting = Collections.emptyList();
+                }
+            }
+            for (File file : targets) {
+                deleteTemporaryFile(file);
+            }
+            if (LOG.isDebugEnabled()) {
+                long t1 = System.currentTimeMillis();
+                LOG.debug(MessageFormat.format(
+                        "compacted block files: {0} ({1}files, {2}bytes, elapsed={3}ms)", //$NON-NLS-1$
+                        merged,
+                        targets.size(),
+                        merged.length(),
+                        t1 - t0));
+            }
+        }
+
+        private void awaitCompaction() throws IOException, InterruptedException {
+            Future<?> pending = pendingCompaction;
+            if (pending == null) {
+                return;
+            }
+            try {
+                pending.get();
+            } catch (ExecutionException e) {
+                throw rethrow(e.getCause());
+            } finally {
+                if (pending.isDone()) {
+                    pendingCompaction = null;
+                }
+            }
+        }
+
+        private File merge(List<File> targets, Comparator<KeyValueSlice> cmp) throws IOException, InterruptedException {
+            try (Source<KeyValueSlice> merged = Sources.merge(open(targets, MIN_INPUT_BUFFER_SIZE), cmp)) {
+                return write(merged, null);
+            }
+        }
+
+        private File write(
+                Source<KeyValueSlice> source, Combiner combiner) throws IOException, InterruptedException {
+            File file = createTemporaryFile();
+            boolean success = false;
+            try {
+                try (StreamSink output = new StreamSink(createBlockFileOutput(file))) {
+                    if (combiner == null) {
+                        while (source.next()) {
+                            output.put(source.get());
+                        }
+                    } else {
+                        combiner.combine(source, output);
+                    }
+                }
+                success = true;
+                return file;
+            } finally {
+                if (success == false) {
+                    deleteTemporaryFile(file);
+                }
+            }
         }
 
         private File createTemporaryFile() throws IOException {
@@ -585,19 +1109,83 @@ public class KeyValueSorter<K, V> implements Closeable {
         }
 
         void reset() {
-            for (Iterator<File> iter = files.iterator(); iter.hasNext();) {
-                File file = iter.next();
-                deleteTemporaryFile(file);
-                iter.remove();
+            if (pendingCompaction != null) {
+                try {
+                    awaitCompaction();
+                } catch (IOException e) {
+                    LOG.debug("error occurred while compacting block files", e); //$NON-NLS-1$
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            synchronized (this) {
+                for (Iterator<File> iter = files.iterator(); iter.hasNext();) {
+                    File file = iter.next();
+                    deleteTemporaryFile(file);
+                    iter.remove();
+                }
+                for (File file : compacting) {
+                    deleteTemporaryFile(file);
+                }
+                compacting = Collections.emptyList();
+            }
+            totalSize = 0;
+        }
+
+        void close() {
+            reset();
+            if (compactor != null) {
+                compactor.shutdownNow();
             }
         }
 
-        List<Source<KeyValueSlice>> createSources() throws IOException {
+        /**
+         * Creates sources of the individual block files.
+         * If there are too many block files, this merges some of them before creating sources.
+         * @param memoryBudget the available memory size in bytes for read-ahead buffers
+         * @return the created sources
+         * @throws IOException if I/O error was occurred
+         * @throws InterruptedException if interrupted while merging block files
+         */
+        List<Source<KeyValueSlice>> createSources(long memoryBudget) throws IOException, InterruptedException {
+            awaitCompaction();
+            List<File> current;
+            synchronized (this) {
+                assert compacting.isEmpty();
+                current = files;
+            }
+            while (current.size() > mergeFanIn) {
+                // merges only the excess block files
+                int count = Math.min(mergeFanIn, current.size() - mergeFanIn + 1);
+                List<File> head = current.subList(0, count);
+                List<File> targets = new ArrayList<>(head);
+                File merged = merge(targets, comparator);
+                head.clear();
+                current.add(merged);
+                for (File file : targets) {
+                    deleteTemporaryFile(file);
+                }
+            }
+            int bufferSize = MIN_INPUT_BUFFER_SIZE;
+            if (current.isEmpty() == false) {
+                long size = memoryBudget / current.size();
+                bufferSize = (int) Math.max(MIN_INPUT_BUFFER_SIZE, Math.min(MAX_INPUT_BUFFER_SIZE, size));
+            }
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(MessageFormat.format(
+                        "reading block files: {0}files, read-ahead={1}bytes/file", //$NON-NLS-1$
+                        current.size(),
+                        bufferSize));
+            }
+            return open(current, bufferSize);
+        }
+
+        private List<Source<KeyValueSlice>> open(List<File> targets, int bufferSize) throws IOException {
             List<Source<KeyValueSlice>> sources = new ArrayList<>();
             boolean succeed = false;
             try {
-                for (File file : files) {
-                    sources.add(new StreamSource(createBlockFileInput(file)));
+                for (File file : targets) {
+                    sources.add(new StreamSource(createBlockFileInput(file, bufferSize)));
                 }
                 succeed = true;
                 return sources;
@@ -610,11 +1198,12 @@ public class KeyValueSorter<K, V> implements Closeable {
             }
         }
 
-        private DataInputStream createBlockFileInput(File file) throws IOException {
+        private DataInputStream createBlockFileInput(File file, int bufferSize) throws IOException {
+            InputStream input = new BufferedInputStream(new FileInputStream(file), bufferSize);
             if (compress) {
-                return new DataInputStream(new SnappyInputStream(new FileInputStream(file)));
+                return new DataInputStream(new SnappyInputStream(input));
             } else {
-                return new DataInputStream(new BufferedInputStream(new FileInputStream(file), INPUT_BUFFER_SIZE));
+                return new DataInputStream(input);
             }
         }
 
@@ -691,9 +1280,66 @@ public class KeyValueSorter<K, V> implements Closeable {
         }
     }
 
+    private static final class StreamSink implements Sink<KeyValueSlice> {
+
+        private final DataOutputStream output;
+
+        StreamSink(DataOutputStream output) {
+            this.output = output;
+        }
+
+        @Override
+        public void put(KeyValueSlice slice) throws IOException {
+            output.writeInt(slice.getKeyLength());
+            output.writeInt(slice.getValueLength());
+            output.write(slice.getBytes(), slice.getSliceOffset(), slice.getSliceLength());
+        }
+
+        @Override
+        public void flush() throws IOException {
+            output.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                // EOF
+                output.writeInt(-1);
+            } finally {
+                output.close();
+            }
+        }
+    }
+
+    private final class BlockBufferSink implements Sink<KeyValueSlice> {
+
+        private final BlockBuffer block;
+
+        BlockBufferSink(BlockBuffer block) {
+            this.block = block;
+        }
+
+        @Override
+        public void put(KeyValueSlice slice) throws IOException, InterruptedException {
+            putSlice(
+                    block,
+                    slice.getBytes(), slice.getSliceOffset(), slice.getKeyLength(), slice.getValueLength());
+        }
+
+        @Override
+        public void flush() {
+            return;
+        }
+
+        @Override
+        public void close() {
+            return;
+        }
+    }
+
     private static final class PageBufferSource implements Source<KeyValueSlice> {
 
-        private final KeyValueRange[] ranges;
+        private final long[] entries;
 
         private final int size;
 
@@ -701,11 +1347,12 @@ public class KeyValueSorter<K, V> implements Closeable {
 
         private final KeyValueSlice slice;
 
-        PageBufferSource(KeyValuePageBuffer<?, ?> buffer) {
-            this.ranges = buffer.sort();
-            this.size = buffer.getCount();
+        PageBufferSource(byte[] bytes, long[] entries, int offset, int limit) {
+            this.entries = entries;
+            this.index = offset;
+            this.size = limit;
             this.slice = new KeyValueSlice();
-            slice.set(buffer.getData(), 0, 0, 0);
+            slice.set(bytes, 0, 0, 0);
         }
 
         @Override
@@ -714,8 +1361,11 @@ public class KeyValueSorter<K, V> implements Closeable {
                 slice.set(0, 0, 0);
                 return false;
             }
-            KeyValueRange range = ranges[index++];
-            slice.set(range.offset, range.keyLength, range.valueLength);
+            int entry = index++;
+            slice.set(
+                    PageIndexSorter.getOffset(entries, entry),
+                    PageIndexSorter.getKeyLength(entries, entry),
+                    PageIndexSorter.getValueLength(entries, entry));
             return true;
         }
 
@@ -794,38 +1444,6 @@ public class KeyValueSorter<K, V> implements Closeable {
         }
     }
 
-    private static final class KeyValueRange {
-
-        int offset;
-
-        int keyLength;
-
-        int valueLength;
-
-        KeyValueRange() {
-            return;
-        }
-    }
-
-    private static final class InPageBufferComparator implements Comparator<KeyValueRange> {
-
-        private final byte[] bytes;
-
-        private final RawComparator<?> comparator;
-
-        InPageBufferComparator(byte[] bytes, RawComparator<?> comparator) {
-            this.bytes = bytes;
-            this.comparator = comparator;
-        }
-
-        @Override
-        public int compare(KeyValueRange o1, KeyValueRange o2) {
-            return comparator.compare(
-                    bytes, o1.offset, o1.keyLength,
-                    bytes, o2.offset, o2.keyLength);
-        }
-    }
-
     private static final class KeyValueSliceComparator implements Comparator<KeyValueSlice> {
 
         private final RawComparator<?> comparator;
@@ -0,0 +1,220 @@
+/**
+ * Copyright 2011-2021 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.runtime.mapreduce.simple;
+
+import org.apache.hadoop.io.RawComparator;
+
+/**
+ * Sorts packed key-value indices in page buffers.
+ * Each index entry consists of two {@code long} values:
+ * <ol>
+ * <li> the normalized key prefix (upper 32-bits) and the value length (lower 32-bits) </li>
+ * <li> the offset in page buffer (upper 32-bits) and the key length (lower 32-bits) </li>
+ * </ol>
+ * The entries are ordered by their key prefix, and then ordered by their raw key contents only if their prefixes
+ * are equivalent. Entries with the equivalent keys keep their original (offset) order.
+ * @since 0.10.5
+ */
+final class PageIndexSorter {
+
+    static final int ENTRY_SIZE = 2;
+
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+
+    private final long[] index;
+
+    private final byte[] bytes;
+
+    private final RawComparator<?> comparator;
+
+    private PageIndexSorter(long[] index, byte[] bytes, RawComparator<?> comparator) {
+        this.index = index;
+        this.bytes = bytes;
+        this.comparator = comparator;
+    }
+
+    static long toHead(int prefix, int valueLength) {
+        return ((long) prefix << 32) | (valueLength & 0xffffffffL);
+    }
+
+    static long toTail(int offset, int keyLength) {
+        return ((long) offset << 32) | (keyLength & 0xffffffffL);
+    }
+
+    static int getOffset(long[] index, int entry) {
+        return (int) (index[entry * ENTRY_SIZE + 1] >>> 32);
+    }
+
+    static int getKeyLength(long[] index, int entry) {
+        return (int) index[entry * ENTRY_SIZE + 1];
+    }
+
+    static int getValueLength(long[] index, int entry) {
+        return (int) index[entry * ENTRY_SIZE];
+    }
+
+    /**
+     * Sorts the index entries.
+     * @param index the packed index
+     * @param from the first entry number (inclusive)
+     * @param to the last entry number (exclusive)
+     * @param bytes the page buffer
+     * @param comparator the raw key comparator
+     */
+    static void sort(long[] index, int from, int to, byte[] bytes, RawComparator<?> comparator) {
+        int count = to - from;
+        if (count <= 1) {
+            return;
+        }
+        int depthLimit = 2 * (Integer.SIZE - Integer.numberOfLeadingZeros(count));
+        new PageIndexSorter(index, bytes, comparator).quickSort(from, to, depthLimit);
+    }
+
+    private void quickSort(int from, int to, int depthLimit) {
+        int lo = from;
+        int hi = to;
+        int depth = depthLimit;
+        while (hi - lo > INSERTION_SORT_THRESHOLD) {
+            if (depth-- == 0) {
+                heapSort(lo, hi);
+                return;
+            }
+            moveMedianToFirst(lo, (lo + hi) >>> 1, hi - 1);
+            int pivot = partition(lo, hi);
+            // recursive call only for the smaller side
+            if (pivot - lo < hi - pivot - 1) {
+                quickSort(lo, pivot, depth);
+                lo = pivot + 1;
+            } else {
+                quickSort(pivot + 1, hi, depth);
+                hi = pivot;
+            }
+        }
+        insertionSort(lo, hi);
+    }
+
+    private int partition(int from, int to) {
+        // NOTE: every entries are distinct because of the offset tie-breaker
+        int i = from + 1;
+        int j = to - 1;
+        while (true) {
+            while (i <= j && compare(i, from) < 0) {
+                i++;
+            }
+            while (i <= j && compare(j, from) > 0) {
+                j--;
+            }
+            if (i >= j) {
+                break;
+            }
+            swap(i++, j--);
+        }
+        swap(from, j);
+        return j;
+    }
+
+    private void moveMedianToFirst(int a, int b, int c) {
+        int median;
+        if (compare(a, b) < 0) {
+            if (compare(b, c) < 0) {
+                median = b;
+            } else if (compare(a, c) < 0) {
+                median = c;
+            } else {
+                median = a;
+            }
+        } else {
+            if (compare(a, c) < 0) {
+                median = a;
+            } else if (compare(b, c) < 0) {
+                median = c;
+            } else {
+                median = b;
+            }
+        }
+        swap(a, median);
+    }
+
+    private void insertionSort(int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            for (int j = i; j > from && compare(j - 1, j) > 0; j--) {
+                swap(j - 1, j);
+            }
+        }
+    }
+
+    private void heapSort(int from, int to) {
+        int count = to - from;
+        for (int i = count / 2 - 1; i >= 0; i--) {
+            siftDown(from, i, count);
+        }
+        for (int last = count - 1; last > 0; last--) {
+            swap(from, from + last);
+            siftDown(from, 0, last);
+        }
+    }
+
+    private void siftDown(int base, int root, int count) {
+        int current = root;
+        while (true) {
+            int child = current * 2 + 1;
+            if (child >= count) {
+                break;
+            }
+            if (child + 1 < count && compare(base + child, base + child + 1) < 0) {
+                child++;
+            }
+            if (compare(base + current, base + child) >= 0) {
+                break;
+            }
+            swap(base + current, base + child);
+            current = child;
+        }
+    }
+
+    private int compare(int a, int b) {
+        long[] idx = index;
+        int prefixDiff = Integer.compareUnsigned(
+                (int) (idx[a * ENTRY_SIZE] >>> 32),
+                (int) (idx[b * ENTRY_SIZE] >>> 32));
+        if (prefixDiff != 0) {
+            return prefixDiff;
+        }
+        long aTail = idx[a * ENTRY_SIZE + 1];
+        long bTail = idx[b * ENTRY_SIZE + 1];
+        int aOffset = (int) (aTail >>> 32);
+        int bOffset = (int) (bTail >>> 32);
+        int keyDiff = comparator.compare(
+                bytes, aOffset, (int) aTail,
+                bytes, bOffset, (int) bTail);
+        if (keyDiff != 0) {
+            return keyDiff;
+        }
+        return Integer.compare(aOffset, bOffset);
+    }
+
+    private void swap(int a, int b) {
+        long[] idx = index;
+        int ai = a * ENTRY_SIZE;
+        int bi = b * ENTRY_SIZE;
+        long t0 = idx[ai];
+        long t1 = idx[ai + 1];
+        idx[ai] = idx[bi];
+        idx[ai + 1] = idx[bi + 1];
+        idx[bi] = t0;
+        idx[bi + 1] = t1;
+    }
+}
@@ -0,0 +1,195 @@
+/**
+ * Copyright 2011-2021 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.runtime.mapreduce.simple;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.DataInputBuffer;
+import org.apache.hadoop.io.RawComparator;
+import org.apache.hadoop.io.serializer.SerializationFactory;
+import org.apache.hadoop.io.serializer.Serializer;
+import org.apache.hadoop.mapred.RawKeyValueIterator;
+import org.apache.hadoop.mapreduce.RecordWriter;
+import org.apache.hadoop.mapreduce.Reducer;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.mapreduce.counters.GenericCounter;
+import org.apache.hadoop.mapreduce.lib.reduce.WrappedReducer;
+import org.apache.hadoop.mapreduce.task.ReduceContextImpl;
+import org.apache.hadoop.util.Progress;
+import org.apache.hadoop.util.ReflectionUtils;
+
+import com.asakusafw.runtime.io.util.DataBuffer;
+import com.asakusafw.runtime.io.util.DataBufferOutputStream;
+import com.asakusafw.utils.io.Sink;
+import com.asakusafw.utils.io.Source;
+
+/**
+ * A {@link KeyValueSorter.Combiner} which applies a combiner ({@link Reducer}) class to the shuffle pairs.
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+final class ShuffleCombiner<K, V> implements KeyValueSorter.Combiner {
+
+    private final Configuration configuration;
+
+    private final TaskAttemptID id;
+
+    private final Reducer<K, V, K, V> reducer;
+
+    private final RawComparator<K> comparator;
+
+    private final Class<K> keyClass;
+
+    private final Class<V> valueClass;
+
+    private final Serializer<K> keySerializer;
+
+    private final Serializer<V> valueSerializer;
+
+    private final DataBuffer buffer = new DataBuffer();
+
+    private final KeyValueSlice slice = new KeyValueSlice();
+
+    /**
+     * Creates a new instance.
+     * @param configuration the current configuration
+     * @param id the current task attempt ID
+     * @param combinerClass the combiner class
+     * @param comparator the grouping comparator for the combiner
+     * @param keyClass the key class
+     * @param valueClass the value class
+     */
+    @SuppressWarnings("unchecked")
+    ShuffleCombiner(
+            Configuration configuration,
+            TaskAttemptID id,
+            Class<? extends Reducer<?, ?, ?, ?>> combinerClass,
+            RawComparator<?> comparator,
+            Class<K> keyClass, Class<V> valueClass) {
+        this.configuration = configuration;
+        this.id = id;
+        this.reducer = (Reducer<K, V, K, V>) ReflectionUtils.newInstance(combinerClass, configuration);
+        this.comparator = (RawComparator<K>) comparator;
+        this.keyClass = keyClass;
+        this.valueClass = valueClass;
+        SerializationFactory serialization = new SerializationFactory(configuration);
+        this.keySerializer = serialization.getSerializer(keyClass);
+        this.valueSerializer = serialization.getSerializer(valueClass);
+        try {
+            keySerializer.open(new DataBufferOutputStream(buffer));
+            valueSerializer.open(new DataBufferOutputStream(buffer));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void combine(
+            Source<KeyValueSlice> input, Sink<KeyValueSlice> output) throws IOException, InterruptedException {
+        Reducer<K, V, K, V>.Context context = new WrappedReducer<K, V, K, V>().getReducerContext(
+                new ReduceContextImpl<>(
+                        configuration, id,
+                        new SourceIterator(input),
+                        new GenericCounter(),
+                        new GenericCounter(),
+                        new SinkWriter(output),
+                        null,
+                        new SimpleJobRunner.MockStatusReporter(),
+                        comparator,
+                        keyClass, valueClass));
+        reducer.run(context);
+    }
+
+    private final class SinkWriter extends RecordWriter<K, V> {
+
+        private final Sink<KeyValueSlice> output;
+
+        SinkWriter(Sink<KeyValueSlice> output) {
+            this.output = output;
+        }
+
+        @Override
+        public void write(K key, V value) throws IOException, InterruptedException {
+            DataBuffer b = buffer;
+            b.reset(0, 0);
+            keySerializer.serialize(key);
+            int keyEnd = b.getWritePosition();
+            valueSerializer.serialize(value);
+            int valueEnd = b.getWritePosition();
+            slice.set(b.getData(), 0, keyEnd, valueEnd - keyEnd);
+            output.put(slice);
+        }
+
+        @Override
+        public void close(TaskAttemptContext context) {
+            return;
+        }
+    }
+
+    private static final class SourceIterator implements RawKeyValueIterator {
+
+        private final Source<KeyValueSlice> source;
+
+        private final DataInputBuffer keyBuffer = new DataInputBuffer();
+
+        private final DataInputBuffer valueBuffer = new DataInputBuffer();
+
+        private final Progress progress = new Progress();
+
+        SourceIterator(Source<KeyValueSlice> source) {
+            this.source = source;
+        }
+
+        @Override
+        public boolean next() throws IOException {
+            try {
+                if (source.next()) {
+                    KeyValueSlice s = source.get();
+                    keyBuffer.reset(s.getBytes(), s.getKeyOffset(), s.getKeyLength());
+                    valueBuffer.reset(s.getBytes(), s.getValueOffset(), s.getValueLength());
+                    return true;
+                }
+                return false;
+            } catch (InterruptedException e) {
+                throw (IOException) new InterruptedIOException().initCause(e);
+            }
+        }
+
+        @Override
+        public DataInputBuffer getKey() {
+            return keyBuffer;
+        }
+
+        @Override
+        public DataInputBuffer getValue() {
+            return valueBuffer;
+        }
+
+        @Override
+        public Progress getProgress() {
+            return progress;
+        }
+
+        @Override
+        public void close() {
+            // the source will be closed by its owner
+            return;
+        }
+    }
+}
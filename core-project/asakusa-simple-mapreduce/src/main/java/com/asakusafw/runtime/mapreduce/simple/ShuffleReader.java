@@ -17,12 +17,16 @@ package com.asakusafw.runtime.mapreduce.simple;
 
 import java.io.IOException;
 import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 import org.apache.hadoop.io.DataInputBuffer;
 import org.apache.hadoop.mapred.RawKeyValueIterator;
 import org.apache.hadoop.util.Progress;
 
 import com.asakusafw.utils.io.Source;
+import com.asakusafw.utils.io.Sources;
 
 /**
  * Read shuffle outputs.
@@ -30,7 +34,7 @@ import com.asakusafw.utils.io.Source;
  */
 public class ShuffleReader implements RawKeyValueIterator {
 
-    private final KeyValueSorter<?, ?> sorter;
+    private final List<KeyValueSorter<?, ?>> sorters;
 
     private Source<KeyValueSlice> source;
 
@@ -48,7 +52,20 @@ public class ShuffleReader implements RawKeyValueIterator {
      * @param progress the progress
      */
     public ShuffleReader(KeyValueSorter<?, ?> sorter, Progress progress) {
-        this.sorter = sorter;
+        this(Collections.singletonList(sorter), progress);
+    }
+
+    /**
+     * Creates a new instance.
+     * @param sorters the source sorters, which must share the same sort comparator
+     * @param progress the progress
+     * @since 0.10.5
+     */
+    public ShuffleReader(List<? extends KeyValueSorter<?, ?>> sorters, Progress progress) {
+        if (sorters.isEmpty()) {
+            throw new IllegalArgumentException();
+        }
+        this.sorters = new ArrayList<>(sorters);
         this.progress = progress;
     }
 
@@ -56,7 +73,7 @@ public class ShuffleReader implements RawKeyValueIterator {
     public boolean next() throws IOException {
         if (source == null) {
             try {
-                source = sorter.sort();
+                source = open();
             } catch (InterruptedException e) {
                 throw (IOException) new InterruptedIOException().initCause(e);
             }
@@ -76,6 +93,27 @@ public class ShuffleReader implements RawKeyValueIterator {
         return prepared;
     }
 
+    private Source<KeyValueSlice> open() throws IOException, InterruptedException {
+        if (sorters.size() == 1) {
+            return sorters.get(0).sort();
+        }
+        List<Source<KeyValueSlice>> sources = new ArrayList<>();
+        boolean succeed = false;
+        try {
+            for (KeyValueSorter<?, ?> sorter : sorters) {
+                sources.add(sorter.sort());
+            }
+            succeed = true;
+            return Sources.merge(sources, sorters.get(0).getComparator());
+        } finally {
+            if (succeed == false) {
+                for (Source<KeyValueSlice> s : sources) {
+                    s.close();
+                }
+            }
+        }
+    }
+
     @Override
     public DataInputBuffer getKey() throws IOException {
         return keyBuffer;
@@ -93,7 +131,21 @@ public class ShuffleReader implements RawKeyValueIterator {
                 source.close();
             }
         } finally {
-            sorter.close();
+            IOException occurred = null;
+            for (KeyValueSorter<?, ?> sorter : sorters) {
+                try {
+                    sorter.close();
+                } catch (IOException e) {
+                    if (occurred == null) {
+                        occurred = e;
+                    } else {
+                        occurred.addSuppressed(e);
+                    }
+                }
+            }
+            if (occurred != null) {
+                throw occurred;
+            }
         }
     }
 
@@ -16,7 +16,10 @@
 package com.asakusafw.runtime.mapreduce.simple;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
+import org.apache.hadoop.mapreduce.Partitioner;
 import org.apache.hadoop.mapreduce.RecordWriter;
 import org.apache.hadoop.mapreduce.TaskAttemptContext;
 
@@ -30,17 +33,46 @@ public class ShuffleWriter<K, V> extends RecordWriter<K, V> {
 
     private final KeyValueSorter<K, V> sorter;
 
+    private final List<KeyValueSorter<K, V>> partitions;
+
+    private final Partitioner<? super K, ? super V> partitioner;
+
     /**
      * Creates a new instance.
      * @param sorter the key value sorter
      */
     public ShuffleWriter(KeyValueSorter<K, V> sorter) {
         this.sorter = sorter;
+        this.partitions = null;
+        this.partitioner = null;
+    }
+
+    /**
+     * Creates a new instance which distributes each key-value pair into the individual partitions.
+     * @param partitions the key value sorters for individual partitions
+     * @param partitioner the partitioner
+     * @since 0.10.5
+     */
+    public ShuffleWriter(
+            List<? extends KeyValueSorter<K, V>> partitions,
+            Partitioner<? super K, ? super V> partitioner) {
+        if (partitions.isEmpty()) {
+            throw new IllegalArgumentException();
+        }
+        this.sorter = null;
+        this.partitions = new ArrayList<>(partitions);
+        this.partitioner = partitioner;
     }
 
     @Override
     public void write(K key, V value) throws IOException, InterruptedException {
-        sorter.put(key, value);
+        if (sorter != null) {
+            sorter.put(key, value);
+        } else {
+            List<KeyValueSorter<K, V>> ps = partitions;
+            int index = partitioner.getPartition(key, value, ps.size());
+            ps.get(index).put(key, value);
+        }
     }
 
     @Override
@@ -18,8 +18,19 @@ package com.asakusafw.runtime.mapreduce.simple;
 import java.io.File;
 import java.io.IOException;
 import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -35,6 +46,7 @@ import org.apache.hadoop.mapreduce.JobStatus.State;
 import org.apache.hadoop.mapreduce.Mapper;
 import org.apache.hadoop.mapreduce.OutputCommitter;
 import org.apache.hadoop.mapreduce.OutputFormat;
+import org.apache.hadoop.mapreduce.Partitioner;
 import org.apache.hadoop.mapreduce.RecordReader;
 import org.apache.hadoop.mapreduce.RecordWriter;
 import org.apache.hadoop.mapreduce.Reducer;
@@ -79,6 +91,41 @@ public class SimpleJobRunner implements JobRunner {
      */
     public static final String KEY_COMPRESS_BLOCK = KEY_PREFIX + "shuffle.compress"; //$NON-NLS-1$
 
+    /**
+     * Hadoop property key of whether full shuffle pages are sorted and flushed in background or not.
+     * @since 0.10.5
+     */
+    public static final String KEY_ASYNC_FLUSH = KEY_PREFIX + "shuffle.async"; //$NON-NLS-1$
+
+    /**
+     * Hadoop property key of the max number of threads for sorting each shuffle page.
+     * @since 0.10.5
+     */
+    public static final String KEY_SORT_PARALLELISM = KEY_PREFIX + "shuffle.sort.parallelism"; //$NON-NLS-1$
+
+    /**
+     * Hadoop property key of the max number of shuffle block files to be merged at once.
+     * @since 0.10.5
+     */
+    public static final String KEY_MERGE_FAN_IN = KEY_PREFIX + "shuffle.merge.fanin"; //$NON-NLS-1$
+
+    /**
+     * Hadoop property key of the max number of map tasks which are running concurrently.
+     * @since 0.10.5
+     */
+    public static final String KEY_MAP_PARALLELISM = KEY_PREFIX + "map.parallelism"; //$NON-NLS-1$
+
+    /**
+     * Hadoop property key of the max number of reduce tasks which are running concurrently.
+     * If this is greater than {@code 1}, the map outputs are partitioned by the job's partitioner.
+     * @since 0.10.5
+     */
+    public static final String KEY_REDUCE_PARALLELISM = KEY_PREFIX + "reduce.parallelism"; //$NON-NLS-1$
+
+    private static final int DEFAULT_MAP_PARALLELISM = 1;
+
+    private static final int DEFAULT_REDUCE_PARALLELISM = 1;
+
     private static final int DEFAULT_BUFFER_SIZE = 64 * 1024 * 1024;
 
     private static final int MIN_BUFFER_SIZE = 2 * 1024 * 1024;
@@ -87,8 +134,23 @@ public class SimpleJobRunner implements JobRunner {
 
     private static final boolean DEFAULT_COMPRESS_BLOCK = false;
 
+    private static final boolean DEFAULT_ASYNC_FLUSH = false;
+
+    private static final int DEFAULT_SORT_PARALLELISM = 1;
+
     private static final String DUMMY_JOBTRACKER_ID = "asakusafw";
 
+    private static final ThreadFactory DAEMON_THREAD_FACTORY = new ThreadFactory() {
+        private final AtomicInteger counter = new AtomicInteger();
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r);
+            t.setName(String.format("asakusa-simple-task-%d", counter.incrementAndGet())); //$NON-NLS-1$
+            t.setDaemon(true);
+            return t;
+        }
+    };
+
     @Override
     public boolean run(Job job) throws InterruptedException {
         job.setJobID(new JobID(DUMMY_JOBTRACKER_ID, new Random().nextInt(Integer.MAX_VALUE)));
@@ -121,13 +183,52 @@ public class SimpleJobRunner implements JobRunner {
         boolean succeed = false;
         committer.setupJob(job);
         try {
+            InputFormat<?, ?> input = ReflectionUtils.newInstance(job.getInputFormatClass(), conf);
+            List<InputSplit> splits = input.getSplits(job);
+            int slots = computeMapSlots(job, splits.size());
             if (job.getNumReduceTasks() == 0) {
-                runMap(job, null);
+                runMap(job, splits, slots, null);
             } else {
-                try (KeyValueSorter<?, ?> sorter = createSorter(job,
-                        job.getMapOutputKeyClass(), job.getMapOutputValueClass())) {
-                    runMap(job, sorter);
-                    runReduce(job, sorter);
+                long bufferSize = getShuffleBufferSize(conf);
+                int partitions = computeReducePartitions(job);
+                int limitedPartitions = limitReducePartitions(bufferSize, partitions);
+                int limitedSlots = limitMapSlots(bufferSize, slots, limitedPartitions);
+                if (limitedPartitions != partitions || limitedSlots != slots) {
+                    LOG.warn(MessageFormat.format(
+                            "shuffle buffer is too small for the parallelism, "
+                            + "map slots: {1}->{2}, reduce partitions: {3}->{4} ({5}={6}) ({0})",
+                            job.getJobName(),
+                            slots,
+                            limitedSlots,
+                            partitions,
+                            limitedPartitions,
+                            KEY_BUFFER_SIZE,
+                            bufferSize));
+                    slots = limitedSlots;
+                    partitions = limitedPartitions;
+                }
+                int sorterBufferSize = computeSorterBufferSize(bufferSize, slots * partitions);
+                List<List<KeyValueSorter<?, ?>>> sorters = new ArrayList<>();
+                try {
+                    for (int slot = 0; slot < slots; slot++) {
+                        List<KeyValueSorter<?, ?>> slotSorters = new ArrayList<>();
+                        sorters.add(slotSorters);
+                        // map tasks use serial numbers 1..splits, so that combiners use the following ones
+                        int combinerSerial = splits.size() + 1 + slot;
+                        for (int partition = 0; partition < partitions; partition++) {
+                            slotSorters.add(createSorter(job,
+                                    job.getMapOutputKeyClass(), job.getMapOutputValueClass(),
+                                    combinerSerial, sorterBufferSize));
+                        }
+                    }
+                    runMap(job, splits, slots, sorters);
+                    runReduce(job, partitions, sorters);
+                } finally {
+                    for (List<KeyValueSorter<?, ?>> slotSorters : sorters) {
+                        for (KeyValueSorter<?, ?> sorter : slotSorters) {
+                            sorter.close();
+                        }
+                    }
                 }
             }
             committer.commitJob(job);
@@ -146,80 +247,318 @@ public class SimpleJobRunner implements JobRunner {
         }
     }
 
-    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private int computeMapSlots(Job job, int numberOfSplits) {
+        int parallelism = getParallelism(job.getConfiguration(), KEY_MAP_PARALLELISM, DEFAULT_MAP_PARALLELISM);
+        int slots = Math.max(1, Math.min(parallelism, numberOfSplits));
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(MessageFormat.format(
+                    "map task slots: {1} (parallelism={2}, splits={3}) ({0})", //$NON-NLS-1$
+                    job.getJobName(),
+                    slots,
+                    parallelism,
+                    numberOfSplits));
+        }
+        return slots;
+    }
+
+    private int computeReducePartitions(Job job) {
+        int parallelism = getParallelism(
+                job.getConfiguration(), KEY_REDUCE_PARALLELISM, DEFAULT_REDUCE_PARALLELISM);
+        int partitions = Math.max(1, Math.min(parallelism, job.getNumReduceTasks()));
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(MessageFormat.format(
+                    "reduce task partitions: {1} (parallelism={2}, reduce-tasks={3}) ({0})", //$NON-NLS-1$
+                    job.getJobName(),
+                    partitions,
+                    parallelism,
+                    job.getNumReduceTasks()));
+        }
+        return partitions;
+    }
+
+    private static long getShuffleBufferSize(Configuration conf) {
+        long bufferSize = conf.getLong(KEY_BUFFER_SIZE, -1);
+        if (bufferSize < 0) {
+            bufferSize = DEFAULT_BUFFER_SIZE;
+        }
+        return Math.max(MIN_BUFFER_SIZE, bufferSize);
+    }
+
+    /**
+     * Returns the number of reduce partitions which the shuffle buffer can afford.
+     * @param bufferSize the total shuffle buffer size
+     * @param partitions the number of reduce partitions
+     * @return the limited number of reduce partitions
+     */
+    static int limitReducePartitions(long bufferSize, int partitions) {
+        assert partitions >= 1;
+        return (int) Math.min(partitions, getMaxSorters(bufferSize));
+    }
+
+    /**
+     * Returns the number of map slots which the shuffle buffer can afford.
+     * @param bufferSize the total shuffle buffer size
+     * @param slots the number of map slots
+     * @param partitions the number of reduce partitions, which must be already limited
+     * @return the limited number of map slots
+     * @see #limitReducePartitions(long, int)
+     */
+    static int limitMapSlots(long bufferSize, int slots, int partitions) {
+        assert slots >= 1;
+        assert partitions >= 1;
+        assert partitions <= getMaxSorters(bufferSize);
+        return (int) Math.min(slots, getMaxSorters(bufferSize) / partitions);
+    }
+
+    /**
+     * Returns the buffer size of each sorter.
+     * Each sorter buffer is never less than the minimum size if the number of sorters is limited by
+     * {@link #limitReducePartitions(long, int)} and {@link #limitMapSlots(long, int, int)}.
+     * @param bufferSize the total shuffle buffer size
+     * @param sorters the number of sorters, which share the shuffle buffer
+     * @return the buffer size of each sorter
+     */
+    static int computeSorterBufferSize(long bufferSize, int sorters) {
+        assert sorters >= 1;
+        // the shuffle buffer is shared between the individual sorters
+        return (int) Math.min(MAX_BUFFER_SIZE, bufferSize / sorters);
+    }
+
+    private static long getMaxSorters(long bufferSize) {
+        return Math.max(1L, bufferSize / MIN_BUFFER_SIZE);
+    }
+
+    private static int getParallelism(Configuration conf, String key, int defaultValue) {
+        int parallelism = conf.getInt(key, defaultValue);
+        if (parallelism <= 0) {
+            return Runtime.getRuntime().availableProcessors();
+        }
+        return parallelism;
+    }
+
     private void runMap(
             Job job,
-            KeyValueSorter<?, ?> sorter) throws IOException, InterruptedException, ClassNotFoundException {
-        Configuration conf = job.getConfiguration();
-        InputFormat<?, ?> input = ReflectionUtils.newInstance(job.getInputFormatClass(), conf);
-        List<InputSplit> splits = input.getSplits(job);
-        int serial = 1;
-        for (InputSplit split : splits) {
-            TaskAttemptID id = new TaskAttemptID(new TaskID(job.getJobID(), TaskType.MAP, serial++), 0);
-            Mapper<?, ?, ?, ?> mapper = ReflectionUtils.newInstance(job.getMapperClass(), conf);
-            if (LOG.isDebugEnabled()) {
-                LOG.debug(MessageFormat.format(
-                        "starting mapper: {0}@{1} ({2}bytes)", //$NON-NLS-1$
-                        mapper.getClass().getName(),
-                        id,
-                        split.getLength()));
+            List<InputSplit> splits,
+            int slots,
+            List<List<KeyValueSorter<?, ?>>> sorters) throws IOException, InterruptedException, ClassNotFoundException {
+        assert slots >= 1;
+        assert sorters == null || sorters.size() == slots;
+        if (slots == 1) {
+            List<KeyValueSorter<?, ?>> partitions = sorters == null ? null : sorters.get(0);
+            Configuration conf = job.getConfiguration();
+            InputFormat<?, ?> input = ReflectionUtils.newInstance(job.getInputFormatClass(), conf);
+            int serial = 1;
+            for (InputSplit split : splits) {
+                runMapTask(job, conf, input, split, serial++, partitions);
             }
-            TaskAttemptContext context = new TaskAttemptContextImpl(conf, id);
-            // we always obtain a new OutputFormat object / OutputFormat.getOutputCommiter() may be cached
-            OutputFormat<?, ?> output = ReflectionUtils.newInstance(job.getOutputFormatClass(), conf);
-            OutputCommitter committer = output.getOutputCommitter(context);
-            committer.setupTask(context);
-            boolean succeed = false;
-            try (RecordReader<?, ?> reader = input.createRecordReader(split, new TaskAttemptContextImpl(conf, id))) {
-                RecordWriter<?, ?> writer;
-                if (sorter != null) {
-                    writer = new ShuffleWriter(sorter);
-                } else {
-                    writer = output.getRecordWriter(new TaskAttemptContextImpl(conf, id));
+        } else {
+            AtomicInteger nextIndex = new AtomicInteger();
+            runConcurrently(slots, (slot, cancelled) -> {
+                // each worker owns its own sorters, so that they never share the shuffle buffer
+                List<KeyValueSorter<?, ?>> partitions = sorters == null ? null : sorters.get(slot);
+                InputFormat<?, ?> input = ReflectionUtils.newInstance(
+                        job.getInputFormatClass(), job.getConfiguration());
+                while (cancelled.get() == false) {
+                    int index = nextIndex.getAndIncrement();
+                    if (index >= splits.size()) {
+                        break;
+                    }
+                    // each task has its own configuration like as Hadoop's local job runner
+                    Configuration conf = new Configuration(job.getConfiguration());
+                    runMapTask(job, conf, input, splits.get(index), index + 1, partitions);
                 }
+            });
+        }
+    }
+
+    private void runReduce(
+            Job job,
+            int partitions,
+            List<List<KeyValueSorter<?, ?>>> sorters) throws ClassNotFoundException, IOException, InterruptedException {
+        assert partitions >= 1;
+        if (partitions == 1) {
+            runReduceTask(job, job.getConfiguration(), 0, collectPartition(sorters, 0));
+        } else {
+            runConcurrently(partitions, (partition, cancelled) -> {
+                Configuration conf = new Configuration(job.getConfiguration());
+                runReduceTask(job, conf, partition, collectPartition(sorters, partition));
+            });
+        }
+    }
+
+    private static List<KeyValueSorter<?, ?>> collectPartition(
+            List<List<KeyValueSorter<?, ?>>> sorters, int partition) {
+        List<KeyValueSorter<?, ?>> results = new ArrayList<>();
+        for (List<KeyValueSorter<?, ?>> slotSorters : sorters) {
+            results.add(slotSorters.get(partition));
+        }
+        return results;
+    }
+
+    private void runConcurrently(
+            int workers,
+            Worker worker) throws IOException, InterruptedException, ClassNotFoundException {
+        assert workers >= 1;
+        AtomicBoolean cancelled = new AtomicBoolean();
+        ExecutorService executor = Executors.newFixedThreadPool(workers, DAEMON_THREAD_FACTORY);
+        try {
+            CompletionService<Void> service = new ExecutorCompletionService<>(executor);
+            for (int i = 0; i < workers; i++) {
+                int slot = i;
+                service.submit(() -> {
+                    worker.run(slot, cancelled);
+                    return null;
+                });
+            }
+            Throwable occurred = null;
+            for (int i = 0; i < workers; i++) {
+                Future<Void> future = service.take();
                 try {
-                    Mapper.Context c = new WrappedMapper().getMapContext(new MapContextImpl<>(
-                            conf, id,
-                            reader, writer,
-                            committer, new MockStatusReporter(),
-                            split));
-                    reader.initialize(split, c);
-                    mapper.run(c);
-                } finally {
-                    writer.close(new TaskAttemptContextImpl(conf, id));
+                    future.get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (occurred == null) {
+                        occurred = cause;
+                        // fail fast: stop the rest tasks, and then wait for their termination
+                        // (all workers have been already started because the pool size is equal to #workers)
+                        cancelled.set(true);
+                        executor.shutdownNow();
+                    } else if (occurred != cause) {
+                        occurred.addSuppressed(cause);
+                    }
                 }
-                doCommitTask(context, committer);
-                succeed = true;
-            } finally {
-                if (succeed == false) {
-                    doAbortTask(context, committer);
+            }
+            if (occurred != null) {
+                throw rethrow(occurred);
+            }
+        } catch (InterruptedException e) {
+            cancelled.set(true);
+            executor.shutdownNow();
+            // the caller will close the resources which are still used in the workers
+            awaitTermination(executor);
+            throw e;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void awaitTermination(ExecutorService executor) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                if (executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                    break;
                 }
+                LOG.debug("waiting for cancelled tasks are terminated"); //$NON-NLS-1$
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static IOException rethrow(Throwable t) throws InterruptedException, ClassNotFoundException {
+        if (t instanceof Error) {
+            throw (Error) t;
+        } else if (t instanceof RuntimeException) {
+            throw (RuntimeException) t;
+        } else if (t instanceof InterruptedException) {
+            throw (InterruptedException) t;
+        } else if (t instanceof ClassNotFoundException) {
+            throw (ClassNotFoundException) t;
+        } else if (t instanceof IOException) {
+            return (IOException) t;
+        } else {
+            return new IOException(t);
+        }
+    }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private void runMapTask(
+            Job job,
+            Configuration conf,
+            InputFormat<?, ?> input,
+            InputSplit split,
+            int serial,
+            List<KeyValueSorter<?, ?>> sorters) throws IOException, InterruptedException, ClassNotFoundException {
+        TaskAttemptID id = new TaskAttemptID(new TaskID(job.getJobID(), TaskType.MAP, serial), 0);
+        Mapper<?, ?, ?, ?> mapper = ReflectionUtils.newInstance(job.getMapperClass(), conf);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(MessageFormat.format(
+                    "starting mapper: {0}@{1} ({2}bytes)", //$NON-NLS-1$
+                    mapper.getClass().getName(),
+                    id,
+                    split.getLength()));
+        }
+        TaskAttemptContext context = new TaskAttemptContextImpl(conf, id);
+        // we always obtain a new OutputFormat object / OutputFormat.getOutputCommiter() may be cached
+        OutputFormat<?, ?> output = ReflectionUtils.newInstance(job.getOutputFormatClass(), conf);
+        OutputCommitter committer = output.getOutputCommitter(context);
+        committer.setupTask(context);
+        boolean succeed = false;
+        try (RecordReader<?, ?> reader = input.createRecordReader(split, new TaskAttemptContextImpl(conf, id))) {
+            RecordWriter<?, ?> writer;
+            if (sorters == null) {
+                writer = output.getRecordWriter(new TaskAttemptContextImpl(conf, id));
+            } else if (sorters.size() == 1) {
+                writer = new ShuffleWriter(sorters.get(0));
+            } else {
+                Partitioner<?, ?> partitioner = ReflectionUtils.newInstance(job.getPartitionerClass(), conf);
+                writer = new ShuffleWriter(sorters, partitioner);
+            }
+            try {
+                Mapper.Context c = new WrappedMapper().getMapContext(new MapContextImpl<>(
+                        conf, id,
+                        reader, writer,
+                        committer, new MockStatusReporter(),
+                        split));
+                reader.initialize(split, c);
+                mapper.run(c);
+            } finally {
+                writer.close(new TaskAttemptContextImpl(conf, id));
+            }
+            doCommitTask(context, committer);
+            succeed = true;
+        } finally {
+            if (succeed == false) {
+                doAbortTask(context, committer);
             }
         }
     }
 
     @SuppressWarnings({ "unchecked", "rawtypes" })
-    private void runReduce(
+    private void runReduceTask(
             Job job,
-            KeyValueSorter<?, ?> sorter) throws ClassNotFoundException, IOException, InterruptedException {
-        Configuration conf = job.getConfiguration();
+            Configuration conf,
+            int partition,
+            List<KeyValueSorter<?, ?>> sorters) throws ClassNotFoundException, IOException, InterruptedException {
+        assert sorters.isEmpty() == false;
         OutputFormat<?, ?> output = ReflectionUtils.newInstance(job.getOutputFormatClass(), conf);
-        TaskAttemptID id = new TaskAttemptID(new TaskID(job.getJobID(), TaskType.REDUCE, 0), 0);
+        TaskAttemptID id = new TaskAttemptID(new TaskID(job.getJobID(), TaskType.REDUCE, partition), 0);
         Reducer<?, ?, ?, ?> reducer = ReflectionUtils.newInstance(job.getReducerClass(), conf);
         if (LOG.isDebugEnabled()) {
+            long records = 0;
+            long bytes = 0;
+            for (KeyValueSorter<?, ?> sorter : sorters) {
+                records += sorter.getRecordCount();
+                bytes += sorter.getSizeInBytes();
+            }
             LOG.debug(MessageFormat.format(
                     "starting reducer: {0}@{1} ({2}records, {3}bytes)", //$NON-NLS-1$
                     reducer.getClass().getName(),
                     id,
-                    sorter.getRecordCount(),
-                    sorter.getSizeInBytes()));
+                    records,
+                    bytes));
         }
+        KeyValueSorter<?, ?> first = sorters.get(0);
         TaskAttemptContext context = new TaskAttemptContextImpl(conf, id);
         OutputCommitter committer = output.getOutputCommitter(context);
         committer.setupTask(context);
         boolean succeed = false;
         try {
-            ShuffleReader reader = new ShuffleReader(sorter, new Progress());
+            ShuffleReader reader = new ShuffleReader(sorters, new Progress());
             try {
                 RecordWriter<?, ?> writer = output.getRecordWriter(new TaskAttemptContextImpl(conf, id));
                 try {
@@ -229,7 +568,7 @@ public class SimpleJobRunner implements JobRunner {
                             new GenericCounter(),
                             writer, committer, new MockStatusReporter(),
                             (RawComparator) job.getGroupingComparator(),
-                            sorter.getKeyClass(), sorter.getValueClass()));
+                            first.getKeyClass(), first.getValueClass()));
                     reducer.run(c);
                 } finally {
                     writer.close(new TaskAttemptContextImpl(conf, id));
@@ -270,29 +609,38 @@ public class SimpleJobRunner implements JobRunner {
         }
     }
 
-    private <K, V> KeyValueSorter<?, ?> createSorter(Job job, Class<K> key, Class<V> value) {
-        KeyValueSorter.Options options = getSorterOptions(job.getConfiguration());
+    private <K, V> KeyValueSorter<?, ?> createSorter(
+            Job job, Class<K> key, Class<V> value,
+            int combinerSerial, int bufferSize) throws ClassNotFoundException {
+        KeyValueSorter.Options options = getSorterOptions(job.getConfiguration(), bufferSize);
+        Class<? extends Reducer<?, ?, ?, ?>> combinerClass = job.getCombinerClass();
+        if (combinerClass != null) {
+            TaskAttemptID id = new TaskAttemptID(new TaskID(job.getJobID(), TaskType.MAP, combinerSerial), 0);
+            options.withCombiner(() -> new ShuffleCombiner<>(
+                    job.getConfiguration(), id,
+                    combinerClass, job.getCombinerKeyGroupingComparator(),
+                    key, value));
+        }
         if (LOG.isDebugEnabled()) {
             LOG.debug(MessageFormat.format(
-                    "shuffle buffer size: {1}bytes/page, {2}bytes/block, compression:{3} ({0})", //$NON-NLS-1$
+                    "shuffle buffer size: {1}bytes/page, {2}bytes/block, compression:{3}, " //$NON-NLS-1$
+                    + "async:{4}, sort-parallelism:{5}, combiner:{6} ({0})", //$NON-NLS-1$
                     job.getJobName(),
                     options.getPageSize(),
                     options.getBlockSize(),
-                    options.isCompressBlock()));
+                    options.isCompressBlock(),
+                    options.isAsyncFlush(),
+                    options.getSortParallelism(),
+                    combinerClass == null ? "N/A" : combinerClass.getName())); //$NON-NLS-1$
         }
         return new KeyValueSorter<>(
                 new SerializationFactory(job.getConfiguration()),
-                key, value, job.getSortComparator(),
+                key, value, job::getSortComparator,
                 options);
     }
 
-    private KeyValueSorter.Options getSorterOptions(Configuration configuration) {
-        long bufferSize = configuration.getLong(KEY_BUFFER_SIZE, -1);
-        if (bufferSize < 0) {
-            bufferSize = DEFAULT_BUFFER_SIZE;
-        } else {
-            bufferSize = Math.max(MIN_BUFFER_SIZE, Math.min(MAX_BUFFER_SIZE, bufferSize));
-        }
+    private KeyValueSorter.Options getSorterOptions(Configuration configuration, int bufferSize) {
+        assert bufferSize >= 1;
         File temporaryDirectory = null;
         String tempdirString = configuration.get(KEY_TEMPORARY_LOCATION);
         if (tempdirString != null) {
@@ -305,10 +653,17 @@ public class SimpleJobRunner implements JobRunner {
             }
         }
         boolean compress = configuration.getBoolean(KEY_COMPRESS_BLOCK, DEFAULT_COMPRESS_BLOCK);
-        KeyValueSorter.Options options = new KeyValueSorter.Options()
-            .withBufferSize((int) bufferSize)
+        boolean async = configuration.getBoolean(KEY_ASYNC_FLUSH, DEFAULT_ASYNC_FLUSH);
+        int sortParallelism = getParallelism(configuration, KEY_SORT_PARALLELISM, DEFAULT_SORT_PARALLELISM);
+        KeyValueSorter.Options options = new KeyValueSorter.Options();
+        int mergeFanIn = configuration.getInt(KEY_MERGE_FAN_IN, options.getMergeFanIn());
+        options
+            .withBufferSize(bufferSize)
             .withTemporaryDirectory(temporaryDirectory)
-            .withCompressBlock(compress);
+            .withCompressBlock(compress)
+            .withAsyncFlush(async)
+            .withSortParallelism(sortParallelism)
+            .withMergeFanIn(mergeFanIn);
         return options;
     }
 
@@ -317,7 +672,13 @@ public class SimpleJobRunner implements JobRunner {
         return "Asakusa built-in job runner";
     }
 
-    private static final class MockStatusReporter extends StatusReporter {
+    @FunctionalInterface
+    private interface Worker {
+
+        void run(int slot, AtomicBoolean cancelled) throws IOException, InterruptedException, ClassNotFoundException;
+    }
+
+    static final class MockStatusReporter extends StatusReporter {
 
         MockStatusReporter() {
             return;
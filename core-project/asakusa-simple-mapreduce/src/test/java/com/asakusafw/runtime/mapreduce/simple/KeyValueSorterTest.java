@@ -20,9 +20,17 @@ import static org.junit.Assert.*;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.function.Supplier;
 
 import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.RawComparator;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.io.serializer.SerializationFactory;
 import org.junit.Rule;
@@ -32,6 +40,7 @@ import org.junit.rules.TemporaryFolder;
 
 import com.asakusafw.runtime.io.util.DataBuffer;
 import com.asakusafw.runtime.util.hadoop.ConfigurationProvider;
+import com.asakusafw.utils.io.Sink;
 import com.asakusafw.utils.io.Source;
 
 /**
@@ -68,6 +77,10 @@ public class KeyValueSorterTest {
 
     KeyValueSorter<IntWritable, Text> sorter;
 
+    KeyValueSorter.Options options = new KeyValueSorter.Options().withBufferSize(0);
+
+    Supplier<? extends RawComparator<?>> comparators;
+
     final IntWritable keyWritable = new IntWritable();
 
     final Text valueWritable = new Text();
@@ -157,6 +170,158 @@ public class KeyValueSorterTest {
         assertThat(results.next(), is(false));
     }
 
+    /**
+     * random keys.
+     * @throws Exception if failed
+     */
+    @Test
+    public void random() throws Exception {
+        int count = 50000;
+        Random random = new Random(6502);
+        int[] values = new int[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = random.nextInt();
+            put(values[i]);
+        }
+        Arrays.sort(values);
+        Source<IntWritable> results = sort();
+        for (int value : values) {
+            check(results, value);
+        }
+        assertThat(results.next(), is(false));
+    }
+
+    /**
+     * extra-large case w/ background flushing.
+     * @throws Exception if failed
+     */
+    @Test
+    public void xlarge_async() throws Exception {
+        options.withAsyncFlush(true);
+        xlarge();
+    }
+
+    /**
+     * total buffer size includes the spare page buffer for background flushing.
+     */
+    @Test
+    public void options_buffer_async() {
+        int total = 64 * 1024 * 1024;
+        KeyValueSorter.Options sync = new KeyValueSorter.Options().withBufferSize(total);
+        KeyValueSorter.Options async = new KeyValueSorter.Options().withBufferSize(total).withAsyncFlush(true);
+        assertThat(async.getPageSize(), is(lessThan(sync.getPageSize())));
+        assertThat((long) async.getPageSize() * 2 * 5 / 4 + async.getBlockSize(), is(lessThanOrEqualTo((long) total)));
+    }
+
+    /**
+     * extra-large case w/ parallel sorting.
+     * @throws Exception if failed
+     */
+    @Test
+    public void xlarge_parallel() throws Exception {
+        comparators = IntWritable.Comparator::new;
+        options.withBufferSize(16 * 1024 * 1024).withSortParallelism(4);
+        xlarge();
+    }
+
+    /**
+     * extra-large case w/ background flushing and parallel sorting.
+     * @throws Exception if failed
+     */
+    @Test
+    public void xlarge_async_parallel() throws Exception {
+        comparators = IntWritable.Comparator::new;
+        options.withBufferSize(16 * 1024 * 1024).withAsyncFlush(true).withSortParallelism(4);
+        xlarge();
+    }
+
+    /**
+     * extra-large case w/ comparator factory.
+     * @throws Exception if failed
+     */
+    @Test
+    public void xlarge_factory() throws Exception {
+        comparators = IntWritable.Comparator::new;
+        xlarge();
+    }
+
+    /**
+     * extra-large case w/ comparator factory and background flushing.
+     * @throws Exception if failed
+     */
+    @Test
+    public void xlarge_async_factory() throws Exception {
+        comparators = IntWritable.Comparator::new;
+        options.withAsyncFlush(true);
+        xlarge();
+    }
+
+    /**
+     * extra-large case w/ parallel sorting, but the single comparator cannot be shared.
+     * @throws Exception if failed
+     */
+    @Test
+    public void xlarge_parallel_single_comparator() throws Exception {
+        options.withBufferSize(16 * 1024 * 1024).withAsyncFlush(true).withSortParallelism(4);
+        xlarge();
+    }
+
+    /**
+     * extra-large case w/ small merge fan-in.
+     * @throws Exception if failed
+     */
+    @Test
+    public void xlarge_fanin() throws Exception {
+        options.withMergeFanIn(3);
+        xlarge();
+    }
+
+    /**
+     * extra-large case w/ small merge fan-in and background compaction.
+     * @throws Exception if failed
+     */
+    @Test
+    public void xlarge_async_fanin() throws Exception {
+        options.withAsyncFlush(true).withMergeFanIn(3);
+        xlarge();
+    }
+
+    /**
+     * extra-large case w/ combiner.
+     * @throws Exception if failed
+     */
+    @Test
+    public void xlarge_combine() throws Exception {
+        options.withCombiner(DistinctCombiner::new);
+        int count = 100000;
+        for (int i = 0; i < count; i++) {
+            put(100);
+            put(300);
+            put(200);
+            put(400);
+        }
+        Source<IntWritable> results = sort();
+        List<Integer> keys = new ArrayList<>();
+        while (results.next()) {
+            keys.add(results.get().get());
+        }
+        List<Integer> sorted = new ArrayList<>(keys);
+        Collections.sort(sorted);
+        assertThat(keys, is(sorted));
+        assertThat(new TreeSet<>(keys), contains(100, 200, 300, 400));
+        assertThat(keys.size(), is(lessThan(count)));
+    }
+
+    /**
+     * extra-large case w/ combiner and background flushing.
+     * @throws Exception if failed
+     */
+    @Test
+    public void xlarge_async_combine() throws Exception {
+        options.withAsyncFlush(true);
+        xlarge_combine();
+    }
+
     private void check(Source<IntWritable> results, int expected) throws IOException, InterruptedException {
         assertTrue(results.next());
         assertEquals(expected, results.get().get());
@@ -174,14 +339,22 @@ public class KeyValueSorterTest {
 
     private KeyValueSorter<IntWritable, Text> sorter() throws IOException {
         if (sorter == null) {
-            sorter = manage(new KeyValueSorter<>(
-                    new SerializationFactory(new ConfigurationProvider().newInstance()),
-                    IntWritable.class,
-                    Text.class,
-                    new IntWritable.Comparator(),
-                    new KeyValueSorter.Options()
-                        .withBufferSize(0)
-                        .withTemporaryDirectory(temporaryFolder.newFolder())));
+            options.withTemporaryDirectory(temporaryFolder.newFolder());
+            if (comparators == null) {
+                sorter = manage(new KeyValueSorter<>(
+                        new SerializationFactory(new ConfigurationProvider().newInstance()),
+                        IntWritable.class,
+                        Text.class,
+                        new IntWritable.Comparator(),
+                        options));
+            } else {
+                sorter = manage(new KeyValueSorter<>(
+                        new SerializationFactory(new ConfigurationProvider().newInstance()),
+                        IntWritable.class,
+                        Text.class,
+                        comparators,
+                        options));
+            }
         }
         return sorter;
     }
@@ -191,6 +364,44 @@ public class KeyValueSorterTest {
         return object;
     }
 
+    private static final class DistinctCombiner implements KeyValueSorter.Combiner {
+
+        private final DataBuffer last = new DataBuffer();
+
+        DistinctCombiner() {
+            return;
+        }
+
+        @Override
+        public void combine(
+                Source<KeyValueSlice> input, Sink<KeyValueSlice> output) throws IOException, InterruptedException {
+            boolean first = true;
+            while (input.next()) {
+                KeyValueSlice slice = input.get();
+                if (first || isSameKey(slice) == false) {
+                    last.reset(0, 0);
+                    last.write(slice.getBytes(), slice.getKeyOffset(), slice.getKeyLength());
+                    output.put(slice);
+                    first = false;
+                }
+            }
+        }
+
+        private boolean isSameKey(KeyValueSlice slice) {
+            if (slice.getKeyLength() != last.getWritePosition()) {
+                return false;
+            }
+            byte[] a = last.getData();
+            byte[] b = slice.getBytes();
+            for (int i = 0, n = slice.getKeyLength(); i < n; i++) {
+                if (a[i] != b[slice.getKeyOffset() + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
     private static final class DeserSource implements Source<IntWritable> {
 
         private final Source<KeyValueSlice> origin;
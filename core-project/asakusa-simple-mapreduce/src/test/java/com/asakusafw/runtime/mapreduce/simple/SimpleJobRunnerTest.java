@@ -30,6 +30,7 @@ import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Scanner;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
@@ -138,6 +139,277 @@ public class SimpleJobRunnerTest {
         })));
     }
 
+    /**
+     * Test for map-reduce job with parallel mappers.
+     * @throws Exception if failed
+     */
+    @Test
+    public void map_reduce_parallel() throws Exception {
+        Job job = newJob();
+        job.getConfiguration().setInt(SimpleJobRunner.KEY_MAP_PARALLELISM, 3);
+        job.setInputFormatClass(TextInputFormat.class);
+        job.setOutputFormatClass(TextOutputFormat.class);
+
+        job.setMapperClass(WordCountMapper.class);
+        job.setMapOutputKeyClass(Text.class);
+        job.setMapOutputValueClass(LongWritable.class);
+
+        job.setSortComparatorClass(Text.Comparator.class);
+        job.setGroupingComparatorClass(Text.Comparator.class);
+
+        job.setReducerClass(WordCountReducer.class);
+        job.setNumReduceTasks(1);
+        job.setOutputKeyClass(Text.class);
+        job.setOutputValueClass(LongWritable.class);
+
+        File inputDir = folder.newFolder();
+        write(new File(inputDir, "input-0.txt"), "a b c d");
+        write(new File(inputDir, "input-1.txt"), "a a b c");
+        write(new File(inputDir, "input-2.txt"), "c");
+        write(new File(inputDir, "input-3.txt"), "e a");
+        write(new File(inputDir, "input-4.txt"), "d");
+
+        File outputDir = folder.newFolder();
+        outputDir.delete();
+
+        FileInputFormat.setInputPaths(job, new Path(inputDir.toURI()));
+        FileOutputFormat.setOutputPath(job, new Path(outputDir.toURI()));
+        assertThat(new SimpleJobRunner().run(job), is(true));
+        assertThat(toMap(read(outputDir)), is(map(new String[] {
+                "a", "4",
+                "b", "2",
+                "c", "3",
+                "d", "2",
+                "e", "1",
+        })));
+    }
+
+    /**
+     * Test for map-reduce job with partitioned reducers.
+     * @throws Exception if failed
+     */
+    @Test
+    public void map_reduce_partitioned() throws Exception {
+        Job job = newJob();
+        job.getConfiguration().setInt(SimpleJobRunner.KEY_MAP_PARALLELISM, 2);
+        job.getConfiguration().setInt(SimpleJobRunner.KEY_REDUCE_PARALLELISM, 3);
+        job.setInputFormatClass(TextInputFormat.class);
+        job.setOutputFormatClass(TextOutputFormat.class);
+
+        job.setMapperClass(WordCountMapper.class);
+        job.setMapOutputKeyClass(Text.class);
+        job.setMapOutputValueClass(LongWritable.class);
+
+        job.setSortComparatorClass(Text.Comparator.class);
+        job.setGroupingComparatorClass(Text.Comparator.class);
+
+        job.setReducerClass(WordCountReducer.class);
+        job.setNumReduceTasks(4);
+        job.setOutputKeyClass(Text.class);
+        job.setOutputValueClass(LongWritable.class);
+
+        File inputDir = folder.newFolder();
+        write(new File(inputDir, "input-0.txt"), "a b c d");
+        write(new File(inputDir, "input-1.txt"), "a a b c");
+        write(new File(inputDir, "input-2.txt"), "c e f g");
+        write(new File(inputDir, "input-3.txt"), "e a g");
+
+        File outputDir = folder.newFolder();
+        outputDir.delete();
+
+        FileInputFormat.setInputPaths(job, new Path(inputDir.toURI()));
+        FileOutputFormat.setOutputPath(job, new Path(outputDir.toURI()));
+        assertThat(new SimpleJobRunner().run(job), is(true));
+        assertThat(toMap(read(outputDir)), is(map(new String[] {
+                "a", "4",
+                "b", "2",
+                "c", "3",
+                "d", "1",
+                "e", "2",
+                "f", "1",
+                "g", "2",
+        })));
+    }
+
+    /**
+     * Test for sharing the shuffle buffer between the individual sorters.
+     */
+    @Test
+    public void shuffle_buffer_budget() {
+        int mb = 1024 * 1024;
+
+        // 64MB for 2 slots x 2 partitions
+        assertThat(SimpleJobRunner.limitReducePartitions(64 * mb, 2), is(2));
+        assertThat(SimpleJobRunner.limitMapSlots(64 * mb, 2, 2), is(2));
+        assertThat(SimpleJobRunner.computeSorterBufferSize(64 * mb, 2 * 2), is(16 * mb));
+
+        // 64MB for 8 slots x 8 partitions: up to 32 sorters
+        assertThat(SimpleJobRunner.limitReducePartitions(64 * mb, 8), is(8));
+        assertThat(SimpleJobRunner.limitMapSlots(64 * mb, 8, 8), is(4));
+        assertThat(SimpleJobRunner.computeSorterBufferSize(64 * mb, 4 * 8), is(2 * mb));
+
+        // 5MB for 4 slots x 4 partitions: up to 2 sorters
+        assertThat(SimpleJobRunner.limitReducePartitions(5 * mb, 4), is(2));
+        assertThat(SimpleJobRunner.limitMapSlots(5 * mb, 4, 2), is(1));
+        assertThat(SimpleJobRunner.computeSorterBufferSize(5 * mb, 1 * 2), is(5 * mb / 2));
+
+        // 2MB for a single sorter
+        assertThat(SimpleJobRunner.limitReducePartitions(2 * mb, 3), is(1));
+        assertThat(SimpleJobRunner.limitMapSlots(2 * mb, 3, 1), is(1));
+        assertThat(SimpleJobRunner.computeSorterBufferSize(2 * mb, 1), is(2 * mb));
+    }
+
+    /**
+     * map-reduce w/ combiner.
+     * @throws Exception if failed
+     */
+    @Test
+    public void map_reduce_combine() throws Exception {
+        Job job = newJob();
+        job.getConfiguration().setLong(SimpleJobRunner.KEY_BUFFER_SIZE, 0);
+        job.setInputFormatClass(TextInputFormat.class);
+        job.setOutputFormatClass(TextOutputFormat.class);
+
+        job.setMapperClass(WordCountMapper.class);
+        job.setMapOutputKeyClass(Text.class);
+        job.setMapOutputValueClass(LongWritable.class);
+
+        job.setSortComparatorClass(Text.Comparator.class);
+        job.setGroupingComparatorClass(Text.Comparator.class);
+
+        job.setCombinerClass(WordCountReducer.class);
+        job.setReducerClass(WordCountReducer.class);
+        job.setOutputKeyClass(Text.class);
+        job.setOutputValueClass(LongWritable.class);
+
+        File inputDir = folder.newFolder();
+        String[] lines = new String[100000];
+        Arrays.fill(lines, "a b c a");
+        write(new File(inputDir, "input-0.txt"), lines);
+        write(new File(inputDir, "input-1.txt"), "d");
+
+        File outputDir = folder.newFolder();
+        outputDir.delete();
+
+        FileInputFormat.setInputPaths(job, new Path(inputDir.toURI()));
+        FileOutputFormat.setOutputPath(job, new Path(outputDir.toURI()));
+        assertThat(new SimpleJobRunner().run(job), is(true));
+        assertThat(toMap(read(outputDir)), is(map(new String[] {
+                "a", "200000",
+                "b", "100000",
+                "c", "100000",
+                "d", "1",
+        })));
+    }
+
+    /**
+     * map-reduce w/ combiner, and the combiners must have their own task attempt IDs.
+     * @throws Exception if failed
+     */
+    @Test
+    public void map_reduce_combine_task_id() throws Exception {
+        TaskIdMapper.TASKS.clear();
+        TaskIdCombiner.TASKS.clear();
+        Job job = newJob();
+        job.getConfiguration().setLong(SimpleJobRunner.KEY_BUFFER_SIZE, 0);
+        job.getConfiguration().setInt(SimpleJobRunner.KEY_MAP_PARALLELISM, 2);
+        job.setInputFormatClass(TextInputFormat.class);
+        job.setOutputFormatClass(TextOutputFormat.class);
+
+        job.setMapperClass(TaskIdMapper.class);
+        job.setMapOutputKeyClass(Text.class);
+        job.setMapOutputValueClass(LongWritable.class);
+
+        job.setSortComparatorClass(Text.Comparator.class);
+        job.setGroupingComparatorClass(Text.Comparator.class);
+
+        job.setCombinerClass(TaskIdCombiner.class);
+        job.setReducerClass(WordCountReducer.class);
+        job.setOutputKeyClass(Text.class);
+        job.setOutputValueClass(LongWritable.class);
+
+        File inputDir = folder.newFolder();
+        String[] lines = new String[100000];
+        Arrays.fill(lines, "a b c a");
+        write(new File(inputDir, "input-0.txt"), lines);
+        write(new File(inputDir, "input-1.txt"), lines);
+
+        File outputDir = folder.newFolder();
+        outputDir.delete();
+
+        FileInputFormat.setInputPaths(job, new Path(inputDir.toURI()));
+        FileOutputFormat.setOutputPath(job, new Path(outputDir.toURI()));
+        assertThat(new SimpleJobRunner().run(job), is(true));
+        assertThat(toMap(read(outputDir)), is(map(new String[] {
+                "a", "400000",
+                "b", "200000",
+                "c", "200000",
+        })));
+
+        assertThat(TaskIdMapper.TASKS, hasSize(2));
+        assertThat(TaskIdCombiner.TASKS, is(not(empty())));
+        for (String id : TaskIdCombiner.TASKS) {
+            assertThat(TaskIdMapper.TASKS, not(hasItem(id)));
+        }
+    }
+
+    /**
+     * Test for map only job with parallel mappers.
+     * @throws Exception if failed
+     */
+    @Test
+    public void map_only_parallel() throws Exception {
+        Job job = newJob();
+        job.getConfiguration().setInt(SimpleJobRunner.KEY_MAP_PARALLELISM, 4);
+        job.setInputFormatClass(TextInputFormat.class);
+        job.setOutputFormatClass(TextOutputFormat.class);
+        job.setMapperClass(SimpleMapper.class);
+        job.setNumReduceTasks(0);
+        job.setOutputKeyClass(LongWritable.class);
+        job.setOutputValueClass(Text.class);
+
+        File inputDir = folder.newFolder();
+        write(new File(inputDir, "input-0.txt"), "Hello0");
+        write(new File(inputDir, "input-1.txt"), "Hello1");
+        write(new File(inputDir, "input-2.txt"), "Hello2");
+
+        File outputDir = folder.newFolder();
+        outputDir.delete();
+
+        FileInputFormat.setInputPaths(job, new Path(inputDir.toURI()));
+        FileOutputFormat.setOutputPath(job, new Path(outputDir.toURI()));
+        assertThat(new SimpleJobRunner().run(job), is(true));
+        assertThat(trimHead(read(outputDir)), is(set("Hello0", "Hello1", "Hello2")));
+    }
+
+    /**
+     * Test for wrong job with parallel mappers.
+     * @throws Exception if failed
+     */
+    @Test
+    public void exception_parallel() throws Exception {
+        Job job = newJob();
+        job.setJobName("w/ exception");
+        job.getConfiguration().setInt(SimpleJobRunner.KEY_MAP_PARALLELISM, 2);
+        job.setInputFormatClass(TextInputFormat.class);
+        job.setOutputFormatClass(TextOutputFormat.class);
+        job.setMapperClass(InvalidMapper.class);
+        job.setNumReduceTasks(0);
+        job.setOutputKeyClass(LongWritable.class);
+        job.setOutputValueClass(Text.class);
+
+        File inputDir = folder.newFolder();
+        write(new File(inputDir, "input-0.txt"), "testing");
+        write(new File(inputDir, "input-1.txt"), "testing");
+
+        File outputDir = folder.newFolder();
+        outputDir.delete();
+
+        FileInputFormat.setInputPaths(job, new Path(inputDir.toURI()));
+        FileOutputFormat.setOutputPath(job, new Path(outputDir.toURI()));
+        assertThat(new SimpleJobRunner().run(job), is(false));
+    }
+
     /**
      * Simple stress testing.
      * @throws Exception if failed
@@ -336,6 +608,51 @@ public class SimpleJobRunnerTest {
         }
     }
 
+    /**
+     * tokenize, and records the task attempt IDs.
+     */
+    public static final class TaskIdMapper extends Mapper<LongWritable, Text, Text, LongWritable> {
+        static final Set<String> TASKS = ConcurrentHashMap.newKeySet();
+        LongWritable one = new LongWritable(1);
+        Text out = new Text();
+        @Override
+        protected void setup(Context context) {
+            TASKS.add(context.getTaskAttemptID().toString());
+        }
+        @Override
+        protected void map(LongWritable key, Text value, Context context) throws IOException, InterruptedException {
+            for (String token : value.toString().split("\\s+")) {
+                if (token.isEmpty()) {
+                    continue;
+                }
+                out.set(token);
+                context.write(out, one);
+            }
+        }
+    }
+
+    /**
+     * aggregate, and records the task attempt IDs.
+     */
+    public static final class TaskIdCombiner extends Reducer<Text, LongWritable, Text, LongWritable> {
+        static final Set<String> TASKS = ConcurrentHashMap.newKeySet();
+        LongWritable count = new LongWritable(1);
+        @Override
+        protected void setup(Context context) {
+            TASKS.add(context.getTaskAttemptID().toString());
+        }
+        @Override
+        protected void reduce(Text key, Iterable<LongWritable> values, Context context)
+                throws IOException, InterruptedException {
+            long total = 0;
+            for (LongWritable value : values) {
+                total += value.get();
+            }
+            count.set(total);
+            context.write(key, count);
+        }
+    }
+
     /**
      * raise I/O error.
      */
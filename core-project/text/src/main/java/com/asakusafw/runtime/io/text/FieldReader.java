@@ -17,10 +17,12 @@ package com.asakusafw.runtime.io.text;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * An abstract super interface which extracting records and their fields.
  * @since 0.9.1
+ * @version 0.10.5
  */
 public interface FieldReader extends Closeable {
 
@@ -58,6 +60,29 @@ public interface FieldReader extends Closeable {
      */
     CharSequence getContent();
 
+    /**
+     * Returns whether or not this reader can provide the field contents as UTF-8 byte sequences.
+     * @return {@code true} if {@link #getUtf8Content()} is available, otherwise {@code false}
+     * @since 0.10.5
+     */
+    default boolean isUtf8ContentSupported() {
+        return false;
+    }
+
+    /**
+     * Returns the content of the current field as UTF-8 byte sequence.
+     * Unlike {@link #getContent()}, the returned buffer is not decoded into characters.
+     * Note that the buffer contents may be changed after the cursor was moved,
+     * and it may contain malformed byte sequences.
+     * @return the content between the buffer position and limit, or {@code null} if this represents {@code NULL}
+     * @throws TextFormatException if text format is not valid
+     * @throws UnsupportedOperationException if {@link #isUtf8ContentSupported()} is {@code false}
+     * @since 0.10.5
+     */
+    default ByteBuffer getUtf8Content() {
+        throw new UnsupportedOperationException();
+    }
+
     /**
      * Returns the number of line where the current <em>RECORD</em> starts.
      * @return the line number (0-origin), or {@code -1} if it is not sure
@@ -0,0 +1,413 @@
+/**
+ * Copyright 2011-2021 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.runtime.io.text.csv;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.MessageFormat;
+import java.util.Arrays;
+
+import com.asakusafw.runtime.io.text.TextFormatException;
+import com.asakusafw.runtime.io.text.TextUtil;
+
+/**
+ * Extracts records delimited by line separator characters from UTF-8 byte sequences.
+ * The quote character and field separator must be ASCII characters.
+ * @see LineCursor
+ * @since 0.10.5
+ */
+final class ByteLineCursor implements Closeable {
+
+    static final int READ_BUFFER_SIZE = 4096;
+
+    private static final int EOF = -1;
+
+    private static final int MIN_LINE_BUFFER_SIZE = 256;
+
+    private final InputStream input;
+
+    private final char quoteCharacter;
+
+    private final char fieldSeparator;
+
+    private final boolean denyLineFeedInQuote;
+
+    private byte[] lineBuffer = new byte[MIN_LINE_BUFFER_SIZE];
+
+    private int lineLength = 0;
+
+    private final byte[] readBuffer = new byte[READ_BUFFER_SIZE];
+
+    private int readOffset = 0;
+
+    private int readLimit = 0;
+
+    private int emitOffset = 0;
+
+    private long currentLineNumber = -1L;
+
+    private long nextLineNumber = 0L;
+
+    private boolean sawInvalidLineFeed = false;
+
+    ByteLineCursor(InputStream input, char quoteCharacter, char fieldSeparator, boolean allowLineFeed) {
+        assert quoteCharacter < 0x80;
+        assert fieldSeparator < 0x80;
+        this.input = input;
+        this.quoteCharacter = quoteCharacter;
+        this.fieldSeparator = fieldSeparator;
+        this.denyLineFeedInQuote = allowLineFeed == false;
+    }
+
+    public boolean next() throws IOException {
+        State state = State.BEGIN_RECORD;
+        lineLength = 0;
+        currentLineNumber = nextLineNumber;
+        do {
+            int c = get();
+            switch (state) {
+            case BEGIN_RECORD:
+                state = doBeginRecord(c);
+                break;
+            case BEGIN_FIELD:
+                state = doBeginField(c);
+                break;
+            case BARE_BODY:
+                state = doBareBody(c);
+                break;
+            case BODY_SAW_CR:
+                state = doBodySawCr(c);
+                break;
+            case QUOTE_BODY:
+                state = doQuoteBody(c);
+                break;
+            case QUOTE_BODY_SAW_CR:
+                state = doQuoteBodySawCr(c);
+                break;
+            case QUOTE_BODY_SAW_QUOTE:
+                state = doQuoteBodySawQuote(c);
+                break;
+            default:
+                throw new AssertionError(state);
+            }
+        } while (state.more);
+        if (sawInvalidLineFeed) {
+            sawInvalidLineFeed = false;
+            throw new TextFormatException(MessageFormat.format(
+                    "no line-feed in quote is allowed: {0}",
+                    TextUtil.quote(StandardCharsets.UTF_8.decode(ByteBuffer.wrap(lineBuffer, 0, lineLength)))));
+        }
+        return state == State.END_OF_RECORD;
+    }
+
+    private State doBeginRecord(int c) {
+        if (c == EOF) {
+            return State.END_OF_CONTENT;
+        } else {
+            return doBeginField(c);
+        }
+    }
+
+    // ^ ...
+    private State doBeginField(int c) {
+        if (c == quoteCharacter) {
+            // ^ QUOTE
+            return State.QUOTE_BODY;
+        } else if (c == fieldSeparator) {
+            // ^ FS
+            return State.BEGIN_FIELD; // empty field
+        } else if (c == '\r') {
+            // ^ CR
+            return State.BODY_SAW_CR;
+        } else if (c == '\n') {
+            // ^ LF
+            nextLineNumber++;
+            emit(-1);
+            return State.END_OF_RECORD;
+        } else if (c == EOF) {
+            // ^ EOF
+            emit(0);
+            return State.END_OF_RECORD;
+        } else {
+            // ^ c
+            return State.BARE_BODY;
+        }
+    }
+
+    // ^ !QUOTE ...
+    private State doBareBody(int c) {
+        if (c == quoteCharacter) {
+            // QUOTE
+            // NOTE: unexpected quote in bare body
+            return State.BARE_BODY;
+        } else if (c == fieldSeparator) {
+            // FS
+            return State.BEGIN_FIELD;
+        } else if (c == '\r') {
+            // CR
+            return State.BODY_SAW_CR;
+        } else if (c == '\n') {
+            // LF
+            nextLineNumber++;
+            emit(-1);
+            return State.END_OF_RECORD;
+        } else if (c == EOF) {
+            // EOF
+            emit(0);
+            return State.END_OF_RECORD;
+        } else {
+            // c
+            return State.BARE_BODY;
+        }
+    }
+
+    // CR, ...
+    private State doBodySawCr(int c) {
+        nextLineNumber++;
+        if (c == '\n') {
+            // CR LF
+            emit(-2);
+            return State.END_OF_RECORD;
+        } else if (c == EOF) {
+            // CR EOF
+            emit(-1);
+            return State.END_OF_RECORD;
+        } else {
+            // CR c
+            // CR QUOTE
+            // CR FS
+            // CR CR
+            pushBack();
+            emit(-1);
+            return State.END_OF_RECORD;
+        }
+    }
+
+    // ^ QUOTE, *, ...
+    private State doQuoteBody(int c) {
+        if (c == quoteCharacter) {
+            // (in-quote) QUOTE
+            return State.QUOTE_BODY_SAW_QUOTE;
+        } else if (c == '\r') {
+            // (in-quote) CR
+            return State.QUOTE_BODY_SAW_CR;
+        } else if (c == '\n') {
+            // (in-quote) LF
+            recordLineFeedInQuote();
+            nextLineNumber++;
+            return State.QUOTE_BODY;
+        } else if (c == EOF) {
+            // (in-quote) EOF
+            // NOTE: unexpected end of file
+            emit(0);
+            return State.END_OF_RECORD;
+        } else {
+            // (in-quote) c
+            // (in-quote) FS
+            return State.QUOTE_BODY;
+        }
+    }
+
+    // ^ QUOTE, *, CR, ...
+    private State doQuoteBodySawCr(int c) {
+        nextLineNumber++;
+        if (c == quoteCharacter) {
+            // (in-quote) CR QUOTE
+            return State.QUOTE_BODY_SAW_QUOTE;
+        } else if (c == '\r') {
+            // (in-quote) CR CR
+            return State.QUOTE_BODY_SAW_CR;
+        } else if (c == '\n') {
+            // (in-quote) CR LF
+            recordLineFeedInQuote();
+            return State.QUOTE_BODY;
+        } else if (c == EOF) {
+            // (in-quote) EOF
+            // NOTE: unexpected end of file
+            emit(0);
+            return State.END_OF_RECORD;
+        } else {
+            // (in-quote) c
+            // (in-quote) FS
+            // (in-quote) LF
+            return State.QUOTE_BODY;
+        }
+    }
+
+    // ^ QUOTE, *, QUOTE, ...
+    private State doQuoteBodySawQuote(int c) {
+        if (c == quoteCharacter) {
+            // (in-quote) QUOTE QUOTE
+            return State.QUOTE_BODY;
+        } else if (c == fieldSeparator) {
+            // (in-quote) QUOTE FS
+            return State.BEGIN_FIELD;
+        } else if (c == '\r') {
+            // (in-quote) QUOTE CR
+            return State.BODY_SAW_CR;
+        } else if (c == '\n') {
+            // (in-quote) QUOTE LF
+            nextLineNumber++;
+            emit(-1);
+            return State.END_OF_RECORD;
+        } else if (c == EOF) {
+            // (in-quote) QUOTE EOF
+            emit(0);
+            return State.END_OF_RECORD;
+        } else {
+            // (in-quote) QUOTE c
+            // NOTE: unexpected end of quote
+            return State.QUOTE_BODY;
+        }
+    }
+
+    private void recordLineFeedInQuote() {
+        if (denyLineFeedInQuote) {
+            sawInvalidLineFeed = true;
+        }
+    }
+
+    private int get() throws IOException {
+        if (prepareBuffer()) {
+            return readBuffer[readOffset++] & 0xff;
+        }
+        return EOF;
+    }
+
+    private void pushBack() {
+        assert readOffset != 0;
+        readOffset--;
+    }
+
+    private void emit(int offset) {
+        assert offset <= 0;
+        int flushLimit = readOffset + offset;
+        if (flushLimit > emitOffset) {
+            // remains characters to emit
+            flush(flushLimit);
+        } else {
+            // some characters were already emitted
+            int dropCount = emitOffset - flushLimit;
+            if (dropCount > 0) {
+                assert lineLength >= dropCount;
+                lineLength -= dropCount;
+            }
+        }
+        emitOffset = readOffset;
+    }
+
+    private boolean prepareBuffer() throws IOException {
+        if (readOffset < readLimit) {
+            return true;
+        }
+        // is read buffer full?
+        if (readLimit == readBuffer.length) {
+            flush(readLimit);
+            emitOffset = 0;
+            readLimit = 0;
+            readOffset = 0;
+        }
+        // read to buffer
+        int count = input.read(readBuffer, readLimit, readBuffer.length - readLimit);
+        if (count < 0) {
+            return false;
+        } else if (count > 0) {
+            readLimit += count;
+            return true;
+        }
+        // for non-blocking streams?
+        int c = input.read();
+        if (c < 0) {
+            return false;
+        } else {
+            readBuffer[readLimit++] = (byte) c;
+            return true;
+        }
+    }
+
+    private void flush(int end) {
+        int offset = emitOffset;
+        assert offset <= end;
+        if (offset < end) {
+            int count = end - offset;
+            int required = lineLength + count;
+            if (required > lineBuffer.length) {
+                lineBuffer = Arrays.copyOf(lineBuffer, Math.max(required, lineBuffer.length * 2));
+            }
+            System.arraycopy(readBuffer, offset, lineBuffer, lineLength, count);
+            lineLength = required;
+        }
+        emitOffset = end;
+    }
+
+    public long getLineNumber() {
+        return currentLineNumber;
+    }
+
+    /**
+     * Returns the buffer of the current line.
+     * Note that, the buffer may be changed after {@link #next()} was invoked.
+     * @return the buffer, its contents are available until {@link #getLength()}
+     */
+    public byte[] getBuffer() {
+        return lineBuffer;
+    }
+
+    /**
+     * Returns the length of the current line in bytes.
+     * @return the number of bytes
+     */
+    public int getLength() {
+        return lineLength;
+    }
+
+    @Override
+    public void close() throws IOException {
+        currentLineNumber = -1;
+        input.close();
+    }
+
+    private enum State {
+
+        BEGIN_RECORD(true),
+
+        BEGIN_FIELD(true),
+
+        BARE_BODY(true),
+
+        BODY_SAW_CR(true),
+
+        QUOTE_BODY(true),
+
+        QUOTE_BODY_SAW_QUOTE(true),
+
+        QUOTE_BODY_SAW_CR(true),
+
+        END_OF_RECORD(false),
+
+        END_OF_CONTENT(false),
+        ;
+
+        final boolean more;
+
+        State(boolean more) {
+            this.more = more;
+        }
+    }
+}
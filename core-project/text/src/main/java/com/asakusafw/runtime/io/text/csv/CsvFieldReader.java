@@ -16,8 +16,12 @@
 package com.asakusafw.runtime.io.text.csv;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.text.MessageFormat;
+import java.util.Arrays;
 import java.util.NoSuchElementException;
 import java.util.function.UnaryOperator;
 
@@ -30,6 +34,7 @@ import com.asakusafw.runtime.io.text.TextUtil;
 /**
  * A {@link FieldReader} for RFC4180 style CSV files.
  * @since 0.9.1
+ * @version 0.10.5
  */
 public class CsvFieldReader implements FieldReader {
 
@@ -37,8 +42,12 @@ public class CsvFieldReader implements FieldReader {
 
     private static final int EOF = -1;
 
+    private static final int ASCII_LIMIT = 0x80;
+
     private final LineCursor lineCursor;
 
+    private final ByteLineCursor byteLineCursor;
+
     private final char fieldSeparator;
 
     private final char quoteCharacter;
@@ -49,6 +58,14 @@ public class CsvFieldReader implements FieldReader {
 
     private final StringBuilder fieldBuffer = new StringBuilder();
 
+    private byte[] fieldBytes;
+
+    private int fieldBytesLength;
+
+    private ByteBuffer fieldBytesView;
+
+    private CharSequence decodedField;
+
     private int nextReadIndex = -1;
 
     private long currentRecordIndex = -1;
@@ -71,16 +88,67 @@ public class CsvFieldReader implements FieldReader {
             boolean allowLineFeed,
             UnaryOperator<CharSequence> transformer) {
         this.lineCursor = new LineCursor(reader, quoteCharacter, fieldSeparator, allowLineFeed);
+        this.byteLineCursor = null;
         this.fieldSeparator = fieldSeparator;
         this.quoteCharacter = quoteCharacter;
         this.transformer = transformer == null ? UnaryOperator.identity() : transformer;
     }
 
+    /**
+     * Creates a new instance which reads UTF-8 encoded byte stream without decoding it.
+     * The field separator and quote character must be ASCII characters.
+     * @param input the source byte stream
+     * @param fieldSeparator the field separator character
+     * @param quoteCharacter the quote character
+     * @param allowLineFeed {@code true} to allow LF in field, otherwise {@code false}
+     * @throws IllegalArgumentException if the field separator or quote character is not an ASCII character
+     * @see #isByteStreamSupported(char, char)
+     * @since 0.10.5
+     */
+    public CsvFieldReader(
+            InputStream input,
+            char fieldSeparator, char quoteCharacter,
+            boolean allowLineFeed) {
+        if (isByteStreamSupported(fieldSeparator, quoteCharacter) == false) {
+            throw new IllegalArgumentException(MessageFormat.format(
+                    "field separator and quote character must be ASCII characters: {0}, {1}",
+                    fieldSeparator,
+                    quoteCharacter));
+        }
+        this.lineCursor = null;
+        this.byteLineCursor = new ByteLineCursor(input, quoteCharacter, fieldSeparator, allowLineFeed);
+        this.fieldSeparator = fieldSeparator;
+        this.quoteCharacter = quoteCharacter;
+        this.transformer = UnaryOperator.identity();
+        this.fieldBytes = new byte[256];
+    }
+
+    /**
+     * Returns whether or not the given settings can read byte streams without decoding them.
+     * @param fieldSeparator the field separator character
+     * @param quoteCharacter the quote character
+     * @return {@code true} if they are available for {@link #CsvFieldReader(InputStream, char, char, boolean)},
+     *     otherwise {@code false}
+     * @since 0.10.5
+     */
+    public static boolean isByteStreamSupported(char fieldSeparator, char quoteCharacter) {
+        return fieldSeparator < ASCII_LIMIT && quoteCharacter < ASCII_LIMIT;
+    }
+
     @Override
     public boolean nextRecord() throws IOException {
         lastState = State.BEFORE_RECORD;
         currentLine = null;
         currentFieldIndex = -1;
+        if (byteLineCursor != null) {
+            if (byteLineCursor.next()) {
+                nextReadIndex = 0;
+                currentRecordIndex++;
+                return true;
+            }
+            currentRecordIndex = -1;
+            return false;
+        }
         while (lineCursor.next()) {
             CharSequence s = transformer.apply(lineCursor.getContent());
             if (s == null) {
@@ -104,29 +172,25 @@ public class CsvFieldReader implements FieldReader {
             return false;
         }
         State state = State.BEGIN_FIELD;
-        CharSequence line = currentLine;
-        assert line != null;
         fieldBuffer.setLength(0);
+        fieldBytesLength = 0;
+        decodedField = null;
         int index = nextReadIndex;
-        do {
-            int c = index == line.length() ? EOF : line.charAt(index++);
-            switch (state) {
-            case BEGIN_FIELD:
-                state = doBeginField(c);
-                break;
-            case BARE_BODY:
-                state = doBareBody(c);
-                break;
-            case QUOTE_BODY:
-                state = doQuoteBody(c);
-                break;
-            case QUOTE_BODY_SAW_QUOTE:
-                state = doQuoteBodySawQuote(c);
-                break;
-            default:
-                throw new AssertionError(lastState);
-            }
-        } while (state.moreCharacters);
+        if (byteLineCursor != null) {
+            byte[] line = byteLineCursor.getBuffer();
+            int length = byteLineCursor.getLength();
+            do {
+                int c = index == length ? EOF : line[index++] & 0xff;
+                state = doNext(state, c);
+            } while (state.moreCharacters);
+        } else {
+            CharSequence line = currentLine;
+            assert line != null;
+            do {
+                int c = index == line.length() ? EOF : line.charAt(index++);
+                state = doNext(state, c);
+            } while (state.moreCharacters);
+        }
 
         nextReadIndex = index;
         currentFieldIndex++;
@@ -134,6 +198,21 @@ public class CsvFieldReader implements FieldReader {
         return true;
     }
 
+    private State doNext(State state, int c) {
+        switch (state) {
+        case BEGIN_FIELD:
+            return doBeginField(c);
+        case BARE_BODY:
+            return doBareBody(c);
+        case QUOTE_BODY:
+            return doQuoteBody(c);
+        case QUOTE_BODY_SAW_QUOTE:
+            return doQuoteBodySawQuote(c);
+        default:
+            throw new AssertionError(state);
+        }
+    }
+
     private State doBeginField(int c) {
         if (c == quoteCharacter) {
             // QUOTE
@@ -209,14 +288,26 @@ public class CsvFieldReader implements FieldReader {
     }
 
     private void emit(int c) {
-        fieldBuffer.append((char) c);
+        if (byteLineCursor != null) {
+            if (fieldBytesLength == fieldBytes.length) {
+                fieldBytes = Arrays.copyOf(fieldBytes, fieldBytes.length * 2);
+            }
+            fieldBytes[fieldBytesLength++] = (byte) c;
+        } else {
+            fieldBuffer.append((char) c);
+        }
     }
 
     private void error(ErrorCode code) {
+        CharSequence line = currentLine;
+        if (byteLineCursor != null) {
+            line = StandardCharsets.UTF_8.decode(
+                    ByteBuffer.wrap(byteLineCursor.getBuffer(), 0, byteLineCursor.getLength()));
+        }
         LOG.warn(MessageFormat.format(
                 "code={0}, contents={1}, column={2}",
                 code,
-                TextUtil.quote(currentLine),
+                TextUtil.quote(line),
                 nextReadIndex + 1));
     }
 
@@ -232,22 +323,64 @@ public class CsvFieldReader implements FieldReader {
         switch (lastState) {
         case END_OF_FIELD:
         case END_OF_RECORD:
+            if (byteLineCursor != null) {
+                if (decodedField == null) {
+                    decodedField = StandardCharsets.UTF_8.decode(ByteBuffer.wrap(fieldBytes, 0, fieldBytesLength));
+                }
+                return decodedField;
+            }
             return fieldBuffer;
         case BEFORE_RECORD:
         case AFTER_RECORD:
-            throw new NoSuchElementException(String.format(
-                    "line-number=%,d, record-index=%,d, field-index=%,d, last-state=%s", //$NON-NLS-1$
-                    getRecordLineNumber(),
-                    getRecordIndex(),
-                    getFieldIndex(),
-                    lastState));
+            throw noSuchElement();
         default:
             throw new AssertionError(lastState);
         }
     }
 
+    @Override
+    public boolean isUtf8ContentSupported() {
+        return byteLineCursor != null;
+    }
+
+    @Override
+    public ByteBuffer getUtf8Content() {
+        if (byteLineCursor == null) {
+            throw new UnsupportedOperationException();
+        }
+        switch (lastState) {
+        case END_OF_FIELD:
+        case END_OF_RECORD:
+            ByteBuffer view = fieldBytesView;
+            if (view == null || view.array() != fieldBytes) {
+                view = ByteBuffer.wrap(fieldBytes);
+                fieldBytesView = view;
+            }
+            view.clear();
+            view.limit(fieldBytesLength);
+            return view;
+        case BEFORE_RECORD:
+        case AFTER_RECORD:
+            throw noSuchElement();
+        default:
+            throw new AssertionError(lastState);
+        }
+    }
+
+    private NoSuchElementException noSuchElement() {
+        return new NoSuchElementException(String.format(
+                "line-number=%,d, record-index=%,d, field-index=%,d, last-state=%s", //$NON-NLS-1$
+                getRecordLineNumber(),
+                getRecordIndex(),
+                getFieldIndex(),
+                lastState));
+    }
+
     @Override
     public long getRecordLineNumber() {
+        if (byteLineCursor != null) {
+            return byteLineCursor.getLineNumber();
+        }
         return lineCursor.getLineNumber();
     }
 
@@ -267,7 +400,11 @@ public class CsvFieldReader implements FieldReader {
         currentFieldIndex = -1;
         currentRecordIndex = -1;
         lastState = State.AFTER_RECORD;
-        lineCursor.close();
+        if (byteLineCursor != null) {
+            byteLineCursor.close();
+        } else {
+            lineCursor.close();
+        }
     }
 
     private enum State {
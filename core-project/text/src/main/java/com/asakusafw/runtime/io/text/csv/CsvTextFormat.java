@@ -34,7 +34,10 @@ import com.asakusafw.runtime.io.text.TextFormat;
 
 /**
  * An implementation of {@link TextFormat} for  RFC4180 style CSV files.
+ * If the charset is UTF-8 and no input transformers are specified,
+ * {@link #open(InputStream)} reads the input without decoding it into characters.
  * @since 0.9.1
+ * @version 0.10.5
  */
 public class CsvTextFormat implements TextFormat {
 
@@ -114,7 +117,16 @@ public class CsvTextFormat implements TextFormat {
 
     @Override
     public CsvFieldReader open(InputStream input) throws IOException {
-        return open(new InputStreamReader(input, charset));
+        UnaryOperator<CharSequence> transformer = inputTransformer.get();
+        if (transformer == null
+                && charset.equals(StandardCharsets.UTF_8)
+                && CsvFieldReader.isByteStreamSupported(fieldSeparator, quoteCharacter)) {
+            return new CsvFieldReader(input, fieldSeparator, quoteCharacter, allowLineFeedInField);
+        }
+        return new CsvFieldReader(new InputStreamReader(input, charset),
+                fieldSeparator, quoteCharacter,
+                allowLineFeedInField,
+                transformer);
     }
 
     @Override
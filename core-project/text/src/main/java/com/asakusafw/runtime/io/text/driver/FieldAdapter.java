@@ -15,10 +15,14 @@
  */
 package com.asakusafw.runtime.io.text.driver;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
 /**
  * An abstract super interface of converts field contents and properties each other.
  * @param <T> the property type
  * @since 0.9.1
+ * @version 0.10.5
  */
 public interface FieldAdapter<T> {
 
@@ -36,6 +40,21 @@ public interface FieldAdapter<T> {
      */
     void parse(CharSequence contents, T property);
 
+    /**
+     * Extracts the given UTF-8 encoded field content into the destination property.
+     * This is used instead of {@link #parse(CharSequence, Object)} if the source text is read as byte sequence.
+     * The default implementation just decodes the field content and delegates to
+     * {@link #parse(CharSequence, Object)}, and malformed byte sequences are replaced with the replacement character.
+     * Clients must not modify the position and limit of the given buffer, nor keep the buffer after this method.
+     * @param contents the field content, or {@code null} if it represents {@code NULL}
+     * @param property the destination property
+     * @throws MalformedFieldException if the field content is malformed
+     * @since 0.10.5
+     */
+    default void parseUtf8(ByteBuffer contents, T property) {
+        parse(contents == null ? null : StandardCharsets.UTF_8.decode(contents.duplicate()), property);
+    }
+
     /**
      * Extracts the given property value into the destination field.
      * @param property the property value
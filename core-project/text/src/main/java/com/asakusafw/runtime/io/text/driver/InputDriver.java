@@ -16,6 +16,8 @@
 package com.asakusafw.runtime.io.text.driver;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.text.MessageFormat;
 import java.util.List;
 import java.util.function.Function;
@@ -58,6 +60,10 @@ final class InputDriver<T> implements TextInput<T> {
 
     private final TrimBuffer trimmer = new TrimBuffer();
 
+    private final boolean utf8;
+
+    private final Utf8TrimBuffer utf8Trimmer = new Utf8TrimBuffer();
+
     @SuppressWarnings("unchecked")
     InputDriver(
             FieldReader reader, String path,
@@ -76,6 +82,7 @@ final class InputDriver<T> implements TextInput<T> {
         this.onMoreInput = onMoreInput;
         this.fromTextHead = fromTextHead;
         this.requireConsumeHeader = fromTextHead && header != HeaderType.Input.NEVER;
+        this.utf8 = reader.isUtf8ContentSupported();
     }
 
     @Override
@@ -136,35 +143,69 @@ final class InputDriver<T> implements TextInput<T> {
 
     private <P> boolean processField(T model, FieldDriver<T, P> field) throws IOException {
         P property = field.extractor.apply(model);
-        FieldAdapter<? super P> adapter = field.adapter;
         while (reader.nextField()) {
-            CharSequence value = reader.getContent();
-            if (value != null) {
-                if (field.trimInput) {
-                    value = trimmer.wrap(value);
-                }
-                if (value.length() == 0 && field.skipEmptyInput) {
-                    if (LOG.isTraceEnabled()) {
-                        LOG.trace(String.format(
-                                "skip empty field: path=%s, line=%,d, row=%,d, column=%,d",
-                                path,
-                                getLineNumberMessage(),
-                                getRecordIndexMessage(),
-                                getFieldIndexMessage()));
-                    }
-                    continue;
+            boolean parsed = utf8 ? parseUtf8(field, property) : parse(field, property);
+            if (parsed) {
+                return true;
+            }
+        }
+        field.adapter.clear(property);
+        return false;
+    }
+
+    private <P> boolean parse(FieldDriver<T, P> field, P property) throws IOException {
+        CharSequence value = reader.getContent();
+        if (value != null) {
+            if (field.trimInput) {
+                value = trimmer.wrap(value);
+            }
+            if (value.length() == 0 && field.skipEmptyInput) {
+                traceSkipEmptyField();
+                return false;
+            }
+        }
+        try {
+            field.adapter.parse(value, property);
+        } catch (MalformedFieldException e) {
+            field.adapter.clear(property);
+            handleMalformed(field, value, e);
+        }
+        return true;
+    }
+
+    private <P> boolean parseUtf8(FieldDriver<T, P> field, P property) throws IOException {
+        ByteBuffer value = reader.getUtf8Content();
+        if (value != null) {
+            if (field.trimInput) {
+                value = utf8Trimmer.wrap(value);
+                if (value == null) {
+                    // the field may be surrounded with non-ASCII white-spaces
+                    return parse(field, property);
                 }
             }
-            try {
-                adapter.parse(value, property);
-            } catch (MalformedFieldException e) {
-                adapter.clear(property);
-                handleMalformed(field, value, e);
+            if (value.hasRemaining() == false && field.skipEmptyInput) {
+                traceSkipEmptyField();
+                return false;
             }
-            return true;
         }
-        adapter.clear(property);
-        return false;
+        try {
+            field.adapter.parseUtf8(value, property);
+        } catch (MalformedFieldException e) {
+            field.adapter.clear(property);
+            handleMalformed(field, value == null ? null : StandardCharsets.UTF_8.decode(value.duplicate()), e);
+        }
+        return true;
+    }
+
+    private void traceSkipEmptyField() {
+        if (LOG.isTraceEnabled()) {
+            LOG.trace(String.format(
+                    "skip empty field: path=%s, line=%,d, row=%,d, column=%,d",
+                    path,
+                    getLineNumberMessage(),
+                    getRecordIndexMessage(),
+                    getFieldIndexMessage()));
+        }
     }
 
     private void checkRest() throws IOException {
@@ -418,6 +459,56 @@ final class InputDriver<T> implements TextInput<T> {
         }
     }
 
+    private static final class Utf8TrimBuffer {
+
+        private ByteBuffer view;
+
+        Utf8TrimBuffer() {
+            return;
+        }
+
+        /**
+         * Returns a view of the given buffer without leading and trailing ASCII white-spaces.
+         * @param buffer the source buffer
+         * @return the trimmed view, or {@code null} if the buffer may have non-ASCII leading/trailing white-spaces
+         */
+        ByteBuffer wrap(ByteBuffer buffer) {
+            if (buffer.hasArray() == false) {
+                return null;
+            }
+            byte[] array = buffer.array();
+            int begin = buffer.arrayOffset() + buffer.position();
+            int end = buffer.arrayOffset() + buffer.limit();
+            int newBegin = begin;
+            int newEnd = end;
+            while (newBegin < newEnd && isAsciiWhitespace(array[newBegin])) {
+                newBegin++;
+            }
+            while (newBegin < newEnd && isAsciiWhitespace(array[newEnd - 1])) {
+                newEnd--;
+            }
+            if (newBegin < newEnd && (array[newBegin] < 0 || array[newEnd - 1] < 0)) {
+                return null;
+            }
+            if (newBegin == begin && newEnd == end) {
+                return buffer;
+            }
+            ByteBuffer v = view;
+            if (v == null || v.array() != array) {
+                v = ByteBuffer.wrap(array);
+                view = v;
+            }
+            v.clear();
+            v.position(newBegin);
+            v.limit(newEnd);
+            return v;
+        }
+
+        private static boolean isAsciiWhitespace(byte b) {
+            return b >= 0 && Character.isWhitespace((char) b);
+        }
+    }
+
     private static final class TrimBuffer implements CharSequence {
 
         private CharSequence parent;
@@ -16,7 +16,12 @@
 package com.asakusafw.runtime.io.text.tabular;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.MessageFormat;
+import java.util.Arrays;
 import java.util.NoSuchElementException;
 import java.util.function.UnaryOperator;
 
@@ -25,6 +30,7 @@ import com.asakusafw.runtime.io.text.FieldReader;
 /**
  * A {@link FieldReader} for tabular-style text contents.
  * @since 0.9.1
+ * @version 0.10.5
  */
 public class TabularFieldReader implements FieldReader {
 
@@ -32,8 +38,12 @@ public class TabularFieldReader implements FieldReader {
 
     private static final int ABSENT = -2;
 
+    private static final int ASCII_LIMIT = 0x80;
+
     private final LineCursor lineCursor;
 
+    private final ByteLineCursor byteLineCursor;
+
     private final char fieldSeparator;
 
     private final int escapeCharacter;
@@ -48,6 +58,14 @@ public class TabularFieldReader implements FieldReader {
 
     private final StringBuilder fieldBuffer = new StringBuilder();
 
+    private byte[] fieldBytes;
+
+    private int fieldBytesLength;
+
+    private ByteBuffer fieldBytesView;
+
+    private CharSequence decodedField;
+
     private int nextReadIndex = -1;
 
     private long currentRecordIndex = -1;
@@ -69,6 +87,7 @@ public class TabularFieldReader implements FieldReader {
             EscapeSequence escapeSequences,
             UnaryOperator<CharSequence> transformer) {
         this.lineCursor = buildLineCursor(reader, escapeSequences);
+        this.byteLineCursor = null;
         this.fieldSeparator = fieldSeparator;
         this.escapeCharacter = escapeSequences == null ? ABSENT : escapeSequences.getEscapeCharacter();
         this.escapeDecode = escapeSequences == null ? CharMap.EMPTY : CharMap.forward(escapeSequences);
@@ -76,6 +95,67 @@ public class TabularFieldReader implements FieldReader {
         this.transformer = transformer == null ? UnaryOperator.identity() : transformer;
     }
 
+    /**
+     * Creates a new instance which reads UTF-8 encoded byte stream without decoding it.
+     * The field separator and escape sequences must only consist of ASCII characters.
+     * @param input the source byte stream
+     * @param fieldSeparator the field separator character
+     * @param escapeSequences the escape sequences definition (nullable)
+     * @throws IllegalArgumentException if the field separator or escape sequences contain non-ASCII characters
+     * @see #isByteStreamSupported(char, EscapeSequence)
+     * @since 0.10.5
+     */
+    public TabularFieldReader(
+            InputStream input,
+            char fieldSeparator,
+            EscapeSequence escapeSequences) {
+        if (isByteStreamSupported(fieldSeparator, escapeSequences) == false) {
+            throw new IllegalArgumentException(MessageFormat.format(
+                    "field separator and escape sequences must be ASCII characters: {0}",
+                    fieldSeparator));
+        }
+        this.lineCursor = null;
+        this.byteLineCursor = buildByteLineCursor(input, escapeSequences);
+        this.fieldSeparator = fieldSeparator;
+        this.escapeCharacter = escapeSequences == null ? ABSENT : escapeSequences.getEscapeCharacter();
+        this.escapeDecode = escapeSequences == null ? CharMap.EMPTY : CharMap.forward(escapeSequences);
+        this.escapeRecordSeparator = escapeSequences == null ? false : escapeSequences.canEscapeLineSeparator();
+        this.transformer = UnaryOperator.identity();
+        this.fieldBytes = new byte[256];
+    }
+
+    /**
+     * Returns whether or not the given settings can read byte streams without decoding them.
+     * @param fieldSeparator the field separator character
+     * @param escapeSequences the escape sequences definition (nullable)
+     * @return {@code true} if they are available for {@link #TabularFieldReader(InputStream, char, EscapeSequence)},
+     *     otherwise {@code false}
+     * @since 0.10.5
+     */
+    public static boolean isByteStreamSupported(char fieldSeparator, EscapeSequence escapeSequences) {
+        if (fieldSeparator >= ASCII_LIMIT) {
+            return false;
+        }
+        if (escapeSequences != null) {
+            if (escapeSequences.getEscapeCharacter() >= ASCII_LIMIT) {
+                return false;
+            }
+            return escapeSequences.getEntries().stream()
+                    .allMatch(e -> e.getFrom() < ASCII_LIMIT);
+        }
+        return true;
+    }
+
+    private static ByteLineCursor buildByteLineCursor(InputStream input, EscapeSequence esc) {
+        if (esc == null) {
+            return new ByteLineCursor(input, '\0', false, false);
+        }
+        char e = esc.getEscapeCharacter();
+        boolean allowEscapeLine = esc.canEscapeLineSeparator();
+        boolean allowEscapeEscape = esc.canEscape(e);
+        return new ByteLineCursor(input, e, allowEscapeLine, allowEscapeEscape);
+    }
+
     private static LineCursor buildLineCursor(Reader reader, EscapeSequence esc) {
         if (esc == null) {
             return new LineCursor(reader, '\0', false, false);
@@ -91,6 +171,15 @@ public class TabularFieldReader implements FieldReader {
         lastState = State.BEFORE_RECORD;
         currentLine = null;
         currentFieldIndex = -1;
+        if (byteLineCursor != null) {
+            if (byteLineCursor.next()) {
+                nextReadIndex = 0;
+                currentRecordIndex++;
+                return true;
+            }
+            currentRecordIndex = -1;
+            return false;
+        }
         while (lineCursor.next()) {
             CharSequence s = transformer.apply(lineCursor.getContent());
             if (s == null) {
@@ -114,26 +203,25 @@ public class TabularFieldReader implements FieldReader {
             return false;
         }
         State state = State.INIT;
-        CharSequence line = currentLine;
-        assert line != null;
         fieldBuffer.setLength(0);
+        fieldBytesLength = 0;
+        decodedField = null;
         int index = nextReadIndex;
-        do {
-            int c = index == line.length() ? EOF : line.charAt(index++);
-            switch (state) {
-            case INIT:
-                state = doInit(c);
-                break;
-            case SAW_ESCAPE:
-                state = doSawEscape(c);
-                break;
-            case SAW_NULL:
-                state = doSawNull(c);
-                break;
-            default:
-                throw new AssertionError(state);
-            }
-        } while (state.moreCharacters);
+        if (byteLineCursor != null) {
+            byte[] line = byteLineCursor.getBuffer();
+            int length = byteLineCursor.getLength();
+            do {
+                int c = index == length ? EOF : line[index++] & 0xff;
+                state = doNext(state, c);
+            } while (state.moreCharacters);
+        } else {
+            CharSequence line = currentLine;
+            assert line != null;
+            do {
+                int c = index == line.length() ? EOF : line.charAt(index++);
+                state = doNext(state, c);
+            } while (state.moreCharacters);
+        }
 
         nextReadIndex = index;
         currentFieldIndex++;
@@ -141,6 +229,19 @@ public class TabularFieldReader implements FieldReader {
         return true;
     }
 
+    private State doNext(State state, int c) {
+        switch (state) {
+        case INIT:
+            return doInit(c);
+        case SAW_ESCAPE:
+            return doSawEscape(c);
+        case SAW_NULL:
+            return doSawNull(c);
+        default:
+            throw new AssertionError(state);
+        }
+    }
+
     @Override
     public void rewindFields() throws IOException {
         lastState = State.BEFORE_RECORD;
@@ -209,7 +310,7 @@ public class TabularFieldReader implements FieldReader {
             }
         } else {
             // valid escape sequence
-            emit(d);
+            emitDecoded(d);
             return State.INIT;
         }
     }
@@ -238,11 +339,37 @@ public class TabularFieldReader implements FieldReader {
     }
 
     private boolean isEmitted() {
-        return fieldBuffer.length() != 0;
+        return fieldBuffer.length() != 0 || fieldBytesLength != 0;
     }
 
     private void emit(int c) {
-        fieldBuffer.append((char) c);
+        if (byteLineCursor != null) {
+            emitByte(c);
+        } else {
+            fieldBuffer.append((char) c);
+        }
+    }
+
+    private void emitDecoded(int c) {
+        if (byteLineCursor != null && c >= ASCII_LIMIT) {
+            // encodes the decoded character into UTF-8
+            if (c < 0x800) {
+                emitByte(0xc0 | (c >> 6));
+            } else {
+                emitByte(0xe0 | (c >> 12));
+                emitByte(0x80 | ((c >> 6) & 0x3f));
+            }
+            emitByte(0x80 | (c & 0x3f));
+        } else {
+            emit(c);
+        }
+    }
+
+    private void emitByte(int b) {
+        if (fieldBytesLength == fieldBytes.length) {
+            fieldBytes = Arrays.copyOf(fieldBytes, fieldBytes.length * 2);
+        }
+        fieldBytes[fieldBytesLength++] = (byte) b;
     }
 
     @Override
@@ -250,25 +377,70 @@ public class TabularFieldReader implements FieldReader {
         switch (lastState) {
         case END_OF_FIELD:
         case END_OF_RECORD:
+            if (byteLineCursor != null) {
+                if (decodedField == null) {
+                    decodedField = StandardCharsets.UTF_8.decode(ByteBuffer.wrap(fieldBytes, 0, fieldBytesLength));
+                }
+                return decodedField;
+            }
             return fieldBuffer;
         case END_OF_FIELD_WITH_NULL:
         case END_OF_RECORD_WITH_NULL:
             return null;
         case BEFORE_RECORD:
         case AFTER_RECORD:
-            throw new NoSuchElementException(String.format(
-                    "line-number=%,d, record-index=%,d, field-index=%,d, last-state=%s", //$NON-NLS-1$
-                    getRecordLineNumber(),
-                    getRecordIndex(),
-                    getFieldIndex(),
-                    lastState));
+            throw noSuchElement();
+        default:
+            throw new AssertionError(lastState);
+        }
+    }
+
+    @Override
+    public boolean isUtf8ContentSupported() {
+        return byteLineCursor != null;
+    }
+
+    @Override
+    public ByteBuffer getUtf8Content() {
+        if (byteLineCursor == null) {
+            throw new UnsupportedOperationException();
+        }
+        switch (lastState) {
+        case END_OF_FIELD:
+        case END_OF_RECORD:
+            ByteBuffer view = fieldBytesView;
+            if (view == null || view.array() != fieldBytes) {
+                view = ByteBuffer.wrap(fieldBytes);
+                fieldBytesView = view;
+            }
+            view.clear();
+            view.limit(fieldBytesLength);
+            return view;
+        case END_OF_FIELD_WITH_NULL:
+        case END_OF_RECORD_WITH_NULL:
+            return null;
+        case BEFORE_RECORD:
+        case AFTER_RECORD:
+            throw noSuchElement();
         default:
             throw new AssertionError(lastState);
         }
     }
 
+    private NoSuchElementException noSuchElement() {
+        return new NoSuchElementException(String.format(
+                "line-number=%,d, record-index=%,d, field-index=%,d, last-state=%s", //$NON-NLS-1$
+                getRecordLineNumber(),
+                getRecordIndex(),
+                getFieldIndex(),
+                lastState));
+    }
+
     @Override
     public long getRecordLineNumber() {
+        if (byteLineCursor != null) {
+            return byteLineCursor.getLineNumber();
+        }
         return lineCursor.getLineNumber();
     }
 
@@ -288,7 +460,11 @@ public class TabularFieldReader implements FieldReader {
         currentFieldIndex = -1;
         currentRecordIndex = -1;
         lastState = State.AFTER_RECORD;
-        lineCursor.close();
+        if (byteLineCursor != null) {
+            byteLineCursor.close();
+        } else {
+            lineCursor.close();
+        }
     }
 
     private enum State {
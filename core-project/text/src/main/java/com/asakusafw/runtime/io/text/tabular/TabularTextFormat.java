@@ -33,7 +33,10 @@ import com.asakusafw.runtime.io.text.TextFormat;
 
 /**
  * An implementation of {@link TextFormat} for tabular-style text files.
+ * If the charset is UTF-8 and no input transformers are specified,
+ * {@link #open(InputStream)} reads the input without decoding it into characters.
  * @since 0.9.1
+ * @version 0.10.5
  */
 public class TabularTextFormat implements TextFormat {
 
@@ -88,7 +91,16 @@ public class TabularTextFormat implements TextFormat {
 
     @Override
     public TabularFieldReader open(InputStream input) throws IOException {
-        return open(new InputStreamReader(input, charset));
+        UnaryOperator<CharSequence> transformer = inputTransformer.get();
+        if (transformer == null
+                && charset.equals(StandardCharsets.UTF_8)
+                && TabularFieldReader.isByteStreamSupported(fieldSeparator, escapeSequence)) {
+            return new TabularFieldReader(input, fieldSeparator, escapeSequence);
+        }
+        return new TabularFieldReader(
+                new InputStreamReader(input, charset),
+                fieldSeparator, escapeSequence,
+                transformer);
     }
 
     @Override
@@ -0,0 +1,102 @@
+/**
+ * Copyright 2011-2021 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.runtime.io.text.value;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A re-usable {@link CharSequence} view of ASCII byte sequences.
+ * @since 0.10.5
+ */
+final class AsciiSequence implements CharSequence {
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private byte[] bytes = EMPTY;
+
+    private int offset;
+
+    private int length;
+
+    /**
+     * Returns whether or not the given buffer only consists of ASCII characters.
+     * @param buffer the target buffer
+     * @return {@code true} if it only consists of ASCII characters, otherwise {@code false}
+     */
+    static boolean isAscii(ByteBuffer buffer) {
+        if (buffer.hasArray() == false) {
+            return false;
+        }
+        byte[] array = buffer.array();
+        for (int i = buffer.arrayOffset() + buffer.position(), n = i + buffer.remaining(); i < n; i++) {
+            if (array[i] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Resets this view to the given buffer contents.
+     * The buffer must be backed by an array, and it must only consist of ASCII characters.
+     * @param buffer the target buffer
+     * @return this
+     * @see #isAscii(ByteBuffer)
+     */
+    AsciiSequence reset(ByteBuffer buffer) {
+        assert buffer.hasArray();
+        this.bytes = buffer.array();
+        this.offset = buffer.arrayOffset() + buffer.position();
+        this.length = buffer.remaining();
+        return this;
+    }
+
+    /**
+     * Releases the current buffer.
+     */
+    void release() {
+        this.bytes = EMPTY;
+        this.offset = 0;
+        this.length = 0;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException();
+        }
+        return (char) bytes[offset + index];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || start > end || end > length) {
+            throw new IndexOutOfBoundsException();
+        }
+        return new String(bytes, offset + start, end - start, StandardCharsets.US_ASCII);
+    }
+
+    @Override
+    public String toString() {
+        return new String(bytes, offset, length, StandardCharsets.US_ASCII);
+    }
+}
@@ -31,7 +31,7 @@ import com.asakusafw.runtime.value.StringOptionUtil;
 /**
  * An implementation of {@link FieldAdapter} which accepts {@link StringOption}.
  * @since 0.9.1
- * @version 0.10.3
+ * @version 0.10.5
  */
 public final class StringOptionFieldAdapter extends ValueOptionFieldAdapter<StringOption> {
 
@@ -68,6 +68,76 @@ public final class StringOptionFieldAdapter extends ValueOptionFieldAdapter<Stri
         }
     }
 
+    @SuppressWarnings("deprecation")
+    @Override
+    protected void doParseUtf8(ByteBuffer contents, StringOption property) {
+        if (contents.hasArray()) {
+            byte[] array = contents.array();
+            int offset = contents.arrayOffset() + contents.position();
+            int length = contents.remaining();
+            if (isWellFormed(array, offset, length)) {
+                property.modify(array, offset, length);
+                return;
+            }
+        }
+        // replaces malformed sequences as same as decoding them
+        super.doParseUtf8(contents, property);
+    }
+
+    private static boolean isWellFormed(byte[] bytes, int offset, int length) {
+        int index = offset;
+        int limit = offset + length;
+        while (index < limit) {
+            int lead = bytes[index++];
+            if (lead >= 0) {
+                continue;
+            }
+            lead &= 0xff;
+            int rest;
+            int secondMin = 0x80;
+            int secondMax = 0xbf;
+            if (lead < 0xc2) {
+                // continuation or over-long lead
+                return false;
+            } else if (lead < 0xe0) {
+                rest = 1;
+            } else if (lead < 0xf0) {
+                rest = 2;
+                if (lead == 0xe0) {
+                    // over-long
+                    secondMin = 0xa0;
+                } else if (lead == 0xed) {
+                    // surrogates
+                    secondMax = 0x9f;
+                }
+            } else if (lead < 0xf5) {
+                rest = 3;
+                if (lead == 0xf0) {
+                    // over-long
+                    secondMin = 0x90;
+                } else if (lead == 0xf4) {
+                    // out of code point range
+                    secondMax = 0x8f;
+                }
+            } else {
+                return false;
+            }
+            if (index + rest > limit) {
+                return false;
+            }
+            int second = bytes[index++] & 0xff;
+            if (second < secondMin || second > secondMax) {
+                return false;
+            }
+            for (int i = 1; i < rest; i++) {
+                if ((bytes[index++] & 0xc0) != 0x80) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
     @Override
     protected void doEmit(StringOption property, StringBuilder output) {
         property.appendTo(output);
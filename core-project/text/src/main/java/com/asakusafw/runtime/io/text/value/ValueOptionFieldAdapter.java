@@ -15,6 +15,8 @@
  */
 package com.asakusafw.runtime.io.text.value;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.function.Supplier;
 
 import com.asakusafw.runtime.io.text.TextUtil;
@@ -27,6 +29,7 @@ import com.asakusafw.runtime.value.ValueOption;
  * An abstract implementation of {@link FieldAdapter} which accepts {@link ValueOption}.
  * @param <T> the value type
  * @since 0.9.1
+ * @version 0.10.5
  */
 public abstract class ValueOptionFieldAdapter<T extends ValueOption<T>> implements FieldAdapter<T> {
 
@@ -37,6 +40,10 @@ public abstract class ValueOptionFieldAdapter<T extends ValueOption<T>> implemen
 
     private String nullFormat;
 
+    private final ByteBuffer nullFormatUtf8;
+
+    private final AsciiSequence asciiBuffer = new AsciiSequence();
+
     /**
      * Creates a new instance.
      */
@@ -50,6 +57,7 @@ public abstract class ValueOptionFieldAdapter<T extends ValueOption<T>> implemen
      */
     public ValueOptionFieldAdapter(String nullFormat) {
         this.nullFormat = nullFormat;
+        this.nullFormatUtf8 = nullFormat == null ? null : ByteBuffer.wrap(nullFormat.getBytes(StandardCharsets.UTF_8));
     }
 
     @SuppressWarnings("deprecation")
@@ -71,6 +79,20 @@ public abstract class ValueOptionFieldAdapter<T extends ValueOption<T>> implemen
         }
     }
 
+    @Override
+    public void parseUtf8(ByteBuffer contents, T property) {
+        if (contents == null || (nullFormatUtf8 != null && nullFormatUtf8.equals(contents))) {
+            clear(property);
+        } else {
+            try {
+                doParseUtf8(contents, property);
+            } catch (IllegalArgumentException | ArithmeticException e) {
+                CharSequence decoded = StandardCharsets.UTF_8.decode(contents.duplicate());
+                throw new MalformedFieldException(TextUtil.quote(decoded), e);
+            }
+        }
+    }
+
     @Override
     public void emit(T property, FieldOutput output) {
         if (property.isNull()) {
@@ -97,6 +119,28 @@ public abstract class ValueOptionFieldAdapter<T extends ValueOption<T>> implemen
      */
     protected abstract void doParse(CharSequence contents, T property);
 
+    /**
+     * Parses the given non-null UTF-8 byte sequence and set the parsed value into property.
+     * This passes ASCII only contents to {@link #doParse(CharSequence, ValueOption)} without decoding them,
+     * or decodes the contents before it.
+     * @param contents the contents, never {@code null}
+     * @param property the destination property
+     * @throws IllegalArgumentException if the byte sequence is malformed for this field
+     * @since 0.10.5
+     */
+    protected void doParseUtf8(ByteBuffer contents, T property) {
+        if (AsciiSequence.isAscii(contents)) {
+            AsciiSequence ascii = asciiBuffer.reset(contents);
+            try {
+                doParse(ascii, property);
+            } finally {
+                ascii.release();
+            }
+        } else {
+            doParse(StandardCharsets.UTF_8.decode(contents.duplicate()), property);
+        }
+    }
+
     /**
      * Emits the given non-null property value into the string builder.
      * @param property the property value, never {@code null} nor represents {@code null}
@@ -18,8 +18,11 @@ package com.asakusafw.runtime.io.text.csv;
 import static org.hamcrest.CoreMatchers.*;
 import static org.junit.Assert.*;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.function.UnaryOperator;
@@ -302,10 +305,71 @@ public class CsvFieldReaderTest {
         }));
     }
 
+    /**
+     * read byte stream.
+     */
+    @Test
+    public void bytes() {
+        String[][] result = readBytes("\u3042,'\u3044,\u3046'", "'A''B\nC',D\r\nE");
+        assertThat(result, is(new String[][] {
+            { "\u3042", "\u3044,\u3046" },
+            { "A'B\nC", "D" },
+            { "E" },
+        }));
+    }
+
+    /**
+     * read malformed byte stream.
+     */
+    @Test
+    public void bytes_malformed() {
+        byte[] bytes = { 'a', (byte) 0xff, ',', 'b' };
+        String[][] result = readBytes(bytes);
+        assertThat(result, is(new String[][] {
+            { "a\ufffd", "b" },
+        }));
+    }
+
+    /**
+     * byte stream availability.
+     */
+    @Test
+    public void bytes_supported() {
+        assertThat(CsvFieldReader.isByteStreamSupported(',', '"'), is(true));
+        assertThat(CsvFieldReader.isByteStreamSupported('\u3001', '"'), is(false));
+        assertThat(CsvFieldReader.isByteStreamSupported(',', '\u300c'), is(false));
+    }
+
     private String[][] read(String... lines) {
         return read(null, lines);
     }
 
+    private String[][] readBytes(String... lines) {
+        return readBytes(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[][] readBytes(byte[] bytes) {
+        try (FieldReader reader = new CsvFieldReader(new ByteArrayInputStream(bytes), ',', '\'', allowLineFeed)) {
+            assertThat(reader.isUtf8ContentSupported(), is(true));
+            List<List<String>> results = new ArrayList<>();
+            while (reader.nextRecord()) {
+                List<String> row = new ArrayList<>();
+                while (reader.nextField()) {
+                    CharSequence content = reader.getContent();
+                    ByteBuffer utf8 = reader.getUtf8Content();
+                    assertThat(StandardCharsets.UTF_8.decode(utf8).toString(), is(content.toString()));
+                    row.add(content.toString());
+                }
+                results.add(row);
+            }
+            return results.stream()
+                    .map(s -> s.stream().toArray(String[]::new))
+                    .toArray(String[][]::new);
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
     private String[][] read(UnaryOperator<CharSequence> transformer, String... lines) {
         try (FieldReader reader = reader(transformer, lines)) {
             List<List<String>> results = new ArrayList<>();
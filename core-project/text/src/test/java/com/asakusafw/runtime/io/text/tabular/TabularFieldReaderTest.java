@@ -18,8 +18,11 @@ package com.asakusafw.runtime.io.text.tabular;
 import static org.hamcrest.CoreMatchers.*;
 import static org.junit.Assert.*;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.function.UnaryOperator;
@@ -379,10 +382,90 @@ public class TabularFieldReaderTest {
         }
     }
 
+    /**
+     * read byte stream.
+     */
+    @Test
+    public void bytes() {
+        String[][] result = readBytes(escape, "Hello\tworld", "\u3042\\t\\N\t\\N\t\u3044");
+        assertThat(result, is(new String[][] {
+            { "Hello", "world" },
+            { "\u3042\t\\N", null, "\u3044" },
+        }));
+    }
+
+    /**
+     * read byte stream w/ escape sequences which are decoded into non-ASCII characters.
+     */
+    @Test
+    public void bytes_escape_non_ascii() {
+        EscapeSequence esc = EscapeSequence.builder('\\')
+                .addMapping('a', '\u00e9')
+                .addMapping('b', '\u3042')
+                .build();
+        String[][] result = readBytes(esc, "\\a\\b\t\\c");
+        assertThat(result, is(new String[][] {
+            { "\u00e9\u3042", "\\c" },
+        }));
+    }
+
+    /**
+     * read byte stream w/ escaped line separators.
+     */
+    @Test
+    public void bytes_escape_line_separator() {
+        EscapeSequence esc = EscapeSequence.builder('\\')
+                .addLineSeparator()
+                .build();
+        String[][] result = readBytes(esc, "A\\", "B\tC", "D");
+        assertThat(result, is(new String[][] {
+            { "A\nB", "C" },
+            { "D" },
+        }));
+    }
+
+    /**
+     * byte stream availability.
+     */
+    @Test
+    public void bytes_supported() {
+        assertThat(TabularFieldReader.isByteStreamSupported('\t', escape), is(true));
+        assertThat(TabularFieldReader.isByteStreamSupported('\u3000', null), is(false));
+        assertThat(TabularFieldReader.isByteStreamSupported('\t', EscapeSequence.builder('\u00a5').build()), is(false));
+    }
+
     private String[][] read(String... lines) {
         return read(null, lines);
     }
 
+    private String[][] readBytes(EscapeSequence esc, String... lines) {
+        byte[] bytes = String.join("\n", lines).getBytes(StandardCharsets.UTF_8);
+        try (TabularFieldReader reader = new TabularFieldReader(new ByteArrayInputStream(bytes), '\t', esc)) {
+            assertThat(reader.isUtf8ContentSupported(), is(true));
+            List<List<String>> results = new ArrayList<>();
+            while (reader.nextRecord()) {
+                List<String> row = new ArrayList<>();
+                while (reader.nextField()) {
+                    CharSequence content = reader.getContent();
+                    ByteBuffer utf8 = reader.getUtf8Content();
+                    if (content == null) {
+                        assertThat(utf8, is(nullValue()));
+                        row.add(null);
+                    } else {
+                        assertThat(StandardCharsets.UTF_8.decode(utf8).toString(), is(content.toString()));
+                        row.add(content.toString());
+                    }
+                }
+                results.add(row);
+            }
+            return results.stream()
+                    .map(s -> s.stream().toArray(String[]::new))
+                    .toArray(String[][]::new);
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
     private String[][] read(UnaryOperator<CharSequence> transformer, String... lines) {
         try (TabularFieldReader reader = reader(transformer, lines)) {
             List<List<String>> results = new ArrayList<>();
@@ -16,6 +16,10 @@
 package com.asakusafw.runtime.io.text.value;
 
 import static com.asakusafw.runtime.io.text.value.TestUtil.*;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
 
 import org.junit.Test;
 
@@ -86,6 +90,30 @@ public class StringOptionFieldAdapterTest {
         checkMalformed(adapter, String.valueOf(CP_BEER.charAt(0)), new StringOption());
     }
 
+    /**
+     * parse - UTF-8 bytes.
+     */
+    @Test
+    public void parse_utf8() {
+        StringOptionFieldAdapter adapter = StringOptionFieldAdapter.builder().build();
+        byte[] bytes = { '-', 'a', (byte) 0xe3, (byte) 0x81, (byte) 0x82, '-' };
+        StringOption buffer = new StringOption();
+        adapter.parseUtf8(ByteBuffer.wrap(bytes, 1, 4), buffer);
+        assertThat(buffer, is(new StringOption("a\u3042")));
+    }
+
+    /**
+     * parse - malformed UTF-8 bytes.
+     */
+    @Test
+    public void parse_utf8_malformed() {
+        StringOptionFieldAdapter adapter = StringOptionFieldAdapter.builder().build();
+        byte[] bytes = { 'a', (byte) 0xe3, (byte) 0x81 };
+        StringOption buffer = new StringOption();
+        adapter.parseUtf8(ByteBuffer.wrap(bytes), buffer);
+        assertThat(buffer, is(new StringOption("a\ufffd")));
+    }
+
     /**
      * emit.
      */
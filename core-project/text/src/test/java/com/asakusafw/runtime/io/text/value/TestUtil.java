@@ -18,6 +18,9 @@ package com.asakusafw.runtime.io.text.value;
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.*;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
 import com.asakusafw.runtime.io.text.driver.BasicFieldOutput;
 import com.asakusafw.runtime.io.text.driver.FieldAdapter;
 import com.asakusafw.runtime.io.text.driver.MalformedFieldException;
@@ -42,6 +45,11 @@ final class TestUtil {
             T sink = (T) expected.getClass().newInstance();
             adapter.parse(cs, sink);
             assertThat(sink, equalTo(expected));
+
+            @SuppressWarnings("unchecked")
+            T utf8Sink = (T) expected.getClass().newInstance();
+            adapter.parseUtf8(toUtf8(cs), utf8Sink);
+            assertThat(utf8Sink, equalTo(expected));
         } catch (ReflectiveOperationException e) {
             throw new AssertionError(e);
         }
@@ -55,6 +63,21 @@ final class TestUtil {
         } catch (MalformedFieldException e) {
             // ok.
         }
+        ByteBuffer utf8 = toUtf8(cs);
+        if (utf8 != null && StandardCharsets.UTF_8.decode(utf8.duplicate()).toString().contentEquals(cs) == false) {
+            // not a valid UTF-16 sequence
+            return;
+        }
+        try {
+            adapter.parseUtf8(utf8, buffer);
+            fail(String.valueOf(buffer));
+        } catch (MalformedFieldException e) {
+            // ok.
+        }
+    }
+
+    private static ByteBuffer toUtf8(CharSequence cs) {
+        return cs == null ? null : ByteBuffer.wrap(cs.toString().getBytes(StandardCharsets.UTF_8));
     }
 
     private static CharSequence toCharSequence(Object value) {
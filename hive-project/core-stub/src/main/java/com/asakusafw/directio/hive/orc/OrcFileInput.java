@@ -28,6 +28,7 @@ import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hive.ql.io.orc.OrcFile;
 import org.apache.hadoop.hive.ql.io.orc.Reader;
 import org.apache.hadoop.hive.ql.io.orc.RecordReader;
+import org.apache.hadoop.hive.ql.io.sarg.SearchArgument;
 import org.apache.hadoop.hive.serde2.objectinspector.StructField;
 import org.apache.hadoop.hive.serde2.objectinspector.StructObjectInspector;
 
@@ -35,12 +36,14 @@ import com.asakusafw.directio.hive.serde.DataModelDescriptor;
 import com.asakusafw.directio.hive.serde.DataModelDriver;
 import com.asakusafw.directio.hive.serde.DataModelMapping;
 import com.asakusafw.runtime.directio.Counter;
+import com.asakusafw.runtime.directio.PropertyPredicate;
 import com.asakusafw.runtime.io.ModelInput;
 
 /**
  * An implementation of {@link ModelInput} for reading ORCFile.
  * @param <T> the data model type
  * @since 0.7.0
+ * @version 0.10.5
  */
 public class OrcFileInput<T> implements ModelInput<T> {
 
@@ -60,6 +63,8 @@ public class OrcFileInput<T> implements ModelInput<T> {
 
     private final Counter counter;
 
+    private final PropertyPredicate predicate;
+
     private DataModelDriver driver;
 
     private RecordReader currentReader;
@@ -101,6 +106,28 @@ public class OrcFileInput<T> implements ModelInput<T> {
             FileSystem fileSystem, Path path,
             long offset, long fragmentSize,
             Counter counter) {
+        this(descriptor, configuration, fileSystem, path, offset, fragmentSize, counter, null);
+    }
+
+    /**
+     * Creates a new instance.
+     * @param descriptor the target data model descriptor
+     * @param configuration the {@link DataModelDriver} configuration
+     * @param fileSystem the file system to open the target path
+     * @param path the path to the target file
+     * @param offset starting stream offset
+     * @param fragmentSize suggested fragment bytes count
+     * @param counter the current counter
+     * @param predicate the predicate to skip stripes and row groups, or {@code null} to read all of them
+     * @since 0.10.5
+     */
+    public OrcFileInput(
+            DataModelDescriptor descriptor,
+            DataModelMapping configuration,
+            FileSystem fileSystem, Path path,
+            long offset, long fragmentSize,
+            Counter counter,
+            PropertyPredicate predicate) {
         this.descriptor = descriptor;
         this.configuration = configuration;
         this.fileSystem = fileSystem;
@@ -108,6 +135,7 @@ public class OrcFileInput<T> implements ModelInput<T> {
         this.offset = offset;
         this.fragmentSize = fragmentSize;
         this.counter = counter;
+        this.predicate = predicate;
     }
 
     @Override
@@ -145,7 +173,16 @@ public class OrcFileInput<T> implements ModelInput<T> {
                         fragmentSize));
             }
             boolean[] availableColumns = computeAvailableColumns(orc);
-            reader = orc.rows(offset, fragmentSize, availableColumns);
+            SearchArgument sarg = null;
+            if (predicate != null) {
+                sarg = OrcPredicateTranslator.translate(predicate, driver);
+            }
+            if (sarg == null) {
+                reader = orc.rows(offset, fragmentSize, availableColumns);
+            } else {
+                String[] columnNames = OrcPredicateTranslator.getColumnNames(driver);
+                reader = orc.rows(offset, fragmentSize, availableColumns, sarg, columnNames);
+            }
             currentReader = reader;
         }
         return reader;
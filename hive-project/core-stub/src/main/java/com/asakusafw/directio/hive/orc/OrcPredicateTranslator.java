@@ -0,0 +1,363 @@
+/**
+ * Copyright 2011-2021 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.directio.hive.orc;
+
+import java.math.BigDecimal;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.hive.common.type.HiveDecimal;
+import org.apache.hadoop.hive.ql.io.sarg.PredicateLeaf;
+import org.apache.hadoop.hive.ql.io.sarg.SearchArgument;
+import org.apache.hadoop.hive.ql.io.sarg.SearchArgumentFactory;
+import org.apache.hadoop.hive.serde2.io.DateWritable;
+import org.apache.hadoop.hive.serde2.io.HiveDecimalWritable;
+import org.apache.hadoop.hive.serde2.objectinspector.ListObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.MapObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.PrimitiveObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.StructField;
+import org.apache.hadoop.hive.serde2.objectinspector.StructObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.UnionObjectInspector;
+
+import com.asakusafw.directio.hive.serde.DataModelDriver;
+import com.asakusafw.directio.hive.util.TemporalUtil;
+import com.asakusafw.runtime.directio.PropertyPredicate;
+import com.asakusafw.runtime.value.Date;
+
+/**
+ * Translates {@link PropertyPredicate} into ORCFile {@link SearchArgument}.
+ * Predicates which cannot be evaluated on ORCFile statistics are weakened or just ignored.
+ * @since 0.10.5
+ */
+public final class OrcPredicateTranslator
+        implements PropertyPredicate.Visitor<Consumer<SearchArgument.Builder>, DataModelDriver> {
+
+    static final Log LOG = LogFactory.getLog(OrcPredicateTranslator.class);
+
+    private static final OrcPredicateTranslator INSTANCE = new OrcPredicateTranslator();
+
+    private OrcPredicateTranslator() {
+        return;
+    }
+
+    /**
+     * Translates the predicate into {@link SearchArgument}.
+     * @param predicate the source predicate
+     * @param driver the current data model driver
+     * @return the translated search argument, or {@code null} if the predicate is not supported
+     */
+    public static SearchArgument translate(PropertyPredicate predicate, DataModelDriver driver) {
+        Consumer<SearchArgument.Builder> action = predicate.accept(INSTANCE, driver);
+        if (action == null) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(MessageFormat.format(
+                        "ORCFile predicate is not supported: {0}", //$NON-NLS-1$
+                        predicate));
+            }
+            return null;
+        }
+        SearchArgument.Builder builder = SearchArgumentFactory.newBuilder();
+        action.accept(builder);
+        SearchArgument result = builder.build();
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(MessageFormat.format(
+                    "ORCFile predicate: {0} -> {1}", //$NON-NLS-1$
+                    predicate,
+                    result));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the column names for {@link SearchArgument}.
+     * The column IDs are computed from the source object inspector, in the same order as ORCFile assigns them to
+     * the file schema (pre-order traversal of the type tree).
+     * @param driver the current data model driver
+     * @return the column names, indexed by their column ID
+     */
+    public static String[] getColumnNames(DataModelDriver driver) {
+        List<? extends StructField> fields = driver.getSourceInspector().getAllStructFieldRefs();
+        int[] columnIds = new int[fields.size()];
+        // the first type must be a root type
+        int nextId = 1;
+        for (int i = 0, n = fields.size(); i < n; i++) {
+            columnIds[i] = nextId;
+            nextId += countTypes(fields.get(i).getFieldObjectInspector());
+        }
+        return getColumnNames(driver, columnIds, nextId);
+    }
+
+    /**
+     * Returns the column names for {@link SearchArgument}.
+     * @param driver the current data model driver
+     * @param columnIds the column IDs of the individual top-level fields in the source object inspector
+     * @param numberOfColumns the total number of columns in the file schema, including nested ones
+     * @return the column names, indexed by their column ID
+     */
+    public static String[] getColumnNames(DataModelDriver driver, int[] columnIds, int numberOfColumns) {
+        List<? extends StructField> fields = driver.getSourceInspector().getAllStructFieldRefs();
+        if (columnIds.length != fields.size()) {
+            throw new IllegalArgumentException(MessageFormat.format(
+                    "inconsistent number of columns: {0} (expected: {1})", //$NON-NLS-1$
+                    columnIds.length,
+                    fields.size()));
+        }
+        String[] results = new String[numberOfColumns];
+        for (int i = 0, n = fields.size(); i < n; i++) {
+            results[columnIds[i]] = fields.get(i).getFieldName();
+        }
+        return results;
+    }
+
+    private static int countTypes(ObjectInspector inspector) {
+        switch (inspector.getCategory()) {
+        case PRIMITIVE:
+            return 1;
+        case LIST:
+            return 1 + countTypes(((ListObjectInspector) inspector).getListElementObjectInspector());
+        case MAP: {
+            MapObjectInspector map = (MapObjectInspector) inspector;
+            return 1 + countTypes(map.getMapKeyObjectInspector()) + countTypes(map.getMapValueObjectInspector());
+        }
+        case STRUCT: {
+            int count = 1;
+            for (StructField field : ((StructObjectInspector) inspector).getAllStructFieldRefs()) {
+                count += countTypes(field.getFieldObjectInspector());
+            }
+            return count;
+        }
+        case UNION: {
+            int count = 1;
+            for (ObjectInspector element : ((UnionObjectInspector) inspector).getObjectInspectors()) {
+                count += countTypes(element);
+            }
+            return count;
+        }
+        default:
+            throw new AssertionError(inspector.getCategory());
+        }
+    }
+
+    @Override
+    public Consumer<SearchArgument.Builder> visitComparison(
+            PropertyPredicate.Comparison predicate, DataModelDriver driver) {
+        Column column = Column.of(driver, predicate.getProperty());
+        if (column == null) {
+            return null;
+        }
+        Object value = column.convert(predicate.getValue());
+        if (value == null) {
+            return null;
+        }
+        String name = column.name;
+        PredicateLeaf.Type type = column.type;
+        switch (predicate.getOperator()) {
+        case EQUAL:
+            return b -> b.equals(name, type, value);
+        case LESS_THAN:
+            return b -> b.lessThan(name, type, value);
+        case LESS_THAN_OR_EQUAL:
+            return b -> b.lessThanEquals(name, type, value);
+        case GREATER_THAN:
+            return b -> b.startNot().lessThanEquals(name, type, value).end();
+        case GREATER_THAN_OR_EQUAL:
+            return b -> b.startNot().lessThan(name, type, value).end();
+        default:
+            throw new AssertionError(predicate.getOperator());
+        }
+    }
+
+    @Override
+    public Consumer<SearchArgument.Builder> visitBetween(PropertyPredicate.Between predicate, DataModelDriver driver) {
+        Column column = Column.of(driver, predicate.getProperty());
+        if (column == null) {
+            return null;
+        }
+        Object lower = column.convert(predicate.getLower());
+        Object upper = column.convert(predicate.getUpper());
+        if (lower == null || upper == null) {
+            return null;
+        }
+        return b -> b.between(column.name, column.type, lower, upper);
+    }
+
+    @Override
+    public Consumer<SearchArgument.Builder> visitIn(PropertyPredicate.In predicate, DataModelDriver driver) {
+        Column column = Column.of(driver, predicate.getProperty());
+        if (column == null) {
+            return null;
+        }
+        List<Object> values = new ArrayList<>();
+        for (Object value : predicate.getValues()) {
+            Object converted = column.convert(value);
+            if (converted == null) {
+                return null;
+            }
+            values.add(converted);
+        }
+        Object[] array = values.toArray();
+        return b -> b.in(column.name, column.type, array);
+    }
+
+    @Override
+    public Consumer<SearchArgument.Builder> visitIsNull(PropertyPredicate.IsNull predicate, DataModelDriver driver) {
+        Column column = Column.of(driver, predicate.getProperty());
+        if (column == null) {
+            return null;
+        }
+        return b -> b.isNull(column.name, column.type);
+    }
+
+    @Override
+    public Consumer<SearchArgument.Builder> visitConnective(
+            PropertyPredicate.Connective predicate, DataModelDriver driver) {
+        List<Consumer<SearchArgument.Builder>> elements = new ArrayList<>();
+        for (PropertyPredicate element : predicate.getElements()) {
+            Consumer<SearchArgument.Builder> translated = element.accept(this, driver);
+            if (translated != null) {
+                elements.add(translated);
+            } else if (predicate.isConjunction() == false) {
+                // a disjunction cannot be used for pruning if any its elements are unknown
+                return null;
+            }
+        }
+        if (elements.isEmpty()) {
+            return null;
+        }
+        if (elements.size() == 1) {
+            return elements.get(0);
+        }
+        boolean conjunction = predicate.isConjunction();
+        return b -> {
+            if (conjunction) {
+                b.startAnd();
+            } else {
+                b.startOr();
+            }
+            for (Consumer<SearchArgument.Builder> element : elements) {
+                element.accept(b);
+            }
+            b.end();
+        };
+    }
+
+    private static final class Column {
+
+        final String name;
+
+        final PredicateLeaf.Type type;
+
+        private Column(String name, PredicateLeaf.Type type) {
+            this.name = name;
+            this.type = type;
+        }
+
+        static Column of(DataModelDriver driver, String property) {
+            StructField field = driver.findSourceField(property);
+            if (field == null) {
+                return null;
+            }
+            ObjectInspector inspector = field.getFieldObjectInspector();
+            if (inspector.getCategory() != ObjectInspector.Category.PRIMITIVE) {
+                return null;
+            }
+            PredicateLeaf.Type type;
+            switch (((PrimitiveObjectInspector) inspector).getPrimitiveCategory()) {
+            case BOOLEAN:
+                type = PredicateLeaf.Type.BOOLEAN;
+                break;
+            case BYTE:
+            case SHORT:
+            case INT:
+            case LONG:
+                type = PredicateLeaf.Type.LONG;
+                break;
+            case FLOAT:
+            case DOUBLE:
+                type = PredicateLeaf.Type.FLOAT;
+                break;
+            case STRING:
+            case VARCHAR:
+                type = PredicateLeaf.Type.STRING;
+                break;
+            case DECIMAL:
+                type = PredicateLeaf.Type.DECIMAL;
+                break;
+            case DATE:
+                type = PredicateLeaf.Type.DATE;
+                break;
+            default:
+                // CHAR is padded, and TIMESTAMP depends on the time zone
+                return null;
+            }
+            return new Column(field.getFieldName(), type);
+        }
+
+        Object convert(Object value) {
+            switch (type) {
+            case BOOLEAN:
+                return value instanceof Boolean ? value : null;
+            case LONG:
+                if (isIntegral(value)) {
+                    return ((Number) value).longValue();
+                }
+                return null;
+            case FLOAT:
+                if (isExactDouble(value)) {
+                    return ((Number) value).doubleValue();
+                }
+                return null;
+            case STRING:
+                return value instanceof String ? value : null;
+            case DECIMAL:
+                if (value instanceof BigDecimal) {
+                    return new HiveDecimalWritable(HiveDecimal.create((BigDecimal) value));
+                } else if (isIntegral(value)) {
+                    return new HiveDecimalWritable(HiveDecimal.create(((Number) value).longValue()));
+                }
+                return null;
+            case DATE:
+                if (value instanceof Date) {
+                    return new DateWritable(TemporalUtil.getDaysSinceEpoch((Date) value)).get();
+                }
+                return null;
+            default:
+                return null;
+            }
+        }
+
+        private static boolean isIntegral(Object value) {
+            return value instanceof Byte
+                    || value instanceof Short
+                    || value instanceof Integer
+                    || value instanceof Long;
+        }
+
+        private static boolean isExactDouble(Object value) {
+            // long values may lose their precision
+            return value instanceof Byte
+                    || value instanceof Short
+                    || value instanceof Integer
+                    || value instanceof Float
+                    || value instanceof Double;
+        }
+    }
+}
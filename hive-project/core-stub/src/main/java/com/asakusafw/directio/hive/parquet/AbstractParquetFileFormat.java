@@ -30,7 +30,9 @@ import com.asakusafw.info.hive.BuiltinStorageFormatInfo;
 import com.asakusafw.info.hive.StorageFormatInfo;
 import com.asakusafw.info.hive.TableInfo;
 import com.asakusafw.runtime.directio.Counter;
+import com.asakusafw.runtime.directio.DataFilter;
 import com.asakusafw.runtime.directio.DirectInputFragment;
+import com.asakusafw.runtime.directio.PropertyPredicate;
 import com.asakusafw.runtime.directio.hadoop.HadoopFileFormat;
 import com.asakusafw.runtime.directio.hadoop.StripedDataFormat;
 import com.asakusafw.runtime.io.ModelInput;
@@ -40,6 +42,7 @@ import com.asakusafw.runtime.io.ModelOutput;
  * An abstract implementation of {@link HadoopFileFormat} for Parquet.
  * @param <T> the data model type
  * @since 0.7.0
+ * @version 0.10.5
  */
 public abstract class AbstractParquetFileFormat<T> extends HadoopFileFormat<T>
         implements StripedDataFormat<T>, TableInfo.Provider {
@@ -105,6 +108,27 @@ public abstract class AbstractParquetFileFormat<T> extends HadoopFileFormat<T>
         return COMPAT.createInput(this, dataType, fileSystem, path, offset, fragmentSize, counter);
     }
 
+    @Override
+    public ModelInput<T> createInput(
+            Class<? extends T> dataType,
+            FileSystem fileSystem, Path path,
+            long offset, long fragmentSize,
+            Counter counter,
+            DataFilter<? super T> filter) throws IOException, InterruptedException {
+        PropertyPredicate predicate = filter == null ? null : filter.getPredicate();
+        if (predicate == null) {
+            return createInput(dataType, fileSystem, path, offset, fragmentSize, counter);
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(MessageFormat.format(
+                    "Parquet file input ({0}): {1}, predicate={2}", //$NON-NLS-1$
+                    path,
+                    getFormatConfiguration(),
+                    predicate));
+        }
+        return COMPAT.createInput(this, dataType, fileSystem, path, offset, fragmentSize, counter, predicate);
+    }
+
     @Override
     public ModelOutput<T> createOutput(
             Class<? extends T> dataType,
@@ -32,7 +32,9 @@ import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hive.serde2.typeinfo.TypeInfo;
 
 import com.asakusafw.runtime.directio.Counter;
+import com.asakusafw.runtime.directio.DataFilter;
 import com.asakusafw.runtime.directio.DirectInputFragment;
+import com.asakusafw.runtime.directio.PropertyPredicate;
 import com.asakusafw.runtime.directio.hadoop.StripedDataFormat.InputContext;
 import com.asakusafw.runtime.io.ModelInput;
 import com.asakusafw.runtime.io.ModelOutput;
@@ -41,6 +43,7 @@ import com.asakusafw.runtime.value.ValueOption;
 /**
  * compatibility layer for Direct I/O Parquet support.
  * @since 0.10.3
+ * @version 0.10.5
  */
 public abstract class Compatibility {
 
@@ -138,6 +141,38 @@ public abstract class Compatibility {
             long fragmentSize,
             Counter counter) throws IOException, InterruptedException;
 
+    /**
+     * delegate from
+     * {@link AbstractParquetFileFormat#createInput(Class, FileSystem, Path, long, long, Counter, DataFilter)}.
+     * The predicate is only a hint to skip row groups, and this may just ignore it.
+     * @param <T> the data type
+     * @param format the source format
+     * @param dataType the target data type
+     * @param fileSystem the file system to open the target path
+     * @param path the path to the target file
+     * @param offset starting stream offset
+     * @param fragmentSize suggested fragment bytes count, or {@code -1} as infinite
+     * @param counter the current counter
+     * @param predicate the predicate of the target data, or {@code null} if it is not defined
+     * @return the created reader
+     * @throws IOException if failed to create reader
+     * @throws InterruptedException if interrupted
+     * @throws IllegalArgumentException if this does not support target property sequence,
+     *     or any parameter is {@code null}
+     * @since 0.10.5
+     */
+    public <T> ModelInput<T> createInput(
+            AbstractParquetFileFormat<T> format,
+            Class<? extends T> dataType,
+            FileSystem fileSystem,
+            Path path,
+            long offset,
+            long fragmentSize,
+            Counter counter,
+            PropertyPredicate predicate) throws IOException, InterruptedException {
+        return createInput(format, dataType, fileSystem, path, offset, fragmentSize, counter);
+    }
+
     /**
      * delegate from {@link AbstractParquetFileFormat#createOutput(Class, FileSystem, Path, Counter)}.
      * @param <T> the data type
@@ -36,6 +36,7 @@ import com.asakusafw.runtime.value.ValueOption;
 /**
  * Drives a value into an Asakusa data model.
  * @since 0.7.0
+ * @version 0.10.5
  */
 public class DataModelDriver {
 
@@ -232,6 +233,34 @@ public class DataModelDriver {
         return results;
     }
 
+    /**
+     * Returns target properties which will be actually mapped from the source fields.
+     * Each element corresponds to the element of {@link #getSourceFields()} at the same position.
+     * @return target properties
+     * @since 0.10.5
+     */
+    public List<PropertyDescriptor> getTargetProperties() {
+        List<PropertyDescriptor> results = new ArrayList<>();
+        Collections.addAll(results, this.targetProperties);
+        return results;
+    }
+
+    /**
+     * Returns the source field reference which will be actually mapped into the target property.
+     * @param propertyName the target property name
+     * @return the mapped source field reference, or {@code null} if the property is not mapped
+     * @since 0.10.5
+     */
+    public StructField findSourceField(String propertyName) {
+        PropertyDescriptor[] targets = this.targetProperties;
+        for (int i = 0; i < targets.length; i++) {
+            if (targets[i].getFieldName().equalsIgnoreCase(propertyName)) {
+                return sourceFields[i];
+            }
+        }
+        return null;
+    }
+
     /**
      * Sets data model properties from the source object.
      * @param dataModel the data model object
@@ -45,6 +45,7 @@ import com.asakusafw.directio.hive.serde.DataModelMapping;
 import com.asakusafw.directio.hive.util.CompatibilityUtil;
 import com.asakusafw.runtime.directio.Counter;
 import com.asakusafw.runtime.directio.DirectInputFragment;
+import com.asakusafw.runtime.directio.PropertyPredicate;
 import com.asakusafw.runtime.directio.hadoop.BlockMap;
 import com.asakusafw.runtime.directio.hadoop.StripedDataFormat.InputContext;
 import com.asakusafw.runtime.io.ModelInput;
@@ -53,6 +54,7 @@ import com.asakusafw.runtime.io.ModelOutput;
 /**
  * compatibility layer for Direct I/O ORC File support.
  * @since 0.10.3
+ * @version 0.10.5
  */
 public class CompatibilityV1 extends Compatibility {
 
@@ -151,6 +153,19 @@ public class CompatibilityV1 extends Compatibility {
             long offset,
             long fragmentSize,
             Counter counter) throws IOException, InterruptedException {
+        return createInput(format, dataType, fileSystem, path, offset, fragmentSize, counter, null);
+    }
+
+    @Override
+    public <T> ModelInput<T> createInput(
+            AbstractOrcFileFormat<T> format,
+            Class<? extends T> dataType,
+            FileSystem fileSystem,
+            Path path,
+            long offset,
+            long fragmentSize,
+            Counter counter,
+            PropertyPredicate predicate) throws IOException, InterruptedException {
         DataModelMapping driverConf = new DataModelMapping();
         OrcFormatConfiguration conf = format.getFormatConfiguration();
         if (conf.getFieldMappingStrategy() != null) {
@@ -173,7 +188,8 @@ public class CompatibilityV1 extends Compatibility {
         return new OrcFileInput<>(
                 format.getDataModelDescriptor(), driverConf,
                 fileSystem, path,
-                offset, size, counter);
+                offset, size, counter,
+                predicate);
     }
 
     @Override
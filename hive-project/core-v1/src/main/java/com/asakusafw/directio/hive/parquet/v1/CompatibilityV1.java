@@ -38,6 +38,7 @@ import com.asakusafw.directio.hive.serde.DataModelMapping;
 import com.asakusafw.directio.hive.util.CompatibilityUtil;
 import com.asakusafw.runtime.directio.Counter;
 import com.asakusafw.runtime.directio.DirectInputFragment;
+import com.asakusafw.runtime.directio.PropertyPredicate;
 import com.asakusafw.runtime.directio.hadoop.BlockMap;
 import com.asakusafw.runtime.directio.hadoop.StripedDataFormat.InputContext;
 import com.asakusafw.runtime.io.ModelInput;
@@ -53,6 +54,7 @@ import parquet.hadoop.metadata.CompressionCodecName;
 /**
  * compatibility layer for Direct I/O Parquet support.
  * @since 0.10.3
+ * @version 0.10.5
  */
 public class CompatibilityV1 extends Compatibility {
 
@@ -152,6 +154,19 @@ public class CompatibilityV1 extends Compatibility {
             long offset,
             long fragmentSize,
             Counter counter) throws IOException, InterruptedException {
+        return createInput(format, dataType, fileSystem, path, offset, fragmentSize, counter, null);
+    }
+
+    @Override
+    public <T> ModelInput<T> createInput(
+            AbstractParquetFileFormat<T> format,
+            Class<? extends T> dataType,
+            FileSystem fileSystem,
+            Path path,
+            long offset,
+            long fragmentSize,
+            Counter counter,
+            PropertyPredicate predicate) throws IOException, InterruptedException {
         ParquetFormatConfiguration conf = format.getFormatConfiguration();
         DataModelMapping driverConf = new DataModelMapping();
         if (conf.getFieldMappingStrategy() != null) {
@@ -176,7 +191,8 @@ public class CompatibilityV1 extends Compatibility {
                 driverConf,
                 format.getConf(), path,
                 offset, size,
-                counter);
+                counter,
+                predicate);
     }
 
     @Override
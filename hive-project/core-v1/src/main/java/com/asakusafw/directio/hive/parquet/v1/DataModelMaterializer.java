@@ -44,6 +44,7 @@ import parquet.schema.Type.Repetition;
 /**
  * An implementation of parquet record materializer for Asakusa data models.
  * @since 0.7.0
+ * @version 0.10.5
  */
 public class DataModelMaterializer extends RecordMaterializer<Object> {
 
@@ -53,6 +54,8 @@ public class DataModelMaterializer extends RecordMaterializer<Object> {
 
     private final DataModelConverter root;
 
+    private final List<Mapping> mappings;
+
     /**
      * Creates a new instance.
      * @param descriptor the target descriptor
@@ -77,6 +80,7 @@ public class DataModelMaterializer extends RecordMaterializer<Object> {
         }
         this.materializeSchema = new MessageType(schema.getName(), fields);
         this.root = new DataModelConverter(properties);
+        this.mappings = mappings;
     }
 
     /**
@@ -87,6 +91,21 @@ public class DataModelMaterializer extends RecordMaterializer<Object> {
         return materializeSchema;
     }
 
+    /**
+     * Returns the source column which will be actually mapped into the target property.
+     * @param propertyName the target property name
+     * @return the mapped source column, or {@code null} if the property is not mapped
+     * @since 0.10.5
+     */
+    public ColumnDescriptor findSourceColumn(String propertyName) {
+        for (Mapping mapping : mappings) {
+            if (mapping != null && mapping.target.getFieldName().equalsIgnoreCase(propertyName)) {
+                return mapping.source;
+            }
+        }
+        return null;
+    }
+
     /**
      * Sets the next record.
      * @param object the next record object
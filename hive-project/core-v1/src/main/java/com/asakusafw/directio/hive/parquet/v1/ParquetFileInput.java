@@ -31,9 +31,13 @@ import com.asakusafw.directio.hive.serde.DataModelDescriptor;
 import com.asakusafw.directio.hive.serde.DataModelDriver;
 import com.asakusafw.directio.hive.serde.DataModelMapping;
 import com.asakusafw.runtime.directio.Counter;
+import com.asakusafw.runtime.directio.PropertyPredicate;
 import com.asakusafw.runtime.io.ModelInput;
 
 import parquet.column.page.PageReadStore;
+import parquet.filter2.compat.FilterCompat;
+import parquet.filter2.compat.RowGroupFilter;
+import parquet.filter2.predicate.FilterPredicate;
 import parquet.format.converter.ParquetMetadataConverter;
 import parquet.hadoop.ParquetFileReader;
 import parquet.hadoop.metadata.BlockMetaData;
@@ -43,11 +47,13 @@ import parquet.hadoop.metadata.ParquetMetadata;
 import parquet.io.ColumnIOFactory;
 import parquet.io.MessageColumnIO;
 import parquet.io.RecordReader;
+import parquet.schema.MessageType;
 
 /**
  * An implementation of {@link ModelInput} for reading Parquet files.
  * @param <T> the data model type
  * @since 0.7.0
+ * @version 0.10.5
  */
 public class ParquetFileInput<T> implements ModelInput<T> {
 
@@ -84,6 +90,8 @@ public class ParquetFileInput<T> implements ModelInput<T> {
 
     private final Counter counter;
 
+    private final PropertyPredicate predicate;
+
     private long rowRest = -1;
 
     private ParquetFileReader fileReader;
@@ -114,6 +122,28 @@ public class ParquetFileInput<T> implements ModelInput<T> {
             Configuration hadoopConfiguration, Path path,
             long offset, long fragmentSize,
             Counter counter) {
+        this(descriptor, mappingConfiguration, hadoopConfiguration, path, offset, fragmentSize, counter, null);
+    }
+
+    /**
+     * Creates a new instance.
+     * @param descriptor the target data model descriptor
+     * @param mappingConfiguration the {@link DataModelDriver} configuration
+     * @param hadoopConfiguration the hadoop configuration
+     * @param path the path to the target file
+     * @param offset starting stream offset
+     * @param fragmentSize suggested fragment bytes count
+     * @param counter the current counter
+     * @param predicate the predicate to skip row groups, or {@code null} to read all of them
+     * @since 0.10.5
+     */
+    public ParquetFileInput(
+            DataModelDescriptor descriptor,
+            DataModelMapping mappingConfiguration,
+            Configuration hadoopConfiguration, Path path,
+            long offset, long fragmentSize,
+            Counter counter,
+            PropertyPredicate predicate) {
         this.descriptor = descriptor;
         this.mappingConfiguration = mappingConfiguration;
         this.hadoopConfiguration = hadoopConfiguration;
@@ -121,6 +151,7 @@ public class ParquetFileInput<T> implements ModelInput<T> {
         this.offset = offset;
         this.fragmentSize = fragmentSize;
         this.counter = counter;
+        this.predicate = predicate;
     }
 
     @Override
@@ -171,6 +202,12 @@ public class ParquetFileInput<T> implements ModelInput<T> {
             if (blocks.isEmpty()) {
                 return null;
             }
+            MessageType schema = footer.getFileMetaData().getSchema();
+            DataModelMaterializer mat = new DataModelMaterializer(descriptor, schema, mappingConfiguration);
+            blocks = filterRowGroups(blocks, schema, mat);
+            if (blocks.isEmpty()) {
+                return null;
+            }
             long totalRecords = computeTotalRecords(blocks);
             this.averageBytesPerRecord = (double) fragmentSize / totalRecords;
             if (LOG.isInfoEnabled()) {
@@ -182,13 +219,10 @@ public class ParquetFileInput<T> implements ModelInput<T> {
                         fragmentSize));
             }
             this.fileReader = createFileReader(footer, blocks);
-            this.materializer = new DataModelMaterializer(
-                    descriptor,
-                    footer.getFileMetaData().getSchema(),
-                    mappingConfiguration);
+            this.materializer = mat;
             this.columnIo = new ColumnIOFactory().getColumnIO(
                     materializer.getMaterializeSchema(),
-                    footer.getFileMetaData().getSchema());
+                    schema);
         }
         return fileReader.readNextRowGroup();
     }
@@ -271,6 +305,26 @@ public class ParquetFileInput<T> implements ModelInput<T> {
         return results;
     }
 
+    private List<BlockMetaData> filterRowGroups(
+            List<BlockMetaData> blocks, MessageType schema, DataModelMaterializer mat) {
+        if (predicate == null) {
+            return blocks;
+        }
+        FilterPredicate filter = ParquetPredicateTranslator.translate(predicate, schema, mat);
+        if (filter == null) {
+            return blocks;
+        }
+        List<BlockMetaData> results = RowGroupFilter.filterRowGroups(FilterCompat.get(filter), blocks, schema);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(MessageFormat.format(
+                    "Filter parquet row groups by predicate: {0} ({1} -> {2})", //$NON-NLS-1$
+                    path,
+                    blocks.size(),
+                    results.size()));
+        }
+        return results;
+    }
+
     private RecordReader<Object> createRecordReader(PageReadStore store) {
         assert materializer != null;
         this.currentRecordReader = columnIo.getRecordReader(store, materializer);
@@ -0,0 +1,356 @@
+/**
+ * Copyright 2011-2021 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.directio.hive.parquet.v1;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import com.asakusafw.directio.hive.util.TemporalUtil;
+import com.asakusafw.runtime.directio.PropertyPredicate;
+import com.asakusafw.runtime.value.Date;
+
+import parquet.column.ColumnDescriptor;
+import parquet.filter2.predicate.FilterApi;
+import parquet.filter2.predicate.FilterPredicate;
+import parquet.filter2.predicate.Operators;
+import parquet.schema.MessageType;
+import parquet.schema.OriginalType;
+import parquet.schema.Type;
+
+/**
+ * Translates {@link PropertyPredicate} into Parquet {@link FilterPredicate}.
+ * Predicates which cannot be evaluated on Parquet row group statistics are weakened or just ignored.
+ * Note that predicates for binary columns are always ignored,
+ * because some Parquet writers sort their statistics in a different order.
+ * @since 0.10.5
+ */
+final class ParquetPredicateTranslator implements PropertyPredicate.Visitor<FilterPredicate, Void> {
+
+    static final Log LOG = LogFactory.getLog(ParquetPredicateTranslator.class);
+
+    private final MessageType schema;
+
+    private final DataModelMaterializer materializer;
+
+    private ParquetPredicateTranslator(MessageType schema, DataModelMaterializer materializer) {
+        this.schema = schema;
+        this.materializer = materializer;
+    }
+
+    /**
+     * Translates the predicate into {@link FilterPredicate}.
+     * @param predicate the source predicate
+     * @param schema the file schema
+     * @param materializer the current materializer
+     * @return the translated filter predicate, or {@code null} if the predicate is not supported
+     */
+    static FilterPredicate translate(
+            PropertyPredicate predicate, MessageType schema, DataModelMaterializer materializer) {
+        FilterPredicate result = predicate.accept(new ParquetPredicateTranslator(schema, materializer), null);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(MessageFormat.format(
+                    "Parquet predicate: {0} -> {1}", //$NON-NLS-1$
+                    predicate,
+                    result));
+        }
+        return result;
+    }
+
+    @Override
+    public FilterPredicate visitComparison(PropertyPredicate.Comparison predicate, Void context) {
+        Column column = findColumn(predicate.getProperty());
+        if (column == null) {
+            return null;
+        }
+        return column.compare(predicate.getOperator(), predicate.getValue());
+    }
+
+    @Override
+    public FilterPredicate visitBetween(PropertyPredicate.Between predicate, Void context) {
+        Column column = findColumn(predicate.getProperty());
+        if (column == null) {
+            return null;
+        }
+        FilterPredicate lower = column.compare(PropertyPredicate.Operator.GREATER_THAN_OR_EQUAL, predicate.getLower());
+        FilterPredicate upper = column.compare(PropertyPredicate.Operator.LESS_THAN_OR_EQUAL, predicate.getUpper());
+        if (lower == null || upper == null) {
+            return null;
+        }
+        return FilterApi.and(lower, upper);
+    }
+
+    @Override
+    public FilterPredicate visitIn(PropertyPredicate.In predicate, Void context) {
+        Column column = findColumn(predicate.getProperty());
+        if (column == null) {
+            return null;
+        }
+        FilterPredicate result = null;
+        for (Object value : predicate.getValues()) {
+            FilterPredicate element = column.compare(PropertyPredicate.Operator.EQUAL, value);
+            if (element == null) {
+                return null;
+            }
+            result = result == null ? element : FilterApi.or(result, element);
+        }
+        return result;
+    }
+
+    @Override
+    public FilterPredicate visitIsNull(PropertyPredicate.IsNull predicate, Void context) {
+        Column column = findColumn(predicate.getProperty());
+        if (column == null) {
+            return null;
+        }
+        return column.isNull();
+    }
+
+    @Override
+    public FilterPredicate visitConnective(PropertyPredicate.Connective predicate, Void context) {
+        List<FilterPredicate> elements = new ArrayList<>();
+        for (PropertyPredicate element : predicate.getElements()) {
+            FilterPredicate translated = element.accept(this, context);
+            if (translated != null) {
+                elements.add(translated);
+            } else if (predicate.isConjunction() == false) {
+                // a disjunction cannot be used for pruning if any its elements are unknown
+                return null;
+            }
+        }
+        FilterPredicate result = null;
+        for (FilterPredicate element : elements) {
+            if (result == null) {
+                result = element;
+            } else if (predicate.isConjunction()) {
+                result = FilterApi.and(result, element);
+            } else {
+                result = FilterApi.or(result, element);
+            }
+        }
+        return result;
+    }
+
+    private Column findColumn(String property) {
+        ColumnDescriptor source = materializer.findSourceColumn(property);
+        if (source == null || source.getPath().length != 1) {
+            return null;
+        }
+        String name = source.getPath()[0];
+        if (name.indexOf('.') >= 0) {
+            // FilterApi cannot handle column names which contain dots
+            return null;
+        }
+        Type type = schema.getType(source.getPath());
+        if (type.isPrimitive() == false) {
+            return null;
+        }
+        OriginalType originalType = type.getOriginalType();
+        switch (type.asPrimitiveType().getPrimitiveTypeName()) {
+        case BOOLEAN:
+            return originalType == null ? new BooleanColumn(name) : null;
+        case INT32:
+            if (originalType == OriginalType.DATE) {
+                return new DateColumn(name);
+            }
+            return isPlainInteger(originalType) ? new IntColumn(name) : null;
+        case INT64:
+            return isPlainInteger(originalType) ? new LongColumn(name) : null;
+        case FLOAT:
+            return originalType == null ? new FloatColumn(name) : null;
+        case DOUBLE:
+            return originalType == null ? new DoubleColumn(name) : null;
+        default:
+            return null;
+        }
+    }
+
+    private static boolean isPlainInteger(OriginalType originalType) {
+        if (originalType == null) {
+            return true;
+        }
+        switch (originalType) {
+        case INT_8:
+        case INT_16:
+        case INT_32:
+        case INT_64:
+            return true;
+        default:
+            return false;
+        }
+    }
+
+    static <T extends Comparable<T>, C extends Operators.Column<T> & Operators.SupportsLtGt> FilterPredicate compare(
+            C column, PropertyPredicate.Operator operator, T value) {
+        switch (operator) {
+        case EQUAL:
+            return FilterApi.eq(column, value);
+        case LESS_THAN:
+            return FilterApi.lt(column, value);
+        case LESS_THAN_OR_EQUAL:
+            return FilterApi.ltEq(column, value);
+        case GREATER_THAN:
+            return FilterApi.gt(column, value);
+        case GREATER_THAN_OR_EQUAL:
+            return FilterApi.gtEq(column, value);
+        default:
+            throw new AssertionError(operator);
+        }
+    }
+
+    private abstract static class Column {
+
+        final String name;
+
+        Column(String name) {
+            this.name = name;
+        }
+
+        abstract FilterPredicate compare(PropertyPredicate.Operator operator, Object value);
+
+        abstract FilterPredicate isNull();
+    }
+
+    private static final class BooleanColumn extends Column {
+
+        BooleanColumn(String name) {
+            super(name);
+        }
+
+        @Override
+        FilterPredicate compare(PropertyPredicate.Operator operator, Object value) {
+            if (operator != PropertyPredicate.Operator.EQUAL || value instanceof Boolean == false) {
+                return null;
+            }
+            return FilterApi.eq(FilterApi.booleanColumn(name), (Boolean) value);
+        }
+
+        @Override
+        FilterPredicate isNull() {
+            return FilterApi.eq(FilterApi.booleanColumn(name), null);
+        }
+    }
+
+    private static class IntColumn extends Column {
+
+        IntColumn(String name) {
+            super(name);
+        }
+
+        @Override
+        FilterPredicate compare(PropertyPredicate.Operator operator, Object value) {
+            Integer converted = convert(value);
+            if (converted == null) {
+                return null;
+            }
+            return ParquetPredicateTranslator.compare(FilterApi.intColumn(name), operator, converted);
+        }
+
+        Integer convert(Object value) {
+            if (value instanceof Byte || value instanceof Short || value instanceof Integer) {
+                return ((Number) value).intValue();
+            }
+            return null;
+        }
+
+        @Override
+        FilterPredicate isNull() {
+            return FilterApi.eq(FilterApi.intColumn(name), null);
+        }
+    }
+
+    private static final class DateColumn extends IntColumn {
+
+        DateColumn(String name) {
+            super(name);
+        }
+
+        @Override
+        Integer convert(Object value) {
+            if (value instanceof Date) {
+                return TemporalUtil.getDaysSinceEpoch((Date) value);
+            }
+            return null;
+        }
+    }
+
+    private static final class LongColumn extends Column {
+
+        LongColumn(String name) {
+            super(name);
+        }
+
+        @Override
+        FilterPredicate compare(PropertyPredicate.Operator operator, Object value) {
+            if (value instanceof Byte || value instanceof Short || value instanceof Integer || value instanceof Long) {
+                Long converted = ((Number) value).longValue();
+                return ParquetPredicateTranslator.compare(FilterApi.longColumn(name), operator, converted);
+            }
+            return null;
+        }
+
+        @Override
+        FilterPredicate isNull() {
+            return FilterApi.eq(FilterApi.longColumn(name), null);
+        }
+    }
+
+    private static final class FloatColumn extends Column {
+
+        FloatColumn(String name) {
+            super(name);
+        }
+
+        @Override
+        FilterPredicate compare(PropertyPredicate.Operator operator, Object value) {
+            if (value instanceof Float) {
+                return ParquetPredicateTranslator.compare(FilterApi.floatColumn(name), operator, (Float) value);
+            }
+            return null;
+        }
+
+        @Override
+        FilterPredicate isNull() {
+            return FilterApi.eq(FilterApi.floatColumn(name), null);
+        }
+    }
+
+    private static final class DoubleColumn extends Column {
+
+        DoubleColumn(String name) {
+            super(name);
+        }
+
+        @Override
+        FilterPredicate compare(PropertyPredicate.Operator operator, Object value) {
+            // long values may lose their precision
+            if (value instanceof Byte || value instanceof Short || value instanceof Integer
+                    || value instanceof Float || value instanceof Double) {
+                Double converted = ((Number) value).doubleValue();
+                return ParquetPredicateTranslator.compare(FilterApi.doubleColumn(name), operator, converted);
+            }
+            return null;
+        }
+
+        @Override
+        FilterPredicate isNull() {
+            return FilterApi.eq(FilterApi.doubleColumn(name), null);
+        }
+    }
+}
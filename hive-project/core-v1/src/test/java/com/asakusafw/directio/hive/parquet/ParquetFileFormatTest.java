@@ -64,10 +64,12 @@ import com.asakusafw.directio.hive.serde.ValueSerde;
 import com.asakusafw.directio.hive.serde.ValueSerdeFactory;
 import com.asakusafw.directio.hive.serde.mock.MockSimple;
 import com.asakusafw.directio.hive.serde.mock.MockTypes;
+import com.asakusafw.directio.hive.util.PredicatePushdownTester;
 import com.asakusafw.info.hive.BuiltinStorageFormatInfo;
 import com.asakusafw.info.hive.StorageFormatInfo;
 import com.asakusafw.runtime.directio.Counter;
 import com.asakusafw.runtime.directio.DirectInputFragment;
+import com.asakusafw.runtime.directio.PropertyPredicate;
 import com.asakusafw.runtime.directio.hadoop.StripedDataFormat;
 import com.asakusafw.runtime.io.ModelInput;
 import com.asakusafw.runtime.io.ModelOutput;
@@ -854,6 +856,17 @@ public class ParquetFileFormatTest {
                 new Counter());
     }
 
+    /**
+     * I/O with predicate.
+     * @throws Exception if failed
+     */
+    @Test
+    public void io_predicate() throws Exception {
+        ParquetFileFormat<MockSimple> format = format(MockSimple.class);
+        File file = save(format, PredicatePushdownTester.data());
+        PredicatePushdownTester.verify(predicate -> load(format, file, predicate));
+    }
+
     private <T> T restore(ParquetFileFormat<T> format, T value) throws IOException, InterruptedException {
         List<T> in = new ArrayList<>();
         in.add(value);
@@ -884,12 +897,19 @@ public class ParquetFileFormatTest {
     }
 
     private <T> List<T> load(ParquetFileFormat<T> format, File file) throws IOException, InterruptedException {
+        return load(format, file, null);
+    }
+
+    private <T> List<T> load(
+            ParquetFileFormat<T> format, File file,
+            PropertyPredicate predicate) throws IOException, InterruptedException {
         LocalFileSystem fs = FileSystem.getLocal(format.getConf());
         try (ModelInput<T> input = format.createInput(
                 format.getSupportedType(),
                 fs, new Path(file.toURI()),
                 0, file.length(),
-                new Counter())) {
+                new Counter(),
+                PredicatePushdownTester.filter(predicate))) {
             List<T> results = new ArrayList<>();
             while (true) {
                 @SuppressWarnings("unchecked")
@@ -0,0 +1,98 @@
+/**
+ * Copyright 2011-2021 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.directio.hive.util;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import com.asakusafw.directio.hive.serde.mock.MockSimple;
+import com.asakusafw.runtime.directio.DataFilter;
+import com.asakusafw.runtime.directio.PropertyPredicate;
+
+/**
+ * Common test cases of predicate push down for Hive file formats.
+ */
+public final class PredicatePushdownTester {
+
+    private PredicatePushdownTester() {
+        return;
+    }
+
+    /**
+     * Returns the contents for {@link #verify(Loader)}.
+     * @return the contents
+     */
+    public static List<MockSimple> data() {
+        return Arrays.asList(new MockSimple(100, "a"), new MockSimple(200, "b"));
+    }
+
+    /**
+     * Returns a data filter which only provides the given predicate.
+     * @param predicate the predicate, may be {@code null}
+     * @return the data filter
+     */
+    public static DataFilter<Object> filter(PropertyPredicate predicate) {
+        return new DataFilter<Object>() {
+            @Override
+            public PropertyPredicate getPredicate() {
+                return predicate;
+            }
+        };
+    }
+
+    /**
+     * Verifies predicate push down.
+     * @param loader loads the contents of {@link #data()} with the given predicate
+     * @throws IOException if failed
+     * @throws InterruptedException if interrupted
+     */
+    public static void verify(Loader loader) throws IOException, InterruptedException {
+        assertThat(loader.load(PropertyPredicate.greaterThan("number", 150)), hasSize(2));
+        assertThat(loader.load(PropertyPredicate.greaterThan("number", 200)), hasSize(0));
+        assertThat(loader.load(PropertyPredicate.lessThan("number", 100)), hasSize(0));
+        assertThat(loader.load(PropertyPredicate.or(
+                PropertyPredicate.equal("number", 50),
+                PropertyPredicate.equal("number", 300))), hasSize(0));
+
+        // unsupported predicates are just ignored
+        assertThat(loader.load(PropertyPredicate.and(
+                PropertyPredicate.equal("number", "unknown"),
+                PropertyPredicate.equal("missing", 0))), hasSize(2));
+        assertThat(loader.load(PropertyPredicate.or(
+                PropertyPredicate.equal("number", 100),
+                PropertyPredicate.equal("missing", 0))), hasSize(2));
+    }
+
+    /**
+     * Loads contents with a predicate.
+     */
+    @FunctionalInterface
+    public interface Loader {
+
+        /**
+         * Loads the contents.
+         * @param predicate the predicate
+         * @return the loaded contents
+         * @throws IOException if failed
+         * @throws InterruptedException if interrupted
+         */
+        List<?> load(PropertyPredicate predicate) throws IOException, InterruptedException;
+    }
+}
@@ -0,0 +1,278 @@
+/**
+ * Copyright 2011-2021 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.directio.hive.orc.v2;
+
+import org.apache.hadoop.hive.ql.exec.vector.BytesColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.ColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.DecimalColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.DoubleColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.TimestampColumnVector;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.PrimitiveObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.PrimitiveObjectInspector.PrimitiveCategory;
+
+import com.asakusafw.directio.hive.serde.PropertyExtractor;
+import com.asakusafw.directio.hive.util.TemporalUtil;
+import com.asakusafw.runtime.value.BooleanOption;
+import com.asakusafw.runtime.value.ByteOption;
+import com.asakusafw.runtime.value.DateOption;
+import com.asakusafw.runtime.value.DateTimeOption;
+import com.asakusafw.runtime.value.DateUtil;
+import com.asakusafw.runtime.value.DecimalOption;
+import com.asakusafw.runtime.value.DoubleOption;
+import com.asakusafw.runtime.value.FloatOption;
+import com.asakusafw.runtime.value.IntOption;
+import com.asakusafw.runtime.value.LongOption;
+import com.asakusafw.runtime.value.ShortOption;
+import com.asakusafw.runtime.value.StringOption;
+import com.asakusafw.runtime.value.ValueOption;
+
+/**
+ * Drives values in ORCFile column vectors into data model properties.
+ * @since 0.10.5
+ */
+@SuppressWarnings("deprecation")
+abstract class ColumnVectorDriver {
+
+    private final PropertyExtractor property;
+
+    ColumnVectorDriver(PropertyExtractor property) {
+        this.property = property;
+    }
+
+    /**
+     * Returns a driver for the source column and the target property.
+     * @param source the source column inspector
+     * @param target the target property
+     * @param valueClass the target property type
+     * @param vector the source column vector
+     * @return the driver, or {@code null} if the combination is not supported
+     */
+    static ColumnVectorDriver of(
+            ObjectInspector source,
+            PropertyExtractor target,
+            Class<?> valueClass,
+            ColumnVector vector) {
+        if (source.getCategory() != ObjectInspector.Category.PRIMITIVE) {
+            return null;
+        }
+        PrimitiveCategory category = ((PrimitiveObjectInspector) source).getPrimitiveCategory();
+        if (vector instanceof LongColumnVector) {
+            LongColumnVector v = (LongColumnVector) vector;
+            if (category == PrimitiveCategory.BOOLEAN && valueClass == BooleanOption.class) {
+                return new LongDriver(target, v) {
+                    @Override
+                    void set(ValueOption<?> option, long value) {
+                        ((BooleanOption) option).modify(value != 0);
+                    }
+                };
+            } else if (category == PrimitiveCategory.BYTE && valueClass == ByteOption.class) {
+                return new LongDriver(target, v) {
+                    @Override
+                    void set(ValueOption<?> option, long value) {
+                        ((ByteOption) option).modify((byte) value);
+                    }
+                };
+            } else if (category == PrimitiveCategory.SHORT && valueClass == ShortOption.class) {
+                return new LongDriver(target, v) {
+                    @Override
+                    void set(ValueOption<?> option, long value) {
+                        ((ShortOption) option).modify((short) value);
+                    }
+                };
+            } else if (category == PrimitiveCategory.INT && valueClass == IntOption.class) {
+                return new LongDriver(target, v) {
+                    @Override
+                    void set(ValueOption<?> option, long value) {
+                        ((IntOption) option).modify((int) value);
+                    }
+                };
+            } else if (category == PrimitiveCategory.LONG && valueClass == LongOption.class) {
+                return new LongDriver(target, v) {
+                    @Override
+                    void set(ValueOption<?> option, long value) {
+                        ((LongOption) option).modify(value);
+                    }
+                };
+            } else if (category == PrimitiveCategory.DATE && valueClass == DateOption.class) {
+                return new LongDriver(target, v) {
+                    @Override
+                    void set(ValueOption<?> option, long value) {
+                        ((DateOption) option).modify((int) value + TemporalUtil.DATE_EPOCH_OFFSET);
+                    }
+                };
+            }
+        } else if (vector instanceof DoubleColumnVector) {
+            DoubleColumnVector v = (DoubleColumnVector) vector;
+            if (category == PrimitiveCategory.FLOAT && valueClass == FloatOption.class) {
+                return new DoubleDriver(target, v) {
+                    @Override
+                    void set(ValueOption<?> option, double value) {
+                        ((FloatOption) option).modify((float) value);
+                    }
+                };
+            } else if (category == PrimitiveCategory.DOUBLE && valueClass == DoubleOption.class) {
+                return new DoubleDriver(target, v) {
+                    @Override
+                    void set(ValueOption<?> option, double value) {
+                        ((DoubleOption) option).modify(value);
+                    }
+                };
+            }
+        } else if (vector instanceof BytesColumnVector) {
+            // CHAR is not supported because its values may be padded
+            if ((category == PrimitiveCategory.STRING || category == PrimitiveCategory.VARCHAR)
+                    && valueClass == StringOption.class) {
+                return new StringDriver(target, (BytesColumnVector) vector);
+            }
+        } else if (vector instanceof DecimalColumnVector) {
+            if (category == PrimitiveCategory.DECIMAL && valueClass == DecimalOption.class) {
+                return new DecimalDriver(target, (DecimalColumnVector) vector);
+            }
+        } else if (vector instanceof TimestampColumnVector) {
+            if (category == PrimitiveCategory.TIMESTAMP && valueClass == DateTimeOption.class) {
+                return new DateTimeDriver(target, (TimestampColumnVector) vector);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Sets the value in the current column vector into the data model property.
+     * @param dataModel the target data model
+     * @param row the row index in the current batch
+     */
+    final void set(Object dataModel, int row) {
+        ValueOption<?> option = property.extract(dataModel);
+        ColumnVector vector = getVector();
+        int index = vector.isRepeating ? 0 : row;
+        if (vector.noNulls == false && vector.isNull[index]) {
+            option.setNull();
+        } else {
+            drive(option, index);
+        }
+    }
+
+    abstract ColumnVector getVector();
+
+    abstract void drive(ValueOption<?> option, int index);
+
+    private abstract static class LongDriver extends ColumnVectorDriver {
+
+        private final LongColumnVector vector;
+
+        LongDriver(PropertyExtractor property, LongColumnVector vector) {
+            super(property);
+            this.vector = vector;
+        }
+
+        @Override
+        final ColumnVector getVector() {
+            return vector;
+        }
+
+        @Override
+        final void drive(ValueOption<?> option, int index) {
+            set(option, vector.vector[index]);
+        }
+
+        abstract void set(ValueOption<?> option, long value);
+    }
+
+    private abstract static class DoubleDriver extends ColumnVectorDriver {
+
+        private final DoubleColumnVector vector;
+
+        DoubleDriver(PropertyExtractor property, DoubleColumnVector vector) {
+            super(property);
+            this.vector = vector;
+        }
+
+        @Override
+        final ColumnVector getVector() {
+            return vector;
+        }
+
+        @Override
+        final void drive(ValueOption<?> option, int index) {
+            set(option, vector.vector[index]);
+        }
+
+        abstract void set(ValueOption<?> option, double value);
+    }
+
+    private static final class StringDriver extends ColumnVectorDriver {
+
+        private final BytesColumnVector vector;
+
+        StringDriver(PropertyExtractor property, BytesColumnVector vector) {
+            super(property);
+            this.vector = vector;
+        }
+
+        @Override
+        ColumnVector getVector() {
+            return vector;
+        }
+
+        @Override
+        void drive(ValueOption<?> option, int index) {
+            ((StringOption) option).modify(vector.vector[index], vector.start[index], vector.length[index]);
+        }
+    }
+
+    private static final class DecimalDriver extends ColumnVectorDriver {
+
+        private final DecimalColumnVector vector;
+
+        DecimalDriver(PropertyExtractor property, DecimalColumnVector vector) {
+            super(property);
+            this.vector = vector;
+        }
+
+        @Override
+        ColumnVector getVector() {
+            return vector;
+        }
+
+        @Override
+        void drive(ValueOption<?> option, int index) {
+            ((DecimalOption) option).modify(vector.vector[index].getHiveDecimal().bigDecimalValue());
+        }
+    }
+
+    private static final class DateTimeDriver extends ColumnVectorDriver {
+
+        private final TimestampColumnVector vector;
+
+        DateTimeDriver(PropertyExtractor property, TimestampColumnVector vector) {
+            super(property);
+            this.vector = vector;
+        }
+
+        @Override
+        ColumnVector getVector() {
+            return vector;
+        }
+
+        @Override
+        void drive(ValueOption<?> option, int index) {
+            // the same conversion as DateTimeOptionDriver
+            ((DateTimeOption) option).modify(DateUtil.getSecondFromDate(vector.asScratchTimestamp(index)));
+        }
+    }
+}
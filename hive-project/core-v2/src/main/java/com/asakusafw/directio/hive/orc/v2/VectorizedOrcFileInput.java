@@ -0,0 +1,283 @@
+/**
+ * Copyright 2011-2021 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.directio.hive.orc.v2;
+
+import java.io.IOException;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.apache.hadoop.hive.ql.io.orc.OrcFile;
+import org.apache.hadoop.hive.ql.io.orc.Reader;
+import org.apache.hadoop.hive.ql.io.sarg.SearchArgument;
+import org.apache.hadoop.hive.serde2.objectinspector.StructField;
+import org.apache.hadoop.hive.serde2.objectinspector.StructObjectInspector;
+import org.apache.orc.RecordReader;
+import org.apache.orc.TypeDescription;
+
+import com.asakusafw.directio.hive.orc.OrcFileInput;
+import com.asakusafw.directio.hive.orc.OrcPredicateTranslator;
+import com.asakusafw.directio.hive.serde.DataModelDescriptor;
+import com.asakusafw.directio.hive.serde.DataModelDriver;
+import com.asakusafw.directio.hive.serde.DataModelMapping;
+import com.asakusafw.directio.hive.serde.PropertyDescriptor;
+import com.asakusafw.runtime.directio.Counter;
+import com.asakusafw.runtime.directio.PropertyPredicate;
+import com.asakusafw.runtime.io.ModelInput;
+
+/**
+ * An implementation of {@link ModelInput} for reading ORCFile through its vectorized reader.
+ * This reads each {@link VectorizedRowBatch} and directly sets its column values into the data model properties.
+ * If some properties cannot be read from the column vectors, this just delegates to {@link OrcFileInput}.
+ * @param <T> the data model type
+ * @since 0.10.5
+ */
+public class VectorizedOrcFileInput<T> implements ModelInput<T> {
+
+    static final Log LOG = LogFactory.getLog(VectorizedOrcFileInput.class);
+
+    static final String KEY_ENABLED = "com.asakusafw.hive.orc.vectorized";
+
+    /**
+     * Whether or not the vectorized reader is enabled.
+     */
+    static final boolean ENABLED = Optional.ofNullable(System.getProperty(KEY_ENABLED))
+            .map(String::trim)
+            .map(it -> it.isEmpty() || Boolean.parseBoolean(it))
+            .orElse(true);
+
+    private final DataModelDescriptor descriptor;
+
+    private final DataModelMapping configuration;
+
+    private final FileSystem fileSystem;
+
+    private final Path path;
+
+    private final long offset;
+
+    private final long fragmentSize;
+
+    private final Counter counter;
+
+    private final PropertyPredicate predicate;
+
+    private RecordReader currentReader;
+
+    private VectorizedRowBatch batch;
+
+    private ColumnVectorDriver[] drivers;
+
+    private int position;
+
+    private ModelInput<T> fallback;
+
+    private long lastCount;
+
+    /**
+     * Creates a new instance.
+     * @param descriptor the target data model descriptor
+     * @param configuration the {@link DataModelDriver} configuration
+     * @param fileSystem the file system to open the target path
+     * @param path the path to the target file
+     * @param offset starting stream offset
+     * @param fragmentSize suggested fragment bytes count
+     * @param counter the current counter
+     * @param predicate the predicate to skip stripes and row groups, or {@code null} to read all of them
+     */
+    public VectorizedOrcFileInput(
+            DataModelDescriptor descriptor,
+            DataModelMapping configuration,
+            FileSystem fileSystem, Path path,
+            long offset, long fragmentSize,
+            Counter counter,
+            PropertyPredicate predicate) {
+        this.descriptor = descriptor;
+        this.configuration = configuration;
+        this.fileSystem = fileSystem;
+        this.path = path;
+        this.offset = offset;
+        this.fragmentSize = fragmentSize;
+        this.counter = counter;
+        this.predicate = predicate;
+    }
+
+    @Override
+    public boolean readTo(T model) throws IOException {
+        if (prepare() == false) {
+            return fallback.readTo(model);
+        }
+        VectorizedRowBatch current = batch;
+        while (position >= current.size) {
+            if (currentReader.nextBatch(current) == false) {
+                return false;
+            }
+            position = 0;
+            advanceCounter((long) (fragmentSize * currentReader.getProgress()));
+        }
+        int row = current.selectedInUse ? current.selected[position] : position;
+        position++;
+        for (ColumnVectorDriver driver : drivers) {
+            driver.set(model, row);
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether or not this reads the contents using the vectorized reader.
+     * This is available only after {@link #readTo(Object)} was invoked.
+     * @return {@code true} if this uses the vectorized reader, or {@code false} if this falls back to the
+     *     row-by-row reader or is not yet prepared
+     */
+    public boolean isVectorized() {
+        return currentReader != null;
+    }
+
+    private boolean prepare() throws IOException {
+        if (currentReader != null) {
+            return true;
+        } else if (fallback != null) {
+            return false;
+        }
+        if (LOG.isInfoEnabled()) {
+            LOG.info(MessageFormat.format(
+                    Messages.getString("VectorizedOrcFileInput.infoLoadMetadata"), //$NON-NLS-1$
+                    descriptor.getDataModelClass().getSimpleName(),
+                    path));
+        }
+        Reader orc = OrcFile.createReader(fileSystem, path);
+        StructObjectInspector sourceInspector = (StructObjectInspector) orc.getObjectInspector();
+        DataModelDriver driver = new DataModelDriver(descriptor, sourceInspector, configuration);
+        TypeDescription schema = orc.getSchema();
+        VectorizedRowBatch rowBatch = schema.createRowBatch();
+        ColumnVectorDriver[] columnDrivers = createDrivers(driver, rowBatch);
+        if (columnDrivers == null) {
+            fallback = new OrcFileInput<>(
+                    descriptor, configuration,
+                    fileSystem, path,
+                    offset, fragmentSize, counter,
+                    predicate);
+            return false;
+        }
+        if (LOG.isInfoEnabled()) {
+            LOG.info(MessageFormat.format(
+                    Messages.getString("VectorizedOrcFileInput.infoLoadContents"), //$NON-NLS-1$
+                    descriptor.getDataModelClass().getSimpleName(),
+                    path,
+                    offset,
+                    fragmentSize));
+        }
+        Reader.Options options = orc.options()
+                .range(offset, fragmentSize)
+                .include(computeAvailableColumns(driver, schema));
+        if (predicate != null) {
+            SearchArgument sarg = OrcPredicateTranslator.translate(predicate, driver);
+            if (sarg != null) {
+                options.searchArgument(sarg, computeColumnNames(driver, schema));
+            }
+        }
+        currentReader = orc.rows(options);
+        batch = rowBatch;
+        drivers = columnDrivers;
+        return true;
+    }
+
+    private ColumnVectorDriver[] createDrivers(DataModelDriver driver, VectorizedRowBatch rowBatch) {
+        List<? extends StructField> all = driver.getSourceInspector().getAllStructFieldRefs();
+        List<StructField> sources = driver.getSourceFields();
+        List<PropertyDescriptor> targets = driver.getTargetProperties();
+        List<ColumnVectorDriver> results = new ArrayList<>();
+        for (int i = 0, n = sources.size(); i < n; i++) {
+            StructField source = sources.get(i);
+            PropertyDescriptor target = targets.get(i);
+            int index = all.indexOf(source);
+            ColumnVectorDriver columnDriver = null;
+            if (index >= 0 && index < rowBatch.cols.length) {
+                columnDriver = ColumnVectorDriver.of(
+                        source.getFieldObjectInspector(),
+                        target,
+                        target.getValueClass(),
+                        rowBatch.cols[index]);
+            }
+            if (columnDriver == null) {
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug(MessageFormat.format(
+                            "ORCFile vectorized reader is not available: {0} ({1}:{2} -> {3}:{4})", //$NON-NLS-1$
+                            path,
+                            source.getFieldName(),
+                            source.getFieldObjectInspector().getTypeName(),
+                            target.getFieldName(),
+                            target.getValueClass().getSimpleName()));
+                }
+                return null;
+            }
+            results.add(columnDriver);
+        }
+        return results.toArray(new ColumnVectorDriver[results.size()]);
+    }
+
+    private boolean[] computeAvailableColumns(DataModelDriver driver, TypeDescription schema) {
+        List<? extends StructField> all = driver.getSourceInspector().getAllStructFieldRefs();
+        List<StructField> projected = driver.getSourceFields();
+        List<TypeDescription> children = schema.getChildren();
+        boolean[] availables = new boolean[schema.getMaximumId() + 1];
+        // the first type must be a root type
+        availables[schema.getId()] = true;
+        for (int i = 0, n = all.size(); i < n; i++) {
+            StructField field = all.get(i);
+            if (projected.contains(field)) {
+                TypeDescription child = children.get(i);
+                for (int id = child.getId(), last = child.getMaximumId(); id <= last; id++) {
+                    availables[id] = true;
+                }
+            }
+        }
+        return availables;
+    }
+
+    private static String[] computeColumnNames(DataModelDriver driver, TypeDescription schema) {
+        List<TypeDescription> children = schema.getChildren();
+        int[] columnIds = new int[children.size()];
+        for (int i = 0, n = children.size(); i < n; i++) {
+            columnIds[i] = children.get(i).getId();
+        }
+        return OrcPredicateTranslator.getColumnNames(driver, columnIds, schema.getMaximumId() + 1);
+    }
+
+    private void advanceCounter(long nextCount) {
+        long deltaCount = nextCount - lastCount;
+        if (deltaCount > 0) {
+            counter.add(deltaCount);
+            lastCount = nextCount;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (currentReader != null) {
+            currentReader.close();
+        }
+        if (fallback != null) {
+            fallback.close();
+        }
+    }
+}
@@ -44,6 +44,7 @@ import com.asakusafw.directio.hive.serde.DataModelMapping;
 import com.asakusafw.directio.hive.util.CompatibilityUtil;
 import com.asakusafw.runtime.directio.Counter;
 import com.asakusafw.runtime.directio.DirectInputFragment;
+import com.asakusafw.runtime.directio.PropertyPredicate;
 import com.asakusafw.runtime.directio.hadoop.BlockMap;
 import com.asakusafw.runtime.directio.hadoop.StripedDataFormat.InputContext;
 import com.asakusafw.runtime.io.ModelInput;
@@ -52,6 +53,7 @@ import com.asakusafw.runtime.io.ModelOutput;
 /**
  * compatibility layer for Direct I/O Parquet support.
  * @since 0.10.3
+ * @version 0.10.5
  */
 public class CompatibilityV2 extends Compatibility {
 
@@ -151,6 +153,19 @@ public class CompatibilityV2 extends Compatibility {
             long offset,
             long fragmentSize,
             Counter counter) throws IOException, InterruptedException {
+        return createInput(format, dataType, fileSystem, path, offset, fragmentSize, counter, null);
+    }
+
+    @Override
+    public <T> ModelInput<T> createInput(
+            AbstractParquetFileFormat<T> format,
+            Class<? extends T> dataType,
+            FileSystem fileSystem,
+            Path path,
+            long offset,
+            long fragmentSize,
+            Counter counter,
+            PropertyPredicate predicate) throws IOException, InterruptedException {
         ParquetFormatConfiguration conf = format.getFormatConfiguration();
         DataModelMapping driverConf = new DataModelMapping();
         if (conf.getFieldMappingStrategy() != null) {
@@ -175,7 +190,8 @@ public class CompatibilityV2 extends Compatibility {
                 driverConf,
                 format.getConf(), path,
                 offset, size,
-                counter);
+                counter,
+                predicate);
     }
 
     @Override
@@ -43,6 +43,7 @@ import com.asakusafw.directio.hive.serde.PropertyDescriptor;
 /**
  * An implementation of parquet record materializer for Asakusa data models.
  * @since 0.7.0
+ * @version 0.10.5
  */
 public class DataModelMaterializer extends RecordMaterializer<Object> {
 
@@ -52,6 +53,8 @@ public class DataModelMaterializer extends RecordMaterializer<Object> {
 
     private final DataModelConverter root;
 
+    private final List<Mapping> mappings;
+
     /**
      * Creates a new instance.
      * @param descriptor the target descriptor
@@ -76,6 +79,7 @@ public class DataModelMaterializer extends RecordMaterializer<Object> {
         }
         this.materializeSchema = new MessageType(schema.getName(), fields);
         this.root = new DataModelConverter(properties);
+        this.mappings = mappings;
     }
 
     /**
@@ -86,6 +90,21 @@ public class DataModelMaterializer extends RecordMaterializer<Object> {
         return materializeSchema;
     }
 
+    /**
+     * Returns the source column which will be actually mapped into the target property.
+     * @param propertyName the target property name
+     * @return the mapped source column, or {@code null} if the property is not mapped
+     * @since 0.10.5
+     */
+    public ColumnDescriptor findSourceColumn(String propertyName) {
+        for (Mapping mapping : mappings) {
+            if (mapping != null && mapping.target.getFieldName().equalsIgnoreCase(propertyName)) {
+                return mapping.source;
+            }
+        }
+        return null;
+    }
+
     /**
      * Sets the next record.
      * @param object the next record object
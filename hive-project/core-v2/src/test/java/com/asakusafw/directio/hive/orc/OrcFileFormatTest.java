@@ -20,9 +20,11 @@ import static org.junit.Assert.*;
 
 import java.io.File;
 import java.io.IOException;
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -38,19 +40,26 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
+import com.asakusafw.directio.hive.orc.v2.VectorizedOrcFileInput;
 import com.asakusafw.directio.hive.serde.DataModelDescriptorEditor;
 import com.asakusafw.directio.hive.serde.DataModelMapping.ExceptionHandlingStrategy;
 import com.asakusafw.directio.hive.serde.DataModelMapping.FieldMappingStrategy;
 import com.asakusafw.directio.hive.serde.FieldPropertyDescriptor;
 import com.asakusafw.directio.hive.serde.ValueSerde;
+import com.asakusafw.directio.hive.serde.ValueSerdeFactory;
 import com.asakusafw.directio.hive.serde.mock.MockSimple;
+import com.asakusafw.directio.hive.serde.mock.MockTypes;
+import com.asakusafw.directio.hive.util.PredicatePushdownTester;
 import com.asakusafw.info.hive.BuiltinStorageFormatInfo;
 import com.asakusafw.info.hive.StorageFormatInfo;
 import com.asakusafw.runtime.directio.Counter;
 import com.asakusafw.runtime.directio.DirectInputFragment;
+import com.asakusafw.runtime.directio.PropertyPredicate;
 import com.asakusafw.runtime.directio.hadoop.StripedDataFormat;
 import com.asakusafw.runtime.io.ModelInput;
 import com.asakusafw.runtime.io.ModelOutput;
+import com.asakusafw.runtime.value.Date;
+import com.asakusafw.runtime.value.DateTime;
 import com.asakusafw.runtime.value.IntOption;
 import com.asakusafw.runtime.value.StringOption;
 import com.asakusafw.runtime.windows.WindowsSupport;
@@ -72,6 +81,8 @@ public class OrcFileFormatTest {
     @Rule
     public final TemporaryFolder folder = new TemporaryFolder();
 
+    private boolean vectorized;
+
     private <T> OrcFileFormat<T> format(Class<T> type, String... removes) {
         return format(type, Collections.emptyMap(), removes);
     }
@@ -150,6 +161,93 @@ public class OrcFileFormatTest {
         assertThat(out.string, is(in.string));
     }
 
+    /**
+     * I/O with all types.
+     * @throws Exception if failed
+     */
+    @Test
+    public void io_types() throws Exception {
+        Map<String, ValueSerde> edits = new HashMap<>();
+        edits.put("decimalOption", ValueSerdeFactory.getDecimal(10, 2));
+
+        OrcFileFormat<MockTypes> format = format(MockTypes.class, edits);
+        MockTypes in = new MockTypes();
+        in.booleanOption.modify(true);
+        in.byteOption.modify((byte) 1);
+        in.shortOption.modify((short) 2);
+        in.intOption.modify(3);
+        in.longOption.modify(4L);
+        in.floatOption.modify(5f);
+        in.doubleOption.modify(6d);
+        in.dateOption.modify(new Date(2014, 6, 1));
+        in.dateTimeOption.modify(new DateTime(2014, 6, 1, 2, 3, 4));
+        in.stringOption.modify("Hello, world!");
+        in.decimalOption.modify(new BigDecimal("7.89"));
+
+        MockTypes out = restore(format, in);
+        assertThat(out.booleanOption, equalTo(in.booleanOption));
+        assertThat(out.byteOption, equalTo(in.byteOption));
+        assertThat(out.shortOption, equalTo(in.shortOption));
+        assertThat(out.intOption, equalTo(in.intOption));
+        assertThat(out.longOption, equalTo(in.longOption));
+        assertThat(out.floatOption, equalTo(in.floatOption));
+        assertThat(out.doubleOption, equalTo(in.doubleOption));
+        assertThat(out.dateOption, equalTo(in.dateOption));
+        assertThat(out.dateTimeOption, equalTo(in.dateTimeOption));
+        assertThat(out.stringOption, equalTo(in.stringOption));
+        assertThat(out.decimalOption, equalTo(in.decimalOption));
+        assertThat(vectorized, is(true));
+    }
+
+    /**
+     * I/O with nulls.
+     * @throws Exception if failed
+     */
+    @Test
+    public void io_nulls() throws Exception {
+        Map<String, ValueSerde> edits = new HashMap<>();
+        edits.put("decimalOption", ValueSerdeFactory.getDecimal(10, 2));
+
+        OrcFileFormat<MockTypes> format = format(MockTypes.class, edits);
+        MockTypes in = new MockTypes();
+        MockTypes out = restore(format, in);
+        assertThat(out.booleanOption.isNull(), is(true));
+        assertThat(out.byteOption.isNull(), is(true));
+        assertThat(out.shortOption.isNull(), is(true));
+        assertThat(out.intOption.isNull(), is(true));
+        assertThat(out.longOption.isNull(), is(true));
+        assertThat(out.floatOption.isNull(), is(true));
+        assertThat(out.doubleOption.isNull(), is(true));
+        assertThat(out.dateOption.isNull(), is(true));
+        assertThat(out.dateTimeOption.isNull(), is(true));
+        assertThat(out.stringOption.isNull(), is(true));
+        assertThat(out.decimalOption.isNull(), is(true));
+        assertThat(vectorized, is(true));
+    }
+
+    /**
+     * I/O with many rows across multiple row batches.
+     * @throws Exception if failed
+     */
+    @Test
+    public void io_large() throws Exception {
+        OrcFileFormat<MockSimple> format = format(MockSimple.class);
+        List<MockSimple> in = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            MockSimple value = new MockSimple(i, String.valueOf(i));
+            if (i % 7 == 0) {
+                value.string.setNull();
+            }
+            in.add(value);
+        }
+        List<MockSimple> out = restore(format, in);
+        for (int i = 0; i < in.size(); i++) {
+            assertThat(out.get(i).number, is(in.get(i).number));
+            assertThat(out.get(i).string, is(in.get(i).string));
+        }
+        assertThat(vectorized, is(true));
+    }
+
     /**
      * I/O with projection.
      * @throws Exception if failed
@@ -230,6 +328,17 @@ public class OrcFileFormatTest {
         assertThat(out.string, is(in.string));
     }
 
+    /**
+     * I/O with predicate.
+     * @throws Exception if failed
+     */
+    @Test
+    public void io_predicate() throws Exception {
+        OrcFileFormat<MockSimple> format = format(MockSimple.class);
+        File file = save(format, PredicatePushdownTester.data());
+        PredicatePushdownTester.verify(predicate -> load(format, file, predicate));
+    }
+
     private <T> T restore(OrcFileFormat<T> format, T value) throws IOException, InterruptedException {
         List<T> in = new ArrayList<>();
         in.add(value);
@@ -260,12 +369,19 @@ public class OrcFileFormatTest {
     }
 
     private <T> List<T> load(OrcFileFormat<T> format, File file) throws IOException, InterruptedException {
+        return load(format, file, null);
+    }
+
+    private <T> List<T> load(
+            OrcFileFormat<T> format, File file,
+            PropertyPredicate predicate) throws IOException, InterruptedException {
         LocalFileSystem fs = FileSystem.getLocal(format.getConf());
         try (ModelInput<T> input = format.createInput(
                 format.getSupportedType(),
                 fs, new Path(file.toURI()),
                 0, file.length(),
-                new Counter())) {
+                new Counter(),
+                PredicatePushdownTester.filter(predicate))) {
             List<T> results = new ArrayList<>();
             while (true) {
                 @SuppressWarnings("unchecked")
@@ -275,6 +391,8 @@ public class OrcFileFormatTest {
                 }
                 results.add(value);
             }
+            vectorized = input instanceof VectorizedOrcFileInput<?>
+                    && ((VectorizedOrcFileInput<?>) input).isVectorized();
             return results;
         }
     }
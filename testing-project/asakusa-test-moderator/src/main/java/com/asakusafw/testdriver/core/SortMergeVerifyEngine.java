@@ -0,0 +1,562 @@
+/**
+ * Copyright 2011-2021 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.testdriver.core;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Verifies model objects using {@link VerifyRule}, without keeping whole data sets on the heap.
+ * <p>
+ * This engine sorts both the expected and actual data sets by the hash code of their
+ * {@link VerifyRule#getKey(DataModelReflection) keys} in parallel, and spills sorted runs into temporary files
+ * if the data sets do not fit into the buffer.
+ * Then, this engine compares the sorted data sets in a single merge pass.
+ * </p>
+ * <p>
+ * The verification results are as same as {@link VerifyEngine}, except the order of differences is not stable.
+ * Note that each data model object must be {@link java.io.Serializable serializable}.
+ * </p>
+ * @since 0.10.5
+ * @see VerifyEngine
+ */
+public class SortMergeVerifyEngine {
+
+    static final Logger LOG = LoggerFactory.getLogger(SortMergeVerifyEngine.class);
+
+    /**
+     * The system property key of whether or not the test result verification uses this engine.
+     */
+    public static final String KEY_ENABLE = "com.asakusafw.testdriver.verify.sortMerge"; //$NON-NLS-1$
+
+    /**
+     * The default value of {@link #KEY_ENABLE}.
+     */
+    public static final String DEFAULT_ENABLE = "false"; //$NON-NLS-1$
+
+    /**
+     * The default number of records in each sort buffer.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 100_000;
+
+    static final Comparator<Record> RECORD_ORDER = (a, b) -> {
+        int diff = Integer.compare(a.hash, b.hash);
+        if (diff != 0) {
+            return diff;
+        }
+        return Long.compare(a.sequence, b.sequence);
+    };
+
+    private static final int RESET_INTERVAL = 1000;
+
+    private final VerifyRule rule;
+
+    private int bufferSize = DEFAULT_BUFFER_SIZE;
+
+    private File temporaryDirectory;
+
+    /**
+     * Creates a new instance.
+     * @param rule the verification strategy
+     * @throws IllegalArgumentException if some parameters were {@code null}
+     */
+    public SortMergeVerifyEngine(VerifyRule rule) {
+        if (rule == null) {
+            throw new IllegalArgumentException("rule must not be null"); //$NON-NLS-1$
+        }
+        this.rule = rule;
+    }
+
+    /**
+     * Returns whether or not the test result verification should use this engine.
+     * @return {@code true} if it is enabled in the {@link #KEY_ENABLE system property}, otherwise {@code false}
+     */
+    public static boolean isEnabled() {
+        String value = System.getProperty(KEY_ENABLE, DEFAULT_ENABLE);
+        return Boolean.parseBoolean(value.trim());
+    }
+
+    /**
+     * Sets the max number of records which are sorted in memory.
+     * @param records the number of records
+     * @return this
+     */
+    public SortMergeVerifyEngine withBufferSize(int records) {
+        if (records <= 0) {
+            throw new IllegalArgumentException("records must be > 0"); //$NON-NLS-1$
+        }
+        this.bufferSize = records;
+        return this;
+    }
+
+    /**
+     * Sets the directory for the temporary files.
+     * @param directory the temporary directory, or {@code null} to use the system default
+     * @return this
+     */
+    public SortMergeVerifyEngine withTemporaryDirectory(File directory) {
+        this.temporaryDirectory = directory;
+        return this;
+    }
+
+    /**
+     * Verifies the actual data set and returns diagnostics.
+     * Note that both sources will be closed.
+     * @param expected the expected data set
+     * @param actual the actual data set
+     * @return differences between the expected and the actual, or an empty list if successfully verified
+     * @throws IOException if failed to obtain model objects from the sources,
+     *     or the expected data set contains duplicate keys
+     * @throws IllegalArgumentException if some parameters were {@code null}
+     * @see VerifyEngine#inspectInput(DataModelSource)
+     * @see VerifyEngine#inspectRest()
+     */
+    public List<Difference> verify(DataModelSource expected, DataModelSource actual) throws IOException {
+        if (expected == null) {
+            throw new IllegalArgumentException("expected must not be null"); //$NON-NLS-1$
+        }
+        if (actual == null) {
+            throw new IllegalArgumentException("actual must not be null"); //$NON-NLS-1$
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(2, r -> {
+            Thread thread = new Thread(r, "SortMergeVerifyEngine"); //$NON-NLS-1$
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            Future<Cursor> expectedFuture = executor.submit(() -> sort(expected));
+            Future<Cursor> actualFuture = executor.submit(() -> sort(actual));
+            try (Cursor expectedCursor = get(expectedFuture, actualFuture);
+                    Cursor actualCursor = get(actualFuture, null)) {
+                return merge(expectedCursor, actualCursor);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Validates the expected data set.
+     * Note that the source will be closed.
+     * @param expected the expected data set
+     * @throws IOException if failed to obtain model objects from the source,
+     *     or the expected data set contains duplicate keys
+     * @throws IllegalArgumentException if some parameters were {@code null}
+     * @see VerifyEngine#addExpected(DataModelSource)
+     */
+    public void validate(DataModelSource expected) throws IOException {
+        if (expected == null) {
+            throw new IllegalArgumentException("expected must not be null"); //$NON-NLS-1$
+        }
+        try (Cursor cursor = sort(expected)) {
+            boolean rest = cursor.next();
+            while (rest) {
+                int hash = cursor.get().hash;
+                Map<Object, DataModelReflection> group = new HashMap<>();
+                do {
+                    putExpected(group, cursor.get().value);
+                    rest = cursor.next();
+                } while (rest && cursor.get().hash == hash);
+            }
+        }
+    }
+
+    private static Cursor get(Future<Cursor> future, Future<Cursor> sibling) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            discard(future);
+            if (sibling != null) {
+                discard(sibling);
+            }
+            throw (IOException) new InterruptedIOException().initCause(e);
+        } catch (ExecutionException e) {
+            if (sibling != null) {
+                close(sibling);
+            }
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            } else {
+                throw new IOException(cause);
+            }
+        }
+    }
+
+    private static void discard(Future<Cursor> future) {
+        // closes the cursor only if it has been already created, without waiting for the running task
+        if (future.cancel(true) == false) {
+            close(future);
+        }
+    }
+
+    private static void close(Future<Cursor> future) {
+        try {
+            future.get().close();
+        } catch (Exception e) {
+            LOG.trace("error occurred while closing cursor", e); //$NON-NLS-1$
+        }
+    }
+
+    private List<Difference> merge(Cursor expected, Cursor actual) throws IOException {
+        List<Difference> results = new ArrayList<>();
+        List<Difference> rest = new ArrayList<>();
+        boolean expectedRest = expected.next();
+        boolean actualRest = actual.next();
+        while (expectedRest || actualRest) {
+            int hash;
+            if (expectedRest && actualRest) {
+                hash = Math.min(expected.get().hash, actual.get().hash);
+            } else if (expectedRest) {
+                hash = expected.get().hash;
+            } else {
+                hash = actual.get().hash;
+            }
+            Map<Object, DataModelReflection> expectedGroup = new LinkedHashMap<>();
+            while (expectedRest && expected.get().hash == hash) {
+                putExpected(expectedGroup, expected.get().value);
+                expectedRest = expected.next();
+            }
+            Map<Object, DataModelReflection> sawActual = new HashMap<>();
+            while (actualRest && actual.get().hash == hash) {
+                DataModelReflection next = actual.get().value;
+                Object key = getKey(next);
+                DataModelReflection saw = sawActual.get(key);
+                if (saw != null) {
+                    results.add(new Difference(next, null, MessageFormat.format(
+                            Messages.getString("VerifyEngine.errorConflictActualDataKey"), //$NON-NLS-1$
+                            key,
+                            saw,
+                            next)));
+                } else {
+                    sawActual.put(key, next);
+                    Difference diff = verify(expectedGroup.remove(key), next);
+                    if (diff != null) {
+                        results.add(diff);
+                    }
+                }
+                actualRest = actual.next();
+            }
+            for (DataModelReflection value : expectedGroup.values()) {
+                Difference diff = verify(value, null);
+                if (diff != null) {
+                    rest.add(diff);
+                }
+            }
+        }
+        results.addAll(rest);
+        return results;
+    }
+
+    private void putExpected(Map<Object, DataModelReflection> group, DataModelReflection next) throws IOException {
+        Object key = getKey(next);
+        DataModelReflection old = group.put(key, next);
+        if (old != null) {
+            throw new IOException(MessageFormat.format(
+                    Messages.getString("VerifyEngine.errorConflictExpectedDataKey"), //$NON-NLS-1$
+                    key,
+                    old,
+                    next));
+        }
+    }
+
+    private Difference verify(DataModelReflection expected, DataModelReflection actual) {
+        assert expected != null || actual != null;
+        Object result = rule.verify(expected, actual);
+        if (result == null) {
+            return null;
+        }
+        return new Difference(expected, actual, result);
+    }
+
+    private Object getKey(DataModelReflection value) {
+        // rules may not be thread-safe
+        synchronized (rule) {
+            return rule.getKey(value);
+        }
+    }
+
+    private Cursor sort(DataModelSource source) throws IOException {
+        List<File> runs = new ArrayList<>();
+        boolean success = false;
+        try {
+            List<Record> buffer = new ArrayList<>();
+            long sequence = 0;
+            try {
+                while (true) {
+                    DataModelReflection next = source.next();
+                    if (next == null) {
+                        break;
+                    }
+                    buffer.add(new Record(Objects.hashCode(getKey(next)), sequence++, next));
+                    if (buffer.size() >= bufferSize) {
+                        runs.add(spill(buffer));
+                        buffer.clear();
+                    }
+                }
+            } finally {
+                source.close();
+            }
+            buffer.sort(RECORD_ORDER);
+            Cursor result;
+            if (runs.isEmpty()) {
+                result = new BufferCursor(buffer);
+            } else {
+                if (buffer.isEmpty() == false) {
+                    runs.add(spill(buffer));
+                    buffer.clear();
+                }
+                result = new MergeCursor(runs);
+            }
+            success = true;
+            return result;
+        } finally {
+            if (success == false) {
+                for (File file : runs) {
+                    delete(file);
+                }
+            }
+        }
+    }
+
+    private File spill(List<Record> buffer) throws IOException {
+        buffer.sort(RECORD_ORDER);
+        File file = File.createTempFile("asakusa-verify-", ".bin", temporaryDirectory); //$NON-NLS-1$ //$NON-NLS-2$
+        LOG.debug("spilling sorted records: {} ({} records)", file, buffer.size()); //$NON-NLS-1$
+        boolean success = false;
+        try (ObjectOutputStream output = new ObjectOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file)))) {
+            int count = 0;
+            for (Record record : buffer) {
+                output.writeBoolean(true);
+                output.writeInt(record.hash);
+                output.writeLong(record.sequence);
+                output.writeObject(record.value);
+                if (++count % RESET_INTERVAL == 0) {
+                    // discards the back references
+                    output.reset();
+                }
+            }
+            output.writeBoolean(false);
+            success = true;
+        } finally {
+            if (success == false) {
+                delete(file);
+            }
+        }
+        return file;
+    }
+
+    static void delete(File file) {
+        if (file.delete() == false && file.exists()) {
+            LOG.warn(MessageFormat.format(
+                    "failed to delete a temporary file: {0}",
+                    file));
+        }
+    }
+
+    static final class Record {
+
+        final int hash;
+
+        final long sequence;
+
+        final DataModelReflection value;
+
+        Record(int hash, long sequence, DataModelReflection value) {
+            this.hash = hash;
+            this.sequence = sequence;
+            this.value = value;
+        }
+    }
+
+    private interface Cursor extends Closeable {
+
+        boolean next() throws IOException;
+
+        Record get();
+    }
+
+    private static final class BufferCursor implements Cursor {
+
+        private final List<Record> records;
+
+        private int index = -1;
+
+        BufferCursor(List<Record> records) {
+            this.records = records;
+        }
+
+        @Override
+        public boolean next() {
+            index++;
+            return index < records.size();
+        }
+
+        @Override
+        public Record get() {
+            return records.get(index);
+        }
+
+        @Override
+        public void close() {
+            return;
+        }
+    }
+
+    private static final class FileCursor implements Cursor {
+
+        private final File file;
+
+        private final ObjectInputStream input;
+
+        private Record current;
+
+        FileCursor(File file) throws IOException {
+            this.file = file;
+            this.input = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)));
+        }
+
+        @Override
+        public boolean next() throws IOException {
+            if (input.readBoolean() == false) {
+                current = null;
+                return false;
+            }
+            int hash = input.readInt();
+            long sequence = input.readLong();
+            DataModelReflection value;
+            try {
+                value = (DataModelReflection) input.readObject();
+            } catch (ClassNotFoundException e) {
+                throw new IOException(e);
+            }
+            current = new Record(hash, sequence, value);
+            return true;
+        }
+
+        @Override
+        public Record get() {
+            return current;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                input.close();
+            } finally {
+                delete(file);
+            }
+        }
+    }
+
+    private static final class MergeCursor implements Cursor {
+
+        private final List<FileCursor> cursors = new ArrayList<>();
+
+        private final PriorityQueue<FileCursor> queue = new PriorityQueue<>(
+                (a, b) -> RECORD_ORDER.compare(a.get(), b.get()));
+
+        private Record current;
+
+        MergeCursor(List<File> runs) throws IOException {
+            boolean success = false;
+            try {
+                for (File file : runs) {
+                    FileCursor cursor = new FileCursor(file);
+                    cursors.add(cursor);
+                    if (cursor.next()) {
+                        queue.add(cursor);
+                    }
+                }
+                success = true;
+            } finally {
+                if (success == false) {
+                    close();
+                    for (File file : runs) {
+                        delete(file);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public boolean next() throws IOException {
+            FileCursor head = queue.poll();
+            if (head == null) {
+                current = null;
+                return false;
+            }
+            current = head.get();
+            if (head.next()) {
+                queue.add(head);
+            }
+            return true;
+        }
+
+        @Override
+        public Record get() {
+            return current;
+        }
+
+        @Override
+        public void close() throws IOException {
+            IOException occurred = null;
+            for (FileCursor cursor : cursors) {
+                try {
+                    cursor.close();
+                } catch (IOException e) {
+                    if (occurred == null) {
+                        occurred = e;
+                    } else {
+                        occurred.addSuppressed(e);
+                    }
+                }
+            }
+            if (occurred != null) {
+                throw occurred;
+            }
+        }
+    }
+}
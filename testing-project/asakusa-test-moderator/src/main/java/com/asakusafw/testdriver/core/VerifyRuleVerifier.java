@@ -21,8 +21,12 @@ import java.util.List;
 
 /**
  * Rule based {@link Verifier}.
+ * <p>
+ * If {@link SortMergeVerifyEngine#KEY_ENABLE} is enabled, this uses {@link SortMergeVerifyEngine}
+ * instead of {@link VerifyEngine} to verify large data sets.
+ * </p>
  * @since 0.2.3
- * @version 0.7.0
+ * @version 0.10.5
  */
 public class VerifyRuleVerifier implements Verifier, Verifier.Validatable {
 
@@ -49,6 +53,9 @@ public class VerifyRuleVerifier implements Verifier, Verifier.Validatable {
 
     @Override
     public List<Difference> verify(DataModelSource results) throws IOException {
+        if (SortMergeVerifyEngine.isEnabled()) {
+            return new SortMergeVerifyEngine(rule).verify(expected, results);
+        }
         VerifyEngine engine = new VerifyEngine(rule);
         try {
             engine.addExpected(expected);
@@ -63,6 +70,10 @@ public class VerifyRuleVerifier implements Verifier, Verifier.Validatable {
 
     @Override
     public void validate() throws IOException {
+        if (SortMergeVerifyEngine.isEnabled()) {
+            new SortMergeVerifyEngine(rule).validate(expected);
+            return;
+        }
         VerifyEngine engine = new VerifyEngine(rule);
         try {
             engine.addExpected(expected);
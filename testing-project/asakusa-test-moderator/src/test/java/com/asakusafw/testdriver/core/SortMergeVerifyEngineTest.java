@@ -0,0 +1,175 @@
+/**
+ * Copyright 2011-2021 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.testdriver.core;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test for {@link SortMergeVerifyEngine}.
+ */
+public class SortMergeVerifyEngineTest {
+
+    /**
+     * A temporary folder.
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * enabled by the system property.
+     */
+    @Test
+    public void enabled() {
+        String saved = System.getProperty(SortMergeVerifyEngine.KEY_ENABLE);
+        try {
+            System.setProperty(SortMergeVerifyEngine.KEY_ENABLE, " True ");
+            assertThat(SortMergeVerifyEngine.isEnabled(), is(true));
+            System.setProperty(SortMergeVerifyEngine.KEY_ENABLE, "no");
+            assertThat(SortMergeVerifyEngine.isEnabled(), is(false));
+        } finally {
+            if (saved == null) {
+                System.clearProperty(SortMergeVerifyEngine.KEY_ENABLE);
+            } else {
+                System.setProperty(SortMergeVerifyEngine.KEY_ENABLE, saved);
+            }
+        }
+    }
+
+    /**
+     * single perfect match.
+     * @throws Exception if failed
+     */
+    @Test
+    public void single() throws Exception {
+        SortMergeVerifyEngine engine = new SortMergeVerifyEngine(new VerifyEngineTest.Rule());
+        List<Difference> diffs = engine.verify(source("hello:world"), source("hello:world"));
+        assertThat(diffs, hasSize(0));
+    }
+
+    /**
+     * single value mismatch.
+     * @throws Exception if failed
+     */
+    @Test
+    public void mismatch_value() throws Exception {
+        SortMergeVerifyEngine engine = new SortMergeVerifyEngine(new VerifyEngineTest.Rule());
+        List<Difference> diffs = engine.verify(source("hello:world!"), source("hello:world"));
+        assertThat(diffs, hasSize(1));
+    }
+
+    /**
+     * single key mismatch.
+     * @throws Exception if failed
+     */
+    @Test
+    public void mismatch_key() throws Exception {
+        SortMergeVerifyEngine engine = new SortMergeVerifyEngine(new VerifyEngineTest.Rule());
+        List<Difference> diffs = engine.verify(source("hello!:world"), source("hello:world"));
+        assertThat(diffs, hasSize(2));
+    }
+
+    /**
+     * duplicated in actual.
+     * @throws Exception if failed
+     */
+    @Test
+    public void duplicate() throws Exception {
+        SortMergeVerifyEngine engine = new SortMergeVerifyEngine(new VerifyEngineTest.Rule());
+        List<Difference> diffs = engine.verify(source("hello:world"), source("hello:world1", "hello:world2"));
+        assertThat(diffs, hasSize(greaterThan(0)));
+    }
+
+    /**
+     * duplicated in expected.
+     * @throws Exception if failed
+     */
+    @Test(expected = IOException.class)
+    public void duplicate_expected() throws Exception {
+        SortMergeVerifyEngine engine = new SortMergeVerifyEngine(new VerifyEngineTest.Rule());
+        engine.verify(source("hello:world1", "hello:world2"), source("hello:world1"));
+    }
+
+    /**
+     * validate expected.
+     * @throws Exception if failed
+     */
+    @Test
+    public void validate() throws Exception {
+        SortMergeVerifyEngine engine = new SortMergeVerifyEngine(new VerifyEngineTest.Rule());
+        engine.validate(source("a:1", "b:2", "c:3"));
+        try {
+            engine.validate(source("a:1", "b:2", "a:3"));
+            fail();
+        } catch (IOException e) {
+            // ok.
+        }
+    }
+
+    /**
+     * spill into temporary files.
+     * @throws Exception if failed
+     */
+    @Test
+    public void spill() throws Exception {
+        List<String> expected = new ArrayList<>();
+        List<String> actual = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            expected.add(String.format("k%d:v%d", i, i));
+            if (i % 100 == 1) {
+                // missing
+                continue;
+            } else if (i % 100 == 2) {
+                // mismatch
+                actual.add(String.format("k%d:v%d!", i, i));
+            } else {
+                actual.add(String.format("k%d:v%d", i, i));
+            }
+        }
+        actual.add("k1000:unexpected");
+        Random random = new Random(6502);
+        Collections.shuffle(expected, random);
+        Collections.shuffle(actual, random);
+
+        File temporary = folder.newFolder();
+        SortMergeVerifyEngine engine = new SortMergeVerifyEngine(new VerifyEngineTest.Rule())
+                .withBufferSize(30)
+                .withTemporaryDirectory(temporary);
+        List<Difference> diffs = engine.verify(
+                source(expected.toArray(new String[0])),
+                source(actual.toArray(new String[0])));
+        assertThat(diffs, hasSize(21));
+        assertThat(temporary.list(), is(new String[0]));
+    }
+
+    DataModelSource source(String... values) {
+        return new IteratorDataModelSource(
+                ValueDefinition.of(String.class),
+                Arrays.asList(values).iterator());
+    }
+}
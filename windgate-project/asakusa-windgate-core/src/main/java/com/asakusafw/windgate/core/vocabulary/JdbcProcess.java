@@ -18,7 +18,7 @@ package com.asakusafw.windgate.core.vocabulary;
 /**
  * WindGate database resource configuration.
  * @since 0.2.2
- * @version 0.9.0
+ * @version 0.10.5
  */
 public enum JdbcProcess implements ConfigurationItem {
 
@@ -75,6 +75,29 @@ public enum JdbcProcess implements ConfigurationItem {
             "WindGate JDBC options"
     ),
 
+    /**
+     * The script key of the column name for splitting the source table into ranges (for sources).
+     * The column must be a numeric, date, or timestamp type.
+     * @see #SPLIT_COUNT
+     * @since 0.10.5
+     */
+    SPLIT_COLUMN(
+            "splitColumn", //$NON-NLS-1$
+            "The column name for splitting the source table"
+    ),
+
+    /**
+     * The script key of the number of ranges which the source table is split into (for sources).
+     * Each range is fetched on its own connection in parallel.
+     * @see #SPLIT_COLUMN
+     * @see OptionSymbols#ORACLE_HASH_SPLIT
+     * @since 0.10.5
+     */
+    SPLIT_COUNT(
+            "splitCount", //$NON-NLS-1$
+            "The number of ranges which the source table is split into"
+    ),
+
     /**
      * The script key of target operation (for drains).
      * @see OperationKind
@@ -109,7 +132,7 @@ public enum JdbcProcess implements ConfigurationItem {
     /**
      * The source/drain option kinds.
      * @since 0.9.0
-     * @version 0.9.2
+     * @version 0.10.5
      */
     public static final class OptionSymbols {
 
@@ -129,6 +152,13 @@ public enum JdbcProcess implements ConfigurationItem {
          */
         public static final String ORACLE_PARTITION = "ORACLE_PARTITION"; //$NON-NLS-1$
 
+        /**
+         * The JDBC import option symbol of splitting the source table by Oracle {@code ORA_HASH} buckets
+         * instead of value ranges of the split column.
+         * @since 0.10.5
+         */
+        public static final String ORACLE_HASH_SPLIT = "ORACLE_HASH_SPLIT"; //$NON-NLS-1$
+
         private OptionSymbols() {
             return;
         }
@@ -36,7 +36,7 @@ import com.asakusafw.windgate.core.util.ProcessUtil;
 /**
  * An implementation of {@link ResourceMirror} using JDBC.
  * @since 0.2.2
- * @version 0.4.0
+ * @version 0.10.5
  */
 @SimulationSupport
 public class JdbcResourceMirror extends ResourceMirror {
@@ -105,7 +105,12 @@ public class JdbcResourceMirror extends ResourceMirror {
         Connection connection = profile.openConnection();
         boolean succeed = false;
         try {
-            JdbcSourceDriver<T> driver = new JdbcSourceDriver<>(profile, jdbcScript, connection, object);
+            SourceDriver<T> driver;
+            if (jdbcScript.getSplitCount() > 1) {
+                driver = new JdbcSplitSourceDriver<>(profile, jdbcScript, connection, script.getDataClass());
+            } else {
+                driver = new JdbcSourceDriver<>(profile, jdbcScript, connection, object);
+            }
             succeed = true;
             return driver;
         } finally {
@@ -40,7 +40,7 @@ import com.asakusafw.windgate.core.vocabulary.JdbcProcess.OperationKind;
 /**
  * Common utility classes for this package.
  * @since 0.2.2
- * @version 0.7.3
+ * @version 0.10.5
  */
 final class JdbcResourceUtil {
 
@@ -180,9 +180,49 @@ final class JdbcResourceUtil {
                 .withCondition(condition)
                 .withCustomTruncate(customTruncate)
                 .withOptions(options);
+        if (kind == DriverScript.Kind.SOURCE) {
+            String splitColumn = extract(profile, process, kind, JdbcProcess.SPLIT_COLUMN, false);
+            String splitCountString = extract(profile, process, kind, JdbcProcess.SPLIT_COUNT, false);
+            int splitCount = parseSplitCount(profile, process, kind, splitCountString);
+            if (splitColumn != null && splitColumn.isEmpty()) {
+                splitColumn = null;
+            }
+            script.withSplit(splitColumn, splitCount);
+        }
         return script;
     }
 
+    private static int parseSplitCount(
+            JdbcProfile profile,
+            ProcessScript<?> process,
+            DriverScript.Kind kind,
+            String value) throws IOException {
+        if (value == null || value.isEmpty()) {
+            return 1;
+        }
+        try {
+            int count = Integer.parseInt(value);
+            if (count >= 1) {
+                return count;
+            }
+        } catch (NumberFormatException e) {
+            LOG.debug("Invalid split count: {}", value, e);
+        }
+        WGLOG.error("E01001",
+                profile.getResourceName(),
+                process.getName(),
+                kind.prefix,
+                JdbcProcess.SPLIT_COUNT.key(),
+                value);
+        throw new IOException(MessageFormat.format(
+                "\"{3}\" must be a positive integer: \"{4}\" (resource={0}, process={1}, kind={2})",
+                profile.getResourceName(),
+                process.getName(),
+                kind,
+                JdbcProcess.SPLIT_COUNT.key(),
+                value));
+    }
+
     private static String extract(
             JdbcProfile profile,
             ProcessScript<?> process,
@@ -28,7 +28,7 @@ import com.asakusafw.windgate.core.vocabulary.DataModelJdbcSupport;
  * A structured gate script fragment for JDBC.
  * @param <T> the type of target data model
  * @since 0.2.2
- * @version 0.9.0
+ * @version 0.10.5
  */
 public class JdbcScript<T> {
 
@@ -46,6 +46,10 @@ public class JdbcScript<T> {
 
     private volatile Set<String> options = Collections.emptySet();
 
+    private volatile String splitColumn;
+
+    private volatile int splitCount = 1;
+
     /**
      * Creates a new instance.
      * @param name the name of original process
@@ -231,4 +235,41 @@ public class JdbcScript<T> {
         this.options = Collections.unmodifiableSet(new LinkedHashSet<>(values));
         return this;
     }
+
+    /**
+     * Returns the column name for splitting the source table into ranges.
+     * @return the split column name, or {@code null} if not specified
+     * @since 0.10.5
+     */
+    public String getSplitColumn() {
+        return splitColumn;
+    }
+
+    /**
+     * Returns the number of ranges which the source table is split into.
+     * @return the number of ranges, {@code 1} if the source table is not split
+     * @since 0.10.5
+     */
+    public int getSplitCount() {
+        return splitCount;
+    }
+
+    /**
+     * Sets the split settings for the source table.
+     * @param column the split column name, or {@code null} if it is not specified
+     * @param count the number of ranges, or {@code 1} to disable splitting
+     * @return this
+     * @since 0.10.5
+     */
+    public JdbcScript<T> withSplit(String column, int count) {
+        if (column != null && isEmpty(column)) {
+            throw new IllegalArgumentException("split column must not be empty"); //$NON-NLS-1$
+        }
+        if (count < 1) {
+            throw new IllegalArgumentException("split count must be positive"); //$NON-NLS-1$
+        }
+        this.splitColumn = column;
+        this.splitCount = count;
+        return this;
+    }
 }
@@ -0,0 +1,588 @@
+/**
+ * Copyright 2011-2021 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.windgate.jdbc;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.asakusafw.windgate.core.DriverScript;
+import com.asakusafw.windgate.core.WindGateLogger;
+import com.asakusafw.windgate.core.resource.SourceDriver;
+import com.asakusafw.windgate.core.vocabulary.DataModelJdbcSupport.DataModelResultSet;
+import com.asakusafw.windgate.core.vocabulary.JdbcProcess;
+
+/**
+ * An implementation of {@link SourceDriver} using JDBC, which splits the source table into ranges
+ * and fetches each range on its own connection in parallel.
+ * <p>
+ * The ranges are decided by the value range of {@link JdbcScript#getSplitColumn() the split column},
+ * or by Oracle {@code ORA_HASH} buckets if {@link JdbcProcess.OptionSymbols#ORACLE_HASH_SPLIT} is enabled
+ * in both the profile and the script.
+ * The order of the resulting objects is not specified.
+ * </p>
+ * @param <T> the type of data model object
+ * @since 0.10.5
+ */
+public class JdbcSplitSourceDriver<T> implements SourceDriver<T> {
+
+    static final WindGateLogger WGLOG = new JdbcLogger(JdbcSplitSourceDriver.class);
+
+    static final Logger LOG = LoggerFactory.getLogger(JdbcSplitSourceDriver.class);
+
+    private static final int BUFFER_SIZE_PER_RANGE = 256;
+
+    private static final String HASH_COLUMN_DEFAULT = "ROWID"; //$NON-NLS-1$
+
+    private final JdbcProfile profile;
+
+    private final JdbcScript<T> script;
+
+    private final Connection connection;
+
+    private final Class<? extends T> dataClass;
+
+    private final List<Connection> extraConnections = new ArrayList<>();
+
+    private final BlockingQueue<Slot<T>> free = new LinkedBlockingQueue<>();
+
+    private final BlockingQueue<Slot<T>> filled = new LinkedBlockingQueue<>();
+
+    private final Slot<T> end = new Slot<>(null);
+
+    private final List<Future<?>> fetchers = new ArrayList<>();
+
+    private ExecutorService executor;
+
+    private volatile boolean sawError;
+
+    private Slot<T> current;
+
+    private int running;
+
+    private boolean closed;
+
+    /**
+     * Creates a new instance.
+     * @param profile the profile of the target database
+     * @param script the script of this action
+     * @param connection the connection, which is used for the first range
+     * @param dataClass the data model class, which must have a public constructor without any parameters
+     * @throws IllegalArgumentException if any parameter is {@code null}
+     */
+    public JdbcSplitSourceDriver(
+            JdbcProfile profile,
+            JdbcScript<T> script,
+            Connection connection,
+            Class<? extends T> dataClass) {
+        if (profile == null) {
+            throw new IllegalArgumentException("profile must not be null"); //$NON-NLS-1$
+        }
+        if (script == null) {
+            throw new IllegalArgumentException("script must not be null"); //$NON-NLS-1$
+        }
+        if (connection == null) {
+            throw new IllegalArgumentException("connection must not be null"); //$NON-NLS-1$
+        }
+        if (dataClass == null) {
+            throw new IllegalArgumentException("dataClass must not be null"); //$NON-NLS-1$
+        }
+        this.profile = profile;
+        this.script = script;
+        this.connection = connection;
+        this.dataClass = dataClass;
+    }
+
+    @Override
+    public void prepare() throws IOException {
+        LOG.debug("Preparing JDBC resource split source (resource={}, table={})",
+                profile.getResourceName(),
+                script.getTableName());
+        List<Range> ranges;
+        try {
+            ranges = computeRanges();
+        } catch (SQLException e) {
+            for (SQLException ex = e; ex != null; ex = ex.getNextException()) {
+                WGLOG.error(ex, "E03002",
+                        profile.getResourceName(),
+                        script.getName(),
+                        script.getTableName(),
+                        script.getSplitColumn());
+            }
+            throw new IOException(MessageFormat.format(
+                    "Failed to split JDBC source (resource={0}, table={1}, column={2})",
+                    profile.getResourceName(),
+                    script.getTableName(),
+                    script.getSplitColumn()), e);
+        }
+        WGLOG.info("I03003",
+                profile.getResourceName(),
+                script.getName(),
+                script.getTableName(),
+                isHashSplit() ? getHashColumn() : script.getSplitColumn(),
+                ranges.size());
+        for (int i = 0, n = ranges.size() * BUFFER_SIZE_PER_RANGE; i < n; i++) {
+            free.add(new Slot<>(newDataModel()));
+        }
+        List<Connection> connections = new ArrayList<>();
+        connections.add(connection);
+        while (connections.size() < ranges.size()) {
+            Connection extra = profile.openConnection();
+            extraConnections.add(extra);
+            connections.add(extra);
+        }
+        AtomicInteger counter = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(ranges.size(), r -> {
+            Thread t = new Thread(r, String.format("WindGate-JDBC-%d", counter.incrementAndGet())); //$NON-NLS-1$
+            t.setDaemon(true);
+            return t;
+        });
+        for (int i = 0, n = ranges.size(); i < n; i++) {
+            Range range = ranges.get(i);
+            Connection conn = connections.get(i);
+            fetchers.add(executor.submit(() -> {
+                boolean succeed = false;
+                try {
+                    fetch(conn, range);
+                    succeed = true;
+                    return null;
+                } finally {
+                    if (succeed == false) {
+                        sawError = true;
+                    }
+                    filled.add(end);
+                }
+            }));
+            running++;
+        }
+        executor.shutdown();
+    }
+
+    private T newDataModel() throws IOException {
+        try {
+            return dataClass.newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IOException(MessageFormat.format(
+                    "Failed to create a new data model object: {2} (resource={0}, process={1})",
+                    profile.getResourceName(),
+                    script.getName(),
+                    dataClass.getName()), e);
+        }
+    }
+
+    private boolean isHashSplit() {
+        String symbol = JdbcProcess.OptionSymbols.ORACLE_HASH_SPLIT;
+        return profile.getOptimizations().contains(symbol) && script.getOptions().contains(symbol);
+    }
+
+    private String getHashColumn() {
+        String column = script.getSplitColumn();
+        return column == null ? HASH_COLUMN_DEFAULT : column;
+    }
+
+    private List<Range> computeRanges() throws IOException, SQLException {
+        int count = script.getSplitCount();
+        if (isHashSplit()) {
+            String column = getHashColumn();
+            List<Range> results = new ArrayList<>();
+            // ORA_HASH(NULL, n) never matches any buckets, so that the first bucket also takes nulls
+            results.add(new Range(MessageFormat.format(
+                    "ORA_HASH({0}, {1}) = 0 OR {0} IS NULL",
+                    column,
+                    String.valueOf(count - 1))));
+            for (int i = 1; i < count; i++) {
+                results.add(new Range(MessageFormat.format(
+                        "ORA_HASH({0}, {1}) = {2}",
+                        column,
+                        String.valueOf(count - 1),
+                        String.valueOf(i))));
+            }
+            return results;
+        }
+        String column = script.getSplitColumn();
+        if (column == null) {
+            WGLOG.error("E01001",
+                    profile.getResourceName(),
+                    script.getName(),
+                    DriverScript.Kind.SOURCE.prefix,
+                    JdbcProcess.SPLIT_COLUMN.key(),
+                    column);
+            throw new IOException(MessageFormat.format(
+                    "Resource \"{0}\" requires config \"{2}\" to split the source table (process={1})",
+                    profile.getResourceName(),
+                    script.getName(),
+                    JdbcProcess.SPLIT_COLUMN.key()));
+        }
+        String sql = createBoundsSql(column);
+        Object min;
+        Object max;
+        try (Statement statement = connection.createStatement()) {
+            LOG.debug("Executing SQL: {}", sql);
+            try (ResultSet rs = statement.executeQuery(sql)) {
+                if (rs.next() == false) {
+                    return Collections.singletonList(new Range(null));
+                }
+                min = rs.getObject(1);
+                max = rs.getObject(2);
+            }
+        }
+        if (min == null || max == null) {
+            return Collections.singletonList(new Range(null));
+        }
+        List<Object> bounds = computeBounds(min, max, count);
+        LOG.debug("Split bounds of {}.{}: {}", script.getTableName(), column, bounds);
+        List<Range> results = new ArrayList<>();
+        if (bounds.isEmpty()) {
+            results.add(new Range(null));
+            return results;
+        }
+        results.add(new Range(MessageFormat.format("{0} < ? OR {0} IS NULL", column), bounds.get(0)));
+        for (int i = 1, n = bounds.size(); i < n; i++) {
+            results.add(new Range(MessageFormat.format("{0} >= ? AND {0} < ?", column),
+                    bounds.get(i - 1), bounds.get(i)));
+        }
+        results.add(new Range(MessageFormat.format("{0} >= ?", column), bounds.get(bounds.size() - 1)));
+        return results;
+    }
+
+    private String createBoundsSql(String column) {
+        if (script.getCondition() != null) {
+            return MessageFormat.format(
+                    "SELECT MIN({1}), MAX({1}) FROM {0} WHERE {2}",
+                    script.getTableName(),
+                    column,
+                    script.getCondition());
+        } else {
+            return MessageFormat.format(
+                    "SELECT MIN({1}), MAX({1}) FROM {0}",
+                    script.getTableName(),
+                    column);
+        }
+    }
+
+    private List<Object> computeBounds(Object min, Object max, int count) throws IOException {
+        List<Object> results = new ArrayList<>();
+        if (min instanceof java.util.Date && max instanceof java.util.Date) {
+            long lower = ((java.util.Date) min).getTime();
+            long width = ((java.util.Date) max).getTime() - lower;
+            long last = lower;
+            for (int i = 1; i < count; i++) {
+                long bound = lower + (width / count) * i + (width % count) * i / count;
+                if (bound > last) {
+                    results.add(min instanceof java.sql.Date ? new java.sql.Date(bound) : new Timestamp(bound));
+                    last = bound;
+                }
+            }
+        } else if (min instanceof Number && max instanceof Number) {
+            BigDecimal lower = toDecimal((Number) min);
+            BigDecimal width = toDecimal((Number) max).subtract(lower);
+            boolean integral = lower.scale() <= 0 && width.scale() <= 0;
+            BigDecimal last = lower;
+            for (int i = 1; i < count; i++) {
+                BigDecimal delta = width.multiply(BigDecimal.valueOf(i));
+                BigDecimal bound = lower.add(integral
+                        ? new BigDecimal(delta.toBigInteger().divide(BigInteger.valueOf(count)))
+                        : delta.divide(BigDecimal.valueOf(count), MathContext.DECIMAL128));
+                if (bound.compareTo(last) > 0) {
+                    results.add(bound);
+                    last = bound;
+                }
+            }
+        } else {
+            throw new IOException(MessageFormat.format(
+                    "Split column must be a numeric, date, or timestamp type: {2}.{3} ({4}) "
+                    + "(resource={0}, process={1})",
+                    profile.getResourceName(),
+                    script.getName(),
+                    script.getTableName(),
+                    script.getSplitColumn(),
+                    min.getClass().getName()));
+        }
+        return results;
+    }
+
+    private static BigDecimal toDecimal(Number number) {
+        if (number instanceof BigDecimal) {
+            return (BigDecimal) number;
+        } else if (number instanceof BigInteger) {
+            return new BigDecimal((BigInteger) number);
+        } else if (number instanceof Double || number instanceof Float) {
+            return BigDecimal.valueOf(number.doubleValue());
+        } else {
+            return BigDecimal.valueOf(number.longValue());
+        }
+    }
+
+    private String createSql(Range range) {
+        assert script.getColumnNames().isEmpty() == false;
+        String condition = script.getCondition();
+        if (range.predicate == null) {
+            assert range.parameters.isEmpty();
+        } else if (condition == null) {
+            condition = range.predicate;
+        } else {
+            condition = MessageFormat.format("({0}) AND ({1})", condition, range.predicate);
+        }
+        if (condition != null) {
+            return MessageFormat.format(
+                    "SELECT {1} FROM {0} WHERE {2}",
+                    script.getTableName(),
+                    JdbcResourceUtil.join(script.getColumnNames()),
+                    condition);
+        } else {
+            return MessageFormat.format(
+                    "SELECT {1} FROM {0}",
+                    script.getTableName(),
+                    JdbcResourceUtil.join(script.getColumnNames()));
+        }
+    }
+
+    private void fetch(Connection conn, Range range) throws IOException, InterruptedException {
+        String sql = createSql(range);
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        try {
+            statement = conn.prepareStatement(sql);
+            if (profile.getBatchGetUnit() != 0) {
+                statement.setFetchSize(profile.getBatchGetUnit());
+            }
+            for (int i = 0, n = range.parameters.size(); i < n; i++) {
+                statement.setObject(i + 1, range.parameters.get(i));
+            }
+            WGLOG.info("I03001",
+                    profile.getResourceName(),
+                    script.getName(),
+                    script.getTableName(),
+                    script.getColumnNames());
+            LOG.debug("Executing SQL: {} {}", sql, range.parameters);
+            resultSet = statement.executeQuery();
+            LOG.debug("Executed SQL: {} {}", sql, range.parameters);
+            WGLOG.info("I03002",
+                    profile.getResourceName(),
+                    script.getName(),
+                    script.getTableName(),
+                    script.getColumnNames());
+            DataModelResultSet<? super T> support = script.getSupport()
+                    .createResultSetSupport(resultSet, script.getColumnNames());
+            while (sawError == false) {
+                Slot<T> slot = free.take();
+                if (support.next(slot.object) == false) {
+                    free.put(slot);
+                    break;
+                }
+                filled.put(slot);
+            }
+        } catch (SQLException e) {
+            for (SQLException ex = e; ex != null; ex = ex.getNextException()) {
+                WGLOG.error(ex, "E03001",
+                        profile.getResourceName(),
+                        script.getName(),
+                        script.getTableName(),
+                        script.getColumnNames());
+            }
+            throw new IOException(MessageFormat.format(
+                    "Failed to fetch next object from JDBC source (resource={0}, table={1}, range={2})",
+                    profile.getResourceName(),
+                    script.getTableName(),
+                    range), e);
+        } finally {
+            dispose(resultSet);
+            dispose(statement);
+        }
+    }
+
+    private void dispose(AutoCloseable resource) {
+        if (resource == null) {
+            return;
+        }
+        try {
+            resource.close();
+        } catch (Exception e) {
+            if (e instanceof SQLException) {
+                for (SQLException ex = (SQLException) e; ex != null; ex = ex.getNextException()) {
+                    WGLOG.warn(ex, "W03001",
+                            profile.getResourceName(),
+                            script.getName(),
+                            script.getTableName(),
+                            script.getColumnNames());
+                }
+            } else {
+                WGLOG.warn(e, "W03001",
+                        profile.getResourceName(),
+                        script.getName(),
+                        script.getTableName(),
+                        script.getColumnNames());
+            }
+        }
+    }
+
+    @Override
+    public boolean next() throws IOException {
+        if (current != null) {
+            free.add(current);
+            current = null;
+        }
+        try {
+            while (running > 0 && sawError == false) {
+                Slot<T> next = filled.take();
+                if (next == end) {
+                    running--;
+                } else {
+                    current = next;
+                    return true;
+                }
+            }
+            checkFetchers();
+            return false;
+        } catch (InterruptedException e) {
+            throw new IOException("Operation was interrupted", e);
+        }
+    }
+
+    private void checkFetchers() throws IOException, InterruptedException {
+        if (sawError) {
+            // the rest fetchers may be blocked until the buffers are released, so that we interrupt them here
+            executor.shutdownNow();
+        }
+        Throwable interrupted = null;
+        for (Future<?> fetcher : fetchers) {
+            try {
+                fetcher.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                } else if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                } else if (cause instanceof InterruptedException) {
+                    // the actual failure of other fetchers should be reported instead
+                    if (interrupted == null) {
+                        interrupted = cause;
+                    }
+                    continue;
+                }
+                throw new AssertionError(e);
+            }
+        }
+        if (interrupted != null) {
+            throw new IOException("Operation was interrupted", interrupted);
+        }
+    }
+
+    @Override
+    public T get() throws IOException {
+        if (current == null) {
+            throw new IOException("Next data model was not prepared");
+        }
+        return current.object;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        LOG.debug("Closing JDBC resource split source (resource={}, table={})",
+                profile.getResourceName(),
+                script.getTableName());
+        current = null;
+        for (Future<?> fetcher : fetchers) {
+            fetcher.cancel(true);
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+            try {
+                while (executor.awaitTermination(1, TimeUnit.SECONDS) == false) {
+                    LOG.debug("Waiting for JDBC fetchers are terminated (resource={}, table={})",
+                            profile.getResourceName(),
+                            script.getTableName());
+                }
+            } catch (InterruptedException e) {
+                LOG.debug("Interrupted while waiting for JDBC fetchers", e);
+                Thread.currentThread().interrupt();
+            }
+        }
+        free.clear();
+        filled.clear();
+        List<Connection> connections = new ArrayList<>();
+        connections.add(connection);
+        connections.addAll(extraConnections);
+        extraConnections.clear();
+        for (Connection conn : connections) {
+            try {
+                conn.close();
+            } catch (SQLException e) {
+                for (SQLException ex = e; ex != null; ex = ex.getNextException()) {
+                    WGLOG.warn(ex, "W02001",
+                            profile.getResourceName(),
+                            script.getName());
+                }
+            }
+        }
+    }
+
+    private static final class Slot<T> {
+
+        final T object;
+
+        Slot(T object) {
+            this.object = object;
+        }
+    }
+
+    private static final class Range {
+
+        final String predicate;
+
+        final List<Object> parameters;
+
+        Range(String predicate, Object... parameters) {
+            this.predicate = predicate;
+            this.parameters = Arrays.asList(parameters);
+        }
+
+        @Override
+        public String toString() {
+            return predicate == null ? "(all)" : predicate + " " + parameters; //$NON-NLS-1$ //$NON-NLS-2$
+        }
+    }
+}
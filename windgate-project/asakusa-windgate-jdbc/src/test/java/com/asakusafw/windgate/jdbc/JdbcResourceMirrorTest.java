@@ -201,6 +201,65 @@ public class JdbcResourceMirrorTest {
         }
     }
 
+    /**
+     * Source with splitting into ranges.
+     * @throws Exception if failed
+     */
+    @Test
+    public void source_split() throws Exception {
+        Map<String, String> conf = new HashMap<>();
+        conf.put(JdbcProcess.TABLE.key(), "PAIR");
+        conf.put(JdbcProcess.COLUMNS.key(), "KEY,VALUE");
+        conf.put(JdbcProcess.JDBC_SUPPORT.key(), PairSupport.class.getName());
+        conf.put(JdbcProcess.CONDITION.key(), "KEY > 1");
+        conf.put(JdbcProcess.SPLIT_COLUMN.key(), "KEY");
+        conf.put(JdbcProcess.SPLIT_COUNT.key(), "2");
+
+        ProcessScript<Pair> process = process(new DriverScript("jdbc", conf), dummy());
+        GateScript script = script(process);
+
+        h2.execute("INSERT INTO PAIR (KEY, VALUE) VALUES (1, 'Hello1, world!')");
+        h2.execute("INSERT INTO PAIR (KEY, VALUE) VALUES (2, 'Hello2, world!')");
+        h2.execute("INSERT INTO PAIR (KEY, VALUE) VALUES (3, 'Hello3, world!')");
+        h2.execute("INSERT INTO PAIR (KEY, VALUE) VALUES (4, 'Hello4, world!')");
+        h2.execute("INSERT INTO PAIR (KEY, VALUE) VALUES (5, 'Hello5, world!')");
+
+        try (JdbcResourceMirror resource = new JdbcResourceMirror(profile(), new ParameterList())) {
+            resource.prepare(script);
+            try (SourceDriver<Pair> source = resource.createSource(process)) {
+                assertThat(source, instanceOf(JdbcSplitSourceDriver.class));
+                source.prepare();
+                test(source, "Hello2, world!", "Hello3, world!", "Hello4, world!", "Hello5, world!");
+            }
+        }
+    }
+
+    /**
+     * Source with invalid split count.
+     * @throws Exception if failed
+     */
+    @Test
+    public void source_split_invalid_count() throws Exception {
+        Map<String, String> conf = new HashMap<>();
+        conf.put(JdbcProcess.TABLE.key(), "PAIR");
+        conf.put(JdbcProcess.COLUMNS.key(), "KEY,VALUE");
+        conf.put(JdbcProcess.JDBC_SUPPORT.key(), PairSupport.class.getName());
+        conf.put(JdbcProcess.SPLIT_COLUMN.key(), "KEY");
+        conf.put(JdbcProcess.SPLIT_COUNT.key(), "0");
+
+        ProcessScript<Pair> process = process(new DriverScript("jdbc", conf), dummy());
+        GateScript script = script(process);
+
+        try (JdbcResourceMirror resource = new JdbcResourceMirror(profile(), new ParameterList())) {
+            try {
+                resource.prepare(script);
+                fail();
+            } catch (IOException e) {
+                // ok.
+            }
+        }
+    }
+
     /**
      * Source with invalid parameterized condition.
      * @throws Exception if failed
@@ -0,0 +1,322 @@
+/**
+ * Copyright 2011-2021 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.windgate.jdbc;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.asakusafw.windgate.core.vocabulary.JdbcProcess;
+
+/**
+ * Test for {@link JdbcSplitSourceDriver}.
+ */
+public class JdbcSplitSourceDriverTest {
+
+    /**
+     * Test database.
+     */
+    @Rule
+    public H2Resource h2 = new H2Resource("testing") {
+        @Override
+        protected void before() throws Exception {
+            executeFile("pair.sql");
+        }
+    };
+
+    /**
+     * simple access.
+     * @throws Exception if failed
+     */
+    @Test
+    public void simple() throws Exception {
+        h2.execute("INSERT INTO PAIR (KEY, VALUE) VALUES (1, 'Hello1')");
+        h2.execute("INSERT INTO PAIR (KEY, VALUE) VALUES (2, 'Hello2')");
+        h2.execute("INSERT INTO PAIR (KEY, VALUE) VALUES (3, 'Hello3')");
+        JdbcScript<Pair> script = script(null).withSplit("KEY", 2);
+        try (JdbcSplitSourceDriver<Pair> driver = driver(script)) {
+            driver.prepare();
+            List<String> values = values(driver);
+            assertThat(values, is(Arrays.asList("Hello1", "Hello2", "Hello3")));
+        }
+    }
+
+    /**
+     * Empty rows.
+     * @throws Exception if failed
+     */
+    @Test
+    public void empty() throws Exception {
+        JdbcScript<Pair> script = script(null).withSplit("KEY", 4);
+        try (JdbcSplitSourceDriver<Pair> driver = driver(script)) {
+            driver.prepare();
+            List<String> values = values(driver);
+            assertThat(values, is(Collections.emptyList()));
+        }
+    }
+
+    /**
+     * many rows.
+     * @throws Exception if failed
+     */
+    @Test
+    public void large() throws Exception {
+        List<String> answer = insert(3000);
+        JdbcScript<Pair> script = script(null).withSplit("KEY", 4);
+        try (JdbcSplitSourceDriver<Pair> driver = driver(script)) {
+            driver.prepare();
+            List<String> values = values(driver);
+            assertThat(values, is(answer));
+        }
+    }
+
+    /**
+     * splits into more ranges than distinct values.
+     * @throws Exception if failed
+     */
+    @Test
+    public void narrow() throws Exception {
+        List<String> answer = insert(3);
+        JdbcScript<Pair> script = script(null).withSplit("KEY", 10);
+        try (JdbcSplitSourceDriver<Pair> driver = driver(script)) {
+            driver.prepare();
+            List<String> values = values(driver);
+            assertThat(values, is(answer));
+        }
+    }
+
+    /**
+     * rows whose split column is null.
+     * @throws Exception if failed
+     */
+    @Test
+    public void nulls() throws Exception {
+        List<String> answer = new ArrayList<>();
+        answer.add("NULL");
+        h2.execute("INSERT INTO PAIR (KEY, VALUE) VALUES (NULL, 'NULL')");
+        answer.addAll(insert(100));
+        JdbcScript<Pair> script = script(null).withSplit("KEY", 3);
+        try (JdbcSplitSourceDriver<Pair> driver = driver(script)) {
+            driver.prepare();
+            List<String> values = values(driver);
+            assertThat(values, is(answer));
+        }
+    }
+
+    /**
+     * splits by hash buckets, including rows whose hash column is null.
+     * @throws Exception if failed
+     */
+    @Test
+    public void hash_nulls() throws Exception {
+        h2.execute(MessageFormat.format(
+                "CREATE ALIAS ORA_HASH FOR \"{0}.oraHash\"",
+                JdbcSplitSourceDriverTest.class.getName()));
+        List<String> answer = new ArrayList<>();
+        answer.add("NULL");
+        h2.execute("INSERT INTO PAIR (KEY, VALUE) VALUES (NULL, 'NULL')");
+        answer.addAll(insert(100));
+        JdbcScript<Pair> script = script(null)
+                .withSplit("KEY", 3)
+                .withOptions(Collections.singleton(JdbcProcess.OptionSymbols.ORACLE_HASH_SPLIT));
+        JdbcProfile profile = profile();
+        profile.setOptimizations(Collections.singleton(JdbcProcess.OptionSymbols.ORACLE_HASH_SPLIT));
+        try (JdbcSplitSourceDriver<Pair> driver = new JdbcSplitSourceDriver<>(profile, script, h2.open(), Pair.class)) {
+            driver.prepare();
+            List<String> values = values(driver);
+            assertThat(values, is(answer));
+        }
+    }
+
+    /**
+     * one of the ranges fails while the others are still producing rows.
+     * @throws Exception if failed
+     */
+    @Test(timeout = 30_000)
+    public void fetch_failure() throws Exception {
+        insert(3000);
+        JdbcScript<Pair> script = new JdbcScript<>(
+                "testing",
+                new PairSupport() {
+                    @Override
+                    public DataModelResultSet<Pair> createResultSetSupport(
+                            ResultSet resultSet, List<String> columnNames) {
+                        DataModelResultSet<Pair> delegate = super.createResultSetSupport(resultSet, columnNames);
+                        return object -> {
+                            if (delegate.next(object) == false) {
+                                // keeps producing rows, so that the buffers are exhausted
+                                object.key = 0;
+                                object.value = "more";
+                            }
+                            if (object.key >= 2250) {
+                                // only the last range: KEY >= 2250
+                                throw new SQLException("testing");
+                            }
+                            return true;
+                        };
+                    }
+                },
+                "PAIR",
+                Arrays.asList("KEY", "VALUE"),
+                null).withSplit("KEY", 4);
+        try (JdbcSplitSourceDriver<Pair> driver = driver(script)) {
+            driver.prepare();
+            while (driver.next()) {
+                assertThat(driver.get().key, lessThan(2250));
+            }
+            fail();
+        } catch (IOException e) {
+            assertThat(e.getCause(), is(instanceOf(SQLException.class)));
+        }
+    }
+
+    /**
+     * with condition.
+     * @throws Exception if failed
+     */
+    @Test
+    public void condition() throws Exception {
+        insert(100);
+        JdbcScript<Pair> script = script("KEY BETWEEN 80 AND 83 OR KEY = 10").withSplit("KEY", 3);
+        try (JdbcSplitSourceDriver<Pair> driver = driver(script)) {
+            driver.prepare();
+            List<String> values = values(driver);
+            assertThat(values, is(Arrays.asList("Hello10", "Hello80", "Hello81", "Hello82", "Hello83")));
+        }
+    }
+
+    /**
+     * closes before all rows are consumed.
+     * @throws Exception if failed
+     */
+    @Test
+    public void close_early() throws Exception {
+        insert(3000);
+        JdbcScript<Pair> script = script(null).withSplit("KEY", 4);
+        try (JdbcSplitSourceDriver<Pair> driver = driver(script)) {
+            driver.prepare();
+            assertThat(driver.next(), is(true));
+            assertThat(driver.get().value, startsWith("Hello"));
+        }
+    }
+
+    /**
+     * split column is not specified.
+     * @throws Exception if failed
+     */
+    @Test(expected = IOException.class)
+    public void missing_column() throws Exception {
+        JdbcScript<Pair> script = script(null).withSplit(null, 4);
+        try (JdbcSplitSourceDriver<Pair> driver = driver(script)) {
+            driver.prepare();
+        }
+    }
+
+    /**
+     * split column is not a numeric type.
+     * @throws Exception if failed
+     */
+    @Test(expected = IOException.class)
+    public void unsupported_column() throws Exception {
+        insert(10);
+        JdbcScript<Pair> script = script(null).withSplit("VALUE", 4);
+        try (JdbcSplitSourceDriver<Pair> driver = driver(script)) {
+            driver.prepare();
+        }
+    }
+
+    /**
+     * Mock of {@code ORA_HASH} function.
+     * @param value the value
+     * @param max the max bucket number
+     * @return the bucket number, or {@code null} if the value is {@code null}
+     */
+    public static Integer oraHash(Integer value, Integer max) {
+        if (value == null) {
+            return null;
+        }
+        return Math.floorMod(value, max + 1);
+    }
+
+    private List<String> insert(int count) {
+        List<String> answer = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String value = MessageFormat.format(
+                    "Hello{0}",
+                    String.valueOf(i + 1));
+            answer.add(value);
+            h2.execute(MessageFormat.format(
+                    "INSERT INTO PAIR (KEY, VALUE) VALUES ({0}, ''{1}'')",
+                    String.valueOf(i + 1),
+                    value));
+        }
+        return answer;
+    }
+
+    private JdbcScript<Pair> script(String condition) {
+        return new JdbcScript<>(
+                "testing",
+                new PairSupport(),
+                "PAIR",
+                Arrays.asList("KEY", "VALUE"),
+                condition);
+    }
+
+    private JdbcSplitSourceDriver<Pair> driver(JdbcScript<Pair> script) {
+        return new JdbcSplitSourceDriver<>(profile(), script, h2.open(), Pair.class);
+    }
+
+    private List<String> values(JdbcSplitSourceDriver<Pair> driver) throws IOException {
+        List<Pair> results = new ArrayList<>();
+        while (driver.next()) {
+            Pair got = driver.get();
+            Pair copy = new Pair();
+            copy.key = got.key;
+            copy.value = got.value;
+            results.add(copy);
+        }
+        Collections.sort(results);
+
+        List<String> values = new ArrayList<>();
+        for (Pair p : results) {
+            values.add(p.value);
+        }
+        return values;
+    }
+
+    private JdbcProfile profile() {
+        return new JdbcProfile(
+                "jdbc",
+                null,
+                org.h2.Driver.class.getName(),
+                h2.getJdbcUrl(),
+                null,
+                null,
+                100);
+    }
+}
@@ -37,6 +37,22 @@ final class JdbcDescriptionUtil {
         checkOptions(descriptionClass, options);
     }
 
+    static void checkSplitConfig(String descriptionClass, String splitColumn, int splitCount) {
+        if (splitColumn != null && isEmpty(splitColumn)) {
+            throw new IllegalStateException(MessageFormat.format(
+                    Messages.getString("JdbcDescriptionUtil.errorEmptyProperty"), //$NON-NLS-1$
+                    descriptionClass,
+                    "getSplitColumn()")); //$NON-NLS-1$
+        }
+        if (splitCount < 1) {
+            throw new IllegalStateException(MessageFormat.format(
+                    Messages.getString("JdbcDescriptionUtil.errorNotPositiveProperty"), //$NON-NLS-1$
+                    descriptionClass,
+                    "getSplitCount()", //$NON-NLS-1$
+                    splitCount));
+        }
+    }
+
     private static void checkTable(String descriptionClass, String table) {
         if (isEmpty(table)) {
             throw new IllegalStateException(MessageFormat.format(
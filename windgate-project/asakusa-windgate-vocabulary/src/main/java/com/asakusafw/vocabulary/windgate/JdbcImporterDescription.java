@@ -38,7 +38,7 @@ import com.asakusafw.windgate.core.vocabulary.JdbcProcess;
  * <li> not declared any explicit constructors </li>
  * </ul>
  * @since 0.2.2
- * @version 0.9.0
+ * @version 0.10.5
  */
 public abstract class JdbcImporterDescription extends WindGateImporterDescription {
 
@@ -80,6 +80,26 @@ public abstract class JdbcImporterDescription extends WindGateImporterDescriptio
         return Collections.emptySet();
     }
 
+    /**
+     * Returns the column name for splitting the source table into {@link #getSplitCount() ranges}.
+     * The column must be a numeric, date, or timestamp type.
+     * @return the split column name, or {@code null} if it is not specified
+     * @since 0.10.5
+     */
+    public String getSplitColumn() {
+        return null;
+    }
+
+    /**
+     * Returns the number of ranges which the source table is split into.
+     * Each range is fetched on its own connection in parallel.
+     * @return the number of ranges, or {@code 1} to fetch the source table through a single connection
+     * @since 0.10.5
+     */
+    public int getSplitCount() {
+        return 1;
+    }
+
     @Override
     public final DriverScript getDriverScript() {
         String descriptionClass = getClass().getName();
@@ -89,8 +109,11 @@ public abstract class JdbcImporterDescription extends WindGateImporterDescriptio
         List<String> columns = getColumnNames();
         String condition = getCondition();
         Collection<? extends JdbcAttribute> options = getOptions();
+        String splitColumn = getSplitColumn();
+        int splitCount = getSplitCount();
 
         JdbcDescriptionUtil.checkCommonConfig(descriptionClass, modelType, supportClass, table, columns, options);
+        JdbcDescriptionUtil.checkSplitConfig(descriptionClass, splitColumn, splitCount);
 
         Map<String, String> configuration = new HashMap<>();
         configuration.put(JdbcProcess.TABLE.key(), table);
@@ -104,6 +127,12 @@ public abstract class JdbcImporterDescription extends WindGateImporterDescriptio
                     .map(JdbcAttribute::getSymbol)
                     .collect(Collectors.toList())));
         }
+        if (JdbcDescriptionUtil.isEmpty(splitColumn) == false) {
+            configuration.put(JdbcProcess.SPLIT_COLUMN.key(), splitColumn);
+        }
+        if (splitCount > 1) {
+            configuration.put(JdbcProcess.SPLIT_COUNT.key(), String.valueOf(splitCount));
+        }
 
         Set<String> parameters = VariableTable.collectVariableNames(condition);
         return new DriverScript(Constants.JDBC_RESOURCE_NAME, configuration, parameters);
@@ -113,7 +142,7 @@ public abstract class JdbcImporterDescription extends WindGateImporterDescriptio
      * JDBC import options.
      * @see JdbcImporterDescription#getOptions()
      * @since 0.9.0
-     * @version 0.9.2
+     * @version 0.10.5
      */
     public enum Option implements JdbcAttribute {
 
@@ -122,6 +151,13 @@ public abstract class JdbcImporterDescription extends WindGateImporterDescriptio
          * @since 0.9.2
          */
         ORACLE_PARTITION(JdbcProcess.OptionSymbols.ORACLE_PARTITION),
+
+        /**
+         * Split the source table by Oracle {@code ORA_HASH} buckets instead of value ranges.
+         * @see JdbcImporterDescription#getSplitCount()
+         * @since 0.10.5
+         */
+        ORACLE_HASH_SPLIT(JdbcProcess.OptionSymbols.ORACLE_HASH_SPLIT),
         ;
 
         private final String symbol;
@@ -107,6 +107,30 @@ public class JdbcImporterDescriptionTest {
         assertThat(script.getParameterNames(), hasSize(0));
     }
 
+    /**
+     * w/ split.
+     */
+    @Test
+    public void split() {
+        Mock mock = new Mock(String.class, "testing", StringSupport.class, "TESTING", null, "VALUE")
+                .withSplit("VALUE", 4);
+        DriverScript script = mock.getDriverScript();
+        Map<String, String> conf = script.getConfiguration();
+        assertThat(conf.keySet(), hasSize(5));
+        assertThat(conf, hasEntry(JdbcProcess.SPLIT_COLUMN.key(), "VALUE"));
+        assertThat(conf, hasEntry(JdbcProcess.SPLIT_COUNT.key(), "4"));
+    }
+
+    /**
+     * w/ invalid split count.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void split_invalid_count() {
+        Mock mock = new Mock(String.class, "testing", StringSupport.class, "TESTING", null, "VALUE")
+                .withSplit("VALUE", 0);
+        mock.getDriverScript();
+    }
+
     /**
      * w/ parameters.
      */
@@ -307,6 +331,8 @@ public class JdbcImporterDescriptionTest {
         private final String condition;
         private final List<String> columnNames;
         private List<JdbcAttribute> options;
+        private String splitColumn;
+        private int splitCount = 1;
 
         Mock(
                 Class<?> modelType,
@@ -369,5 +395,21 @@ public class JdbcImporterDescriptionTest {
             this.options = Arrays.asList(elements);
             return this;
         }
+
+        @Override
+        public String getSplitColumn() {
+            return splitColumn;
+        }
+
+        @Override
+        public int getSplitCount() {
+            return splitCount;
+        }
+
+        public Mock withSplit(String column, int count) {
+            this.splitColumn = column;
+            this.splitCount = count;
+            return this;
+        }
     }
 }
@@ -37,6 +37,7 @@ import com.beust.jcommander.Parameters;
 /**
  * Handles parameters about executors.
  * @since 0.10.0
+ * @version 0.10.5
  */
 @Parameters(resourceBundle = "com.asakusafw.workflow.cli.jcommander")
 public class ExecutorParameter {
@@ -58,6 +59,13 @@ public class ExecutorParameter {
     )
     boolean skipParameterCheck = false;
 
+    @Parameter(
+            names = { "--parallel" },
+            descriptionKey = "parameter.parallel",
+            required = false
+    )
+    int parallelism = 1;
+
     /**
      * Returns the task executors.
      * @param context the current context
@@ -90,7 +98,8 @@ public class ExecutorParameter {
      * @return the jobflow executor
      */
     public JobflowExecutor getJobflowExecutor(ExecutionContext context) {
-        return new BasicJobflowExecutor(getTaskExecutors(context));
+        return new BasicJobflowExecutor(getTaskExecutors(context))
+                .withParallelism(parallelism);
     }
 
     /**
@@ -100,6 +109,7 @@ public class ExecutorParameter {
      */
     public BatchExecutor getBatchExecutor(ExecutionContext context) {
         return new BasicBatchExecutor(getJobflowExecutor(context))
-                .withValidateParameters(skipParameterCheck == false);
+                .withValidateParameters(skipParameterCheck == false)
+                .withParallelism(parallelism);
     }
 }
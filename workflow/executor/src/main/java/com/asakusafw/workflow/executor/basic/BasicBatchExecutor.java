@@ -24,6 +24,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.regex.Pattern;
@@ -45,6 +46,7 @@ import com.asakusafw.workflow.model.attribute.ParameterListAttribute;
 /**
  * A basic implementation of {@link BatchExecutor}.
  * @since 0.10.0
+ * @version 0.10.5
  */
 public class BasicBatchExecutor implements BatchExecutor {
 
@@ -52,12 +54,16 @@ public class BasicBatchExecutor implements BatchExecutor {
 
     private static final boolean DEFAULT_VALIDATE_PARAMETERS = true;
 
+    private static final int DEFAULT_PARALLELISM = 1;
+
     private final JobflowExecutor jobflowExecutor;
 
     private final Function<JobflowInfo, String> executionIds;
 
     private boolean validateParameters = DEFAULT_VALIDATE_PARAMETERS;
 
+    private int parallelism = DEFAULT_PARALLELISM;
+
     /**
      * Creates a new instance.
      * @param jobflowExecutor the jobflow executor
@@ -97,6 +103,19 @@ public class BasicBatchExecutor implements BatchExecutor {
         return this;
     }
 
+    /**
+     * Sets the max number of jobflows which can be executed at once.
+     * Each jobflow starts as soon as all its blockers have been completed.
+     * If any jobflows were failed, this cancels the other running jobflows.
+     * @param count the max number of running jobflows, or {@code 1} to execute jobflows one by one
+     * @return this
+     * @since 0.10.5
+     */
+    public BasicBatchExecutor withParallelism(int count) {
+        this.parallelism = count;
+        return this;
+    }
+
     @Override
     public void execute(
             ExecutionContext context,
@@ -109,13 +128,14 @@ public class BasicBatchExecutor implements BatchExecutor {
         if (LOG.isDebugEnabled()) {
             LOG.debug("starting jobflow graph: {} ({} jobflows)", batch.getId(), batch.getElements().size());
         }
-        int count = 0;
-        for (JobflowInfo jobflow : Util.sort(batch.getElements())) {
+        AtomicInteger count = new AtomicInteger();
+        new GraphExecutor<JobflowInfo>(parallelism).execute(batch.getElements(), jobflow -> {
             if (LOG.isDebugEnabled()) {
-                LOG.debug("preparing jobflow: {} ({}/{})", jobflow.getId(), ++count, batch.getElements().size());
+                LOG.debug("preparing jobflow: {} ({}/{})",
+                        jobflow.getId(), count.incrementAndGet(), batch.getElements().size());
             }
             executeJobflow(context, batch, jobflow, arguments);
-        }
+        });
         LOG.info("finish batch: {} ({})", batch.getId(), arguments);
     }
 
@@ -21,8 +21,13 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -38,6 +43,7 @@ import com.asakusafw.workflow.model.TaskInfo;
 /**
  * Executes jobflows.
  * @since 0.10.0
+ * @version 0.10.5
  */
 public class BasicJobflowExecutor implements JobflowExecutor {
 
@@ -45,8 +51,16 @@ public class BasicJobflowExecutor implements JobflowExecutor {
 
     private static final EnumSet<TaskInfo.Phase> BODY = EnumSet.of(TaskInfo.Phase.FINALIZE, TaskInfo.Phase.CLEANUP);
 
+    private static final int DEFAULT_PARALLELISM = 1;
+
     private final List<TaskExecutor> taskExecutors;
 
+    private int parallelism = DEFAULT_PARALLELISM;
+
+    private Semaphore slots = new Semaphore(DEFAULT_PARALLELISM);
+
+    private final Map<String, Integer> resourceLimits = new HashMap<>();
+
     /**
      * Creates a new instance.
      * @param taskExecutors the task executors
@@ -63,6 +77,34 @@ public class BasicJobflowExecutor implements JobflowExecutor {
         this(Arrays.asList(taskExecutors));
     }
 
+    /**
+     * Sets the max number of tasks which can be executed at once by this executor.
+     * This limit is shared with all jobflows running on this executor at the same time.
+     * Each task starts as soon as all its blockers have been completed.
+     * If any tasks were failed, this cancels the other running tasks in the same phase.
+     * @param count the max number of running tasks, or {@code 1} to execute tasks one by one
+     * @return this
+     * @since 0.10.5
+     */
+    public BasicJobflowExecutor withParallelism(int count) {
+        this.parallelism = count;
+        this.slots = new Semaphore(Math.max(count, 1));
+        return this;
+    }
+
+    /**
+     * Sets the max number of running tasks for the individual task module.
+     * @param moduleName the target {@link TaskInfo#getModuleName() task module name}
+     * @param count the max number of running tasks of the module
+     * @return this
+     * @since 0.10.5
+     */
+    public BasicJobflowExecutor withResourceLimit(String moduleName, int count) {
+        Objects.requireNonNull(moduleName);
+        this.resourceLimits.put(moduleName, count);
+        return this;
+    }
+
     @Override
     public void execute(TaskExecutionContext context, JobflowInfo jobflow) throws IOException, InterruptedException {
         LOG.info("start jobflow: {} - {}", context.getBatchId(), context.getFlowId());
@@ -102,14 +144,15 @@ public class BasicJobflowExecutor implements JobflowExecutor {
     private void executePhase(
             TaskExecutionContext context,
             JobflowInfo jobflow, TaskInfo.Phase phase) throws InterruptedException, IOException {
-        List<TaskInfo> tasks = Util.sort(jobflow.getTasks(phase));
+        Collection<? extends TaskInfo> tasks = jobflow.getTasks(phase);
         if (tasks.isEmpty() == false) {
             LOG.info("start phase: {} ({} tasks)", phase, tasks.size());
         }
-        int count = 0;
-        for (TaskInfo task : tasks) {
+        AtomicInteger count = new AtomicInteger();
+        GraphExecutor<TaskInfo> graph = new GraphExecutor<>(parallelism, TaskInfo::getModuleName, resourceLimits);
+        graph.execute(tasks, task -> {
             if (LOG.isDebugEnabled()) {
-                LOG.debug("starting task: {} ({}/{} in {})", task, ++count, tasks.size(), phase);
+                LOG.debug("starting task: {} ({}/{} in {})", task, count.incrementAndGet(), tasks.size(), phase);
             }
             TaskExecutor executor = findExecutor(context, task)
                     .orElseThrow(() -> new ExecutionConditionException(MessageFormat.format(
@@ -121,8 +164,14 @@ public class BasicJobflowExecutor implements JobflowExecutor {
             if (LOG.isDebugEnabled()) {
                 LOG.debug("task executor \"{}\" is available: {}", executor, task);
             }
-            executor.execute(context, task);
-        }
+            Semaphore permits = slots;
+            permits.acquire();
+            try {
+                executor.execute(context, task);
+            } finally {
+                permits.release();
+            }
+        });
     }
 
     private Optional<TaskExecutor> findExecutor(TaskExecutionContext context, TaskInfo task) {
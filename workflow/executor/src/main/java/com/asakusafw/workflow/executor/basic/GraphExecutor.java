@@ -0,0 +1,244 @@
+/**
+ * Copyright 2011-2021 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.workflow.executor.basic;
+
+import java.io.IOException;
+import java.text.MessageFormat;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.asakusafw.workflow.model.GraphElement;
+
+/**
+ * Executes graph elements in topological order.
+ * If parallel execution is enabled, each element starts as soon as all its blockers have been completed.
+ * @param <E> the element type
+ * @since 0.10.5
+ */
+final class GraphExecutor<E extends GraphElement<E>> {
+
+    static final Logger LOG = LoggerFactory.getLogger(GraphExecutor.class);
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private final int parallelism;
+
+    private final Function<? super E, String> resources;
+
+    private final Map<String, Integer> limits;
+
+    /**
+     * Creates a new instance.
+     * @param parallelism the max number of elements which can be executed at once
+     * @param resources the resource name of each element, or {@code null} if it is not limited
+     * @param limits the max number of running elements for each resource
+     */
+    GraphExecutor(int parallelism, Function<? super E, String> resources, Map<String, Integer> limits) {
+        this.parallelism = parallelism;
+        this.resources = resources;
+        this.limits = limits;
+    }
+
+    /**
+     * Creates a new instance.
+     * @param parallelism the max number of elements which can be executed at once
+     */
+    GraphExecutor(int parallelism) {
+        this(parallelism, element -> null, new HashMap<>());
+    }
+
+    /**
+     * Executes the given elements.
+     * If some elements were failed, this cancels the running elements and does not start any more elements.
+     * @param elements the target elements
+     * @param action the action for each element
+     * @throws IOException if failed to execute an element
+     * @throws InterruptedException if interrupted while executing elements
+     */
+    void execute(Collection<? extends E> elements, Action<? super E> action) throws IOException, InterruptedException {
+        List<E> sorted = Util.sort(elements);
+        if (parallelism <= 1 || sorted.size() <= 1) {
+            for (E element : sorted) {
+                action.perform(element);
+            }
+            return;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, sorted.size()), r -> {
+            Thread thread = new Thread(r, String.format(
+                    "workflow-%d", //$NON-NLS-1$
+                    THREAD_COUNTER.incrementAndGet()));
+            thread.setDaemon(true);
+            return thread;
+        });
+        Throwable primary = null;
+        try {
+            new Scheduler(sorted, action, executor).run();
+        } catch (Throwable t) {
+            primary = t;
+            throw t;
+        } finally {
+            executor.shutdownNow();
+            awaitTermination(executor, primary);
+        }
+    }
+
+    private static void awaitTermination(ExecutorService executor, Throwable primary) {
+        // waits for the cancelled elements even if interrupted, because the successors may require their clean up
+        boolean interrupted = false;
+        while (true) {
+            try {
+                if (executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                    break;
+                }
+                LOG.debug("waiting for termination of running elements");
+            } catch (InterruptedException e) {
+                if (interrupted == false && primary != null) {
+                    primary.addSuppressed(e);
+                }
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * An action for each element.
+     * @param <T> the element type
+     */
+    @FunctionalInterface
+    interface Action<T> {
+
+        /**
+         * Performs this action.
+         * @param element the target element
+         * @throws IOException if failed to perform the action
+         * @throws InterruptedException if interrupted while performing the action
+         */
+        void perform(T element) throws IOException, InterruptedException;
+    }
+
+    private final class Scheduler {
+
+        private final LinkedList<E> waiting;
+
+        private final Action<? super E> action;
+
+        private final CompletionService<E> completion;
+
+        private final Set<E> done = new HashSet<>();
+
+        private final Map<Future<E>, E> running = new HashMap<>();
+
+        private final Map<String, Integer> occupied = new HashMap<>();
+
+        Scheduler(List<E> elements, Action<? super E> action, ExecutorService executor) {
+            this.waiting = new LinkedList<>(elements);
+            this.action = action;
+            this.completion = new ExecutorCompletionService<>(executor);
+        }
+
+        void run() throws IOException, InterruptedException {
+            try {
+                while (waiting.isEmpty() == false || running.isEmpty() == false) {
+                    submitReady();
+                    if (running.isEmpty()) {
+                        throw new IllegalStateException(MessageFormat.format(
+                                "cyclic or unsatisfiable dependencies: {0}",
+                                waiting));
+                    }
+                    Future<E> future = completion.take();
+                    E element = running.remove(future);
+                    release(element);
+                    future.get();
+                    done.add(element);
+                }
+            } catch (ExecutionException e) {
+                cancel();
+                try {
+                    throw e.getCause();
+                } catch (Error | RuntimeException | IOException | InterruptedException cause) {
+                    throw cause;
+                } catch (Throwable cause) {
+                    throw new IOException(cause);
+                }
+            } catch (InterruptedException | RuntimeException e) {
+                cancel();
+                throw e;
+            }
+        }
+
+        private void submitReady() {
+            for (Iterator<E> iter = waiting.iterator(); iter.hasNext() && running.size() < parallelism;) {
+                E next = iter.next();
+                if (next.getBlockers().stream().allMatch(done::contains) == false) {
+                    continue;
+                }
+                String resource = resources.apply(next);
+                if (resource != null && limits.containsKey(resource)) {
+                    int count = occupied.getOrDefault(resource, 0);
+                    if (count >= limits.get(resource)) {
+                        continue;
+                    }
+                    occupied.put(resource, count + 1);
+                }
+                iter.remove();
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("submitting: {} (running={}, waiting={})", next, running.size(), waiting.size());
+                }
+                running.put(completion.submit(() -> {
+                    action.perform(next);
+                    return next;
+                }), next);
+            }
+        }
+
+        private void release(E element) {
+            String resource = resources.apply(element);
+            if (resource != null && limits.containsKey(resource)) {
+                occupied.merge(resource, -1, Integer::sum);
+            }
+        }
+
+        private void cancel() {
+            if (running.isEmpty() == false) {
+                LOG.info("cancelling running elements: {}", running.values());
+            }
+            running.keySet().forEach(it -> it.cancel(true));
+            running.clear();
+            waiting.clear();
+        }
+    }
+}
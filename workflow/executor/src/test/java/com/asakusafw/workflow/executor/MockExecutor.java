@@ -17,6 +17,7 @@ package com.asakusafw.workflow.executor;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.function.Predicate;
 
@@ -31,7 +32,7 @@ public class MockExecutor implements TaskExecutor {
 
     private final Predicate<? super MockTaskInfo> predicate;
 
-    private final List<String> values = new ArrayList<>();
+    private final List<String> values = Collections.synchronizedList(new ArrayList<>());
 
     /**
      * Creates a new instance.
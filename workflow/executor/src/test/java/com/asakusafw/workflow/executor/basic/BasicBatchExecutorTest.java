@@ -22,6 +22,8 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.junit.Test;
@@ -92,4 +94,41 @@ public class BasicBatchExecutorTest {
         assertThat(flowIds, contains("C", "B", "A"));
         assertThat(execIds.stream().distinct().count(), is(3L));
     }
+
+    /**
+     * parallel execution.
+     * @throws Exception if failed
+     */
+    @Test
+    public void parallel() throws Exception {
+        BasicJobflowInfo a = new BasicJobflowInfo("A");
+        BasicJobflowInfo b = new BasicJobflowInfo("B");
+        BasicJobflowInfo c = new BasicJobflowInfo("C");
+        c.addBlocker(a);
+        c.addBlocker(b);
+
+        BasicBatchInfo batch = new BasicBatchInfo("b");
+        batch.addElement(a);
+        batch.addElement(b);
+        batch.addElement(c);
+
+        // A and B must be running at the same time
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        List<String> flowIds = Collections.synchronizedList(new ArrayList<>());
+        BatchExecutor executor = new BasicBatchExecutor((ctxt, jobflow) -> {
+            if (jobflow != c) {
+                try {
+                    barrier.await(10, TimeUnit.SECONDS);
+                } catch (Exception e) {
+                    throw new AssertionError(e);
+                }
+            }
+            flowIds.add(ctxt.getFlowId());
+        }).withParallelism(2);
+        executor.execute(context, batch);
+
+        assertThat(flowIds, hasSize(3));
+        assertThat(flowIds.subList(0, 2), containsInAnyOrder("A", "B"));
+        assertThat(flowIds.get(2), is("C"));
+    }
 }
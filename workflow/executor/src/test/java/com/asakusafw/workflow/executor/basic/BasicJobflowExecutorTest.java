@@ -18,7 +18,16 @@ package com.asakusafw.workflow.executor.basic;
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.*;
 
+import java.io.IOException;
 import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.junit.Test;
 
@@ -26,6 +35,7 @@ import com.asakusafw.workflow.executor.JobflowExecutor;
 import com.asakusafw.workflow.executor.MockExecutor;
 import com.asakusafw.workflow.executor.MockTaskInfo;
 import com.asakusafw.workflow.executor.TaskExecutionContext;
+import com.asakusafw.workflow.executor.TaskExecutor;
 import com.asakusafw.workflow.model.TaskInfo;
 import com.asakusafw.workflow.model.basic.BasicJobflowInfo;
 
@@ -125,6 +135,203 @@ public class BasicJobflowExecutorTest {
         assertThat(e2.getValues(), contains("C"));
     }
 
+    /**
+     * parallel execution.
+     * @throws Exception if failed
+     */
+    @Test
+    public void parallel() throws Exception {
+        BasicJobflowInfo jobflow = new BasicJobflowInfo(context.getFlowId());
+        MockTaskInfo a = new MockTaskInfo("A");
+        MockTaskInfo b = new MockTaskInfo("B");
+        MockTaskInfo c = new MockTaskInfo("C");
+        c.addBlocker(a);
+        c.addBlocker(b);
+        jobflow.addTask(TaskInfo.Phase.MAIN, a);
+        jobflow.addTask(TaskInfo.Phase.MAIN, b);
+        jobflow.addTask(TaskInfo.Phase.MAIN, c);
+
+        // A and B must be running at the same time
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        MockExecutor e0 = new MockExecutor(t -> true);
+        JobflowExecutor executor = new BasicJobflowExecutor(new ActionExecutor(t -> {
+            if (t.getValue().equals("C") == false) {
+                await(barrier);
+            }
+            e0.execute(context, t);
+        })).withParallelism(2);
+        executor.execute(context, jobflow);
+
+        assertThat(e0.getValues(), hasSize(3));
+        assertThat(e0.getValues().subList(0, 2), containsInAnyOrder("A", "B"));
+        assertThat(e0.getValues().get(2), is("C"));
+    }
+
+    /**
+     * parallel execution w/ resource limits.
+     * @throws Exception if failed
+     */
+    @Test
+    public void parallel_resource_limit() throws Exception {
+        BasicJobflowInfo jobflow = new BasicJobflowInfo(context.getFlowId());
+        jobflow.addTask(TaskInfo.Phase.MAIN, new MockTaskInfo("x", "A"));
+        jobflow.addTask(TaskInfo.Phase.MAIN, new MockTaskInfo("x", "B"));
+        jobflow.addTask(TaskInfo.Phase.MAIN, new MockTaskInfo("x", "C"));
+        jobflow.addTask(TaskInfo.Phase.MAIN, new MockTaskInfo("y", "D"));
+
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        MockExecutor e0 = new MockExecutor(t -> true);
+        JobflowExecutor executor = new BasicJobflowExecutor(new ActionExecutor(t -> {
+            if (t.getModuleName().equals("x")) {
+                peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                Thread.sleep(50);
+                running.decrementAndGet();
+            }
+            e0.execute(context, t);
+        })).withParallelism(4).withResourceLimit("x", 1);
+        executor.execute(context, jobflow);
+
+        assertThat(e0.getValues(), containsInAnyOrder("A", "B", "C", "D"));
+        assertThat(peak.get(), is(1));
+    }
+
+    /**
+     * parallel execution w/ multiple jobflows running at the same time.
+     * @throws Exception if failed
+     */
+    @Test
+    public void parallel_shared() throws Exception {
+        BasicJobflowInfo j0 = new BasicJobflowInfo("j0");
+        j0.addTask(TaskInfo.Phase.MAIN, new MockTaskInfo("A"));
+        j0.addTask(TaskInfo.Phase.MAIN, new MockTaskInfo("B"));
+        BasicJobflowInfo j1 = new BasicJobflowInfo("j1");
+        j1.addTask(TaskInfo.Phase.MAIN, new MockTaskInfo("C"));
+        j1.addTask(TaskInfo.Phase.MAIN, new MockTaskInfo("D"));
+
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        MockExecutor e0 = new MockExecutor(t -> true);
+        JobflowExecutor executor = new BasicJobflowExecutor(new ActionExecutor(t -> {
+            peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(50);
+            running.decrementAndGet();
+            e0.execute(context, t);
+        })).withParallelism(2);
+
+        ExecutorService threads = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> f0 = threads.submit(() -> {
+                executor.execute(context, j0);
+                return null;
+            });
+            Future<?> f1 = threads.submit(() -> {
+                executor.execute(context, j1);
+                return null;
+            });
+            f0.get();
+            f1.get();
+        } finally {
+            threads.shutdownNow();
+        }
+
+        assertThat(e0.getValues(), containsInAnyOrder("A", "B", "C", "D"));
+        assertThat(peak.get(), lessThanOrEqualTo(2));
+    }
+
+    /**
+     * parallel execution w/ failure.
+     * @throws Exception if failed
+     */
+    @Test
+    public void parallel_failure() throws Exception {
+        BasicJobflowInfo jobflow = new BasicJobflowInfo(context.getFlowId());
+        jobflow.addTask(TaskInfo.Phase.MAIN, new MockTaskInfo("A"));
+        jobflow.addTask(TaskInfo.Phase.MAIN, new MockTaskInfo("B"));
+        jobflow.addTask(TaskInfo.Phase.FINALIZE, new MockTaskInfo("F"));
+
+        AtomicBoolean cancelled = new AtomicBoolean();
+        MockExecutor e0 = new MockExecutor(t -> true);
+        JobflowExecutor executor = new BasicJobflowExecutor(new ActionExecutor(t -> {
+            switch (t.getValue()) {
+            case "A":
+                throw new IOException("testing");
+            case "B":
+                try {
+                    Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+                } catch (InterruptedException e) {
+                    cancelled.set(true);
+                    throw e;
+                }
+                break;
+            default:
+                break;
+            }
+            e0.execute(context, t);
+        })).withParallelism(2);
+        try {
+            executor.execute(context, jobflow);
+            fail();
+        } catch (IOException e) {
+            // ok.
+        }
+        assertThat(cancelled.get(), is(true));
+        assertThat(e0.getValues(), contains("F"));
+    }
+
+    /**
+     * parallel execution interrupted while waiting for termination of the running tasks.
+     * @throws Exception if failed
+     */
+    @Test
+    public void parallel_interrupted() throws Exception {
+        BasicJobflowInfo jobflow = new BasicJobflowInfo(context.getFlowId());
+        jobflow.addTask(TaskInfo.Phase.MAIN, new MockTaskInfo("A"));
+        jobflow.addTask(TaskInfo.Phase.MAIN, new MockTaskInfo("B"));
+
+        CyclicBarrier barrier = new CyclicBarrier(3);
+        AtomicInteger finished = new AtomicInteger();
+        JobflowExecutor executor = new BasicJobflowExecutor(new ActionExecutor(t -> {
+            await(barrier);
+            // ignores interrupts
+            long until = System.currentTimeMillis() + 1_000;
+            while (System.currentTimeMillis() < until) {
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    // ignore
+                }
+            }
+            finished.incrementAndGet();
+        })).withParallelism(2);
+
+        AtomicReference<Throwable> thrown = new AtomicReference<>();
+        AtomicBoolean interrupted = new AtomicBoolean();
+        AtomicInteger finishedOnExit = new AtomicInteger(-1);
+        Thread thread = new Thread(() -> {
+            try {
+                executor.execute(context, jobflow);
+            } catch (Throwable t) {
+                thrown.set(t);
+            } finally {
+                finishedOnExit.set(finished.get());
+                interrupted.set(Thread.currentThread().isInterrupted());
+            }
+        });
+        thread.start();
+        await(barrier);
+        thread.interrupt();
+        Thread.sleep(200);
+        thread.interrupt();
+        thread.join(TimeUnit.SECONDS.toMillis(10));
+
+        assertThat(thread.isAlive(), is(false));
+        assertThat(finishedOnExit.get(), is(2));
+        assertThat(interrupted.get(), is(true));
+        assertThat(thrown.get(), is(instanceOf(InterruptedException.class)));
+        assertThat(thrown.get().getSuppressed(), arrayWithSize(1));
+    }
+
     /**
      * w/ multiple executors.
      * @throws Exception expected
@@ -137,4 +344,37 @@ public class BasicJobflowExecutorTest {
         JobflowExecutor executor = new BasicJobflowExecutor(e0);
         executor.execute(context, jobflow);
     }
+
+    private static void await(CyclicBarrier barrier) throws InterruptedException, IOException {
+        try {
+            barrier.await(10, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Action {
+
+        void perform(MockTaskInfo task) throws IOException, InterruptedException;
+    }
+
+    private static final class ActionExecutor implements TaskExecutor {
+
+        private final Action action;
+
+        ActionExecutor(Action action) {
+            this.action = action;
+        }
+
+        @Override
+        public boolean isSupported(TaskExecutionContext context, TaskInfo task) {
+            return task instanceof MockTaskInfo;
+        }
+
+        @Override
+        public void execute(TaskExecutionContext context, TaskInfo task) throws InterruptedException, IOException {
+            action.perform((MockTaskInfo) task);
+        }
+    }
 }
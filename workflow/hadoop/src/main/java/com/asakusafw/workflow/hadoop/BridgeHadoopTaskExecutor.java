@@ -15,15 +15,25 @@
  */
 package com.asakusafw.workflow.hadoop;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.ConnectException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -42,7 +52,11 @@ import com.asakusafw.workflow.model.TaskInfo;
 
 /**
  * Executes hadoop tasks via {@code tools/bin/libexec/workflow/hadoop-bridge}.
+ * If {@link #ENV_LAUNCHER_DAEMON} is defined, this submits tasks to the running launcher daemon instead.
+ * Because the tasks on the daemon inherit the daemon's environment variables, this still launches a new JVM
+ * if the relevant environment variables of the current context are different from the ones published by the daemon.
  * @since 0.10.0
+ * @version 0.10.5
  */
 public class BridgeHadoopTaskExecutor implements TaskExecutor {
 
@@ -53,6 +67,21 @@ public class BridgeHadoopTaskExecutor implements TaskExecutor {
      */
     public static final String LAUNCHER_CLASS = "com.asakusafw.runtime.stage.launcher.ApplicationLauncher";
 
+    /**
+     * The environment variable name of the launcher daemon endpoint file.
+     * If it is defined and the daemon is available, Hadoop tasks are submitted to the daemon
+     * instead of launching a new JVM for each task.
+     * @since 0.10.5
+     */
+    public static final String ENV_LAUNCHER_DAEMON = "ASAKUSA_LAUNCHER_DAEMON";
+
+    /**
+     * The launcher daemon client class name.
+     * @since 0.10.5
+     */
+    public static final String LAUNCHER_DAEMON_CLIENT_CLASS =
+            "com.asakusafw.runtime.stage.launcher.LauncherDaemonClient";
+
     private final Function<? super TaskExecutionContext, ? extends CommandLauncher> launchers;
 
     /**
@@ -78,6 +107,11 @@ public class BridgeHadoopTaskExecutor implements TaskExecutor {
     @Override
     public void execute(TaskExecutionContext context, TaskInfo task) throws IOException, InterruptedException {
         HadoopTaskInfo mirror = (HadoopTaskInfo) task;
+        List<String> launcherArguments = getLauncherArguments(context, mirror);
+        Optional<Path> endpoint = getLauncherDaemonEndpoint(context);
+        if (endpoint.isPresent() && executeOnDaemon(context, endpoint.get(), launcherArguments)) {
+            return;
+        }
         CommandLauncher launcher = launchers.apply(context);
         Path command = TaskExecutors.findFrameworkFile(context, Constants.PATH_BRIDGE_SCRIPT).get();
         List<String> arguments = new ArrayList<>();
@@ -89,7 +123,14 @@ public class BridgeHadoopTaskExecutor implements TaskExecutor {
 
         arguments.add(LAUNCHER_CLASS);
 
-        arguments.add(mirror.getClassName());
+        arguments.addAll(launcherArguments);
+        BasicCommandTaskExecutor.execute(context, launcher, command, arguments);
+    }
+
+    private static List<String> getLauncherArguments(TaskExecutionContext context, HadoopTaskInfo task) {
+        List<String> arguments = new ArrayList<>();
+
+        arguments.add(task.getClassName());
 
         TaskExecutors.findCoreConfigurationFile(context)
                 .filter(Files::isRegularFile)
@@ -103,7 +144,94 @@ public class BridgeHadoopTaskExecutor implements TaskExecutor {
                 .collect(Collectors.joining(",")));
 
         arguments.addAll(getHadoopArguments(context));
-        BasicCommandTaskExecutor.execute(context, launcher, command, arguments);
+        return arguments;
+    }
+
+    private static Optional<Path> getLauncherDaemonEndpoint(TaskExecutionContext context) {
+        return Optional.ofNullable(context.getEnvironmentVariables().get(ENV_LAUNCHER_DAEMON))
+                .filter(s -> s.isEmpty() == false)
+                .map(Paths::get)
+                .filter(path -> {
+                    if (Files.isRegularFile(path)) {
+                        return true;
+                    }
+                    LOG.warn("launcher daemon endpoint is not found, launching a new JVM: {}", path);
+                    return false;
+                });
+    }
+
+    private static boolean executeOnDaemon(
+            TaskExecutionContext context,
+            Path endpoint, List<String> arguments) throws IOException, InterruptedException {
+        Optional<Path> library = TaskExecutors.findFrameworkFile(context, Constants.PATH_LAUNCHER_LIBRARY)
+                .filter(Files::isRegularFile);
+        if (library.isPresent() == false) {
+            LOG.warn("launcher library is not found, launching a new JVM: {}", Constants.PATH_LAUNCHER_LIBRARY);
+            return false;
+        }
+        AtomicReference<OptionalInt> result = new AtomicReference<>(OptionalInt.empty());
+        TaskExecutors.withLibraries(context, Collections.singletonList(library.get()),
+                loader -> result.set(submit(loader, endpoint, context.getEnvironmentVariables(), arguments)));
+        if (result.get().isPresent() == false) {
+            return false;
+        }
+        int exit = result.get().getAsInt();
+        if (exit != 0) {
+            throw new IOException(MessageFormat.format(
+                    "failed to execute task on launcher daemon: endpoint={0}, arguments={1}, exit={2}",
+                    endpoint,
+                    arguments,
+                    exit));
+        }
+        return true;
+    }
+
+    private static OptionalInt submit(
+            ClassLoader loader,
+            Path endpoint, Map<String, String> environment,
+            List<String> arguments) throws IOException, InterruptedException {
+        Object client;
+        Method execute;
+        Set<?> mismatched;
+        try {
+            Class<?> aClass = Class.forName(LAUNCHER_DAEMON_CLIENT_CLASS, true, loader);
+            client = aClass.getMethod("load", File.class).invoke(null, endpoint.toFile());
+            execute = aClass.getMethod("execute", List.class);
+            mismatched = (Set<?>) aClass.getMethod("getMismatchedEnvironmentVariables", Map.class)
+                    .invoke(client, environment);
+        } catch (ReflectiveOperationException e) {
+            LOG.warn("failed to prepare launcher daemon client, launching a new JVM: {}", endpoint, e);
+            return OptionalInt.empty();
+        }
+        if (mismatched.isEmpty() == false) {
+            LOG.debug("environment variables are different from the launcher daemon, launching a new JVM: {}",
+                    mismatched);
+            return OptionalInt.empty();
+        }
+        LOG.debug("submitting task to launcher daemon: {} {}", endpoint, arguments);
+        try {
+            return OptionalInt.of((Integer) execute.invoke(client, arguments));
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof ConnectException) {
+                LOG.warn("launcher daemon is not available, launching a new JVM: {}", endpoint, cause);
+                return OptionalInt.empty();
+            } else if (cause instanceof InterruptedIOException) {
+                // the client has already requested the daemon to cancel the task
+                InterruptedException exception = new InterruptedException(cause.getMessage());
+                exception.initCause(cause);
+                throw exception;
+            } else if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
     }
 
     private static List<Path> getLibraries(TaskExecutionContext context) {
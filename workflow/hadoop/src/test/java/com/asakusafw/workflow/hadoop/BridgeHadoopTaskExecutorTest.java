@@ -18,9 +18,13 @@ package com.asakusafw.workflow.hadoop;
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.*;
 
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Collections;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
 
 import org.hamcrest.BaseMatcher;
 import org.hamcrest.Description;
@@ -29,6 +33,8 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
+import com.asakusafw.runtime.stage.launcher.LauncherDaemon;
+import com.asakusafw.runtime.util.hadoop.ConfigurationProvider;
 import com.asakusafw.workflow.executor.TaskExecutionContext;
 import com.asakusafw.workflow.executor.TaskExecutor;
 import com.asakusafw.workflow.executor.TaskExecutors;
@@ -84,6 +90,71 @@ public class BridgeHadoopTaskExecutorTest {
         executor.execute(context, task);
     }
 
+    /**
+     * launcher daemon is not available.
+     * @throws Exception if failed
+     */
+    @Test
+    public void daemon_unavailable() throws Exception {
+        TaskExecutionContext ctxt = new BasicTaskExecutionContext(
+                new BasicExecutionContext()
+                    .withEnvironmentVariables(m -> m.putAll(parent.getEnvironmentVariables()))
+                    .withEnvironmentVariables(m -> m.put(
+                            BridgeHadoopTaskExecutor.ENV_LAUNCHER_DAEMON,
+                            temporary.getRoot().toPath().resolve("missing").toString())),
+                "b", "f", "testing",
+                Collections.singletonMap("testing", "OK"));
+        TaskInfo task = new BasicHadoopTaskInfo("testing", "TEST_CLASS");
+        AtomicBoolean launched = new AtomicBoolean();
+        TaskExecutor executor = new BridgeHadoopTaskExecutor(c -> (command, arguments) -> {
+            assertThat(arguments.get(1), is(BridgeHadoopTaskExecutor.LAUNCHER_CLASS));
+            assertThat(arguments.get(2), is("TEST_CLASS"));
+            launched.set(true);
+            return 0;
+        });
+        executor.execute(ctxt, task);
+        assertThat(launched.get(), is(true));
+    }
+
+    /**
+     * environment variables are different from the launcher daemon, so that it is not available.
+     * @throws Exception if failed
+     */
+    @Test
+    public void daemon_environment_mismatch() throws Exception {
+        Path home = temporary.newFolder("home").toPath();
+        Path library = home.resolve(Constants.PATH_LAUNCHER_LIBRARY);
+        Files.createDirectories(library.getParent());
+        try (JarOutputStream output = new JarOutputStream(Files.newOutputStream(library))) {
+            output.putNextEntry(new ZipEntry("META-INF/"));
+        }
+        Path endpoint = temporary.getRoot().toPath().resolve("endpoint");
+        try (LauncherDaemon daemon = new LauncherDaemon(new ConfigurationProvider().newInstance())) {
+            // the daemon is not running, but it must not be used because the environment is different
+            daemon.publish(endpoint.toFile());
+            TaskExecutionContext ctxt = new BasicTaskExecutionContext(
+                    new BasicExecutionContext()
+                        .withEnvironmentVariables(m -> m.putAll(parent.getEnvironmentVariables()))
+                        .withEnvironmentVariables(m -> m.put(TaskExecutors.ENV_FRAMEWORK_PATH, home.toString()))
+                        .withEnvironmentVariables(m -> m.put(
+                                BridgeHadoopTaskExecutor.ENV_LAUNCHER_DAEMON,
+                                endpoint.toString()))
+                        .withEnvironmentVariables(m -> m.put("ASAKUSA_TESTING_ENV", "OK")),
+                    "b", "f", "testing",
+                    Collections.singletonMap("testing", "OK"));
+
+            TaskInfo task = new BasicHadoopTaskInfo("testing", "TEST_CLASS");
+            AtomicBoolean launched = new AtomicBoolean();
+            TaskExecutor executor = new BridgeHadoopTaskExecutor(c -> (command, arguments) -> {
+                assertThat(arguments.get(2), is("TEST_CLASS"));
+                launched.set(true);
+                return 0;
+            });
+            executor.execute(ctxt, task);
+            assertThat(launched.get(), is(true));
+        }
+    }
+
     static Matcher<Path> pathEndsWith(String suffix) {
         return new BaseMatcher<Path>() {
             @Override
@@ -15,8 +15,11 @@
  */
 package com.asakusafw.yaess.basic;
 
+import java.io.File;
 import java.io.IOException;
 import java.text.MessageFormat;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -38,11 +41,25 @@ import com.asakusafw.yaess.core.Job;
 import com.asakusafw.yaess.core.JobScheduler;
 import com.asakusafw.yaess.core.PhaseMonitor;
 import com.asakusafw.yaess.core.PhaseMonitor.JobStatus;
+import com.asakusafw.yaess.core.ServiceProfile;
 import com.asakusafw.yaess.core.YaessLogger;
 
 /**
  * An abstract implementation of {@link JobScheduler}.
+ * <p>
+ * This scheduler decides the order of jobs which are ready to execute by the {@link #KEY_PRIORITY priority} policy:
+ * </p>
+ * <ul>
+ * <li> {@link #PRIORITY_FIFO fifo} - submits jobs in order of the job list (default) </li>
+ * <li> {@link #PRIORITY_CRITICAL_PATH critical-path} - submits jobs on the longest remaining path first </li>
+ * </ul>
+ * <p>
+ * The critical path is estimated from the job durations in the previous executions,
+ * which are recorded in the {@link #KEY_PRIORITY_HISTORY history directory}.
+ * If it is not configured or the job has not been recorded, each job is estimated to take the same time.
+ * </p>
  * @since 0.2.3
+ * @version 0.10.5
  */
 public abstract class AbstractJobScheduler extends JobScheduler {
 
@@ -50,6 +67,61 @@ public abstract class AbstractJobScheduler extends JobScheduler {
 
     static final Logger LOG = LoggerFactory.getLogger(AbstractJobScheduler.class);
 
+    /**
+     * The profile key of job priority policy.
+     * @since 0.10.5
+     */
+    public static final String KEY_PRIORITY = "priority"; //$NON-NLS-1$
+
+    /**
+     * The profile key of the directory which keeps job durations for estimating critical paths.
+     * @since 0.10.5
+     */
+    public static final String KEY_PRIORITY_HISTORY = "priority.history"; //$NON-NLS-1$
+
+    /**
+     * The priority policy which submits jobs in order of the job list.
+     * @since 0.10.5
+     */
+    public static final String PRIORITY_FIFO = "fifo"; //$NON-NLS-1$
+
+    /**
+     * The priority policy which submits jobs on the critical path first.
+     * @since 0.10.5
+     */
+    public static final String PRIORITY_CRITICAL_PATH = "critical-path"; //$NON-NLS-1$
+
+    static final long DEFAULT_JOB_DURATION = 1L;
+
+    private volatile boolean criticalPath = false;
+
+    private volatile File historyDirectory;
+
+    @Override
+    protected void doConfigure(ServiceProfile<?> profile) throws InterruptedException, IOException {
+        String priority = profile.getConfiguration(KEY_PRIORITY, false, true);
+        if (priority == null || priority.trim().isEmpty() || priority.trim().equals(PRIORITY_FIFO)) {
+            this.criticalPath = false;
+        } else if (priority.trim().equals(PRIORITY_CRITICAL_PATH)) {
+            this.criticalPath = true;
+        } else {
+            throw new IOException(MessageFormat.format(
+                    "Unknown job priority \"{0}\": {1} (must be one of {2} or {3})",
+                    profile.getPrefix() + '.' + KEY_PRIORITY,
+                    priority,
+                    PRIORITY_FIFO,
+                    PRIORITY_CRITICAL_PATH));
+        }
+        String history = profile.getConfiguration(KEY_PRIORITY_HISTORY, false, true);
+        if (criticalPath && history != null && history.trim().isEmpty() == false) {
+            this.historyDirectory = new File(history.trim());
+        } else {
+            this.historyDirectory = null;
+        }
+        LOG.debug("Job priority: {}, history={}", criticalPath ? PRIORITY_CRITICAL_PATH : PRIORITY_FIFO,
+                historyDirectory);
+    }
+
     /**
      * Returns a {@link JobExecutor} for this scheduler.
      * @return the {@link JobExecutor}
@@ -77,8 +149,22 @@ public abstract class AbstractJobScheduler extends JobScheduler {
         monitor.open(jobs.size());
         try {
             monitor.checkCancelled();
-            Engine engine = new Engine(getJobExecutor(), monitor, context, errorHandler, jobs);
-            engine.run();
+            JobDurationHistory history = historyDirectory == null
+                    ? null
+                    : JobDurationHistory.load(historyDirectory, context);
+            Map<String, Long> priorities = criticalPath
+                    ? CriticalPathPriority.compute(jobs, job -> history == null
+                            ? DEFAULT_JOB_DURATION
+                            : history.estimate(job, DEFAULT_JOB_DURATION))
+                    : Collections.emptyMap();
+            Engine engine = new Engine(getJobExecutor(), monitor, context, errorHandler, jobs, priorities, history);
+            try {
+                engine.run();
+            } finally {
+                if (history != null) {
+                    history.save();
+                }
+            }
         } finally {
             monitor.close();
         }
@@ -102,6 +188,10 @@ public abstract class AbstractJobScheduler extends JobScheduler {
 
         private final Set<String> blockers;
 
+        private final Map<String, Long> priorities;
+
+        private final JobDurationHistory history;
+
         private boolean sawError;
 
         Engine(
@@ -109,17 +199,26 @@ public abstract class AbstractJobScheduler extends JobScheduler {
                 PhaseMonitor monitor,
                 ExecutionContext context,
                 ErrorHandler handler,
-                List<? extends Job> waiting) {
+                List<? extends Job> waiting,
+                Map<String, Long> priorities,
+                JobDurationHistory history) {
             assert executor != null;
             assert monitor != null;
             assert context != null;
             assert handler != null;
             assert waiting != null;
+            assert priorities != null;
             this.executor = executor;
             this.monitor = monitor;
             this.context = context;
             this.handler = handler;
             this.waiting = new LinkedList<>(waiting);
+            this.priorities = priorities;
+            this.history = history;
+            if (priorities.isEmpty() == false) {
+                // stable: keeps the original order for the jobs with the same priority
+                this.waiting.sort(Comparator.comparingLong((Job job) -> getPriority(job)).reversed());
+            }
             this.executing = new HashMap<>();
             this.doneQueue = new LinkedBlockingQueue<>();
             this.blockers = new TreeSet<>();
@@ -204,6 +303,9 @@ public abstract class AbstractJobScheduler extends JobScheduler {
             try {
                 done.get();
                 done(done.getJob());
+                if (history != null) {
+                    history.record(done.getJob(), done.getElapsedTime());
+                }
                 monitor.reportJobStatus(done.getJob().getId(), JobStatus.SUCCESS, null);
             } catch (CancellationException e) {
                 sawError = true;
@@ -239,7 +341,7 @@ public abstract class AbstractJobScheduler extends JobScheduler {
             monitor.checkCancelled();
             try {
                 Executing execution = executor.submit(
-                        monitor.createJobMonitor(job.getId(), 1), context, job, doneQueue);
+                        monitor.createJobMonitor(job.getId(), 1), context, job, doneQueue, getPriority(job));
                 executing.put(execution.getJob().getId(), execution);
                 return true;
             } catch (IOException e) {
@@ -264,6 +366,10 @@ public abstract class AbstractJobScheduler extends JobScheduler {
             }
         }
 
+        private long getPriority(Job job) {
+            return priorities.getOrDefault(job.getId(), 0L);
+        }
+
         private boolean isBlocked(Job job) {
             assert job != null;
             for (String blocker : job.getBlockerIds()) {
@@ -17,7 +17,6 @@ package com.asakusafw.yaess.basic;
 
 import java.io.IOException;
 import java.text.MessageFormat;
-import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import com.asakusafw.yaess.core.JobScheduler;
@@ -26,6 +25,7 @@ import com.asakusafw.yaess.core.ServiceProfile;
 /**
  * Basic implementation of {@link JobScheduler}.
  * @since 0.2.3
+ * @version 0.10.5
  */
 public class BasicJobScheduler extends AbstractJobScheduler {
 
@@ -35,7 +35,8 @@ public class BasicJobScheduler extends AbstractJobScheduler {
 
     @Override
     protected void doConfigure(ServiceProfile<?> profile) throws InterruptedException, IOException {
-        this.executor = new ThreadedJobExecutor(Executors.newFixedThreadPool(1, r -> {
+        super.doConfigure(profile);
+        this.executor = new ThreadedJobExecutor(ThreadedJobExecutor.newPriorityThreadPool(1, r -> {
             Thread thread = new Thread(r);
             thread.setName(MessageFormat.format(
                     "BasicJobScheduler-{0}",
@@ -0,0 +1,85 @@
+/**
+ * Copyright 2011-2021 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.yaess.basic;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToLongFunction;
+
+import com.asakusafw.yaess.core.Job;
+
+/**
+ * Computes job priorities from the critical path of the job graph.
+ * The priority of each job is the total estimated duration of the longest path from the job to the end of graph.
+ * @since 0.10.5
+ */
+final class CriticalPathPriority {
+
+    private CriticalPathPriority() {
+        return;
+    }
+
+    /**
+     * Computes the priority of each job.
+     * @param jobs the target jobs
+     * @param durations the estimated duration of each job
+     * @return the priorities for each job ID
+     */
+    static Map<String, Long> compute(List<? extends Job> jobs, ToLongFunction<? super Job> durations) {
+        Map<String, List<Job>> successors = new HashMap<>();
+        for (Job job : jobs) {
+            for (String blocker : job.getBlockerIds()) {
+                successors.computeIfAbsent(blocker, k -> new ArrayList<>()).add(job);
+            }
+        }
+        Map<String, Long> results = new HashMap<>();
+        Set<String> visiting = new HashSet<>();
+        for (Job job : jobs) {
+            compute(job, successors, durations, results, visiting);
+        }
+        return results;
+    }
+
+    private static long compute(
+            Job job,
+            Map<String, List<Job>> successors,
+            ToLongFunction<? super Job> durations,
+            Map<String, Long> results,
+            Set<String> visiting) {
+        String id = job.getId();
+        Long cached = results.get(id);
+        if (cached != null) {
+            return cached;
+        }
+        if (visiting.contains(id)) {
+            // cyclic dependencies are reported by the scheduler
+            return 0L;
+        }
+        visiting.add(id);
+        long downstream = 0L;
+        for (Job successor : successors.getOrDefault(id, new ArrayList<>())) {
+            downstream = Math.max(downstream, compute(successor, successors, durations, results, visiting));
+        }
+        visiting.remove(id);
+        long result = Math.max(durations.applyAsLong(job), 0L) + downstream;
+        results.put(id, result);
+        return result;
+    }
+}
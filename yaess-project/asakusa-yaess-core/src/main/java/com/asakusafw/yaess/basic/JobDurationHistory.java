@@ -0,0 +1,152 @@
+/**
+ * Copyright 2011-2021 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.yaess.basic;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.text.MessageFormat;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.asakusafw.yaess.core.ExecutionContext;
+import com.asakusafw.yaess.core.Job;
+
+/**
+ * Historical durations of jobs in the individual phase.
+ * @since 0.10.5
+ */
+final class JobDurationHistory {
+
+    static final Logger LOG = LoggerFactory.getLogger(JobDurationHistory.class);
+
+    private static final String FILE_EXTENSION = ".properties"; //$NON-NLS-1$
+
+    private final File file;
+
+    private final Map<String, Long> durations;
+
+    private boolean modified;
+
+    private JobDurationHistory(File file, Map<String, Long> durations) {
+        this.file = file;
+        this.durations = durations;
+    }
+
+    /**
+     * Loads the history of the current phase.
+     * @param directory the history base directory
+     * @param context the current context
+     * @return the loaded history, or an empty history if it does not exist
+     */
+    static JobDurationHistory load(File directory, ExecutionContext context) {
+        File file = new File(directory, String.format("%s/%s/%s%s", //$NON-NLS-1$
+                context.getBatchId(),
+                context.getFlowId(),
+                context.getPhase().getSymbol(),
+                FILE_EXTENSION));
+        Map<String, Long> durations = new HashMap<>();
+        if (file.isFile()) {
+            Properties properties = new Properties();
+            try (InputStream input = new FileInputStream(file)) {
+                properties.load(input);
+                for (String key : properties.stringPropertyNames()) {
+                    try {
+                        durations.put(key, Long.parseLong(properties.getProperty(key)));
+                    } catch (NumberFormatException e) {
+                        LOG.debug("invalid job duration: {}={}", key, properties.getProperty(key), e);
+                    }
+                }
+            } catch (IOException e) {
+                LOG.warn(MessageFormat.format(
+                        "failed to load job duration history: {0}",
+                        file), e);
+            }
+        }
+        return new JobDurationHistory(file, durations);
+    }
+
+    /**
+     * Returns the estimated duration of the job.
+     * @param job the target job
+     * @param defaultValue the default value
+     * @return the estimated duration in milliseconds, or the default value if it is not recorded
+     */
+    long estimate(Job job, long defaultValue) {
+        return durations.getOrDefault(job.getId(), defaultValue);
+    }
+
+    /**
+     * Records the actual duration of the job.
+     * @param job the target job
+     * @param elapsed the elapsed time in milliseconds
+     */
+    void record(Job job, long elapsed) {
+        if (elapsed < 0) {
+            return;
+        }
+        Long last = durations.get(job.getId());
+        // smooths the fluctuation of each execution
+        long value = last == null ? elapsed : (last + elapsed) / 2;
+        durations.put(job.getId(), value);
+        modified = true;
+    }
+
+    /**
+     * Saves the history if it was modified.
+     */
+    void save() {
+        if (modified == false) {
+            return;
+        }
+        File parent = file.getParentFile();
+        if (parent.mkdirs() == false && parent.isDirectory() == false) {
+            LOG.warn(MessageFormat.format(
+                    "failed to create job duration history directory: {0}",
+                    parent));
+            return;
+        }
+        Properties properties = new Properties();
+        for (Map.Entry<String, Long> entry : durations.entrySet()) {
+            properties.setProperty(entry.getKey(), String.valueOf(entry.getValue()));
+        }
+        try {
+            File temporary = File.createTempFile(file.getName(), ".tmp", parent); //$NON-NLS-1$
+            try {
+                try (OutputStream output = new FileOutputStream(temporary)) {
+                    properties.store(output, null);
+                }
+                Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temporary.toPath());
+            }
+            modified = false;
+        } catch (IOException e) {
+            LOG.warn(MessageFormat.format(
+                    "failed to save job duration history: {0}",
+                    file), e);
+        }
+    }
+}
@@ -16,9 +16,11 @@
 package com.asakusafw.yaess.basic;
 
 import java.io.IOException;
+import java.util.Comparator;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,6 +32,7 @@ import com.asakusafw.yaess.core.Job;
 /**
  * An abstract super interface of {@link Job} executor.
  * @since 0.2.3
+ * @version 0.10.5
  */
 @FunctionalInterface
 public interface JobExecutor {
@@ -51,19 +54,71 @@ public interface JobExecutor {
             Job job,
             BlockingQueue<Executing> doneQueue) throws InterruptedException, IOException;
 
+    /**
+     * Submits a job with its priority.
+     * Executors <em>SHOULD</em> start jobs with higher priority first if they cannot start jobs immediately.
+     * This default implementation just ignores the priority.
+     * @param monitor an execution monitor
+     * @param context current context
+     * @param job target job
+     * @param doneQueue the queue where the done tasks are put
+     * @param priority the job priority (higher is more urgent)
+     * @return an execution object related to the target job
+     * @throws InterruptedException if submittion is interrupted
+     * @throws IOException if failed to submit the target job
+     * @throws IllegalArgumentException if some parameters were {@code null}
+     * @since 0.10.5
+     */
+    default Executing submit(
+            ExecutionMonitor monitor,
+            ExecutionContext context,
+            Job job,
+            BlockingQueue<Executing> doneQueue,
+            long priority) throws InterruptedException, IOException {
+        return submit(monitor, context, job, doneQueue);
+    }
+
     /**
      * An abstraction of job execution.
      * @since 0.2.3
-     * @version 0.2.6
+     * @version 0.10.5
      */
     final class Executing extends FutureTask<Void> {
 
         static final Logger LOG = LoggerFactory.getLogger(JobExecutor.class);
 
+        /**
+         * Orders {@link Executing} objects by their priority (higher first), and then their creation order.
+         * Other objects are placed after them.
+         * @since 0.10.5
+         */
+        public static final Comparator<Runnable> PRIORITY_ORDER = (a, b) -> {
+            if (a instanceof Executing && b instanceof Executing) {
+                Executing e1 = (Executing) a;
+                Executing e2 = (Executing) b;
+                int diff = Long.compare(e2.priority, e1.priority);
+                if (diff != 0) {
+                    return diff;
+                }
+                return Long.compare(e1.sequence, e2.sequence);
+            }
+            return Boolean.compare(a instanceof Executing == false, b instanceof Executing == false);
+        };
+
+        private static final AtomicLong SEQUENCE = new AtomicLong();
+
         private final Job job;
 
         private final BlockingQueue<Executing> doneQueue;
 
+        private final long priority;
+
+        private final long sequence = SEQUENCE.incrementAndGet();
+
+        private volatile long startTime = -1L;
+
+        private volatile long finishTime = -1L;
+
         /**
          * Creates a new instance.
          * @param monitor execution monitor
@@ -77,9 +132,29 @@ public interface JobExecutor {
                 ExecutionContext context,
                 Job job,
                 BlockingQueue<Executing> doneQueue) {
+            this(monitor, context, job, doneQueue, 0L);
+        }
+
+        /**
+         * Creates a new instance.
+         * @param monitor execution monitor
+         * @param context current context
+         * @param job target job
+         * @param doneQueue a queue which is notified on job is done (nullable)
+         * @param priority the job priority (higher is more urgent)
+         * @throws IllegalArgumentException if some parameters were {@code null}
+         * @since 0.10.5
+         */
+        public Executing(
+                ExecutionMonitor monitor,
+                ExecutionContext context,
+                Job job,
+                BlockingQueue<Executing> doneQueue,
+                long priority) {
             super(build(monitor, context, job));
             this.job = job;
             this.doneQueue = doneQueue;
+            this.priority = priority;
         }
 
         private static Callable<Void> build(ExecutionMonitor monitor, ExecutionContext context, Job job) {
@@ -108,8 +183,38 @@ public interface JobExecutor {
             return job;
         }
 
+        /**
+         * Returns the job priority.
+         * @return the job priority (higher is more urgent)
+         * @since 0.10.5
+         */
+        public long getPriority() {
+            return priority;
+        }
+
+        /**
+         * Returns the elapsed time of the job execution.
+         * @return the elapsed time in milliseconds, or {@code -1} if the job has not been started or finished
+         * @since 0.10.5
+         */
+        public long getElapsedTime() {
+            long start = startTime;
+            long finish = finishTime;
+            if (start < 0 || finish < 0) {
+                return -1L;
+            }
+            return finish - start;
+        }
+
+        @Override
+        public void run() {
+            startTime = System.currentTimeMillis();
+            super.run();
+        }
+
         @Override
         protected void done() {
+            finishTime = System.currentTimeMillis();
             if (doneQueue != null) {
                 doneQueue.add(this);
             }
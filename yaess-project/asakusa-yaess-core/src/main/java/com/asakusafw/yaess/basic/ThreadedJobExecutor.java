@@ -19,6 +19,10 @@ import java.io.IOException;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import com.asakusafw.yaess.core.ExecutionContext;
 import com.asakusafw.yaess.core.ExecutionMonitor;
@@ -27,6 +31,7 @@ import com.asakusafw.yaess.core.Job;
 /**
  * An implementation of {@link JobExecutor} using a shared {@link ExecutorService}.
  * @since 0.2.3
+ * @version 0.10.5
  */
 public class ThreadedJobExecutor implements JobExecutor {
 
@@ -44,12 +49,37 @@ public class ThreadedJobExecutor implements JobExecutor {
         this.executor = executor;
     }
 
+    /**
+     * Creates a new thread pool which starts waiting jobs in order of their {@link Executing#getPriority() priority}.
+     * @param threads the number of threads
+     * @param threadFactory the thread factory
+     * @return the created thread pool
+     * @since 0.10.5
+     */
+    public static ExecutorService newPriorityThreadPool(int threads, ThreadFactory threadFactory) {
+        return new ThreadPoolExecutor(
+                threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>(11, Executing.PRIORITY_ORDER),
+                threadFactory);
+    }
+
     @Override
     public Executing submit(
             ExecutionMonitor monitor,
             ExecutionContext context,
             Job job,
             BlockingQueue<Executing> doneQueue) throws InterruptedException, IOException {
+        return submit(monitor, context, job, doneQueue, 0L);
+    }
+
+    @Override
+    public Executing submit(
+            ExecutionMonitor monitor,
+            ExecutionContext context,
+            Job job,
+            BlockingQueue<Executing> doneQueue,
+            long priority) throws InterruptedException, IOException {
         if (monitor == null) {
             throw new IllegalArgumentException("monitor must not be null"); //$NON-NLS-1$
         }
@@ -59,7 +89,7 @@ public class ThreadedJobExecutor implements JobExecutor {
         if (job == null) {
             throw new IllegalArgumentException("job must not be null"); //$NON-NLS-1$
         }
-        Executing executing = new Executing(monitor, context, job, doneQueue);
+        Executing executing = new Executing(monitor, context, job, doneQueue, priority);
         executor.execute(executing);
         return executing;
     }
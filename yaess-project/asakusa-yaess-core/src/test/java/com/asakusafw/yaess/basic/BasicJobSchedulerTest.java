@@ -18,7 +18,12 @@ package com.asakusafw.yaess.basic;
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.*;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -26,10 +31,13 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import com.asakusafw.yaess.core.ExecutionContext;
 import com.asakusafw.yaess.core.ExecutionMonitor;
@@ -48,6 +56,12 @@ public class BasicJobSchedulerTest {
     private static final ExecutionContext CONTEXT = new ExecutionContext(
             "b", "f", "e", ExecutionPhase.MAIN, Collections.emptyMap());
 
+    /**
+     * A temporary folder.
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
     /**
      * Simple testing.
      * @throws Exception if failed
@@ -241,6 +255,91 @@ public class BasicJobSchedulerTest {
         assertThat(rest, hasItem("c"));
     }
 
+    /**
+     * with critical path priority.
+     * @throws Exception if failed
+     */
+    @Test
+    public void critical_path() throws Exception {
+        Map<String, String> conf = new HashMap<>();
+        conf.put(AbstractJobScheduler.KEY_PRIORITY, AbstractJobScheduler.PRIORITY_CRITICAL_PATH);
+        ServiceProfile<JobScheduler> profile = new ServiceProfile<>(
+                "testing", BasicJobScheduler.class, conf, ProfileContext.system(getClass().getClassLoader()));
+
+        JobScheduler instance = profile.newInstance();
+
+        AtomicInteger group = new AtomicInteger();
+        List<Mock> jobs = new ArrayList<>();
+        jobs.add(new Mock(group, "x"));
+        jobs.add(new Mock(group, "y"));
+        jobs.add(new Mock(group, "a"));
+        jobs.add(new Mock(group, "b", "a"));
+        jobs.add(new Mock(group, "c", "b"));
+        instance.execute(PhaseMonitor.NULL, CONTEXT, jobs, JobScheduler.STRICT);
+        Set<String> rest = collectRest(jobs);
+        assertThat(rest.size(), is(0));
+
+        assertThat(ordinary(jobs, "a"), is(1));
+        assertThat(ordinary(jobs, "a"), lessThan(ordinary(jobs, "b")));
+        assertThat(ordinary(jobs, "b"), lessThan(ordinary(jobs, "c")));
+    }
+
+    /**
+     * with critical path priority using job duration history.
+     * @throws Exception if failed
+     */
+    @Test
+    public void critical_path_history() throws Exception {
+        File history = folder.newFolder();
+        File file = new File(history, "b/f/main.properties");
+        assertThat(file.getParentFile().mkdirs(), is(true));
+        Properties durations = new Properties();
+        durations.setProperty("a", "1");
+        durations.setProperty("b", "1");
+        durations.setProperty("x", "100");
+        try (OutputStream output = new FileOutputStream(file)) {
+            durations.store(output, null);
+        }
+
+        Map<String, String> conf = new HashMap<>();
+        conf.put(AbstractJobScheduler.KEY_PRIORITY, AbstractJobScheduler.PRIORITY_CRITICAL_PATH);
+        conf.put(AbstractJobScheduler.KEY_PRIORITY_HISTORY, history.getPath());
+        ServiceProfile<JobScheduler> profile = new ServiceProfile<>(
+                "testing", BasicJobScheduler.class, conf, ProfileContext.system(getClass().getClassLoader()));
+
+        JobScheduler instance = profile.newInstance();
+
+        AtomicInteger group = new AtomicInteger();
+        List<Mock> jobs = new ArrayList<>();
+        jobs.add(new Mock(group, "a"));
+        jobs.add(new Mock(group, "b", "a"));
+        jobs.add(new Mock(group, "x"));
+        instance.execute(PhaseMonitor.NULL, CONTEXT, jobs, JobScheduler.STRICT);
+        Set<String> rest = collectRest(jobs);
+        assertThat(rest.size(), is(0));
+
+        assertThat(ordinary(jobs, "x"), is(1));
+
+        Properties recorded = new Properties();
+        try (InputStream input = new FileInputStream(file)) {
+            recorded.load(input);
+        }
+        assertThat(recorded.stringPropertyNames(), containsInAnyOrder("a", "b", "x"));
+    }
+
+    /**
+     * with unknown priority.
+     * @throws Exception if failed
+     */
+    @Test(expected = IOException.class)
+    public void priority_unknown() throws Exception {
+        Map<String, String> conf = new HashMap<>();
+        conf.put(AbstractJobScheduler.KEY_PRIORITY, "__UNKNOWN__");
+        ServiceProfile<JobScheduler> profile = new ServiceProfile<>(
+                "testing", BasicJobScheduler.class, conf, ProfileContext.system(getClass().getClassLoader()));
+        profile.newInstance();
+    }
+
     private int ordinary(List<Mock> jobs, String name) {
         for (Mock mock : jobs) {
             if (mock.getId().equals(name)) {
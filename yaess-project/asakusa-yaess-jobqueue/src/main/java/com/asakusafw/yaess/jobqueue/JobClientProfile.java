@@ -38,6 +38,7 @@ import com.asakusafw.yaess.jobqueue.client.JobClient;
 /**
  * A structured profile for {@link QueueHadoopScriptHandler}.
  * @since 0.2.6
+ * @version 0.10.5
  */
 public class JobClientProfile {
 
@@ -47,6 +48,10 @@ public class JobClientProfile {
 
     static final String KEY_POLLING_INTERVAL = "pollingInterval";
 
+    static final String KEY_MAX_POLLING_INTERVAL = "maxPollingInterval";
+
+    static final String KEY_LONG_POLLING_TIMEOUT = "longPollingTimeout";
+
     static final Pattern PATTERN_COMPONENT = Pattern.compile("\\d+");
 
     static final String KEY_URL = "url";
@@ -59,6 +64,8 @@ public class JobClientProfile {
 
     static final long DEFAULT_POLLING_INTERVAL = 1000;
 
+    static final long DEFAULT_LONG_POLLING_TIMEOUT = 0;
+
     private final String prefix;
 
     private final List<JobClient> clients;
@@ -67,6 +74,10 @@ public class JobClientProfile {
 
     private final long pollingInterval;
 
+    private final long maxPollingInterval;
+
+    private final long longPollingTimeout;
+
     /**
      * Creates a new instance.
      * @param prefix the profile namespace
@@ -76,6 +87,25 @@ public class JobClientProfile {
      * @throws IllegalArgumentException if some parameters were {@code null}
      */
     public JobClientProfile(String prefix, List<? extends JobClient> clients, long timeout, long pollingInterval) {
+        this(prefix, clients, timeout, pollingInterval, pollingInterval, DEFAULT_LONG_POLLING_TIMEOUT);
+    }
+
+    /**
+     * Creates a new instance.
+     * @param prefix the profile namespace
+     * @param clients clients
+     * @param timeout timeout duration (ms)
+     * @param pollingInterval polling interval (ms)
+     * @param maxPollingInterval the maximum polling interval for long running jobs (ms)
+     * @param longPollingTimeout the max duration which the server can defer each status response (ms),
+     *     or {@code 0} to disable long polling
+     * @throws IllegalArgumentException if some parameters were {@code null}
+     * @since 0.10.5
+     */
+    public JobClientProfile(
+            String prefix, List<? extends JobClient> clients,
+            long timeout, long pollingInterval,
+            long maxPollingInterval, long longPollingTimeout) {
         if (prefix == null) {
             throw new IllegalArgumentException("prefix must not be null"); //$NON-NLS-1$
         }
@@ -91,10 +121,18 @@ public class JobClientProfile {
         if (pollingInterval <= 0) {
             throw new IllegalArgumentException("pollingInterval must be >= 0"); //$NON-NLS-1$
         }
+        if (maxPollingInterval < pollingInterval) {
+            throw new IllegalArgumentException("maxPollingInterval must be >= pollingInterval"); //$NON-NLS-1$
+        }
+        if (longPollingTimeout < 0) {
+            throw new IllegalArgumentException("longPollingTimeout must be >= 0"); //$NON-NLS-1$
+        }
         this.prefix = prefix;
         this.clients = Collections.unmodifiableList(new ArrayList<>(clients));
         this.timeout = timeout;
         this.pollingInterval = pollingInterval;
+        this.maxPollingInterval = maxPollingInterval;
+        this.longPollingTimeout = longPollingTimeout;
     }
 
     /**
@@ -129,6 +167,25 @@ public class JobClientProfile {
         return pollingInterval;
     }
 
+    /**
+     * Returns the maximum polling interval.
+     * The polling interval of each job grows from {@link #getPollingInterval()} up to this value as the job gets older.
+     * @return the maximum polling interval (ms)
+     * @since 0.10.5
+     */
+    public long getMaxPollingInterval() {
+        return maxPollingInterval;
+    }
+
+    /**
+     * Returns the max duration which the server can defer each status response until the job status is changed.
+     * @return the long polling timeout (ms), or {@code 0} if long polling is disabled
+     * @since 0.10.5
+     */
+    public long getLongPollingTimeout() {
+        return longPollingTimeout;
+    }
+
     /**
      * Converts general profile into the corresponded this profile.
      * @param profile general profile
@@ -158,13 +215,33 @@ public class JobClientProfile {
                     KEY_TIMEOUT,
                     pollingInterval));
         }
+        long maxPollingInterval = extractLong(profile, conf, KEY_MAX_POLLING_INTERVAL, pollingInterval);
+        if (maxPollingInterval < pollingInterval) {
+            throw new IllegalArgumentException(MessageFormat.format(
+                    "Max status polling interval must be >= {3} ({0}.{1}={2})",
+                    profile.getPrefix(),
+                    KEY_MAX_POLLING_INTERVAL,
+                    maxPollingInterval,
+                    pollingInterval));
+        }
+        long longPollingTimeout = extractLong(profile, conf, KEY_LONG_POLLING_TIMEOUT, DEFAULT_LONG_POLLING_TIMEOUT);
+        if (longPollingTimeout < 0) {
+            throw new IllegalArgumentException(MessageFormat.format(
+                    "Long polling timeout must be >= 0 ({0}.{1}={2})",
+                    profile.getPrefix(),
+                    KEY_LONG_POLLING_TIMEOUT,
+                    longPollingTimeout));
+        }
         List<JobClient> clients = extractClients(profile, conf);
         if (clients.isEmpty()) {
             throw new IllegalArgumentException(MessageFormat.format(
                     "There must be one or more job clients ({0}.<n>)",
                     profile.getPrefix()));
         }
-        return new JobClientProfile(profile.getPrefix(), clients, timeout, pollingInterval);
+        return new JobClientProfile(
+                profile.getPrefix(), clients,
+                timeout, pollingInterval,
+                maxPollingInterval, longPollingTimeout);
     }
 
     private static long extractLong(
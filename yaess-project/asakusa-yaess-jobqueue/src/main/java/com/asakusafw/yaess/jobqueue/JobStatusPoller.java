@@ -0,0 +1,380 @@
+/**
+ * Copyright 2011-2021 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.yaess.jobqueue;
+
+import java.io.IOException;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.asakusafw.yaess.jobqueue.client.JobClient;
+import com.asakusafw.yaess.jobqueue.client.JobId;
+import com.asakusafw.yaess.jobqueue.client.JobStatus;
+
+/**
+ * Polls status of the outstanding jobs on a {@link JobClient}.
+ * This obtains status of all outstanding jobs in a single request, and then wakes up the waiting threads.
+ * Each job is polled more rarely as it gets older, from the minimum interval up to the maximum interval.
+ * If the request for multiple jobs was failed or its response lacks some jobs, the individual jobs are polled
+ * one by one, so that each error is only reported to the waiter of the corresponded job.
+ * Each long polling request is cut short before the next poll time of the other jobs.
+ * Jobs registered while a long polling request is running obtain their first status immediately,
+ * but their later status changes can be observed only after the running request was finished,
+ * that is, up to the long polling timeout.
+ * @since 0.10.5
+ */
+final class JobStatusPoller {
+
+    static final Logger LOG = LoggerFactory.getLogger(JobStatusPoller.class);
+
+    static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    /**
+     * Each job is polled at least once per {@code 1/AGE_RATIO} of its age.
+     */
+    private static final long AGE_RATIO = 20;
+
+    private final JobClient client;
+
+    private final long minInterval;
+
+    private final long maxInterval;
+
+    private final long longPollingTimeout;
+
+    private final Map<JobId, Entry> entries = new LinkedHashMap<>();
+
+    private Thread worker;
+
+    private boolean longPolling;
+
+    /**
+     * Creates a new instance.
+     * @param client the target client
+     * @param minInterval the minimum polling interval (ms)
+     * @param maxInterval the maximum polling interval (ms)
+     * @param longPollingTimeout the max duration which the server can defer each response (ms),
+     *     or {@code 0} to disable long polling
+     */
+    JobStatusPoller(JobClient client, long minInterval, long maxInterval, long longPollingTimeout) {
+        assert client != null;
+        assert minInterval > 0;
+        this.client = client;
+        this.minInterval = minInterval;
+        this.maxInterval = Math.max(minInterval, maxInterval);
+        this.longPollingTimeout = Math.max(longPollingTimeout, 0);
+    }
+
+    /**
+     * Waits until the status kind of the target job is progressed from the known one.
+     * The target job will be polled until {@link #release(JobId)} is invoked.
+     * @param id the target job ID
+     * @param known the known status kind
+     * @param timeoutMillis the max waiting duration (ms)
+     * @return the progressed status, or the last status if it was timed out ({@code null} if it is not yet obtained)
+     * @throws IOException if failed to obtain the job status
+     * @throws InterruptedException if interrupted while waiting for the job status
+     */
+    JobStatus waitForUpdate(
+            JobId id, JobStatus.Kind known, long timeoutMillis) throws IOException, InterruptedException {
+        assert id != null;
+        assert known != null;
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        Entry entry = register(id);
+        if (entry != null) {
+            // the running long polling request does not contain the new job
+            pollFirst(id, entry);
+        }
+        synchronized (this) {
+            entry = entries.get(id);
+            assert entry != null;
+            while (true) {
+                if (entry.error != null) {
+                    throw new IOException(MessageFormat.format(
+                            "Failed to obtain the job status: {0} ({1})",
+                            id.getToken(),
+                            client), entry.error);
+                }
+                if (entry.status != null && known.compareTo(entry.status.getKind()) < 0) {
+                    return entry.status;
+                }
+                long rest = deadline - System.currentTimeMillis();
+                if (rest <= 0) {
+                    return entry.status;
+                }
+                wait(rest);
+            }
+        }
+    }
+
+    /**
+     * Registers the job to be polled.
+     * @param id the target job ID
+     * @return the registered entry only if the job is newly registered while a long polling request is running,
+     *     otherwise {@code null}
+     */
+    private synchronized Entry register(JobId id) {
+        if (entries.containsKey(id)) {
+            return null;
+        }
+        Entry entry = new Entry(System.currentTimeMillis());
+        entries.put(id, entry);
+        if (worker == null) {
+            worker = new Thread(this::run, String.format(
+                    "job-poller-%04d", //$NON-NLS-1$
+                    THREAD_COUNTER.incrementAndGet()));
+            worker.setDaemon(true);
+            worker.start();
+        }
+        notifyAll();
+        return longPolling ? entry : null;
+    }
+
+    private void pollFirst(JobId id, Entry entry) throws InterruptedException {
+        JobStatus status = null;
+        Exception error = null;
+        try {
+            status = client.getStatus(id);
+        } catch (IOException | RuntimeException e) {
+            error = e;
+        }
+        synchronized (this) {
+            if (entry.status == null && entry.error == null) {
+                long now = System.currentTimeMillis();
+                apply(id, entry, status, error, now);
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Stops polling the target job.
+     * @param id the target job ID
+     */
+    synchronized void release(JobId id) {
+        assert id != null;
+        entries.remove(id);
+        notifyAll();
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                List<JobId> targets = nextTargets();
+                if (targets == null) {
+                    return;
+                }
+                long start = System.currentTimeMillis();
+                Map<JobId, JobStatus> results = new HashMap<>();
+                Map<JobId, Exception> errors = new HashMap<>();
+                long longPolled = 0;
+                long waitMillis = startLongPolling(targets);
+                try {
+                    if (LOG.isTraceEnabled()) {
+                        LOG.trace("polling job status: {} ({})", targets, client); //$NON-NLS-1$
+                    }
+                    results.putAll(client.getStatus(targets, waitMillis));
+                    longPolled = waitMillis;
+                } catch (IOException | RuntimeException e) {
+                    if (targets.size() == 1) {
+                        errors.put(targets.get(0), e);
+                    } else {
+                        LOG.debug(
+                                "retrying to obtain job status individually: {} ({})", //$NON-NLS-1$
+                                targets, client, e);
+                    }
+                } finally {
+                    finishLongPolling();
+                }
+                for (JobId id : targets) {
+                    if (results.containsKey(id) == false && errors.containsKey(id) == false) {
+                        try {
+                            results.put(id, client.getStatus(id));
+                        } catch (IOException | RuntimeException e) {
+                            errors.put(id, e);
+                        }
+                    }
+                }
+                update(targets, results, errors, longPolled, start);
+            }
+        } catch (InterruptedException e) {
+            LOG.debug("job status poller was interrupted: {}", client, e); //$NON-NLS-1$
+            synchronized (this) {
+                for (Entry entry : entries.values()) {
+                    if (entry.error == null) {
+                        entry.error = e;
+                    }
+                }
+                worker = null;
+                notifyAll();
+            }
+        }
+    }
+
+    private synchronized List<JobId> nextTargets() throws InterruptedException {
+        while (true) {
+            if (entries.isEmpty()) {
+                // the next waiter will start a new worker
+                worker = null;
+                return null;
+            }
+            long now = System.currentTimeMillis();
+            // gathers the jobs which will be polled soon, to reduce the number of requests
+            long threshold = now + minInterval / 2;
+            long next = Long.MAX_VALUE;
+            List<JobId> targets = new ArrayList<>();
+            for (Map.Entry<JobId, Entry> pair : entries.entrySet()) {
+                Entry entry = pair.getValue();
+                if (entry.isFinished()) {
+                    continue;
+                }
+                if (entry.nextPoll <= threshold) {
+                    targets.add(pair.getKey());
+                } else {
+                    next = Math.min(next, entry.nextPoll);
+                }
+            }
+            if (targets.isEmpty() == false) {
+                return targets;
+            }
+            if (next == Long.MAX_VALUE) {
+                wait();
+            } else {
+                wait(Math.max(next - now, 1));
+            }
+        }
+    }
+
+    private synchronized long startLongPolling(List<JobId> targets) {
+        if (longPollingTimeout <= 0) {
+            return 0;
+        }
+        for (JobId id : targets) {
+            Entry entry = entries.get(id);
+            if (entry != null && entry.status == null) {
+                // don't defer the first status of new jobs
+                return 0;
+            }
+        }
+        // don't defer polling the other jobs
+        long now = System.currentTimeMillis();
+        long waitMillis = longPollingTimeout;
+        for (Map.Entry<JobId, Entry> pair : entries.entrySet()) {
+            Entry entry = pair.getValue();
+            if (entry.isFinished() == false && targets.contains(pair.getKey()) == false) {
+                waitMillis = Math.min(waitMillis, entry.nextPoll - now);
+            }
+        }
+        if (waitMillis <= 0) {
+            return 0;
+        }
+        longPolling = true;
+        return waitMillis;
+    }
+
+    private synchronized void finishLongPolling() {
+        longPolling = false;
+    }
+
+    private synchronized void update(
+            List<JobId> targets,
+            Map<JobId, JobStatus> results, Map<JobId, Exception> errors,
+            long longPolled, long start) {
+        long now = System.currentTimeMillis();
+        boolean changed = false;
+        for (JobId id : targets) {
+            Entry entry = entries.get(id);
+            if (entry == null) {
+                // already released
+                continue;
+            }
+            changed |= apply(id, entry, results.get(id), errors.get(id), now);
+        }
+        if (longPolled > 0 && (changed || now - start >= longPolled / 2)) {
+            // the server seems to defer responses until the status was changed: we can poll again immediately
+            for (JobId id : targets) {
+                Entry entry = entries.get(id);
+                if (entry != null) {
+                    entry.nextPoll = now;
+                }
+            }
+        }
+        notifyAll();
+    }
+
+    private static boolean apply(JobId id, Entry entry, JobStatus status, Exception error, long now) {
+        if (error != null) {
+            entry.error = error;
+            return false;
+        }
+        if (status == null || status.getKind() == null) {
+            entry.error = new IOException(MessageFormat.format(
+                    "job status was not specified: {0}",
+                    id.getToken()));
+            return false;
+        }
+        boolean changed = entry.status == null || entry.status.getKind() != status.getKind();
+        entry.status = status;
+        entry.nextPoll = now + entry.getInterval(now);
+        return changed;
+    }
+
+    @Override
+    public String toString() {
+        return MessageFormat.format(
+                "JobStatusPoller({0})", //$NON-NLS-1$
+                client);
+    }
+
+    private final class Entry {
+
+        final long registered;
+
+        long nextPoll;
+
+        JobStatus status;
+
+        Exception error;
+
+        Entry(long registered) {
+            this.registered = registered;
+            this.nextPoll = registered;
+        }
+
+        boolean isFinished() {
+            if (error != null) {
+                return true;
+            }
+            if (status == null) {
+                return false;
+            }
+            JobStatus.Kind kind = status.getKind();
+            return kind == JobStatus.Kind.COMPLETED || kind == JobStatus.Kind.ERROR;
+        }
+
+        long getInterval(long now) {
+            long interval = (now - registered) / AGE_RATIO;
+            return Math.min(Math.max(interval, minInterval), maxInterval);
+        }
+    }
+}
@@ -19,6 +19,7 @@ import java.io.IOException;
 import java.text.MessageFormat;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
@@ -52,6 +53,7 @@ import com.asakusafw.yaess.jobqueue.client.JobStatus;
 /**
  * An implementation of {@link HadoopScript} using Job Queue client.
  * @since 0.2.6
+ * @version 0.10.5
  */
 public class QueueHadoopScriptHandler extends ExecutionScriptHandlerBase implements HadoopScriptHandler {
 
@@ -80,6 +82,8 @@ public class QueueHadoopScriptHandler extends ExecutionScriptHandlerBase impleme
 
     private volatile long pollingInterval;
 
+    private volatile Map<JobClient, JobStatusPoller> pollers;
+
     @Override
     protected void doConfigure(
             ServiceProfile<?> profile,
@@ -110,6 +114,13 @@ public class QueueHadoopScriptHandler extends ExecutionScriptHandlerBase impleme
         this.timeout = p.getTimeout();
         this.pollingInterval = p.getPollingInterval();
         this.clients = new JobClientProvider(p.getClients());
+        Map<JobClient, JobStatusPoller> map = new IdentityHashMap<>();
+        for (JobClient client : p.getClients()) {
+            map.put(client, new JobStatusPoller(
+                    client,
+                    p.getPollingInterval(), p.getMaxPollingInterval(), p.getLongPollingTimeout()));
+        }
+        this.pollers = map;
     }
 
     @Override
@@ -163,7 +174,12 @@ public class QueueHadoopScriptHandler extends ExecutionScriptHandlerBase impleme
             try {
                 JobStatus.Kind lastKind = JobStatus.Kind.INITIALIZED;
                 while (true) {
-                    JobStatus status = poll(context, info);
+                    JobStatus status = poll(context, info, lastKind);
+                    if (status == null) {
+                        // not yet obtained
+                        monitor.checkCancelled();
+                        continue;
+                    }
                     JobStatus.Kind currentKind = status.getKind();
                     if (lastKind.compareTo(currentKind) < 0) {
                         // progressed
@@ -190,9 +206,9 @@ public class QueueHadoopScriptHandler extends ExecutionScriptHandlerBase impleme
                     }
                     lastKind = currentKind;
                     monitor.checkCancelled();
-                    Thread.sleep(pollingInterval);
                 }
             } finally {
+                pollers.get(info.client).release(info.id);
                 long end = System.currentTimeMillis();
                 YSLOG.info("I01006",
                         info.script.getBatchId(),
@@ -375,11 +391,16 @@ public class QueueHadoopScriptHandler extends ExecutionScriptHandlerBase impleme
                 end - start);
     }
 
-    private JobStatus poll(ExecutionContext context, JobInfo info) throws IOException, InterruptedException {
+    private JobStatus poll(
+            ExecutionContext context,
+            JobInfo info,
+            JobStatus.Kind lastKind) throws IOException, InterruptedException {
         assert context != null;
         assert info != null;
+        assert lastKind != null;
         try {
-            return info.client.getStatus(info.id);
+            // the shared poller wakes us up as soon as the job status was changed
+            return pollers.get(info.client).waitForUpdate(info.id, lastKind, pollingInterval);
         } catch (IOException e) {
             YSLOG.error(e, "E01003",
                     info.script.getBatchId(),
@@ -30,6 +30,12 @@ import java.security.NoSuchAlgorithmException;
 import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
 import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import javax.net.ssl.SSLContext;
@@ -52,6 +58,7 @@ import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.DefaultHttpClient;
 import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.util.EntityUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -71,6 +78,7 @@ import com.google.gson.annotations.SerializedName;
 /**
  * An implementation of {@link JobClient} via HTTP(S) connections.
  * @since 0.2.6
+ * @version 0.10.5
  */
 public class HttpJobClient implements JobClient {
 
@@ -96,6 +104,8 @@ public class HttpJobClient implements JobClient {
 
     private final HttpClient http;
 
+    private volatile boolean batchStatusUnsupported;
+
     /**
      * Creates a new instance.
      * @param baseUri the target base URL
@@ -227,6 +237,73 @@ public class HttpJobClient implements JobClient {
         }
     }
 
+    /**
+     * Obtains and returns the information of the individual jobs at once.
+     * This sends {@code POST <base-uri>/jobs/status} with {@code {"jrids": [...], "wait": <ms>}}, and then
+     * the server must respond {@code {"jobs": [<status>...]}}.
+     * The jobs which are missing or invalid in the response are just omitted from the results.
+     * If the server does not support the request, this obtains each job information one by one instead.
+     */
+    @Override
+    public Map<JobId, JobStatus> getStatus(
+            Collection<? extends JobId> ids, long waitMillis) throws IOException, InterruptedException {
+        if (ids == null) {
+            throw new IllegalArgumentException("ids must not be null"); //$NON-NLS-1$
+        }
+        if (batchStatusUnsupported || (ids.size() <= 1 && waitMillis <= 0)) {
+            return JobClient.super.getStatus(ids, waitMillis);
+        }
+        HttpPost request = new HttpPost();
+        URI uri = createUri("jobs/status");
+        request.setURI(uri);
+        request.setEntity(createEntity(new BatchStatusRequest(ids, waitMillis)));
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Obtaining information about jobs: method=post, uri={}, jobs={}", uri, ids.size());
+        }
+        HttpResponse response = http.execute(request);
+        int code = response.getStatusLine().getStatusCode();
+        if (code == HttpStatus.SC_OK) {
+            BatchStatusResponse content = extractContent(BatchStatusResponse.class, request, response);
+            Map<String, JobStatus> statusMap = new HashMap<>();
+            if (content.jobs != null) {
+                for (JobStatus status : content.jobs) {
+                    if (status != null && status.getJobId() != null) {
+                        statusMap.put(status.getJobId(), status);
+                    }
+                }
+            }
+            Map<JobId, JobStatus> results = new LinkedHashMap<>();
+            for (JobId id : ids) {
+                JobStatus status = statusMap.get(id.getToken());
+                if (status == null) {
+                    LOG.debug("Job status was not specified: {} ({})", id.getToken(), uri);
+                    continue;
+                }
+                try {
+                    validateJobStatus(request, status);
+                } catch (IOException e) {
+                    LOG.debug("Job status was not valid: {} ({})", id.getToken(), uri, e);
+                    continue;
+                }
+                results.put(id, status);
+            }
+            return results;
+        } else if (code == HttpStatus.SC_NOT_FOUND
+                || code == HttpStatus.SC_METHOD_NOT_ALLOWED
+                || code == HttpStatus.SC_NOT_IMPLEMENTED) {
+            LOG.debug("Server does not support obtaining multiple job status at once: {}", uri);
+            EntityUtils.consume(response.getEntity());
+            batchStatusUnsupported = true;
+            return JobClient.super.getStatus(ids, waitMillis);
+        } else {
+            throw toException(request, response, MessageFormat.format(
+                    "Failed to obtain the job status: {0} ({1})",
+                    ids,
+                    request.getURI()));
+        }
+    }
+
     @Override
     public void submit(JobId id) throws IOException, InterruptedException {
         if (id == null) {
@@ -264,6 +341,13 @@ public class HttpJobClient implements JobClient {
         assert request != null;
         assert response != null;
         JobStatus status = extractContent(JobStatus.class, request, response);
+        validateJobStatus(request, status);
+        return status;
+    }
+
+    private static void validateJobStatus(HttpUriRequest request, JobStatus status) throws IOException {
+        assert request != null;
+        assert status != null;
         if (status.getKind() == null) {
             throw new IOException(MessageFormat.format(
                     "status was not specified: {0}",
@@ -279,7 +363,6 @@ public class HttpJobClient implements JobClient {
                     "exit code was not specified: {0}",
                     request.getURI()));
         }
-        return status;
     }
 
     private <T> T extractContent(Class<T> type, HttpUriRequest request, HttpResponse response) throws IOException {
@@ -352,9 +435,9 @@ public class HttpJobClient implements JobClient {
                 status.getErrorMessage()));
     }
 
-    private HttpEntity createEntity(JobScript script) {
-        assert script != null;
-        String json = GSON_BUILDER.create().toJson(script);
+    private HttpEntity createEntity(Object content) {
+        assert content != null;
+        String json = GSON_BUILDER.create().toJson(content);
         LOG.trace("request: {}", json);
         return new StringEntity(json, CONTENT_TYPE);
     }
@@ -366,6 +449,33 @@ public class HttpJobClient implements JobClient {
                 baseUri);
     }
 
+    private static final class BatchStatusRequest {
+
+        @SerializedName("jrids")
+        final List<String> jobIds;
+
+        @SerializedName("wait")
+        final long waitMillis;
+
+        BatchStatusRequest(Collection<? extends JobId> ids, long waitMillis) {
+            this.jobIds = new ArrayList<>();
+            for (JobId id : ids) {
+                jobIds.add(id.getToken());
+            }
+            this.waitMillis = Math.max(waitMillis, 0);
+        }
+    }
+
+    private static final class BatchStatusResponse {
+
+        @SerializedName("jobs")
+        List<JobStatus> jobs;
+
+        BatchStatusResponse() {
+            return;
+        }
+    }
+
     private static final class JobStatusKindAdapter implements JsonDeserializer<JobStatus.Kind> {
 
         JobStatusKindAdapter() {
@@ -16,10 +16,14 @@
 package com.asakusafw.yaess.jobqueue.client;
 
 import java.io.IOException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * An abstract interface of job queue client.
  * @since 0.2.6
+ * @version 0.10.5
  */
 public interface JobClient {
 
@@ -51,4 +55,32 @@ public interface JobClient {
      * @throws IllegalArgumentException if some parameters were {@code null}
      */
     JobStatus getStatus(JobId id) throws IOException, InterruptedException;
+
+    /**
+     * Obtains and returns the information of the individual jobs at once.
+     * If the {@code waitMillis} is positive, the server may defer the response until the status of any jobs
+     * was changed or the duration was elapsed.
+     * Implementations may omit jobs whose information is not available from the results,
+     * so that the clients can obtain their information individually by {@link #getStatus(JobId)}.
+     * This default implementation just obtains each job information one by one, and ignores {@code waitMillis}.
+     * @param ids the target job IDs
+     * @param waitMillis the max duration which the server can defer the response (ms), or {@code 0} to respond
+     *     immediately
+     * @return the corresponded information for each job ID, which may not contain some of the target jobs
+     * @throws IOException if failed to obtain the information
+     * @throws InterruptedException if interrupted
+     * @throws IllegalArgumentException if some parameters were {@code null}
+     * @since 0.10.5
+     */
+    default Map<JobId, JobStatus> getStatus(
+            Collection<? extends JobId> ids, long waitMillis) throws IOException, InterruptedException {
+        if (ids == null) {
+            throw new IllegalArgumentException("ids must not be null"); //$NON-NLS-1$
+        }
+        Map<JobId, JobStatus> results = new LinkedHashMap<>();
+        for (JobId id : ids) {
+            results.put(id, getStatus(id));
+        }
+        return results;
+    }
 }
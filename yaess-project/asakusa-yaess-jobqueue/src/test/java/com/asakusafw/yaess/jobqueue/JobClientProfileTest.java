@@ -54,6 +54,8 @@ public class JobClientProfileTest {
         assertThat(profile.getPrefix(), is("testing"));
         assertThat(profile.getTimeout(), is(JobClientProfile.DEFAULT_TIMEOUT));
         assertThat(profile.getPollingInterval(), is(JobClientProfile.DEFAULT_POLLING_INTERVAL));
+        assertThat(profile.getMaxPollingInterval(), is(JobClientProfile.DEFAULT_POLLING_INTERVAL));
+        assertThat(profile.getLongPollingTimeout(), is(JobClientProfile.DEFAULT_LONG_POLLING_TIMEOUT));
         List<JobClient> clients = profile.getClients();
         assertThat(clients.size(), is(1));
         assertThat(clients.get(0), instanceOf(HttpJobClient.class));
@@ -77,6 +79,9 @@ public class JobClientProfileTest {
                         String.valueOf(JobClientProfile.DEFAULT_TIMEOUT + 1),
                         JobClientProfile.KEY_POLLING_INTERVAL,
                         String.valueOf(JobClientProfile.DEFAULT_POLLING_INTERVAL + 2),
+                        JobClientProfile.KEY_MAX_POLLING_INTERVAL,
+                        String.valueOf(JobClientProfile.DEFAULT_POLLING_INTERVAL + 3),
+                        JobClientProfile.KEY_LONG_POLLING_TIMEOUT, "4",
                         "1.url", "http://www.example.com/jobqueue/1",
                         "2.url", "http://www.example.com/jobqueue/2",
                         "2.user", "u2",
@@ -88,6 +93,8 @@ public class JobClientProfileTest {
         assertThat(profile.getPrefix(), is("testing"));
         assertThat(profile.getTimeout(), is(JobClientProfile.DEFAULT_TIMEOUT + 1));
         assertThat(profile.getPollingInterval(), is(JobClientProfile.DEFAULT_POLLING_INTERVAL + 2));
+        assertThat(profile.getMaxPollingInterval(), is(JobClientProfile.DEFAULT_POLLING_INTERVAL + 3));
+        assertThat(profile.getLongPollingTimeout(), is(4L));
         List<JobClient> clients = profile.getClients();
         assertThat(clients.size(), is(2));
         assertThat(clients.get(0), instanceOf(HttpJobClient.class));
@@ -209,6 +216,43 @@ public class JobClientProfileTest {
         JobClientProfile.convert(original);
     }
 
+    /**
+     * invalid max interval.
+     * @throws Exception if failed
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void convert_invalid_max_interval() throws Exception {
+        ServiceProfile<?> original = new ServiceProfile<HadoopScriptHandler>(
+                "testing",
+                QueueHadoopScriptHandler.class,
+                map(new String[] {
+                        JobClientProfile.KEY_POLLING_INTERVAL, "100",
+                        JobClientProfile.KEY_MAX_POLLING_INTERVAL, "99",
+                        "1.url", "http://www.example.com/jobqueue/",
+                }),
+                new ProfileContext(getClass().getClassLoader(), new VariableResolver(map(new String[] {
+                }))));
+        JobClientProfile.convert(original);
+    }
+
+    /**
+     * invalid long polling timeout.
+     * @throws Exception if failed
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void convert_invalid_long_polling_timeout() throws Exception {
+        ServiceProfile<?> original = new ServiceProfile<HadoopScriptHandler>(
+                "testing",
+                QueueHadoopScriptHandler.class,
+                map(new String[] {
+                        JobClientProfile.KEY_LONG_POLLING_TIMEOUT, "-1",
+                        "1.url", "http://www.example.com/jobqueue/",
+                }),
+                new ProfileContext(getClass().getClassLoader(), new VariableResolver(map(new String[] {
+                }))));
+        JobClientProfile.convert(original);
+    }
+
     /**
      * missing client.
      * @throws Exception if failed
@@ -0,0 +1,308 @@
+/**
+ * Copyright 2011-2021 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.yaess.jobqueue;
+
+import static com.asakusafw.yaess.jobqueue.client.JobStatus.Kind.*;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import com.asakusafw.yaess.jobqueue.client.JobClient;
+import com.asakusafw.yaess.jobqueue.client.JobId;
+import com.asakusafw.yaess.jobqueue.client.JobScript;
+import com.asakusafw.yaess.jobqueue.client.JobStatus;
+
+/**
+ * Test for {@link JobStatusPoller}.
+ */
+public class JobStatusPollerTest {
+
+    /**
+     * simple case.
+     * @throws Exception if failed
+     */
+    @Test
+    public void simple() throws Exception {
+        MockJobClient client = new MockJobClient();
+        JobId id = new JobId("a");
+        client.set(id, RUNNING);
+        JobStatusPoller poller = new JobStatusPoller(client, 10, 10, 0);
+        try {
+            JobStatus status = poller.waitForUpdate(id, INITIALIZED, 10000);
+            assertThat(status.getKind(), is(RUNNING));
+
+            client.set(id, COMPLETED);
+            status = poller.waitForUpdate(id, RUNNING, 10000);
+            assertThat(status.getKind(), is(COMPLETED));
+        } finally {
+            poller.release(id);
+        }
+    }
+
+    /**
+     * timed out.
+     * @throws Exception if failed
+     */
+    @Test
+    public void timeout() throws Exception {
+        MockJobClient client = new MockJobClient();
+        JobId id = new JobId("a");
+        client.set(id, RUNNING);
+        JobStatusPoller poller = new JobStatusPoller(client, 10, 10, 0);
+        try {
+            JobStatus status = poller.waitForUpdate(id, RUNNING, 100);
+            assertThat(status, is(notNullValue()));
+            assertThat(status.getKind(), is(RUNNING));
+        } finally {
+            poller.release(id);
+        }
+    }
+
+    /**
+     * status of multiple jobs are obtained in the same request.
+     * @throws Exception if failed
+     */
+    @Test
+    public void batch() throws Exception {
+        MockJobClient client = new MockJobClient();
+        List<JobId> ids = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            JobId id = new JobId(String.valueOf(i));
+            client.set(id, RUNNING);
+            ids.add(id);
+        }
+        JobStatusPoller poller = new JobStatusPoller(client, 100, 100, 0);
+        ExecutorService executor = Executors.newFixedThreadPool(ids.size());
+        try {
+            List<Future<JobStatus>> futures = new ArrayList<>();
+            for (JobId id : ids) {
+                futures.add(executor.submit(() -> poller.waitForUpdate(id, RUNNING, 10000)));
+            }
+            Thread.sleep(300);
+            for (JobId id : ids) {
+                client.set(id, COMPLETED);
+            }
+            for (Future<JobStatus> future : futures) {
+                assertThat(future.get().getKind(), is(COMPLETED));
+            }
+            assertThat(client.maxBatchSize, is(greaterThan(1)));
+        } finally {
+            executor.shutdownNow();
+            for (JobId id : ids) {
+                poller.release(id);
+            }
+        }
+    }
+
+    /**
+     * failed to obtain status.
+     * @throws Exception if failed
+     */
+    @Test(expected = IOException.class)
+    public void error() throws Exception {
+        MockJobClient client = new MockJobClient();
+        JobId id = new JobId("a");
+        JobStatusPoller poller = new JobStatusPoller(client, 10, 10, 0);
+        try {
+            poller.waitForUpdate(id, INITIALIZED, 10000);
+        } finally {
+            poller.release(id);
+        }
+    }
+
+    /**
+     * the request for multiple jobs was failed, and then each job is polled individually.
+     * @throws Exception if failed
+     */
+    @Test
+    public void batch_error() throws Exception {
+        batch_partial(true);
+    }
+
+    /**
+     * the response for multiple jobs lacks some jobs, and then they are polled individually.
+     * @throws Exception if failed
+     */
+    @Test
+    public void batch_missing() throws Exception {
+        batch_partial(false);
+    }
+
+    private void batch_partial(boolean failBatch) throws Exception {
+        MockJobClient client = new MockJobClient();
+        JobId a = new JobId("a");
+        JobId b = new JobId("b");
+        client.set(a, RUNNING);
+        client.set(b, RUNNING);
+        JobStatusPoller poller = new JobStatusPoller(client, 100, 100, 0);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<JobStatus> fa = executor.submit(() -> poller.waitForUpdate(a, INITIALIZED, 10000));
+            Future<JobStatus> fb = executor.submit(() -> poller.waitForUpdate(b, INITIALIZED, 10000));
+            assertThat(fa.get().getKind(), is(RUNNING));
+            assertThat(fb.get().getKind(), is(RUNNING));
+
+            client.failBatch = failBatch;
+            client.set(a, COMPLETED);
+            client.statusMap.remove(b);
+            fa = executor.submit(() -> poller.waitForUpdate(a, RUNNING, 10000));
+            fb = executor.submit(() -> poller.waitForUpdate(b, RUNNING, 10000));
+            try {
+                fb.get();
+                fail();
+            } catch (ExecutionException e) {
+                assertThat(e.getCause(), is(instanceOf(IOException.class)));
+            }
+            assertThat(fa.get().getKind(), is(COMPLETED));
+            assertThat(client.maxBatchSize, is(greaterThan(1)));
+        } finally {
+            executor.shutdownNow();
+            poller.release(a);
+            poller.release(b);
+        }
+    }
+
+    /**
+     * new jobs do not wait for the running long polling request.
+     * @throws Exception if failed
+     */
+    @Test
+    public void long_polling_new_job() throws Exception {
+        MockJobClient client = new MockJobClient();
+        client.deferResponses = true;
+        JobId a = new JobId("a");
+        JobId b = new JobId("b");
+        client.set(a, RUNNING);
+        client.set(b, RUNNING);
+        JobStatusPoller poller = new JobStatusPoller(client, 10, 10, 5000);
+        ExecutorService executor = Executors.newFixedThreadPool(1);
+        try {
+            assertThat(poller.waitForUpdate(a, INITIALIZED, 10000).getKind(), is(RUNNING));
+
+            // starts a long polling request
+            executor.submit(() -> poller.waitForUpdate(a, RUNNING, 10000));
+            Thread.sleep(200);
+
+            long start = System.currentTimeMillis();
+            assertThat(poller.waitForUpdate(b, INITIALIZED, 10000).getKind(), is(RUNNING));
+            assertThat(System.currentTimeMillis() - start, is(lessThan(2500L)));
+        } finally {
+            executor.shutdownNow();
+            poller.release(a);
+            poller.release(b);
+        }
+    }
+
+    /**
+     * restarts polling after all jobs were released.
+     * @throws Exception if failed
+     */
+    @Test
+    public void restart() throws Exception {
+        MockJobClient client = new MockJobClient();
+        JobId a = new JobId("a");
+        JobId b = new JobId("b");
+        client.set(a, COMPLETED);
+        client.set(b, COMPLETED);
+        JobStatusPoller poller = new JobStatusPoller(client, 10, 10, 0);
+        try {
+            assertThat(poller.waitForUpdate(a, INITIALIZED, 10000).getKind(), is(COMPLETED));
+        } finally {
+            poller.release(a);
+        }
+        Thread.sleep(100);
+        try {
+            assertThat(poller.waitForUpdate(b, INITIALIZED, 10000).getKind(), is(COMPLETED));
+        } finally {
+            poller.release(b);
+        }
+    }
+
+    private static class MockJobClient implements JobClient {
+
+        final Map<JobId, JobStatus> statusMap = new ConcurrentHashMap<>();
+
+        volatile int maxBatchSize;
+
+        volatile boolean failBatch;
+
+        volatile boolean deferResponses;
+
+        MockJobClient() {
+            return;
+        }
+
+        void set(JobId id, JobStatus.Kind kind) {
+            JobStatus status = new JobStatus();
+            status.setKind(kind);
+            status.setJobId(id.getToken());
+            status.setExitCode(0);
+            statusMap.put(id, status);
+        }
+
+        @Override
+        public JobId register(JobScript script) throws IOException, InterruptedException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void submit(JobId id) throws IOException, InterruptedException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public JobStatus getStatus(JobId id) throws IOException, InterruptedException {
+            JobStatus status = statusMap.get(id);
+            if (status == null) {
+                throw new IOException();
+            }
+            return status;
+        }
+
+        @Override
+        public Map<JobId, JobStatus> getStatus(
+                Collection<? extends JobId> ids, long waitMillis) throws IOException, InterruptedException {
+            maxBatchSize = Math.max(maxBatchSize, ids.size());
+            if (failBatch && ids.size() > 1) {
+                throw new IOException();
+            }
+            if (deferResponses && waitMillis > 0) {
+                Thread.sleep(waitMillis);
+            }
+            Map<JobId, JobStatus> results = new LinkedHashMap<>();
+            for (JobId id : ids) {
+                JobStatus status = statusMap.get(id);
+                if (status != null) {
+                    results.put(id, status);
+                }
+            }
+            return results;
+        }
+    }
+}
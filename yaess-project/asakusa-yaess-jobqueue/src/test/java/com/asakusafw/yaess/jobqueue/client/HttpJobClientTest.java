@@ -21,7 +21,9 @@ import static org.junit.Assert.*;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.URL;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Map;
 
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpEntityEnclosingRequest;
@@ -49,6 +51,7 @@ import org.slf4j.LoggerFactory;
 
 import com.asakusafw.yaess.core.ExecutionPhase;
 import com.google.gson.Gson;
+import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
@@ -400,6 +403,84 @@ public class HttpJobClientTest {
         }
     }
 
+    /**
+     * status of multiple jobs.
+     * @throws Exception if failed
+     */
+    @Test
+    public void status_batch() throws Exception {
+        JsonObject r1 = new JsonObject();
+        r1.addProperty("status", "running");
+        r1.addProperty("jrid", "a");
+        JsonObject r2 = new JsonObject();
+        r2.addProperty("status", "completed");
+        r2.addProperty("jrid", "b");
+        r2.addProperty("exitCode", 0);
+        JsonArray jobs = new JsonArray();
+        jobs.add(r1);
+        jobs.add(r2);
+        JsonObject result = new JsonObject();
+        result.add("jobs", jobs);
+        JsonHandler handler = new JsonHandler(result);
+        server.register("/jobs/status", handler);
+
+        HttpJobClient client = new HttpJobClient(baseUrl);
+
+        Map<JobId, JobStatus> status = client.getStatus(Arrays.asList(new JobId("a"), new JobId("b")), 100);
+        assertThat(status.keySet(), hasSize(2));
+        assertThat(status.get(new JobId("a")).getKind(), is(JobStatus.Kind.RUNNING));
+        assertThat(status.get(new JobId("b")).getKind(), is(JobStatus.Kind.COMPLETED));
+
+        assertThat(handler.requestElement, is(notNullValue()));
+        assertThat(handler.requestElement.get("jrids").getAsJsonArray().size(), is(2));
+        assertThat(handler.requestElement.get("wait").getAsLong(), is(100L));
+    }
+
+    /**
+     * status of multiple jobs, but some jobs are missing in the response.
+     * @throws Exception if failed
+     */
+    @Test
+    public void status_batch_missing() throws Exception {
+        JsonObject r1 = new JsonObject();
+        r1.addProperty("status", "running");
+        r1.addProperty("jrid", "a");
+        JsonArray jobs = new JsonArray();
+        jobs.add(r1);
+        JsonObject result = new JsonObject();
+        result.add("jobs", jobs);
+        server.register("/jobs/status", new JsonHandler(result));
+
+        HttpJobClient client = new HttpJobClient(baseUrl);
+        Map<JobId, JobStatus> status = client.getStatus(Arrays.asList(new JobId("a"), new JobId("b")), 0);
+        assertThat(status.keySet(), contains(new JobId("a")));
+        assertThat(status.get(new JobId("a")).getKind(), is(JobStatus.Kind.RUNNING));
+    }
+
+    /**
+     * status of multiple jobs, but the server does not support it.
+     * @throws Exception if failed
+     */
+    @Test
+    public void status_batch_unsupported() throws Exception {
+        server.register("/jobs/status", new ErrorHandler(HttpStatus.SC_NOT_FOUND, null));
+        JsonObject r1 = new JsonObject();
+        r1.addProperty("status", "running");
+        r1.addProperty("jrid", "a");
+        server.register("/jobs/a", new JsonHandler(r1));
+        JsonObject r2 = new JsonObject();
+        r2.addProperty("status", "waiting");
+        r2.addProperty("jrid", "b");
+        server.register("/jobs/b", new JsonHandler(r2));
+
+        HttpJobClient client = new HttpJobClient(baseUrl);
+
+        Map<JobId, JobStatus> status = client.getStatus(Arrays.asList(new JobId("a"), new JobId("b")), 0);
+        assertThat(status.keySet(), hasSize(2));
+        assertThat(status.get(new JobId("a")).getKind(), is(JobStatus.Kind.RUNNING));
+        assertThat(status.get(new JobId("b")).getKind(), is(JobStatus.Kind.WAITING));
+    }
+
     /**
      * submit.
      * @throws Exception if failed
@@ -23,7 +23,6 @@ import java.util.Map;
 import java.util.NavigableMap;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -31,6 +30,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.asakusafw.yaess.basic.JobExecutor;
+import com.asakusafw.yaess.basic.ThreadedJobExecutor;
 import com.asakusafw.yaess.core.ExecutionContext;
 import com.asakusafw.yaess.core.ExecutionMonitor;
 import com.asakusafw.yaess.core.ExecutionScriptHandler;
@@ -42,6 +42,7 @@ import com.asakusafw.yaess.core.util.PropertiesUtil;
 /**
  * An implementation of {@link ParallelJobExecutor} which use multiple threads for each resource.
  * @since 0.2.3
+ * @version 0.10.5
  */
 public class ParallelJobExecutor implements JobExecutor {
 
@@ -76,7 +77,7 @@ public class ParallelJobExecutor implements JobExecutor {
         if (threadConfig == null) {
             throw new IllegalArgumentException("threadConfig must not be null"); //$NON-NLS-1$
         }
-        this.defaultExecutor = Executors.newFixedThreadPool(defaultResuorce, new ThreadFactory() {
+        this.defaultExecutor = ThreadedJobExecutor.newPriorityThreadPool(defaultResuorce, new ThreadFactory() {
             private final AtomicInteger count = new AtomicInteger();
             @Override
             public Thread newThread(Runnable r) {
@@ -97,7 +98,7 @@ public class ParallelJobExecutor implements JobExecutor {
                         name,
                         value));
             }
-            map.put(name, Executors.newFixedThreadPool(value, new ThreadFactory() {
+            map.put(name, ThreadedJobExecutor.newPriorityThreadPool(value, new ThreadFactory() {
                 private final AtomicInteger count = new AtomicInteger();
                 @Override
                 public Thread newThread(Runnable r) {
@@ -187,6 +188,16 @@ public class ParallelJobExecutor implements JobExecutor {
             ExecutionContext context,
             Job job,
             BlockingQueue<Executing> doneQueue) throws InterruptedException, IOException {
+        return submit(monitor, context, job, doneQueue, 0L);
+    }
+
+    @Override
+    public Executing submit(
+            ExecutionMonitor monitor,
+            ExecutionContext context,
+            Job job,
+            BlockingQueue<Executing> doneQueue,
+            long priority) throws InterruptedException, IOException {
         if (monitor == null) {
             throw new IllegalArgumentException("monitor must not be null"); //$NON-NLS-1$
         }
@@ -219,7 +230,7 @@ public class ParallelJobExecutor implements JobExecutor {
                     job.getServiceLabel(),
                     resourceId);
         }
-        Executing executing = new Executing(monitor, context, job, doneQueue);
+        Executing executing = new Executing(monitor, context, job, doneQueue, priority);
         executor.execute(executing);
         return executing;
     }
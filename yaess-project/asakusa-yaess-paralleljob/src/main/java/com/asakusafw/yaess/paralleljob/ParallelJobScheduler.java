@@ -29,6 +29,7 @@ import com.asakusafw.yaess.core.ServiceProfile;
 /**
  * Basic implementation of {@link JobScheduler}.
  * @since 0.2.3
+ * @version 0.10.5
  */
 public class ParallelJobScheduler extends AbstractJobScheduler {
 
@@ -38,6 +39,7 @@ public class ParallelJobScheduler extends AbstractJobScheduler {
 
     @Override
     protected void doConfigure(ServiceProfile<?> profile) throws InterruptedException, IOException {
+        super.doConfigure(profile);
         try {
             this.executor = ParallelJobExecutor.extract(
                     profile.getPrefix(),